@@ -1,6 +1,10 @@
 import Controller.AdminController;
 import Controller.UserController;
 import Domain.*;
+import Exception.DatabaseException;
+import Exception.EntityAlreadyExistsException;
+import Exception.EntityNotFoundException;
+import Exception.FileRepositoryException;
 import Parsers.*;
 import Presentation.LoginUI;
 import Presentation.PresentationAdmin;
@@ -11,10 +15,12 @@ import org.junit.jupiter.api.Test;
 import SQLParser.*;
 
 import java.io.IOException;
+import java.lang.reflect.Proxy;
 import java.nio.file.*;
 import javax.sql.DataSource;
 import java.nio.file.Paths;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.time.LocalDate;
@@ -23,6 +29,8 @@ import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -535,5 +543,1110 @@ public class ApplicationTest {
         assertTrue(sortedEntries.contains(Map.entry(cookingActivity, 8)), "Cooking Workshop should be present with 8 participants.");
     }
 
-}
+    @Test
+    public void testLogStructuredFileRepositoryReplaysAndCompacts() throws IOException {
+        Path logFile = Files.createTempFile("users", ".log");
+        try {
+            LogStructuredFileRepository<User> repo = new LogStructuredFileRepository<>(logFile.toString(), userParser);
+            repo.create(new User(1, "JohnDoe", "password123", Role.USER));
+            repo.create(new User(2, "JaneDoe", "password456", Role.USER));
+            repo.create(new User(3, "Admin", "admin", Role.ADMIN));
+            repo.update(new User(2, "JaneSmith", "password456", Role.USER));
+            repo.delete(3);
+            assertEquals(5, Files.readAllLines(logFile).size(), "Every mutation should append one record.");
+
+            repo.compact();
+            assertEquals(2, Files.readAllLines(logFile).size(), "Compaction should keep only live records.");
+            repo.close();
+
+            LogStructuredFileRepository<User> reopened = new LogStructuredFileRepository<>(logFile.toString(), userParser);
+            assertEquals(2, reopened.findAll().size(), "Reopened repository should contain the live entities.");
+            assertEquals("JaneSmith", reopened.read(2).getUsername(), "Reopened repository should see the latest version.");
+            reopened.close();
+        } finally {
+            Files.deleteIfExists(logFile);
+        }
+    }
+
+    @Test
+    public void testCreateAllAddsEverythingOrNothing() throws IOException {
+        Path file = Files.createTempFile("users", ".csv");
+        try {
+            List<IRepository<User>> repos = List.of(
+                    new InMemoryRepo<>(),
+                    new InMemoryRepo<>(InMemoryRepo.Storage.PRIMITIVE),
+                    new FileRepository<>(file.toString(), userParser));
+
+            for (IRepository<User> repo : repos) {
+                repo.create(new User(3, "Admin", "admin", Role.ADMIN));
+                repo.createAll(List.of(
+                        new User(1, "JohnDoe", "password123", Role.USER),
+                        new User(2, "JaneDoe", "password456", Role.USER)));
+                assertEquals(3, repo.findAll().size(), "All entities in the batch should be created.");
+
+                assertThrows(RuntimeException.class, () -> repo.createAll(List.of(
+                        new User(4, "Guest", "guest", Role.USER),
+                        new User(3, "Duplicate", "admin", Role.ADMIN))));
+                assertEquals(3, repo.findAll().size(), "A failed batch should not create any entity.");
+
+                repo.deleteAll(List.of(1, 2));
+                assertEquals(1, repo.findAll().size(), "All entities in the batch should be deleted.");
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testFindPageContinuesAfterLastKey() {
+        for (InMemoryRepo.Storage storage : InMemoryRepo.Storage.values()) {
+            InMemoryRepo<User> repo = new InMemoryRepo<>(storage);
+            for (int id : new int[]{5, 1, 4, 2, 3, 6}) {
+                repo.create(new User(id, "user" + id, "password", Role.USER));
+            }
+            repo.delete(6);
+
+            List<User> firstPage = repo.findPage(null, 2, SortOrder.ASCENDING);
+            assertEquals(List.of(1, 2), firstPage.stream().map(User::getId).toList(), "First page should hold the lowest IDs.");
+
+            List<User> secondPage = repo.findPage(2, 2, SortOrder.ASCENDING);
+            assertEquals(List.of(3, 4), secondPage.stream().map(User::getId).toList(), "Next page should continue after the key.");
+
+            List<User> descending = repo.findPage(4, 10, SortOrder.DESCENDING);
+            assertEquals(List.of(3, 2, 1), descending.stream().map(User::getId).toList(), "Descending page should hold lower IDs.");
+
+            List<User> last = repo.findPage(null, 1, SortOrder.DESCENDING);
+            assertEquals(List.of(5), last.stream().map(User::getId).toList(), "Deleted IDs should not be paged.");
+
+            List<User> range = repo.findWhere(Query.where(Field.<User>id().between(2, 4)));
+            assertEquals(List.of(2, 3, 4), range.stream().map(User::getId).sorted().toList());
+        }
+    }
+
+    @Test
+    public void testFindWhereFiltersOrdersAndLimits() {
+        InMemoryRepo<User> repo = new InMemoryRepo<>();
+        for (int id = 1; id <= 6; id++) {
+            repo.create(new User(id, "user" + id, "password", id % 2 == 0 ? Role.ADMIN : Role.USER));
+        }
+        Field<User, Integer> id = Field.id();
+        Field<User, Role> role = new Field<>("role", User::getRole);
 
+        List<User> admins = repo.findWhere(Query.where(role.eq(Role.ADMIN))
+                .orderBy(id, SortOrder.DESCENDING).limit(2));
+        assertEquals(List.of(6, 4), admins.stream().map(User::getId).toList(), "Query should filter, order and limit.");
+
+        List<User> range = repo.findWhere(Query.where(id.between(2, 4), role.eq(Role.USER)));
+        assertEquals(List.of(3), range.stream().map(User::getId).toList(), "ID range and other conditions should both hold.");
+
+        Field<User, String> nickname = new Field<>("nickname", user -> user.getId() % 3 == 0 ? null : user.getUsername());
+        List<User> ascending = repo.findWhere(Query.<User>all().orderBy(nickname, SortOrder.ASCENDING));
+        assertEquals(List.of(1, 2, 4, 5, 3, 6), ascending.stream().map(User::getId).toList(), "Nulls should sort last.");
+        List<User> descending = repo.findWhere(Query.<User>all().orderBy(nickname, SortOrder.DESCENDING));
+        assertEquals(List.of(3, 6, 5, 4, 2, 1), descending.stream().map(User::getId).toList(), "Nulls should sort first.");
+    }
+
+    @Test
+    public void testCachingRepositoryServesReadsAndInvalidatesOnUpdate() {
+        InMemoryRepo<User> backing = new InMemoryRepo<>();
+        backing.create(new User(1, "JohnDoe", "password123", Role.USER));
+        CachingRepository<User> cache = new CachingRepository<>(backing, 10);
+
+        User first = cache.read(1);
+        assertSame(first, cache.read(1), "Second read should be served from the cache.");
+        assertEquals(1, (int) cache.getHitCount(), "One read should have hit the cache.");
+
+        User updated = new User(1, "JohnDoe", "newPassword", Role.USER);
+        cache.update(updated);
+        assertSame(updated, cache.read(1), "Update should invalidate the cached entity.");
+    }
+
+    @Test
+    public void testReadManySkipsMissingIds() throws IOException {
+        Path file = Files.createTempFile("users", ".csv");
+        try {
+            List<IRepository<User>> repos = List.of(
+                    new InMemoryRepo<>(),
+                    new InMemoryRepo<>(InMemoryRepo.Storage.PRIMITIVE),
+                    new FileRepository<>(file.toString(), userParser),
+                    new CachingRepository<>(new InMemoryRepo<>(), 10));
+
+            for (IRepository<User> repo : repos) {
+                repo.createAll(List.of(
+                        new User(1, "JohnDoe", "password123", Role.USER),
+                        new User(2, "JaneDoe", "password456", Role.USER)));
+                repo.read(1);
+
+                Map<Integer, User> found = repo.readMany(List.of(2, 7, 1));
+                assertEquals(List.of(2, 1), new ArrayList<>(found.keySet()), "Only existing IDs should be returned, in request order.");
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testBatchLoaderLoadsReferencesOnFirstAccess() {
+        CachingRepository<User> repo = new CachingRepository<>(new InMemoryRepo<>(), 10);
+        repo.createAll(List.of(
+                new User(1, "JohnDoe", "password123", Role.USER),
+                new User(2, "JaneDoe", "password456", Role.USER)));
+
+        BatchLoader<User> loader = new BatchLoader<>(repo);
+        LazyReference<User> john;
+        LazyReference<User> jane;
+        BatchLoader.Scope batches = BatchLoader.open();
+        try {
+            john = loader.reference(1);
+            jane = loader.reference(2);
+        } finally {
+            batches.close();
+        }
+        assertEquals(2, jane.getId(), "The ID should be known without loading.");
+        assertFalse(john.isLoaded(), "Nothing should be loaded before the first access.");
+        assertEquals(0, (int) repo.getMissCount(), "Nothing should be read before the first access.");
+
+        assertEquals("JohnDoe", john.get().getUsername());
+        assertEquals("JaneDoe", jane.get().getUsername());
+        assertEquals(2, (int) repo.getMissCount(), "Both references should be loaded by one batch.");
+        assertSame(john.get(), john.get(), "A loaded reference should keep its entity.");
+    }
+
+    @Test
+    public void testIdGeneratorsContinueAfterExistingIds() throws IOException {
+        IRepository<User> repo = new InMemoryRepo<>();
+        repo.create(new User(5, "JohnDoe", "password123", Role.USER));
+
+        IdGenerator atomic = new AtomicIdGenerator(repo);
+        assertEquals(6, atomic.nextId());
+        atomic.observe(10);
+        assertEquals(11, atomic.nextId(), "Observed IDs should not be handed out.");
+
+        Path file = Files.createTempFile("users", ".id");
+        Files.delete(file);
+        try {
+            IdGenerator first = new FileIdGenerator(file.toString(), repo, 3);
+            assertEquals(6, first.nextId());
+            assertEquals(7, first.nextId());
+
+            IdGenerator restarted = new FileIdGenerator(file.toString(), new InMemoryRepo<User>(), 3);
+            assertEquals(9, restarted.nextId(), "A restarted generator should continue after the reserved block.");
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testSecondaryIndexesFollowWrites() throws IOException {
+        Field<User, String> username = new Field<>("username", User::getUsername);
+        Field<User, Integer> balance = new Field<>("balance", user -> (int) user.getBalance());
+        Path file = Files.createTempFile("users", ".csv");
+        try {
+            List<IRepository<User>> repos = List.of(
+                    new InMemoryRepo<>(),
+                    new InMemoryRepo<>(InMemoryRepo.Storage.PRIMITIVE),
+                    new FileRepository<>(file.toString(), userParser));
+
+            for (IRepository<User> repo : repos) {
+                repo.createUniqueIndex(username, IndexType.HASH);
+                repo.createIndex(balance, IndexType.SORTED);
+
+                User john = new User(1, "JohnDoe", "password123", Role.USER);
+                repo.createAll(List.of(john, new User(2, "JaneDoe", "password456", Role.USER)));
+                assertThrows(EntityAlreadyExistsException.class,
+                        () -> repo.create(new User(3, "JohnDoe", "password789", Role.USER)),
+                        "A taken value of a unique index should be rejected.");
+                assertThrows(EntityAlreadyExistsException.class,
+                        () -> repo.createAll(List.of(new User(3, "Newcomer", "password789", Role.USER),
+                                new User(4, "JaneDoe", "password789", Role.USER))),
+                        "A batch taking a value of a unique index should be rejected.");
+                assertEquals(List.of(), repo.findWhere(Query.where(username.eq("Newcomer"))),
+                        "A rejected batch should leave nothing behind.");
+                assertThrows(EntityNotFoundException.class, () -> repo.read(3));
+
+                john.setUsername("Johnny");
+                john.increaseBalance(50);
+                repo.update(john);
+                assertEquals(List.of(), repo.findWhere(Query.where(username.eq("JohnDoe"))));
+                assertEquals(List.of(john), repo.findWhere(Query.where(username.eq("Johnny"))));
+                assertEquals(List.of(john), repo.findWhere(Query.where(balance.gt(10))));
+
+                repo.delete(1);
+                repo.create(new User(3, "Johnny", "password789", Role.USER));
+                assertEquals(1, repo.findWhere(Query.where(username.eq("Johnny"))).size());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    public void testUsernamesAreUniqueIgnoringCase() {
+        InMemoryRepo<User> users = new InMemoryRepo<>();
+        UserService.migrate(users);
+        UserService service = new UserService(users);
+        service.addUser("1", "JohnDoe", "password123", Role.USER);
+
+        assertEquals(1, service.getUserByUsername("johndoe").getId(), "Lookup should ignore case.");
+        assertNull(service.getUserByUsername("JaneDoe"));
+        assertThrows(EntityAlreadyExistsException.class,
+                () -> service.addUser("2", "JOHNDOE", "password456", Role.USER),
+                "A username differing only in case should be rejected.");
+
+        service.updateUser("1", "Johnny", "password123", Role.USER);
+        assertNull(service.getUserByUsername("JohnDoe"), "The old username should be free after a rename.");
+        service.addUser("2", "johndoe", "password456", Role.USER);
+        assertEquals(2, service.getUserByUsername("JohnDoe").getId());
+    }
+
+    @Test
+    public void testUnitOfWorkCommitsOrRollsBackEveryStore() throws IOException {
+        Path csvFile = Files.createTempFile("users", ".csv");
+        Path logFile = Files.createTempFile("users", ".log");
+        try {
+            FileRepository<User> csvRepo = new FileRepository<>(csvFile.toString(), userParser);
+            LogStructuredFileRepository<User> logRepo = new LogStructuredFileRepository<>(logFile.toString(), userParser);
+            UnitOfWork unitOfWork = new UnitOfWork(csvRepo, logRepo);
+
+            assertThrows(IllegalStateException.class, () -> unitOfWork.run(() -> {
+                csvRepo.create(new User(1, "JohnDoe", "password123", Role.USER));
+                logRepo.create(new User(1, "JohnDoe", "password123", Role.USER));
+                throw new IllegalStateException("Checkout failed.");
+            }));
+            assertEquals(0, csvRepo.findAll().size(), "A rolled back create should be discarded.");
+            assertEquals(0, logRepo.findAll().size(), "A rolled back create should be discarded.");
+
+            unitOfWork.run(() -> {
+                csvRepo.create(new User(1, "JohnDoe", "password123", Role.USER));
+                csvRepo.create(new User(2, "JaneDoe", "password456", Role.USER));
+                logRepo.create(new User(1, "JohnDoe", "password123", Role.USER));
+                assertEquals(0, (int) csvFile.toFile().length(), "Writes should be held back until commit.");
+                assertEquals(0, (int) logFile.toFile().length(), "Writes should be held back until commit.");
+            });
+            assertEquals(2, Files.readAllLines(csvFile).size());
+            assertEquals(1, Files.readAllLines(logFile).size());
+            logRepo.close();
+        } finally {
+            Files.deleteIfExists(csvFile);
+            Files.deleteIfExists(logFile);
+        }
+    }
+
+    @Test
+    public void testBinaryFileRepositoryRoundTripsConvertedCsv() throws IOException {
+        Path csvFile = Files.createTempFile("tickets", ".csv");
+        Path binaryFile = Files.createTempFile("tickets", ".bin");
+        try {
+            Event concert = new Event(7, "Concert", "Arena", 100, EventType.ENTERTAINMENT, 10,
+                    LocalDateTime.of(2030, 6, 1, 20, 0), LocalDateTime.of(2030, 6, 1, 23, 0), 49.5);
+            User owner = new User(3, "JohnDoe", "password123", Role.USER);
+            FileRepository<Ticket> csvRepo = new FileRepository<>(csvFile.toString(), ticketParser);
+            csvRepo.create(new Ticket(1, concert, owner, "John Doe"));
+            csvRepo.create(new Ticket(2, concert, owner, "Jane Doe"));
+
+            assertEquals(2, FileRepository.convertCsvToBinary(csvFile.toString(), binaryFile.toString(),
+                    ticketParser, ticketParser));
+            FileRepository<Ticket> binaryRepo = FileRepository.binary(binaryFile.toString(), ticketParser);
+            Ticket ticket = binaryRepo.read(2);
+            assertEquals("Jane Doe", ticket.getParticipantName());
+            assertEquals(7, ticket.getEventId());
+            assertEquals("Arena", ticket.getEvent().getLocation());
+            assertEquals(LocalDateTime.of(2030, 6, 1, 23, 0), ((Event) ticket.getEvent()).getEndDate());
+            assertEquals("JohnDoe", ticket.getOwner().getUsername());
+
+            binaryRepo.delete(1);
+            binaryRepo.create(new Ticket(3, concert, owner, "Jim Doe"));
+            FileRepository<Ticket> reopened = FileRepository.binary(binaryFile.toString(), ticketParser);
+            assertEquals(2, reopened.findAll().size());
+            assertEquals("Jim Doe", reopened.read(3).getParticipantName());
+            assertTrue(binaryFile.toFile().length() < csvFile.toFile().length(),
+                    "Binary records should be smaller than CSV lines.");
+        } finally {
+            Files.deleteIfExists(csvFile);
+            Files.deleteIfExists(binaryFile);
+        }
+    }
+
+    @Test
+    public void testCsvParsersQuoteSeparatorsInFields() {
+        Activity activity = new Activity(4, "Tour", 20, "Old Town; Square",
+                EventType.CULTURAL, "Walk, talk and \"taste\" | eat", 15.5);
+        ActivitySchedule schedule = new ActivitySchedule(activity, LocalDate.of(2030, 5, 1),
+                LocalTime.of(10, 0), LocalTime.of(12, 30, 15), 20);
+        schedule.setId(9);
+        Booking booking = new Booking(2, LazyReference.of(schedule), "Doe | John", 3);
+
+        Booking parsed = bookingParser.parseFromCSV(bookingParser.toCSV(booking));
+        assertEquals(9, parsed.getScheduleId());
+        assertEquals("Doe | John", parsed.getCustomerName());
+        Activity parsedActivity = parsed.getSchedule().getActivity();
+        assertEquals("Old Town; Square", parsedActivity.getLocation());
+        assertEquals("Walk, talk and \"taste\" | eat", parsedActivity.getDescription());
+        assertEquals(LocalTime.of(12, 30, 15), parsed.getSchedule().getEndTime());
+
+        User user = new User(3, "JohnDoe", "password123", Role.USER);
+        Review review = new Review(5, user, activity, "Great; would go again", LocalDateTime.of(2024, 3, 1, 9, 5, 7, 250_000_000));
+        Review parsedReview = reviewParser.parseFromCSV(reviewParser.toCSV(review));
+        assertEquals(4, parsedReview.getReviewableEntity().getId());
+        assertEquals("Great; would go again", parsedReview.getComment());
+        assertEquals(LocalDateTime.of(2024, 3, 1, 9, 5, 7, 250_000_000), parsedReview.getReviewDate());
+
+        Event legacy = eventParser.parseFromCSV("Event,7,Concert,Arena,100,entertainment,10,2030-06-01T20:00,2030-06-01T23:00,49.99");
+        assertEquals(EventType.ENTERTAINMENT, legacy.getEventType());
+        assertEquals(LocalDateTime.of(2030, 6, 1, 20, 0), legacy.getStartDate());
+        assertTrue(legacy.getPrice() == 49.99, "Prices should parse to the nearest double.");
+    }
+
+    @Test
+    public void testNormalizedFilesReferToEntitiesById() throws IOException {
+        Path activityFile = Files.createTempFile("activities", ".csv");
+        Path scheduleFile = Files.createTempFile("schedules", ".csv");
+        Path bookingFile = Files.createTempFile("bookings", ".csv");
+        try {
+            IRepository<Activity> activityRepo = new FileRepository<>(activityFile.toString(), activityParser);
+            IRepository<ActivitySchedule> scheduleRepo = new FileRepository<>(scheduleFile.toString(),
+                    new NormalizedActivityScheduleParser(activityRepo));
+            Activity activity = new Activity(4, "Tour", 20, "Old Town", EventType.CULTURAL, "A long walk", 15.5);
+            activityRepo.create(activity);
+            ActivitySchedule schedule = new ActivitySchedule(activity, LocalDate.of(2030, 5, 1),
+                    LocalTime.of(10, 0), LocalTime.of(12, 0), 20);
+            schedule.setId(9);
+            scheduleRepo.create(schedule);
+            new FileRepository<>(bookingFile.toString(), new NormalizedBookingParser(scheduleRepo))
+                    .create(new Booking(2, LazyReference.of(schedule), "John Doe", 3));
+
+            assertEquals("2|9|John Doe|3", Files.readAllLines(bookingFile).get(0));
+
+            activityRepo.update(new Activity(4, "Tour", 20, "New Town", EventType.CULTURAL, "A long walk", 15.5));
+            IRepository<ActivitySchedule> reopenedSchedules = new FileRepository<>(scheduleFile.toString(),
+                    new NormalizedActivityScheduleParser(activityRepo));
+            Booking booking = new FileRepository<>(bookingFile.toString(), new NormalizedBookingParser(reopenedSchedules))
+                    .read(2);
+            assertEquals(9, booking.getScheduleId());
+            assertEquals("New Town", booking.getSchedule().getActivity().getLocation(),
+                    "The booking should see the current activity, not a copy.");
+        } finally {
+            Files.deleteIfExists(activityFile);
+            Files.deleteIfExists(scheduleFile);
+            Files.deleteIfExists(bookingFile);
+        }
+    }
+
+    @Test
+    public void testWriteAheadLogSurvivesCrashAndCheckpoints() throws Exception {
+        Path directory = Files.createTempDirectory("wal");
+        String usersFile = directory.resolve("users.csv").toString();
+        Path logFile = directory.resolve("users.csv.wal");
+        try {
+            FileRepository<User> repo = FileRepository.withWriteAheadLog(usersFile, userParser, 0);
+            List<Thread> writers = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                int first = t * 50;
+                writers.add(new Thread(() -> {
+                    for (int id = first; id < first + 50; id++) {
+                        repo.create(new User(id, "user" + id, "password", Role.USER));
+                    }
+                }));
+            }
+            for (Thread writer : writers) {
+                writer.start();
+            }
+            for (Thread writer : writers) {
+                writer.join();
+            }
+            repo.delete(7);
+            assertFalse(Files.exists(Paths.get(usersFile)), "Mutations should only be logged until a checkpoint.");
+
+            // A crash in the middle of a write leaves a torn record at the end of the log.
+            long intactSize = Files.size(logFile);
+            Files.write(logFile, new byte[]{0, 0, 0, 100, 1, 2, 3, 4, 5}, StandardOpenOption.APPEND);
+
+            FileRepository<User> recovered = FileRepository.withWriteAheadLog(usersFile, userParser, 0);
+            assertEquals(199, recovered.findAll().size());
+            assertNull(recovered.findAll().stream().filter(user -> user.getId() == 7).findAny().orElse(null));
+            assertEquals((int) intactSize, (int) Files.size(logFile), "The torn record should be cut off.");
+
+            recovered.begin();
+            recovered.update(new User(8, "renamed", "password", Role.USER));
+            recovered.commit();
+            assertEquals(199, Files.readAllLines(Paths.get(usersFile)).size());
+            assertEquals(0, (int) Files.size(logFile), "A checkpoint should empty the log.");
+            recovered.close();
+            repo.close();
+
+            FileRepository<User> reopened = FileRepository.withWriteAheadLog(usersFile, userParser, 0);
+            assertEquals("renamed", reopened.read(8).getUsername());
+            reopened.close();
+        } finally {
+            try (java.util.stream.Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    public void testFileRepositoryReloadsIndexWhenFileChanges() throws IOException {
+        Path usersFile = Files.createTempFile("users", ".csv");
+        Files.delete(usersFile);
+        try {
+            FileRepository<User> repo = new FileRepository<>(usersFile.toString(), userParser);
+            repo.create(new User(1, "JohnDoe", "password123", Role.USER));
+            assertEquals("JohnDoe", repo.read(1).getUsername());
+
+            // Another process rewrites the file behind the repository's back.
+            Files.write(usersFile, List.of(
+                    userParser.toCSV(new User(1, "JohnSmith", "password123", Role.USER)),
+                    userParser.toCSV(new User(2, "JaneDoe", "password456", Role.USER))));
+            assertEquals("JohnSmith", repo.read(1).getUsername(), "A changed file should be reloaded.");
+            assertEquals(2, repo.findAll().size());
+
+            Files.write(usersFile, List.of(userParser.toCSV(new User(2, "JaneDoe", "password456", Role.USER))));
+            assertThrows(EntityNotFoundException.class, () -> repo.read(1));
+            assertEquals(1, repo.findAll().size());
+        } finally {
+            Files.deleteIfExists(usersFile);
+        }
+    }
+
+    @Test
+    public void testMappedFileRepositorySplicesUpdatesAndDeletes() throws IOException {
+        Path usersFile = Files.createTempFile("users", ".csv");
+        try {
+            MappedFileRepository<User> repo = new MappedFileRepository<>(usersFile.toString(), userParser);
+            repo.create(new User(1, "JohnDoe", "password123", Role.USER));
+            repo.create(new User(2, "JaneDoe", "password456", Role.USER));
+            repo.create(new User(3, "Admin", "admin", Role.ADMIN));
+            assertEquals("JaneDoe", repo.read(2).getUsername());
+
+            repo.update(new User(2, "JaneSmith-Johnson", "password456", Role.USER));
+            repo.delete(1);
+            assertEquals("JaneSmith-Johnson", repo.read(2).getUsername(), "A longer line should be spliced in.");
+            assertEquals("Admin", repo.read(3).getUsername(), "Lines after a splice should still be found.");
+            assertThrows(EntityNotFoundException.class, () -> repo.read(1));
+            assertEquals(2, Files.readAllLines(usersFile).size());
+
+            MappedFileRepository<User> reopened = new MappedFileRepository<>(usersFile.toString(), userParser);
+            assertEquals(2, reopened.findAll().size());
+            assertEquals("JaneSmith-Johnson", reopened.read(2).getUsername());
+            assertEquals(3, reopened.findPage(2, 10, SortOrder.ASCENDING).get(0).getId());
+        } finally {
+            Files.deleteIfExists(usersFile);
+        }
+    }
+
+    @Test
+    public void testConnectionPoolLendsOneConnectionPerThread() throws Exception {
+        AtomicInteger opened = new AtomicInteger();
+        ConnectionPool pool = new ConnectionPool(() -> fakeConnection(opened, new AtomicInteger()), 1, 50, 600_000, 0);
+        try {
+            Connection outer = pool.getConnection();
+            Connection inner = pool.getConnection();
+            assertEquals(1, opened.get(), "A nested borrow should reuse the thread's connection.");
+            assertEquals(1, pool.getActiveCount());
+            inner.close();
+            assertEquals(1, pool.getActiveCount(), "The connection should stay borrowed until the outer close.");
+
+            Thread other = new Thread(() -> assertThrows(SQLException.class, pool::getConnection));
+            other.start();
+            other.join();
+
+            outer.close();
+            assertEquals(0, pool.getActiveCount());
+            assertEquals(1, pool.getIdleCount());
+
+            // A connection closed on another thread must not leave its borrower with a stale lease.
+            Connection borrowed = pool.getConnection();
+            Thread closer = new Thread(() -> {
+                try {
+                    borrowed.close();
+                } catch (SQLException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            closer.start();
+            closer.join();
+            assertEquals(0, pool.getActiveCount());
+            Connection again = pool.getConnection();
+            assertEquals(1, pool.getActiveCount(), "The borrower should get a fresh lease.");
+            again.close();
+            assertEquals(1, opened.get(), "Returned connections should be reused.");
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testConnectionPoolReusesCachedStatements() throws Exception {
+        AtomicInteger prepared = new AtomicInteger();
+        ConnectionPool pool = new ConnectionPool(() -> fakeConnection(new AtomicInteger(), prepared), 1);
+        try {
+            try (Connection connection = pool.getConnection()) {
+                connection.prepareStatement("SELECT * FROM users WHERE id = ?").close();
+            }
+            try (Connection connection = pool.getConnection()) {
+                PreparedStatement outer = connection.prepareStatement("SELECT * FROM users WHERE id = ?");
+                PreparedStatement nested = connection.prepareStatement("SELECT * FROM users WHERE id = ?");
+                nested.close();
+                outer.close();
+                assertThrows(SQLException.class, () -> outer.executeQuery());
+            }
+            assertEquals(2, prepared.get(), "Only the nested use should prepare the statement again.");
+            assertEquals(1, (int) pool.getStatementCacheHits());
+            assertEquals(2, (int) pool.getStatementCacheMisses());
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testStreamAllClosesItsCursor() {
+        FakeDatabase database = new FakeDatabase();
+        // One row more than the cursor reads ahead, so that it is still open after the first page.
+        for (int id = 1; id <= 251; id++) {
+            database.answer("FROM users", Map.of("id", id, "username", "user" + id, "password", "password",
+                    "role", "USER", "balance", 0.0));
+        }
+        ConnectionPool pool = new ConnectionPool(database::connect, 1);
+        try {
+            DBRepository<User> repo = new DBRepository<>(pool, "users", new UserSQLParser());
+            try (java.util.stream.Stream<User> users = repo.streamAll()) {
+                assertEquals(1, users.findFirst().get().getId());
+                assertEquals(1, database.openResultSets, "The cursor should stay open until the stream is closed.");
+            }
+            assertEquals(0, database.openResultSets, "Closing the stream should close the cursor.");
+            assertEquals(0, pool.getActiveCount(), "Closing the stream should return the connection.");
+            assertEquals(1, database.commits, "The cursor's transaction should be committed.");
+            assertEquals(0, database.openTransactions, "Auto-commit should be restored.");
+
+            assertEquals(251, (int) repo.streamAll().count());
+            assertEquals(0, database.openResultSets, "Reading the last row should close the cursor.");
+            assertEquals(0, pool.getActiveCount());
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testJoinedParsersHydrateReferencesFromOneQuery() {
+        FakeDatabase database = new FakeDatabase();
+        for (int id = 1; id <= 2; id++) {
+            database.answer("SELECT reservations.*", row(
+                    "id", id, "user_id", 7, "activity_schedule_id", 20, "number_of_people", id,
+                    "reservation_date", LocalDateTime.now().minusDays(1),
+                    "u_id", 7, "u_username", "JohnDoe", "u_password", "password123", "u_role", "USER", "u_balance", 50.0,
+                    "s_id", 20, "s_activity_id", 30, "s_date", java.sql.Date.valueOf(LocalDate.now().plusDays(30)),
+                    "s_start_time", java.sql.Time.valueOf(LocalTime.of(10, 0)),
+                    "s_end_time", java.sql.Time.valueOf(LocalTime.of(12, 0)), "s_available_capacity", 15,
+                    "s_a_id", 30, "s_a_name", "Yoga Class", "s_a_capacity", 20, "s_a_location", "Community Center",
+                    "s_a_category", "RELAXATION", "s_a_description", "A relaxing yoga session.", "s_a_price", 200.0));
+        }
+        database.answer("SELECT activity_schedules.*", row(
+                "id", 21, "activity_id", 31, "date", java.sql.Date.valueOf(LocalDate.now().plusDays(30)),
+                "start_time", java.sql.Time.valueOf(LocalTime.of(10, 0)),
+                "end_time", java.sql.Time.valueOf(LocalTime.of(12, 0)), "available_capacity", 15));
+        ConnectionPool pool = new ConnectionPool(database::connect, 1);
+        try {
+            ActivityScheduleSQLParser scheduleParser = new ActivityScheduleSQLParser(new ActivitySQLParser());
+            DBRepository<Reservation> reservations = new DBRepository<>(pool, "reservations",
+                    new ReservationSQLParser(new UserSQLParser(), scheduleParser));
+
+            List<Reservation> found = reservations.findAll();
+            assertEquals(2, found.size());
+            assertEquals(1, database.queries.size(), "References should be joined into the same query.");
+            assertTrue(database.queries.get(0).contains("LEFT JOIN (SELECT * FROM (SELECT activity_schedules.*"),
+                    "The schedule's own join should be nested into the reservation's.");
+            Reservation reservation = found.get(1);
+            assertEquals("JohnDoe", reservation.getUser().getUsername());
+            assertEquals(20, reservation.getActivitySchedule().getId());
+            assertEquals("Yoga Class", reservation.getActivitySchedule().getActivity().getName());
+
+            DBRepository<ActivitySchedule> schedules = new DBRepository<>(pool, "activity_schedules", scheduleParser);
+            assertThrows(DatabaseException.class, schedules::findAll, "A dangling reference should be reported.");
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testUnitOfWorkSharesEntitiesAcrossReads() {
+        FakeDatabase database = new FakeDatabase();
+        database.answer("SELECT reservations.*", row(
+                "id", 1, "user_id", 7, "activity_schedule_id", 20, "number_of_people", 1,
+                "reservation_date", LocalDateTime.now().minusDays(1),
+                "u_id", 7, "u_username", "JohnDoe", "u_password", "password123", "u_role", "USER", "u_balance", 50.0,
+                "s_id", 20, "s_activity_id", 30, "s_date", java.sql.Date.valueOf(LocalDate.now().plusDays(30)),
+                "s_start_time", java.sql.Time.valueOf(LocalTime.of(10, 0)),
+                "s_end_time", java.sql.Time.valueOf(LocalTime.of(12, 0)), "s_available_capacity", 15,
+                "s_a_id", 30, "s_a_name", "Yoga Class", "s_a_capacity", 20, "s_a_location", "Community Center",
+                "s_a_category", "RELAXATION", "s_a_description", "A relaxing yoga session.", "s_a_price", 200.0));
+        database.answer("FROM users", row("id", 7, "username", "JohnDoe", "password", "password123",
+                "role", "USER", "balance", 50.0));
+        ConnectionPool pool = new ConnectionPool(database::connect, 1);
+        try {
+            DBRepository<User> users = new DBRepository<>(pool, "users", new UserSQLParser());
+            DBRepository<Reservation> reservations = new DBRepository<>(pool, "reservations",
+                    new ReservationSQLParser(new UserSQLParser(),
+                            new ActivityScheduleSQLParser(new ActivitySQLParser())));
+
+            assertNotSame(users.read(7), users.read(7), "Reads outside a unit of work should not share entities.");
+
+            new UnitOfWork().run(() -> {
+                User user = users.read(7);
+                assertSame(user, users.read(7), "Reads in one unit of work should return the same instance.");
+                assertSame(user, users.findAll().get(0));
+                assertSame(user, reservations.findAll().get(0).getUser(),
+                        "Joined references should be shared with the unit of work.");
+                User written = new User(7, "JohnDoe", "password123", Role.USER);
+                users.update(written);
+                assertSame(written, users.read(7), "Later reads should return the written instance.");
+            });
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testBatchLoaderKeepsEachRepositoryCallInItsOwnBatch() {
+        FakeDatabase database = new FakeDatabase();
+        database.answer("ORDER BY", row("id", 2, "amount", 20.0, "date", LocalDateTime.now().minusDays(1),
+                "user_id", 2, "payment_method", "Card"));
+        database.answer("FROM payments", row("id", 1, "amount", 10.0, "date", LocalDateTime.now().minusDays(1),
+                "user_id", 1, "payment_method", "Card"));
+        for (int id = 1; id <= 2; id++) {
+            database.answer("FROM users", row("id", id, "username", "user" + id, "password", "password",
+                    "role", "USER", "balance", 0.0));
+        }
+        ConnectionPool pool = new ConnectionPool(database::connect, 1);
+        try {
+            DBRepository<User> users = new DBRepository<>(pool, "users", new UserSQLParser());
+            DBRepository<Payment> payments = new DBRepository<>(pool, "payments", new PaymentSQLParser(users));
+
+            List<Payment> all = payments.findAll();
+            List<Payment> page = payments.findPage(null, 10, SortOrder.ASCENDING);
+            assertTrue(database.boundIds.isEmpty(), "No user should be loaded before the first access.");
+
+            assertEquals(1, all.get(0).getUser().getId());
+            assertEquals(List.of(List.<Object>of(1)), database.boundIds,
+                    "Only the users of the first call should be loaded with its batch.");
+            assertEquals(2, page.get(0).getUser().getId());
+            assertEquals(List.of(List.<Object>of(1), List.<Object>of(2)), database.boundIds);
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testTransactionsHoldBackOnlyTheirOwnThreadsWrites() throws IOException, InterruptedException {
+        Path csvFile = Files.createTempFile("users", ".csv");
+        Path logFile = Files.createTempFile("users", ".log");
+        LogStructuredFileRepository<User> logRepo = new LogStructuredFileRepository<>(logFile.toString(), userParser);
+        try {
+            assertOtherThreadsWaitForTransaction(new FileRepository<>(csvFile.toString(), userParser));
+            assertOtherThreadsWaitForTransaction(logRepo);
+        } finally {
+            logRepo.close();
+            Files.deleteIfExists(csvFile);
+            Files.deleteIfExists(logFile);
+        }
+    }
+
+    @Test
+    public void testNormalizedTicketIsWrittenBackWithoutLoadingItsEvent() {
+        IRepository<User> users = new InMemoryRepo<>();
+        users.create(new User(3, "JohnDoe", "password123", Role.USER));
+        NormalizedTicketParser parser = new NormalizedTicketParser(users, new InMemoryRepo<>(), new InMemoryRepo<>(),
+                new InMemoryRepo<>());
+
+        // The event repository is empty, so loading the event would fail.
+        Ticket ticket = parser.parseFromCSV("1;Event;7;3;John Doe");
+        assertEquals(Event.class, ticket.getEventType());
+        assertEquals("1;Event;7;3;John Doe", parser.toCSV(ticket));
+    }
+
+    @Test
+    public void testLineBreaksInFieldsSurviveReopeningEveryFileStore() throws IOException {
+        Path csvFile = Files.createTempFile("activities", ".csv");
+        Path logFile = Files.createTempFile("activities", ".log");
+        Path mappedFile = Files.createTempFile("activities", ".csv");
+        try {
+            Activity activity = new Activity(1, "Yoga Class", 20, "Room A\r\nBack entrance", EventType.SPORTS,
+                    "Bring a mat\nand water, C:\\mats\\", 10.0);
+            new FileRepository<>(csvFile.toString(), activityParser).create(activity);
+            LogStructuredFileRepository<Activity> logRepo = new LogStructuredFileRepository<>(logFile.toString(), activityParser);
+            logRepo.create(activity);
+            logRepo.close();
+            new MappedFileRepository<>(mappedFile.toString(), activityParser).create(activity);
+            assertEquals(1, Files.readAllLines(csvFile).size(), "A record should stay on one line.");
+
+            List<IRepository<Activity>> reopened = List.of(
+                    new FileRepository<>(csvFile.toString(), activityParser),
+                    new LogStructuredFileRepository<>(logFile.toString(), activityParser),
+                    new MappedFileRepository<>(mappedFile.toString(), activityParser));
+            for (IRepository<Activity> repo : reopened) {
+                Activity read = repo.read(1);
+                assertEquals("Room A\r\nBack entrance", read.getLocation());
+                assertEquals("Bring a mat\nand water, C:\\mats\\", read.getDescription());
+            }
+            ((LogStructuredFileRepository<Activity>) reopened.get(1)).close();
+        } finally {
+            Files.deleteIfExists(csvFile);
+            Files.deleteIfExists(logFile);
+            Files.deleteIfExists(mappedFile);
+        }
+    }
+
+    @Test
+    public void testWriteDuringOpenStreamIsCommittedOnItsOwn() {
+        FakeDatabase database = new FakeDatabase();
+        // One row more than the cursor reads ahead, so that it is still open after the first page.
+        for (int id = 1; id <= 251; id++) {
+            database.answer("FROM users", Map.of("id", id, "username", "user" + id, "password", "password",
+                    "role", "USER", "balance", 0.0));
+        }
+        ConnectionPool pool = new ConnectionPool(database::connect, 2);
+        try {
+            DBRepository<User> repo = new DBRepository<>(pool, "users", new UserSQLParser());
+            try (java.util.stream.Stream<User> users = repo.streamAll()) {
+                User first = users.iterator().next();
+                first.setBalance(10.0);
+                repo.update(first);
+                assertEquals(1, database.committedUpdates.size(),
+                        "A write made while the stream is open should not join the cursor's transaction.");
+                assertEquals(1, database.openTransactions, "Only the cursor should be in a transaction.");
+            }
+            assertEquals(0, database.openTransactions);
+            assertEquals(0, pool.getActiveCount());
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testStreamedRowsLoadTheirReferencesOnePageAtATime() {
+        FakeDatabase database = new FakeDatabase();
+        for (int id = 1; id <= 3; id++) {
+            database.answer("FROM payments", row("id", id, "amount", 10.0, "date", LocalDateTime.now().minusDays(1),
+                    "user_id", id, "payment_method", "Card"));
+            database.answer("FROM users", row("id", id, "username", "user" + id, "password", "password",
+                    "role", "USER", "balance", 0.0));
+        }
+        ConnectionPool pool = new ConnectionPool(database::connect, 2);
+        try {
+            DBRepository<User> users = new DBRepository<>(pool, "users", new UserSQLParser());
+            DBRepository<Payment> payments = new DBRepository<>(pool, "payments", new PaymentSQLParser(users));
+
+            List<String> usernames = new ArrayList<>();
+            try (java.util.stream.Stream<Payment> stream = payments.streamAll()) {
+                stream.forEach(payment -> usernames.add(payment.getUser().getUsername()));
+            }
+            assertEquals(List.of("user1", "user2", "user3"), usernames);
+            assertEquals(List.of(List.<Object>of(1, 2, 3)), database.boundIds,
+                    "The users of a page of streamed payments should be loaded with one query.");
+            assertEquals(2, database.queries.size());
+        } finally {
+            pool.close();
+        }
+    }
+
+    @Test
+    public void testJournaledUnitOfWorkRedoesAStoreWhoseCommitFailed() throws IOException {
+        Path directory = Files.createTempDirectory("journal");
+        String usersFile = directory.resolve("users.csv").toString();
+        String paymentsFile = directory.resolve("payments.log").toString();
+        String ticketsFile = directory.resolve("tickets.log").toString();
+        Path journalFile = directory.resolve("checkout.journal");
+        try {
+            FileRepository<User> users = new FileRepository<>(usersFile, userParser);
+            users.create(new User(1, "JohnDoe", "password123", Role.USER));
+            LogStructuredFileRepository<User> payments = new LogStructuredFileRepository<>(paymentsFile, userParser);
+            // The disk under the last store fails: neither its commit nor a redo gets the records written.
+            LogStructuredFileRepository<User> tickets = new LogStructuredFileRepository<>(ticketsFile, userParser) {
+                @Override
+                public synchronized void commit() {
+                    rollback();
+                    throw new FileRepositoryException("No space left on device");
+                }
+
+                @Override
+                public synchronized void redo(List<String> records) {
+                    throw new FileRepositoryException("No space left on device");
+                }
+            };
+            WriteAheadLog journal = new WriteAheadLog(journalFile, 0);
+            UnitOfWork unitOfWork = new UnitOfWork(journal, users, payments, tickets);
+
+            assertThrows(FileRepositoryException.class, () -> unitOfWork.run(() -> {
+                users.update(new User(1, "JohnDoe", "debited", Role.USER));
+                payments.create(new User(10, "payment", "password", Role.USER));
+                tickets.create(new User(20, "ticket", "password", Role.USER));
+            }));
+            assertThrows(EntityNotFoundException.class, () -> tickets.read(20));
+            journal.close();
+            payments.close();
+            tickets.close();
+
+            FileRepository<User> reopenedUsers = new FileRepository<>(usersFile, userParser);
+            LogStructuredFileRepository<User> reopenedPayments = new LogStructuredFileRepository<>(paymentsFile, userParser);
+            LogStructuredFileRepository<User> reopenedTickets = new LogStructuredFileRepository<>(ticketsFile, userParser);
+            WriteAheadLog reopenedJournal = new WriteAheadLog(journalFile, 0);
+            new UnitOfWork(reopenedJournal, reopenedUsers, reopenedPayments, reopenedTickets);
+            assertEquals("debited", reopenedUsers.read(1).getPassword());
+            assertEquals("payment", reopenedPayments.read(10).getUsername());
+            assertEquals("ticket", reopenedTickets.read(20).getUsername(),
+                    "The ticket should be redone from the journal when the stores are reopened.");
+            assertEquals(0, (int) Files.size(journalFile), "A redone entry should be dropped from the journal.");
+            reopenedJournal.close();
+            reopenedPayments.close();
+            reopenedTickets.close();
+        } finally {
+            try (java.util.stream.Stream<Path> files = Files.list(directory)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(directory);
+        }
+    }
+
+    @Test
+    public void testUserMigrationRenamesCaseOnlyDuplicatesBeforeIndexing() {
+        int[] uniqueIndexes = new int[1];
+        InMemoryRepo<User> users = new InMemoryRepo<>() {
+            @Override
+            public void createUniqueIndex(Field<User, ?> field, IndexType type) {
+                uniqueIndexes[0]++;
+                super.createUniqueIndex(field, type);
+            }
+        };
+        users.create(new User(3, "JOHNDOE", "password", Role.USER));
+        users.create(new User(1, "JohnDoe", "password", Role.USER));
+        users.create(new User(2, "johndoe", "password", Role.USER));
+        users.create(new User(4, "johndoe-2", "password", Role.USER));
+        users.create(new User(5, "JaneDoe", "password", Role.USER));
+
+        new UserService(users);
+        assertEquals(0, uniqueIndexes[0], "Constructing the service should not touch the schema.");
+
+        UserService.migrate(users);
+        assertEquals(1, uniqueIndexes[0]);
+        assertEquals("JohnDoe", users.read(1).getUsername(), "The user with the lowest ID should keep the name.");
+        assertEquals("johndoe-2-2", users.read(2).getUsername(), "A rename should not take another user's name.");
+        assertEquals("JOHNDOE-3", users.read(3).getUsername());
+        assertEquals("johndoe-2", users.read(4).getUsername());
+        assertEquals("JaneDoe", users.read(5).getUsername());
+        assertThrows(EntityAlreadyExistsException.class,
+                () -> users.create(new User(6, "JOHNdoe", "password", Role.USER)),
+                "The unique index should be in place after the migration.");
+    }
+
+    /**
+     * Opens a stand-in for a database connection that accepts every call, counting the statements prepared on it.
+     */
+    private static Connection fakeConnection(AtomicInteger opened, AtomicInteger prepared) {
+        opened.incrementAndGet();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "prepareStatement":
+                            prepared.incrementAndGet();
+                            return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                                    new Class<?>[]{PreparedStatement.class},
+                                    (statement, statementMethod, statementArgs) -> defaultValue(statementMethod.getReturnType()));
+                        case "getAutoCommit":
+                        case "isValid":
+                            return true;
+                        default:
+                            return defaultValue(method.getReturnType());
+                    }
+                });
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == double.class) {
+            return 0.0;
+        }
+        return null;
+    }
+
+
+    /**
+     * A stand-in for a database that answers queries with canned rows. A query is answered with the rows
+     * registered for the first SQL fragment it contains; the test can then check which statements ran, which
+     * ID arrays were bound and how many result sets are still open.
+     */
+    private static class FakeDatabase {
+        private final Map<String, List<Map<String, Object>>> answers = new java.util.LinkedHashMap<>();
+        private final List<String> queries = new ArrayList<>();
+        private final List<List<Object>> boundIds = new ArrayList<>();
+        private final List<String> committedUpdates = new ArrayList<>();
+        private int openResultSets;
+        private int commits;
+        private int openTransactions;
+
+        void answer(String sqlFragment, Map<String, Object> row) {
+            answers.computeIfAbsent(sqlFragment, fragment -> new ArrayList<>()).add(row);
+        }
+
+        /**
+         * Opens a connection. Updates run outside of auto-commit mode count as committed only once the
+         * connection commits.
+         */
+        Connection connect() {
+            boolean[] autoCommit = {true};
+            List<String> uncommitted = new ArrayList<>();
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "prepareStatement":
+                                return statement((String) args[0], autoCommit[0] ? committedUpdates : uncommitted);
+                            case "createArrayOf":
+                                boundIds.add(List.of((Object[]) args[1]));
+                                return null;
+                            case "getAutoCommit":
+                                return autoCommit[0];
+                            case "setAutoCommit":
+                                boolean enabled = (Boolean) args[0];
+                                if (enabled != autoCommit[0]) {
+                                    openTransactions += enabled ? -1 : 1;
+                                }
+                                autoCommit[0] = enabled;
+                                return null;
+                            case "commit":
+                                commits++;
+                                committedUpdates.addAll(uncommitted);
+                                uncommitted.clear();
+                                return null;
+                            case "rollback":
+                                uncommitted.clear();
+                                return null;
+                            case "isValid":
+                                return true;
+                            default:
+                                return defaultValue(method.getReturnType());
+                        }
+                    });
+        }
+
+        private PreparedStatement statement(String sql, List<String> updates) {
+            return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                    new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                        if (method.getName().equals("executeQuery")) {
+                            queries.add(sql);
+                            return resultSet(rowsFor(sql));
+                        }
+                        if (method.getName().equals("executeUpdate")) {
+                            updates.add(sql);
+                            return 1;
+                        }
+                        return defaultValue(method.getReturnType());
+                    });
+        }
+
+        private List<Map<String, Object>> rowsFor(String sql) {
+            for (Map.Entry<String, List<Map<String, Object>>> answer : answers.entrySet()) {
+                if (sql.contains(answer.getKey())) {
+                    return answer.getValue();
+                }
+            }
+            return List.of();
+        }
+
+        private java.sql.ResultSet resultSet(List<Map<String, Object>> rows) {
+            openResultSets++;
+            int[] position = {-1};
+            boolean[] closed = {false};
+            return (java.sql.ResultSet) Proxy.newProxyInstance(java.sql.ResultSet.class.getClassLoader(),
+                    new Class<?>[]{java.sql.ResultSet.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "next":
+                                return ++position[0] < rows.size();
+                            case "close":
+                                if (!closed[0]) {
+                                    closed[0] = true;
+                                    openResultSets--;
+                                }
+                                return null;
+                            case "isClosed":
+                                return closed[0];
+                            case "getObject":
+                            case "getDate":
+                            case "getTime":
+                                return rows.get(position[0]).get((String) args[0]);
+                            case "getString":
+                                Object text = rows.get(position[0]).get((String) args[0]);
+                                return text == null ? null : text.toString();
+                            case "getInt":
+                            case "getDouble":
+                                Object number = rows.get(position[0]).get((String) args[0]);
+                                if (number == null) {
+                                    return defaultValue(method.getReturnType());
+                                }
+                                if (method.getReturnType() == int.class) {
+                                    return ((Number) number).intValue();
+                                }
+                                return ((Number) number).doubleValue();
+                            default:
+                                return defaultValue(method.getReturnType());
+                        }
+                    });
+        }
+    }
+
+
+    private static Map<String, Object> row(Object... columnsAndValues) {
+        Map<String, Object> row = new java.util.HashMap<>();
+        for (int i = 0; i < columnsAndValues.length; i += 2) {
+            row.put((String) columnsAndValues[i], columnsAndValues[i + 1]);
+        }
+        return row;
+    }
+
+    /**
+     * Rolls back a transaction on the repository while another thread writes to it, and checks that the other
+     * thread's write waited for the transaction and survived its rollback.
+     */
+    private static <R extends IRepository<User> & Transactional> void assertOtherThreadsWaitForTransaction(R repo)
+            throws InterruptedException {
+        CountDownLatch begun = new CountDownLatch(1);
+        CountDownLatch writing = new CountDownLatch(1);
+        Thread other = new Thread(() -> {
+            try {
+                begun.await();
+            } catch (InterruptedException e) {
+                return;
+            }
+            writing.countDown();
+            repo.create(new User(2, "JaneDoe", "password456", Role.USER));
+        });
+        other.start();
+
+        assertThrows(IllegalStateException.class, () -> new UnitOfWork(repo).run(() -> {
+            repo.create(new User(1, "JohnDoe", "password123", Role.USER));
+            begun.countDown();
+            try {
+                writing.await();
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            assertEquals(1, repo.findAll().size(), "Another thread's write should wait for the transaction.");
+            throw new IllegalStateException("Checkout failed.");
+        }));
+        other.join(5_000);
+        assertFalse(other.isAlive(), "The other thread should go on once the transaction ends.");
+        assertThrows(EntityNotFoundException.class, () -> repo.read(1));
+        assertEquals("JaneDoe", repo.read(2).getUsername(), "The other thread's write should survive the rollback.");
+    }
+}
@@ -0,0 +1,152 @@
+package Benchmark;
+
+import Domain.Activity;
+import Domain.Event;
+import Domain.EventType;
+import Domain.Payment;
+import Domain.Role;
+import Domain.User;
+import Parsers.ActivityParser;
+import Parsers.EventParser;
+import Parsers.PaymentParser;
+import Parsers.UserParser;
+import Repository.LazyReference;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Measures how fast the CSV parsers turn lines into entities, comparing the tokenizer-based parsers with
+ * the previous parsers, which split every line with a regular expression and parsed dates with
+ * {@link LocalDateTime#parse(CharSequence)}. Each run parses the same lines over and over for a fixed time
+ * after a warm-up of the same length.
+ *
+ * Run with {@code java Benchmark.CsvParserBenchmark [lines] [millisPerRun]}.
+ */
+public class CsvParserBenchmark {
+
+    public static void main(String[] args) {
+        int lineCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        long millisPerRun = args.length > 1 ? Long.parseLong(args[1]) : 2_000;
+
+        EventParser eventParser = new EventParser();
+        ActivityParser activityParser = new ActivityParser();
+        PaymentParser paymentParser = new PaymentParser(new UserParser());
+
+        List<String> events = new ArrayList<>(lineCount);
+        List<String> activities = new ArrayList<>(lineCount);
+        List<String> payments = new ArrayList<>(lineCount);
+        LocalDateTime start = LocalDateTime.of(2030, 1, 1, 18, 30);
+        LocalDateTime paid = LocalDateTime.of(2020, 1, 1, 9, 15, 30);
+        for (int id = 0; id < lineCount; id++) {
+            events.add(eventParser.toCSV(new Event(id, "Concert " + id, "Arena", 500, EventType.ENTERTAINMENT,
+                    id % 500, start.plusHours(id), start.plusHours(id + 3), 49.99)));
+            activities.add(activityParser.toCSV(new Activity(id, "Tour " + id, 20, "Old Town",
+                    EventType.CULTURAL, "A walk through the old town", 15.5)));
+            User user = new User(id, "user" + id, "password", Role.USER);
+            payments.add(paymentParser.toCSV(new Payment(id, 99.5, paid.plusMinutes(id),
+                    LazyReference.of(user), "CARD")));
+        }
+
+        System.out.printf("%-10s %-10s %16s%n", "entity", "parser", "lines/s");
+        report("Event", "split", run(events, CsvParserBenchmark::parseEventWithSplit, millisPerRun));
+        report("Event", "tokenizer", run(events, eventParser::parseFromCSV, millisPerRun));
+        report("Activity", "split", run(activities, CsvParserBenchmark::parseActivityWithSplit, millisPerRun));
+        report("Activity", "tokenizer", run(activities, activityParser::parseFromCSV, millisPerRun));
+        report("Payment", "split", run(payments, CsvParserBenchmark::parsePaymentWithSplit, millisPerRun));
+        report("Payment", "tokenizer", run(payments, line -> {
+            Payment payment = paymentParser.parseFromCSV(line);
+            payment.getUser();
+            return payment;
+        }, millisPerRun));
+    }
+
+    private static void report(String entity, String parser, double linesPerSecond) {
+        System.out.printf("%-10s %-10s %,16.0f%n", entity, parser, linesPerSecond);
+    }
+
+    private static double run(List<String> lines, Function<String, ?> parser, long millis) {
+        measure(lines, parser, millis);
+        return measure(lines, parser, millis);
+    }
+
+    private static double measure(List<String> lines, Function<String, ?> parser, long millis) {
+        long parsed = 0;
+        int checksum = 0;
+        long start = System.nanoTime();
+        long deadline = start + millis * 1_000_000;
+        long now;
+        do {
+            for (String line : lines) {
+                checksum += System.identityHashCode(parser.apply(line)) & 1;
+            }
+            parsed += lines.size();
+            now = System.nanoTime();
+        } while (now < deadline);
+        if (checksum == -1) {
+            System.out.println(checksum);
+        }
+        return parsed * 1e9 / (now - start);
+    }
+
+    /**
+     * The previous {@link EventParser#parseFromCSV(String)}.
+     */
+    private static Event parseEventWithSplit(String csv) {
+        String[] fields = csv.split(",");
+
+        int id = Integer.parseInt(fields[1]);
+        String name = fields[2];
+        String location = fields[3];
+        int capacity = Integer.parseInt(fields[4]);
+        EventType eventType = EventType.valueOf(fields[5].toUpperCase());
+        int currentSize = Integer.parseInt(fields[6]);
+        LocalDateTime startDate = LocalDateTime.parse(fields[7]);
+        LocalDateTime endDate = LocalDateTime.parse(fields[8]);
+        double price = Double.parseDouble(fields[9]);
+
+        return new Event(id, name, location, capacity, eventType, currentSize, startDate, endDate, price);
+    }
+
+    /**
+     * The previous {@link ActivityParser#parseFromCSV(String)}.
+     */
+    private static Activity parseActivityWithSplit(String csv) {
+        String[] fields = csv.split(",");
+
+        int id = Integer.parseInt(fields[1]);
+        String name = fields[2];
+        int capacity = Integer.parseInt(fields[3]);
+        String location = unescape(fields[4]);
+        EventType category = EventType.valueOf(fields[5].toUpperCase());
+        String description = unescape(fields[6]);
+        double price = Double.parseDouble(fields[7]);
+
+        return new Activity(id, name, capacity, location, category, description, price);
+    }
+
+    private static String unescape(String value) {
+        return value.replace("\"\"", "\"").replaceAll("^\"|\"$", "");
+    }
+
+    /**
+     * The previous {@link PaymentParser#parseFromCSV(String)}, with the embedded user parsed eagerly; the tokenizer
+     * run accesses the lazily parsed user of every payment, so that both do the same work.
+     */
+    private static Payment parsePaymentWithSplit(String csv) {
+        String[] fields = csv.split(";");
+
+        int id = Integer.parseInt(fields[0]);
+        double amount = Double.parseDouble(fields[1]);
+        LocalDateTime date = LocalDateTime.parse(fields[2]);
+        String[] userFields = fields[3].split(",");
+        User user = new User(Integer.parseInt(userFields[0]), userFields[1], userFields[2],
+                Role.valueOf(userFields[3].toUpperCase()));
+        user.setBalance(Double.parseDouble(userFields[4]));
+        String paymentMethod = fields[4];
+
+        return new Payment(id, amount, date, LazyReference.of(user), paymentMethod);
+    }
+}
@@ -0,0 +1,130 @@
+package Benchmark;
+
+import Domain.Role;
+import Domain.User;
+import Repository.IRepository;
+import Repository.InMemoryRepo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Measures the throughput of {@link InMemoryRepo} under concurrent read/update mixes and compares it
+ * with a repository guarded by a single global lock. Both {@link InMemoryRepo.Storage} options are measured.
+ *
+ * Run with {@code java Benchmark.InMemoryRepoBenchmark [entities] [millisPerRun]}.
+ */
+public class InMemoryRepoBenchmark {
+    private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32};
+    private static final int[] READ_PERCENTAGES = {100, 90, 50};
+
+    public static void main(String[] args) throws InterruptedException {
+        int entityCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        long millisPerRun = args.length > 1 ? Long.parseLong(args[1]) : 1_000;
+
+        System.out.printf("%-14s %6s %8s %16s%n", "repository", "reads", "threads", "ops/s");
+        for (int readPercentage : READ_PERCENTAGES) {
+            for (int threads : THREAD_COUNTS) {
+                report("global-lock", readPercentage, threads,
+                        run(GlobalLockRepo::new, entityCount, readPercentage, threads, millisPerRun));
+                report("InMemoryRepo", readPercentage, threads,
+                        run(InMemoryRepo::new, entityCount, readPercentage, threads, millisPerRun));
+                report("primitive", readPercentage, threads,
+                        run(() -> new InMemoryRepo<>(InMemoryRepo.Storage.PRIMITIVE),
+                                entityCount, readPercentage, threads, millisPerRun));
+            }
+        }
+    }
+
+    private static void report(String name, int readPercentage, int threads, double opsPerSecond) {
+        System.out.printf("%-14s %5d%% %8d %,16.0f%n", name, readPercentage, threads, opsPerSecond);
+    }
+
+    private static double run(Supplier<IRepository<User>> factory, int entityCount, int readPercentage,
+                              int threads, long millis) throws InterruptedException {
+        IRepository<User> repo = factory.get();
+        List<User> users = new ArrayList<>(entityCount);
+        for (int id = 0; id < entityCount; id++) {
+            User user = new User(id, "user" + id, "password", Role.USER);
+            users.add(user);
+            repo.create(user);
+        }
+
+        AtomicBoolean measuring = new AtomicBoolean(false);
+        AtomicBoolean stopped = new AtomicBoolean(false);
+        LongAdder operations = new LongAdder();
+        CountDownLatch finished = new CountDownLatch(threads);
+
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long local = 0;
+                while (!stopped.get()) {
+                    int id = random.nextInt(entityCount);
+                    if (random.nextInt(100) < readPercentage) {
+                        repo.read(id);
+                    } else {
+                        repo.update(users.get(id));
+                    }
+                    if (measuring.get()) {
+                        local++;
+                    }
+                }
+                operations.add(local);
+                finished.countDown();
+            });
+            worker.setDaemon(true);
+            worker.start();
+        }
+
+        Thread.sleep(millis / 2);
+        measuring.set(true);
+        long start = System.nanoTime();
+        Thread.sleep(millis);
+        measuring.set(false);
+        long elapsed = System.nanoTime() - start;
+        stopped.set(true);
+        finished.await();
+
+        return operations.sum() * 1e9 / elapsed;
+    }
+
+    /**
+     * The previous repository design: a plain map behind one lock shared by every operation.
+     */
+    private static class GlobalLockRepo implements IRepository<User> {
+        private final Map<Integer, User> entities = new HashMap<>();
+
+        @Override
+        public synchronized void create(User entity) {
+            entities.put(entity.getId(), entity);
+        }
+
+        @Override
+        public synchronized User read(int id) {
+            return entities.get(id);
+        }
+
+        @Override
+        public synchronized void update(User entity) {
+            entities.put(entity.getId(), entity);
+        }
+
+        @Override
+        public synchronized void delete(int id) {
+            entities.remove(id);
+        }
+
+        @Override
+        public synchronized List<User> findAll() {
+            return new ArrayList<>(entities.values());
+        }
+    }
+}
@@ -104,6 +104,17 @@ public class AdminController {
         return activityService.getAllActivities();
     }
 
+    /**
+     * Retrieves one page of activities.
+     *
+     * @param afterId the ID of the last activity on the previous page, or null for the first page
+     * @param limit   the maximum number of activities on the page
+     * @return the activities on the page
+     */
+    public List<Activity> getActivitiesPage(Integer afterId, int limit) {
+        return activityService.getActivitiesPage(afterId, limit);
+    }
+
     /**
      * Updates an existing activity.
      *
@@ -416,6 +427,17 @@ public class AdminController {
         return eventService.getAllEvents();
     }
 
+    /**
+     * Retrieves one page of events.
+     *
+     * @param afterId the ID of the last event on the previous page, or null for the first page
+     * @param limit   the maximum number of events on the page
+     * @return the events on the page
+     */
+    public List<Event> getEventsPage(Integer afterId, int limit) {
+        return eventService.getEventsPage(afterId, limit);
+    }
+
 
     /**
      * Adds a new free activity.
@@ -1,10 +1,12 @@
 package Controller;
 
 import Domain.*;
+import Repository.UnitOfWork;
 import Service.*;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -25,11 +27,25 @@ public class UserController {
     private final ReviewService reviewService;
     private final TicketService ticketService;
     private final WishlistService wishlistService;
+    private final UnitOfWork unitOfWork;
 
     public UserController(ActivityService activityService, UserService userService, ActivityScheduleService activityScheduleService,
                           BookingService bookingService, EventService eventService, FreeActivityService freeActivityService,
                           PaymentService paymentService, ReservationService reservationService, ReviewService reviewService,
                           TicketService ticketService, WishlistService wishlistService) {
+        this(activityService, userService, activityScheduleService, bookingService, eventService, freeActivityService,
+                paymentService, reservationService, reviewService, ticketService, wishlistService, new UnitOfWork());
+    }
+
+    /**
+     * Constructs a UserController whose checkout runs as one transaction over the given unit of work.
+     *
+     * @param unitOfWork the unit of work spanning the stores of the user, payment and ticket repositories.
+     */
+    public UserController(ActivityService activityService, UserService userService, ActivityScheduleService activityScheduleService,
+                          BookingService bookingService, EventService eventService, FreeActivityService freeActivityService,
+                          PaymentService paymentService, ReservationService reservationService, ReviewService reviewService,
+                          TicketService ticketService, WishlistService wishlistService, UnitOfWork unitOfWork) {
         this.activityService = activityService;
         this.userService = userService;
         this.activityScheduleService = activityScheduleService;
@@ -41,6 +57,7 @@ public class UserController {
         this.reviewService = reviewService;
         this.ticketService = ticketService;
         this.wishlistService = wishlistService;
+        this.unitOfWork = unitOfWork;
     }
 
     /**
@@ -67,6 +84,17 @@ public class UserController {
         return activityService.getAllActivities();
     }
 
+    /**
+     * Retrieves one page of activities.
+     *
+     * @param afterId the ID of the last activity on the previous page, or null for the first page
+     * @param limit   the maximum number of activities on the page
+     * @return the activities on the page
+     */
+    public List<Activity> getActivitiesPage(Integer afterId, int limit) {
+        return activityService.getActivitiesPage(afterId, limit);
+    }
+
     /**
      * Retrieves schedules for a given activity.
      *
@@ -110,6 +138,28 @@ public class UserController {
         return eventService.getAllEvents();
     }
 
+    /**
+     * Retrieves one page of events.
+     *
+     * @param afterId the ID of the last event on the previous page, or null for the first page
+     * @param limit   the maximum number of events on the page
+     * @return the events on the page
+     */
+    public List<Event> getEventsPage(Integer afterId, int limit) {
+        return eventService.getEventsPage(afterId, limit);
+    }
+
+    /**
+     * Retrieves one page of upcoming events.
+     *
+     * @param afterId the ID of the last event on the previous page, or null for the first page
+     * @param limit   the maximum number of events on the page
+     * @return the upcoming events on the page
+     */
+    public List<Event> getUpcomingEventsPage(Integer afterId, int limit) {
+        return eventService.getUpcomingEventsPage(afterId, limit);
+    }
+
     /**
      * Retrieves a free activity by its ID.
      *
@@ -409,6 +459,16 @@ public class UserController {
         return bookingService.getMostPopularEntities();
     }
 
+    /**
+     * Pays for tickets to an event or activity and issues them. Debiting the user, recording the payment and
+     * issuing the tickets run as one unit of work, so either all of them are stored or none is.
+     *
+     * @param currentUser   the user paying for the tickets.
+     * @param choice        1 for an event, 2 for an activity.
+     * @param entityId      the ID of the event or activity.
+     * @param numTickets    the number of tickets.
+     * @param paymentMethod the method of payment.
+     */
     public void bookAndPayForTickets(User currentUser, int choice, String entityId, int numTickets, String paymentMethod) {
         try {
             if (choice != 1 && choice != 2) {
@@ -444,15 +504,30 @@ public class UserController {
                 throw new IllegalArgumentException("Insufficient balance. You need " + totalCost + " euros, but have only " + currentUser.getBalance() + " euros.");
             }
 
-            currentUser.setBalance(currentUser.getBalance() - totalCost);
-
-            String paymentId = (event != null) ? String.valueOf(event.getId()) : String.valueOf(activity.getId());
-            addPayment(paymentId, String.valueOf(totalCost), LocalDateTime.now().toString(), currentUser, paymentMethod);
-
+            List<String> participantNames = new ArrayList<>();
             for (int i = 0; i < numTickets; i++) {
-                String participantName = "Participant " + (i + 1);
-                String ticketId = String.valueOf(generateUniqueId());
-                addTicket(ticketId, event != null ? event : activity, currentUser, participantName);
+                participantNames.add("Participant " + (i + 1));
+            }
+            ReviewableEntity entity = event != null ? event : activity;
+
+            // The entities are changed in memory as the work proceeds, so they are restored if it is rolled back.
+            double previousBalance = currentUser.getBalance();
+            int previousSize = event != null ? event.getCurrentSize() : activity.getCurrentSize();
+            try {
+                unitOfWork.run(() -> {
+                    userService.withdraw(currentUser, totalCost);
+                    paymentService.addPayment(String.valueOf(paymentService.generateUniqueId()), String.valueOf(totalCost),
+                            LocalDateTime.now().toString(), currentUser, paymentMethod);
+                    ticketService.issueTickets(entity, currentUser, participantNames);
+                });
+            } catch (RuntimeException e) {
+                currentUser.setBalance(previousBalance);
+                if (event != null) {
+                    event.setCurrentSize(previousSize);
+                } else {
+                    activity.setCurrentSize(previousSize);
+                }
+                throw e;
             }
 
             System.out.println("Payment successful! Your booking is confirmed.");
@@ -1,3 +1,5 @@
+import Repository.ConnectionPool;
+
 import javax.sql.DataSource;
 import java.sql.Connection;
 import java.sql.DriverManager;
@@ -14,8 +16,10 @@ public class DatabaseConnection {
     /**
      * The URL of the database, including protocol, host, port, and database name.
      * Format: jdbc:mysql://hostname:port/databaseName
+     * {@code prepareThreshold=1} makes the driver switch a statement to a named server-side prepared statement
+     * from its first execution, so statements reused from the pool's cache skip parsing and planning.
      */
-    private static final String URL = "jdbc:postgresql://localhost:5433/Eventure";
+    private static final String URL = "jdbc:postgresql://localhost:5433/Eventure?prepareThreshold=1";
 
     /**
      * The username used to authenticate with the database.
@@ -27,6 +31,11 @@ public class DatabaseConnection {
      */
     private static final String PASSWORD = "200412";
 
+    /**
+     * The maximum number of connections held open by the pool returned from {@link #getDataSource()}.
+     */
+    private static final int POOL_SIZE = 10;
+
     /**
      * Establishes a connection to the database.
      *
@@ -40,5 +49,14 @@ public class DatabaseConnection {
             throw new RuntimeException("Error connecting to the database", e);
         }
     }
-}
 
+    /**
+     * Creates a pool of connections to the database.
+     * Connections are opened on demand, up to a fixed maximum, and reused after they are closed.
+     *
+     * @return a {@link DataSource} backed by a {@link ConnectionPool}.
+     */
+    public DataSource getDataSource() {
+        return new ConnectionPool(() -> DriverManager.getConnection(URL, USER, PASSWORD), POOL_SIZE);
+    }
+}
@@ -1,5 +1,6 @@
 package Domain;
 
+import Repository.CsvWriter;
 import Repository.Identifiable;
 import Exception.*;
 /**
@@ -67,13 +68,16 @@ public class Activity extends ReviewableEntity implements Identifiable {
 
     @Override
     public String toCSV() {
-        return "Activity," + getId() + "," +
-                getName() + "," +
-                getCapacity() + "," +
-                getLocation() + "," +
-                getCategory() + "," +
-                getDescription() + "," +
-                getPrice();
+        return new CsvWriter(',')
+                .field("Activity")
+                .field(getId())
+                .field(getName())
+                .field(getCapacity())
+                .field(getLocation())
+                .field(getCategory())
+                .field(getDescription())
+                .field(getPrice())
+                .toString();
     }
 
     /**
@@ -2,6 +2,7 @@ package Domain;
 
 import Repository.EntityParser;
 import Repository.Identifiable;
+import Repository.LazyReference;
 import Exception.*;
 
 /**
@@ -10,7 +11,7 @@ import Exception.*;
 public class Booking implements Identifiable {
 
     private int id;
-    private ActivitySchedule schedule;
+    private LazyReference<ActivitySchedule> schedule;
     private String customerName;
     private int numberOfPeople;
 
@@ -34,11 +35,39 @@ public class Booking implements Identifiable {
             throw new ValidationException("Number of people must be greater than 0.");
         }
 
-        this.schedule = schedule;
+        this.schedule = LazyReference.of(schedule);
         this.customerName = customerName;
         this.numberOfPeople = numberOfPeople;
 
-        this.schedule.reduceCapacity(numberOfPeople);
+        schedule.reduceCapacity(numberOfPeople);
+    }
+
+    /**
+     * Constructs a {@link Booking} that has already been made, as read back from storage.
+     * Unlike {@link #Booking(ActivitySchedule, String, int)}, this does not reduce the capacity of the schedule,
+     * so the schedule does not need to be loaded.
+     *
+     * @param id             the ID of the booking
+     * @param schedule       a reference to the activity schedule associated with the booking
+     * @param customerName   the name of the customer who made the booking
+     * @param numberOfPeople the number of people included in the booking
+     * @throws ValidationException if any of the provided arguments are invalid
+     */
+    public Booking(int id, LazyReference<ActivitySchedule> schedule, String customerName, int numberOfPeople) {
+        if (schedule == null) {
+            throw new ValidationException("Schedule cannot be null.");
+        }
+        if (customerName == null || customerName.trim().isEmpty()) {
+            throw new ValidationException("Customer name cannot be null or empty.");
+        }
+        if (numberOfPeople <= 0) {
+            throw new ValidationException("Number of people must be greater than 0.");
+        }
+
+        this.id = id;
+        this.schedule = schedule;
+        this.customerName = customerName;
+        this.numberOfPeople = numberOfPeople;
     }
 
     /**
@@ -71,7 +100,16 @@ public class Booking implements Identifiable {
      * @return the associated activity schedule
      */
     public ActivitySchedule getSchedule() {
-        return schedule;
+        return schedule == null ? null : schedule.get();
+    }
+
+    /**
+     * Gets the ID of the activity schedule associated with the booking, without loading the schedule.
+     *
+     * @return the ID of the associated activity schedule
+     */
+    public int getScheduleId() {
+        return schedule.getId();
     }
 
     /**
@@ -84,7 +122,7 @@ public class Booking implements Identifiable {
         if (schedule == null) {
             throw new ValidationException("Schedule cannot be null.");
         }
-        this.schedule = schedule;
+        this.schedule = LazyReference.of(schedule);
     }
 
     /**
@@ -128,7 +166,7 @@ public class Booking implements Identifiable {
         if (numberOfPeople <= 0) {
             throw new ValidationException("Number of people must be greater than 0.");
         }
-        if (schedule != null && numberOfPeople > schedule.getAvailableCapacity()) {
+        if (schedule != null && numberOfPeople > getSchedule().getAvailableCapacity()) {
             throw new BusinessLogicException("Insufficient capacity for the specified number of people.");
         }
         this.numberOfPeople = numberOfPeople;
@@ -142,7 +180,7 @@ public class Booking implements Identifiable {
                         "- Schedule: %s\n" +
                         "- Customer Name: %s\n" +
                         "- Number of People: %d",
-                id, schedule, customerName, numberOfPeople
+                id, getSchedule(), customerName, numberOfPeople
         );
     }
 }
@@ -1,5 +1,6 @@
 package Domain;
 
+import Repository.CsvWriter;
 import Repository.EntityParser;
 import Repository.Identifiable;
 
@@ -210,14 +211,17 @@ public class Event extends ReviewableEntity implements Identifiable {
 
     @Override
     public String toCSV() {
-        return "Event," + getId() + "," +
-                getName() + "," +
-                getLocation() + "," +
-                getCapacity() + "," +
-                getEventType() + "," +
-                getCurrentSize() + "," +
-                getStartDate() + "," +
-                getEndDate() + "," +
-                getPrice();
+        return new CsvWriter(',')
+                .field("Event")
+                .field(getId())
+                .field(getName())
+                .field(getLocation())
+                .field(getCapacity())
+                .field(getEventType())
+                .field(getCurrentSize())
+                .field(getStartDate())
+                .field(getEndDate())
+                .field(getPrice())
+                .toString();
     }
 }
@@ -1,5 +1,6 @@
 package Domain;
 
+import Repository.CsvWriter;
 import Repository.EntityParser;
 import Repository.Identifiable;
 import Exception.*;
@@ -67,11 +68,14 @@ public class FreeActivity extends ReviewableEntity implements Identifiable {
 
     @Override
     public String toCSV() {
-        return "FreeActivity," + getId() + "," +
-                getName() + "," +
-                getLocation() + "," +
-                getEventType() + "," +
-                getProgram();
+        return new CsvWriter(',')
+                .field("FreeActivity")
+                .field(getId())
+                .field(getName())
+                .field(getLocation())
+                .field(getEventType())
+                .field(getProgram())
+                .toString();
     }
 
     @Override
@@ -2,6 +2,7 @@ package Domain;
 
 import Repository.EntityParser;
 import Repository.Identifiable;
+import Repository.LazyReference;
 import Exception.*;
 import java.time.LocalDateTime;
 
@@ -14,7 +15,7 @@ public class Payment implements Identifiable {
     private int id;
     private double amount;
     private LocalDateTime date;
-    private User user;
+    private LazyReference<User> user;
     private String paymentMethod;
 
     /**
@@ -28,6 +29,20 @@ public class Payment implements Identifiable {
      * @throws ValidationException if any parameter is invalid
      */
     public Payment(int id, double amount, LocalDateTime date, User user, String paymentMethod) {
+        this(id, amount, date, LazyReference.of(user), paymentMethod);
+    }
+
+    /**
+     * Constructs a Payment instance whose user is loaded on first access.
+     *
+     * @param id            the unique identifier of the payment
+     * @param amount        the amount of the payment
+     * @param date          the date and time of the payment
+     * @param user          a reference to the user who made the payment
+     * @param paymentMethod the method of payment (e.g., "CASH", "CARD")
+     * @throws ValidationException if any parameter is invalid
+     */
+    public Payment(int id, double amount, LocalDateTime date, LazyReference<User> user, String paymentMethod) {
         if (amount <= 0) {
             throw new ValidationException("Payment amount must be greater than 0.");
         }
@@ -122,7 +137,16 @@ public class Payment implements Identifiable {
      * @return the user who made the payment
      */
     public User getUser() {
-        return user;
+        return user == null ? null : user.get();
+    }
+
+    /**
+     * Gets the ID of the user who made the payment, without loading the user.
+     *
+     * @return the ID of the user who made the payment
+     */
+    public int getUserId() {
+        return user.getId();
     }
 
     /**
@@ -135,7 +159,7 @@ public class Payment implements Identifiable {
         if (user == null) {
             throw new ValidationException("User cannot be null.");
         }
-        this.user = user;
+        this.user = LazyReference.of(user);
     }
 
     /**
@@ -169,7 +193,7 @@ public class Payment implements Identifiable {
                         "- Date: %s\n" +
                         "- User: %s\n" +
                         "- Payment Method: %s\n",
-                id, amount, date, user, paymentMethod
+                id, amount, date, getUser(), paymentMethod
         );
     }
 }
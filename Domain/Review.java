@@ -2,6 +2,7 @@ package Domain;
 
 import Repository.EntityParser;
 import Repository.Identifiable;
+import Repository.LazyReference;
 import Exception.*;
 
 import java.time.LocalDateTime;
@@ -12,7 +13,7 @@ import java.time.LocalDateTime;
  */
 public class Review implements Identifiable {
     private int id;
-    private User user;
+    private LazyReference<User> user;
     private ReviewableEntity reviewableEntity;
     private String comment;
     private LocalDateTime reviewDate;
@@ -28,6 +29,20 @@ public class Review implements Identifiable {
      * @throws ValidationException if any parameter is invalid
      */
     public Review(int id, User user, ReviewableEntity reviewableEntity, String comment, LocalDateTime reviewDate) {
+        this(id, LazyReference.of(user), reviewableEntity, comment, reviewDate);
+    }
+
+    /**
+     * Constructs a Review instance whose user is loaded on first access.
+     *
+     * @param id               the unique identifier of the review
+     * @param user             a reference to the user who created the review
+     * @param reviewableEntity the entity (activity, event, etc.) being reviewed
+     * @param comment          the textual content of the review
+     * @param reviewDate       the date and time the review was made
+     * @throws ValidationException if any parameter is invalid
+     */
+    public Review(int id, LazyReference<User> user, ReviewableEntity reviewableEntity, String comment, LocalDateTime reviewDate) {
         if (user == null) {
             throw new ValidationException("User cannot be null.");
         }
@@ -78,7 +93,16 @@ public class Review implements Identifiable {
      * @return the user who created the review
      */
     public User getUser() {
-        return user;
+        return user == null ? null : user.get();
+    }
+
+    /**
+     * Gets the ID of the user who created the review, without loading the user.
+     *
+     * @return the ID of the user who created the review
+     */
+    public int getUserId() {
+        return user.getId();
     }
 
     /**
@@ -91,7 +115,7 @@ public class Review implements Identifiable {
         if (user == null) {
             throw new ValidationException("User cannot be null.");
         }
-        this.user = user;
+        this.user = LazyReference.of(user);
     }
 
     /**
@@ -175,7 +199,7 @@ public class Review implements Identifiable {
                         "- Comment: %s\n" +
                         "- Review Date: %s\n",
                 id,
-                user != null ? user.toString() : "No user",
+                user != null ? user.get().toString() : "No user",
                 reviewableEntity != null ? reviewableEntity.toString() : "No reviewable entity",
                 comment != null ? comment : "No comment",
                 reviewDate != null ? reviewDate.toString() : "No review date"
@@ -2,6 +2,7 @@ package Domain;
 
 import Repository.EntityParser;
 import Repository.Identifiable;
+import Repository.LazyReference;
 import Exception.*;
 
 
@@ -11,7 +12,7 @@ import Exception.*;
  */
 public class Ticket implements Identifiable {
     private int id;
-    private ReviewableEntity event;
+    private LazyReference<? extends ReviewableEntity> event;
     private User owner;
     private String participantName;
 
@@ -25,6 +26,19 @@ public class Ticket implements Identifiable {
      * @throws ValidationException if any parameter is invalid
      */
     public Ticket(int id, ReviewableEntity event, User owner, String participantName) {
+        this(id, LazyReference.of(event), owner, participantName);
+    }
+
+    /**
+     * Constructs a new {@code Ticket} whose event is loaded on first access.
+     *
+     * @param id              the unique identifier for the ticket.
+     * @param event           a reference to the event or activity associated with the ticket.
+     * @param owner           the user who owns the ticket.
+     * @param participantName the name of the participant for whom the ticket is reserved.
+     * @throws ValidationException if any parameter is invalid
+     */
+    public Ticket(int id, LazyReference<? extends ReviewableEntity> event, User owner, String participantName) {
         if (event == null) {
             throw new ValidationException("Event cannot be null.");
         }
@@ -71,7 +85,26 @@ public class Ticket implements Identifiable {
      * @return the associated event or activity.
      */
     public ReviewableEntity getEvent() {
-        return event;
+        return event == null ? null : event.get();
+    }
+
+    /**
+     * Gets the ID of the event or activity associated with the ticket, without loading it.
+     *
+     * @return the ID of the associated event or activity.
+     */
+    public int getEventId() {
+        return event.getId();
+    }
+
+    /**
+     * Gets the class of the event or activity associated with the ticket, without loading it if its reference
+     * knows the class.
+     *
+     * @return the class of the associated event or activity.
+     */
+    public Class<? extends ReviewableEntity> getEventType() {
+        return event.getType();
     }
 
     /**
@@ -84,7 +117,7 @@ public class Ticket implements Identifiable {
         if (event == null) {
             throw new ValidationException("Event cannot be null.");
         }
-        this.event = event;
+        this.event = LazyReference.of(event);
     }
 
     /**
@@ -140,7 +173,7 @@ public class Ticket implements Identifiable {
                         "- Owner: %s\n" +
                         "- Participant Name: %s\n",
                 id,
-                event != null ? event.toString() : "No event",
+                event != null ? event.get().toString() : "No event",
                 owner != null ? owner.toString() : "No owner",
                 participantName != null ? participantName : "No participant name"
         );
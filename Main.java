@@ -9,9 +9,12 @@ import Parsers.ActivityParser;
 import Parsers.*;
 import SQLParser.*;
 
+import java.io.File;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.List;
 
 public class Main {
     public static void startInMemory() {
@@ -27,6 +30,11 @@ public class Main {
         InMemoryRepo userRepo = new InMemoryRepo();
         InMemoryRepo wishlistRepo = new InMemoryRepo();
 
+        // Brings the stores up to what the services expect, before any service uses them.
+        UserService.migrate(userRepo);
+        ActivityScheduleService.migrate(activityScheduleRepo);
+        ReviewService.migrate(reviewRepo);
+
         ActivityService activityService = new ActivityService(activityRepo);
         ActivityScheduleService activityScheduleService = new ActivityScheduleService(activityScheduleRepo);
         BookingService bookingService = new BookingService(bookingRepo);
@@ -115,52 +123,80 @@ public class Main {
     }
 
     public static void startInFile() {
+        startInFile(false);
+    }
+
+    /**
+     * Starts the application on CSV files.
+     *
+     * @param normalized whether entities refer to the entities of other files by ID, in the
+     *                   {@code .normalized.csv} files written by {@link #normalizeFiles()}, instead of embedding them.
+     */
+    public static void startInFile(boolean normalized) {
+        String referencingSuffix = normalized ? ".normalized.csv" : ".csv";
         String activityFile = "Files/activities.csv";
-        String activityScheduleFile = "Files/activity_schedules.csv";
-        String bookingFile = "bookings.csv";
+        String activityScheduleFile = "Files/activity_schedules" + referencingSuffix;
+        String bookingFile = "bookings" + referencingSuffix;
         String eventFile = "Files/events.csv";
         String freeActivityFile = "Files/free_activities.csv";
-        String paymentFile = "Files/payments.csv";
-        String reservationFile = "Files/reservations.csv";
-        String reviewFile = "Files/reviews.csv";
-        String ticketFile = "Files/tickets.csv";
+        String paymentFile = "Files/payments" + referencingSuffix;
+        String reservationFile = "Files/reservations" + referencingSuffix;
+        String reviewFile = "Files/reviews" + referencingSuffix;
+        String ticketFile = "Files/tickets" + referencingSuffix;
         String userFile = "Files/users.csv";
-        String wishlistFile = "Files/wishlists.csv";
+        String wishlistFile = "Files/wishlists" + referencingSuffix;
 
         UserParser userParser = new UserParser();
         ActivityParser activityParser = new ActivityParser();
         ActivityScheduleParser activityScheduleParser = new ActivityScheduleParser(activityParser);
-        BookingParser bookingParser = new BookingParser(activityScheduleParser);
         EventParser eventParser = new EventParser();
         FreeActivityParser freeActivityParser = new FreeActivityParser();
-        PaymentParser paymentParser = new PaymentParser(userParser);
-        ReservationParser reservationParser = new ReservationParser(userParser, activityScheduleParser);
-        ReviewParser reviewParser = new ReviewParser();
-        TicketParser ticketParser = new TicketParser();
-        WishlistParser wishlistParser = new WishlistParser();
 
         IRepository<Activity> activityRepo = new FileRepository<>(activityFile, activityParser);
-        IRepository<ActivitySchedule> activityScheduleRepo = new FileRepository<>(activityScheduleFile, activityScheduleParser);
-        IRepository<Booking> bookingRepo = new FileRepository<>(bookingFile, bookingParser);
         IRepository<Event> eventRepo = new FileRepository<>(eventFile, eventParser);
         IRepository<FreeActivity> freeActivityRepo = new FileRepository<>(freeActivityFile, freeActivityParser);
-        IRepository<Payment> paymentRepo = new FileRepository<>(paymentFile, paymentParser);
-        IRepository<Reservation> reservationRepo = new FileRepository<>(reservationFile, reservationParser);
-        IRepository<Review> reviewRepo = new FileRepository<>(reviewFile, reviewParser);
-        IRepository<Ticket> ticketRepo = new FileRepository<>(ticketFile, ticketParser);
-        IRepository<User> userRepo = new FileRepository<>(userFile, userParser);
-        IRepository<Wishlist> wishlistRepo = new FileRepository<>(wishlistFile, wishlistParser);
+        FileRepository<User> userRepo = new FileRepository<>(userFile, userParser);
+
+        IRepository<ActivitySchedule> activityScheduleRepo = new FileRepository<>(activityScheduleFile, normalized
+                ? new NormalizedActivityScheduleParser(activityRepo)
+                : activityScheduleParser);
+        IRepository<Booking> bookingRepo = new FileRepository<>(bookingFile, normalized
+                ? new NormalizedBookingParser(activityScheduleRepo)
+                : new BookingParser(activityScheduleParser));
+        LogStructuredFileRepository<Payment> paymentRepo = new LogStructuredFileRepository<>(paymentFile, normalized
+                ? new NormalizedPaymentParser(userRepo)
+                : new PaymentParser(userParser));
+        IRepository<Reservation> reservationRepo = new FileRepository<>(reservationFile, normalized
+                ? new NormalizedReservationParser(userRepo, activityScheduleRepo)
+                : new ReservationParser(userParser, activityScheduleParser));
+        IRepository<Review> reviewRepo = new FileRepository<>(reviewFile, normalized
+                ? new NormalizedReviewParser(userRepo, activityRepo, eventRepo, freeActivityRepo)
+                : new ReviewParser());
+        LogStructuredFileRepository<Ticket> ticketRepo = new LogStructuredFileRepository<>(ticketFile, normalized
+                ? new NormalizedTicketParser(userRepo, activityRepo, eventRepo, freeActivityRepo)
+                : new TicketParser());
+        IRepository<Wishlist> wishlistRepo = new FileRepository<>(wishlistFile, normalized
+                ? new NormalizedWishlistParser(userRepo, activityRepo, eventRepo, freeActivityRepo)
+                : new WishlistParser());
+        WriteAheadLog checkoutJournal = new WriteAheadLog(Path.of("Files/checkout.journal"), 0);
+        // Redoes a checkout that did not complete on every store, before anything reads them.
+        UnitOfWork checkout = new UnitOfWork(checkoutJournal, userRepo, paymentRepo, ticketRepo);
+
+        // Brings the stores up to what the services expect, before any service uses them.
+        UserService.migrate(userRepo);
+        ActivityScheduleService.migrate(activityScheduleRepo);
+        ReviewService.migrate(reviewRepo);
 
         ActivityService activityService = new ActivityService(activityRepo);
         ActivityScheduleService activityScheduleService = new ActivityScheduleService(activityScheduleRepo);
         BookingService bookingService = new BookingService(bookingRepo);
         EventService eventService = new EventService(eventRepo);
         FreeActivityService freeActivityService = new FreeActivityService(freeActivityRepo);
-        PaymentService paymentService = new PaymentService(paymentRepo);
+        PaymentService paymentService = new PaymentService(paymentRepo, new FileIdGenerator("Files/payments.id", paymentRepo));
         ReservationService reservationService = new ReservationService(reservationRepo);
         ReviewService reviewService = new ReviewService(reviewRepo);
-        TicketService ticketService = new TicketService(ticketRepo);
-        UserService userService = new UserService(userRepo);
+        TicketService ticketService = new TicketService(ticketRepo, new FileIdGenerator("Files/tickets.id", ticketRepo));
+        UserService userService = new UserService(userRepo, new FileIdGenerator("Files/users.id", userRepo));
         WishlistService wishlistService = new WishlistService(wishlistRepo);
 
         AdminController adminController = new AdminController(
@@ -187,77 +223,94 @@ public class Main {
                 reservationService,
                 reviewService,
                 ticketService,
-                wishlistService
+                wishlistService,
+                checkout
         );
 
         PresentationAdmin adminMenu = new PresentationAdmin(adminController);
         PresentationUser userMenu = new PresentationUser(userController);
 
         RoleBasedMenuService menuService = new RoleBasedMenuService(adminMenu, userMenu);
-        LoginUI loginUI = new LoginUI(adminController, userController, menuService);
+        LoginUI loginUI = new LoginUI(adminController, userController, menuService, () -> {
+            checkoutJournal.close();
+            ticketRepo.close();
+            paymentRepo.close();
+        });
         loginUI.start();
     }
 
     public static void startInDb() {
         DatabaseConnection dbConnection = new DatabaseConnection();
-        java.sql.Connection connection = dbConnection.getConnection();
+        javax.sql.DataSource dataSource = dbConnection.getDataSource();
 
         UserSQLParser userParser = new UserSQLParser();
-        DBRepository<User> userRepo = new DBRepository<>(connection, "users", userParser);
+        DBRepository<User> userRepo = new DBRepository<>(dataSource, "users", userParser);
 
         ActivitySQLParser activityParser = new ActivitySQLParser();
-        DBRepository<Activity> activityRepo = new DBRepository<>(connection, "activities", activityParser);
+        DBRepository<Activity> activityRepo = new DBRepository<>(dataSource, "activities", activityParser);
 
-        ActivityScheduleSQLParser activityScheduleParser = new ActivityScheduleSQLParser(activityParser, activityRepo);
-        DBRepository<ActivitySchedule> activityScheduleRepo = new DBRepository<>(connection, "activity_schedules", activityScheduleParser);
+        ActivityScheduleSQLParser activityScheduleParser = new ActivityScheduleSQLParser(activityParser);
+        DBRepository<ActivitySchedule> activityScheduleRepo = new DBRepository<>(dataSource, "activity_schedules", activityScheduleParser);
 
         BookingSQLParser bookingParser = new BookingSQLParser(activityScheduleRepo);
 
         PaymentSQLParser paymentParser = new PaymentSQLParser(userRepo);
 
-        ReservationSQLParser reservationParser = new ReservationSQLParser(userRepo, activityScheduleRepo);
+        ReservationSQLParser reservationParser = new ReservationSQLParser(userParser, activityScheduleParser);
+
+        EventSQLParser eventParser = new EventSQLParser();
+        DBRepository<Event> eventRepo = new DBRepository<>(dataSource, "events", eventParser);
+        FreeActivitySQLParser freeActivityParser = new FreeActivitySQLParser();
+        DBRepository<FreeActivity> freeActivityRepo = new DBRepository<>(dataSource, "free_activities", freeActivityParser);
 
-        DBRepository<Event> eventRepo = new DBRepository<>(connection, "events", new EventSQLParser());
-        DBRepository<FreeActivity> freeActivityRepo = new DBRepository<>(connection, "free_activities", new FreeActivitySQLParser());
+        // The event and activity catalog is read far more often than it changes, so reads by ID are cached.
+        IRepository<Activity> cachedActivityRepo = new CachingRepository<>(activityRepo, 1_000, 300_000);
+        IRepository<Event> cachedEventRepo = new CachingRepository<>(eventRepo, 1_000, 300_000);
 
         ReviewSQLParser reviewParser = new ReviewSQLParser(
                 userRepo,
-                activityRepo,
-                eventRepo,
-                freeActivityRepo
+                activityParser,
+                eventParser,
+                freeActivityParser
         );
 
         TicketSQLParser ticketParser = new TicketSQLParser(
-                userRepo,
-                activityRepo,
-                eventRepo,
+                userParser,
+                cachedActivityRepo,
+                cachedEventRepo,
                 freeActivityRepo
         );
 
         WishlistSQLParser wishlistParser = new WishlistSQLParser(
                 userRepo,
-                activityRepo,
-                eventRepo,
-                freeActivityRepo
+                cachedActivityRepo,
+                cachedEventRepo,
+                freeActivityRepo,
+                new HiLoIdGenerator(dataSource, "wishlist_items", 50)
         );
 
-        IRepository<Booking> bookingRepo = new DBRepository<>(connection, "bookings", bookingParser);
-        IRepository<Payment> paymentRepo = new DBRepository<>(connection, "payments", paymentParser);
-        IRepository<Reservation> reservationRepo = new DBRepository<>(connection, "reservations", reservationParser);
-        IRepository<Review> reviewRepo = new DBRepository<>(connection, "reviews", reviewParser);
-        IRepository<Ticket> ticketRepo = new DBRepository<>(connection, "tickets", ticketParser);
-        IRepository<Wishlist> wishlistRepo = new DBRepository<>(connection, "wishlists", wishlistParser);
+        IRepository<Booking> bookingRepo = new DBRepository<>(dataSource, "bookings", bookingParser);
+        IRepository<Payment> paymentRepo = new DBRepository<>(dataSource, "payments", paymentParser);
+        IRepository<Reservation> reservationRepo = new DBRepository<>(dataSource, "reservations", reservationParser);
+        IRepository<Review> reviewRepo = new DBRepository<>(dataSource, "reviews", reviewParser);
+        IRepository<Ticket> ticketRepo = new DBRepository<>(dataSource, "tickets", ticketParser);
+        IRepository<Wishlist> wishlistRepo = new DBRepository<>(dataSource, "wishlists", wishlistParser);
 
-        ActivityService activityService = new ActivityService(activityRepo);
+        // Brings the stores up to what the services expect, before any service uses them.
+        UserService.migrate(userRepo);
+        ActivityScheduleService.migrate(activityScheduleRepo);
+        ReviewService.migrate(reviewRepo);
+
+        ActivityService activityService = new ActivityService(cachedActivityRepo);
         ActivityScheduleService activityScheduleService = new ActivityScheduleService(activityScheduleRepo);
         BookingService bookingService = new BookingService(bookingRepo);
-        EventService eventService = new EventService(eventRepo);
+        EventService eventService = new EventService(cachedEventRepo);
         FreeActivityService freeActivityService = new FreeActivityService(freeActivityRepo);
-        PaymentService paymentService = new PaymentService(paymentRepo);
+        PaymentService paymentService = new PaymentService(paymentRepo, new HiLoIdGenerator(dataSource, "payments", 50));
         ReservationService reservationService = new ReservationService(reservationRepo);
         ReviewService reviewService = new ReviewService(reviewRepo);
-        TicketService ticketService = new TicketService(ticketRepo);
-        UserService userService = new UserService(userRepo);
+        TicketService ticketService = new TicketService(ticketRepo, new HiLoIdGenerator(dataSource, "tickets", 50));
+        UserService userService = new UserService(userRepo, new HiLoIdGenerator(dataSource, "users", 50));
         WishlistService wishlistService = new WishlistService(wishlistRepo);
 
         AdminController adminController = new AdminController(
@@ -285,7 +338,8 @@ public class Main {
                 reservationService,
                 reviewService,
                 ticketService,
-                wishlistService
+                wishlistService,
+                new UnitOfWork(new JdbcTransaction(dataSource))
         );
 
         PresentationAdmin adminMenu = new PresentationAdmin(adminController);
@@ -302,9 +356,95 @@ public class Main {
 
 
 
+    /**
+     * Converts the CSV files of the file mode into binary files next to them, for use with
+     * {@link FileRepository#binary(String, BinaryParser)}. Missing CSV files are skipped.
+     */
+    public static void convertFilesToBinary() {
+        UserParser userParser = new UserParser();
+        ActivityParser activityParser = new ActivityParser();
+        ActivityScheduleParser activityScheduleParser = new ActivityScheduleParser(activityParser);
+
+        convertToBinary("Files/activities", activityParser, activityParser);
+        convertToBinary("Files/activity_schedules", activityScheduleParser, activityScheduleParser);
+        BookingParser bookingParser = new BookingParser(activityScheduleParser);
+        convertToBinary("bookings", bookingParser, bookingParser);
+        EventParser eventParser = new EventParser();
+        convertToBinary("Files/events", eventParser, eventParser);
+        FreeActivityParser freeActivityParser = new FreeActivityParser();
+        convertToBinary("Files/free_activities", freeActivityParser, freeActivityParser);
+        PaymentParser paymentParser = new PaymentParser(userParser);
+        convertToBinary("Files/payments", paymentParser, paymentParser);
+        ReservationParser reservationParser = new ReservationParser(userParser, activityScheduleParser);
+        convertToBinary("Files/reservations", reservationParser, reservationParser);
+        ReviewParser reviewParser = new ReviewParser();
+        convertToBinary("Files/reviews", reviewParser, reviewParser);
+        TicketParser ticketParser = new TicketParser();
+        convertToBinary("Files/tickets", ticketParser, ticketParser);
+        convertToBinary("Files/users", userParser, userParser);
+        WishlistParser wishlistParser = new WishlistParser();
+        convertToBinary("Files/wishlists", wishlistParser, wishlistParser);
+    }
+
+    private static <T> void convertToBinary(String baseName, EntityParser<T> csvParser,
+                                            BinaryParser<T> binaryParser) {
+        String csvFile = baseName + ".csv";
+        if (!new File(csvFile).exists()) {
+            return;
+        }
+        int count = FileRepository.convertCsvToBinary(csvFile, baseName + ".bin", csvParser, binaryParser);
+        System.out.println("Converted " + count + " records from " + csvFile + ".");
+    }
+
+    /**
+     * Rewrites the CSV files of the file mode whose entities embed other entities into {@code .normalized.csv}
+     * files next to them, in which those entities are referred to by ID, for use with {@link #startInFile(boolean)}.
+     * Missing CSV files are skipped; existing normalized files are replaced.
+     */
+    public static void normalizeFiles() {
+        UserParser userParser = new UserParser();
+        ActivityParser activityParser = new ActivityParser();
+        ActivityScheduleParser activityScheduleParser = new ActivityScheduleParser(activityParser);
+
+        IRepository<Activity> activityRepo = new FileRepository<>("Files/activities.csv", activityParser);
+        IRepository<Event> eventRepo = new FileRepository<>("Files/events.csv", new EventParser());
+        IRepository<FreeActivity> freeActivityRepo = new FileRepository<>("Files/free_activities.csv", new FreeActivityParser());
+        IRepository<User> userRepo = new FileRepository<>("Files/users.csv", userParser);
+        IRepository<ActivitySchedule> activityScheduleRepo =
+                new FileRepository<>("Files/activity_schedules.normalized.csv", new NormalizedActivityScheduleParser(activityRepo));
+
+        normalize("Files/activity_schedules", activityScheduleParser, new NormalizedActivityScheduleParser(activityRepo));
+        normalize("bookings", new BookingParser(activityScheduleParser), new NormalizedBookingParser(activityScheduleRepo));
+        normalize("Files/payments", new PaymentParser(userParser), new NormalizedPaymentParser(userRepo));
+        normalize("Files/reservations", new ReservationParser(userParser, activityScheduleParser),
+                new NormalizedReservationParser(userRepo, activityScheduleRepo));
+        normalize("Files/reviews", new ReviewParser(),
+                new NormalizedReviewParser(userRepo, activityRepo, eventRepo, freeActivityRepo));
+        normalize("Files/tickets", new TicketParser(),
+                new NormalizedTicketParser(userRepo, activityRepo, eventRepo, freeActivityRepo));
+        normalize("Files/wishlists", new WishlistParser(),
+                new NormalizedWishlistParser(userRepo, activityRepo, eventRepo, freeActivityRepo));
+    }
+
+    private static <T extends Identifiable> void normalize(String baseName, EntityParser<T> embeddingParser,
+                                                           EntityParser<T> normalizedParser) {
+        File embeddedFile = new File(baseName + ".csv");
+        if (!embeddedFile.exists()) {
+            return;
+        }
+        File normalizedFile = new File(baseName + ".normalized.csv");
+        normalizedFile.delete();
+        List<T> entities = new FileRepository<>(embeddedFile.getPath(), embeddingParser).findAll();
+        new FileRepository<>(normalizedFile.getPath(), normalizedParser).createAll(entities);
+        System.out.println("Normalized " + entities.size() + " records from " + embeddedFile + ".");
+    }
+
     public static void main(String[] args) {
+//              convertFilesToBinary();
+//              normalizeFiles();
 //              startInMemory();
 //                startInFile();
+//                startInFile(true);
         startInDb();
     }
 }
@@ -1,9 +1,13 @@
 package Parsers;
 
 import Domain.*;
+import Repository.BinaryParser;
+import Repository.CsvTokenizer;
 import Repository.EntityParser;
+import Repository.RecordReader;
+import Repository.RecordWriter;
 
-public class ActivityParser implements EntityParser<Activity> {
+public class ActivityParser implements EntityParser<Activity>, BinaryParser<Activity> {
 
     @Override
     public String toCSV(Activity activity) {
@@ -12,30 +16,41 @@ public class ActivityParser implements EntityParser<Activity> {
 
     @Override
     public Activity parseFromCSV(String csv) {
-        String[] fields = csv.split(",");
+        CsvTokenizer fields = new CsvTokenizer(csv, ',');
+        fields.skip();
 
-        int id = Integer.parseInt(fields[1]);
-        String name = fields[2];
-        int capacity = Integer.parseInt(fields[3]);
-        String location = unescape(fields[4]);
-        EventType category = EventType.valueOf(fields[5].toUpperCase());
-        String description = unescape(fields[6]);
-        double price = Double.parseDouble(fields[7]);
+        int id = fields.nextInt();
+        String name = fields.next();
+        int capacity = fields.nextInt();
+        String location = fields.next();
+        EventType category = fields.nextEnum(EventType.class);
+        String description = fields.next();
+        double price = fields.nextDouble();
 
         return new Activity(id, name, capacity, location, category, description, price);
     }
 
-    private String escape(String value) {
-        return "\"" + value.replace("\"", "\"\"") + "\"";
+    @Override
+    public void write(RecordWriter out, Activity activity) {
+        out.writeInt(activity.getId());
+        out.writeString(activity.getName());
+        out.writeInt(activity.getCapacity());
+        out.writeString(activity.getLocation());
+        out.writeEnum(activity.getCategory());
+        out.writeString(activity.getDescription());
+        out.writeDouble(activity.getPrice());
     }
 
-    private String unescape(String value) {
-        return value.replace("\"\"", "\"").replaceAll("^\"|\"$", "");
-    }
+    @Override
+    public Activity read(RecordReader in) {
+        int id = in.readInt();
+        String name = in.readString();
+        int capacity = in.readInt();
+        String location = in.readString();
+        EventType category = in.readEnum(EventType.class);
+        String description = in.readString();
+        double price = in.readDouble();
 
-    private void validateFieldLength(String[] fields, int expectedLength) {
-        if (fields.length < expectedLength) {
-            throw new IllegalArgumentException("Invalid CSV format, missing fields.");
-        }
+        return new Activity(id, name, capacity, location, category, description, price);
     }
 }
@@ -1,6 +1,11 @@
 package Parsers;
 
+import Repository.BinaryParser;
+import Repository.CsvTokenizer;
+import Repository.CsvWriter;
 import Repository.EntityParser;
+import Repository.RecordReader;
+import Repository.RecordWriter;
 import Domain.*;
 import java.time.LocalDate;
 import java.time.LocalTime;
@@ -8,7 +13,7 @@ import java.time.LocalTime;
 /**
  * A parser for {@link ActivitySchedule} entities.
  */
-public class ActivityScheduleParser implements EntityParser<ActivitySchedule> {
+public class ActivityScheduleParser implements EntityParser<ActivitySchedule>, BinaryParser<ActivitySchedule> {
 
     private final ActivityParser activityParser;
 
@@ -23,26 +28,52 @@ public class ActivityScheduleParser implements EntityParser<ActivitySchedule> {
 
     @Override
     public String toCSV(ActivitySchedule schedule) {
-        return schedule.getId() + ";" +
-                activityParser.toCSV(schedule.getActivity()) + ";" +
-                schedule.getDate() + ";" +
-                schedule.getStartTime() + ";" +
-                schedule.getEndTime() + ";" +
-                schedule.getAvailableCapacity();
+        return new CsvWriter(';')
+                .field(schedule.getId())
+                .field(activityParser.toCSV(schedule.getActivity()))
+                .field(schedule.getDate())
+                .field(schedule.getStartTime())
+                .field(schedule.getEndTime())
+                .field(schedule.getAvailableCapacity())
+                .toString();
     }
 
     @Override
     public ActivitySchedule parseFromCSV(String csv) {
-        String[] fields = csv.split(";");
-        System.out.println(fields);
-        int id = Integer.parseInt(fields[0]);
+        CsvTokenizer fields = new CsvTokenizer(csv, ';');
+        int id = fields.nextInt();
 
-        Activity activity = activityParser.parseFromCSV(fields[1]);
+        Activity activity = activityParser.parseFromCSV(fields.next());
 
-        LocalDate date = LocalDate.parse(fields[2]);
-        LocalTime startTime = LocalTime.parse(fields[3]);
-        LocalTime endTime = LocalTime.parse(fields[4]);
-        int availableCapacity = Integer.parseInt(fields[5]);
+        LocalDate date = fields.nextDate();
+        LocalTime startTime = fields.nextTime();
+        LocalTime endTime = fields.nextTime();
+        int availableCapacity = fields.nextInt();
+
+        ActivitySchedule schedule = new ActivitySchedule(activity, date, startTime, endTime, availableCapacity);
+        schedule.setId(id);
+
+        return schedule;
+    }
+
+    @Override
+    public void write(RecordWriter out, ActivitySchedule schedule) {
+        out.writeInt(schedule.getId());
+        out.writeRecord(activityParser, schedule.getActivity());
+        out.writeDate(schedule.getDate());
+        out.writeTime(schedule.getStartTime());
+        out.writeTime(schedule.getEndTime());
+        out.writeInt(schedule.getAvailableCapacity());
+    }
+
+    @Override
+    public ActivitySchedule read(RecordReader in) {
+        int id = in.readInt();
+        Activity activity = in.readRecord(activityParser);
+        LocalDate date = in.readDate();
+        LocalTime startTime = in.readTime();
+        LocalTime endTime = in.readTime();
+        int availableCapacity = in.readInt();
 
         ActivitySchedule schedule = new ActivitySchedule(activity, date, startTime, endTime, availableCapacity);
         schedule.setId(id);
@@ -2,12 +2,18 @@ package Parsers;
 
 import Domain.ActivitySchedule;
 import Domain.Booking;
+import Repository.BinaryParser;
+import Repository.CsvTokenizer;
+import Repository.CsvWriter;
 import Repository.EntityParser;
+import Repository.RecordReader;
+import Repository.RecordWriter;
+import Repository.LazyReference;
 
 /**
  * A parser for the {@link Booking} class, used for converting between {@code Booking} objects and their CSV representation.
  */
-public class BookingParser implements EntityParser<Booking> {
+public class BookingParser implements EntityParser<Booking>, BinaryParser<Booking> {
 
     private final ActivityScheduleParser activityScheduleParser;
 
@@ -22,23 +28,50 @@ public class BookingParser implements EntityParser<Booking> {
 
     @Override
     public String toCSV(Booking booking) {
-        return booking.getId() + "|" +
-                activityScheduleParser.toCSV(booking.getSchedule()) + "|" +
-                booking.getCustomerName() + "|" +
-                booking.getNumberOfPeople();
+        return new CsvWriter('|')
+                .field(booking.getId())
+                .field(activityScheduleParser.toCSV(booking.getSchedule()))
+                .field(booking.getCustomerName())
+                .field(booking.getNumberOfPeople())
+                .toString();
     }
 
     @Override
     public Booking parseFromCSV(String csv) {
-        String[] fields = csv.split("\\|");
+        CsvTokenizer fields = new CsvTokenizer(csv, '|');
 
-        int id = Integer.parseInt(fields[0]);
-        ActivitySchedule schedule = activityScheduleParser.parseFromCSV(fields[1]);
-        String customerName = fields[2];
-        int numberOfPeople = Integer.parseInt(fields[3]);
+        int id = fields.nextInt();
+        String scheduleCSV = fields.next();
+        int scheduleId = new CsvTokenizer(scheduleCSV, ';').nextInt();
+        String customerName = fields.next();
+        int numberOfPeople = fields.nextInt();
 
-        Booking booking = new Booking(schedule, customerName, numberOfPeople);
-        booking.setId(id);
-        return booking;
+        // The embedded schedule is only parsed if the booking's schedule is accessed.
+        LazyReference<ActivitySchedule> schedule =
+                LazyReference.lazy(scheduleId, ignored -> activityScheduleParser.parseFromCSV(scheduleCSV));
+        return new Booking(id, schedule, customerName, numberOfPeople);
+    }
+
+    @Override
+    public void write(RecordWriter out, Booking booking) {
+        out.writeInt(booking.getId());
+        out.writeInt(booking.getScheduleId());
+        out.writeRecord(activityScheduleParser, booking.getSchedule());
+        out.writeString(booking.getCustomerName());
+        out.writeInt(booking.getNumberOfPeople());
+    }
+
+    @Override
+    public Booking read(RecordReader in) {
+        int id = in.readInt();
+        int scheduleId = in.readInt();
+        RecordReader scheduleRecord = in.nextRecord();
+        String customerName = in.readString();
+        int numberOfPeople = in.readInt();
+
+        // The nested schedule record is only decoded if the booking's schedule is accessed.
+        LazyReference<ActivitySchedule> schedule =
+                LazyReference.lazy(scheduleId, ignored -> activityScheduleParser.read(scheduleRecord));
+        return new Booking(id, schedule, customerName, numberOfPeople);
     }
 }
@@ -1,13 +1,17 @@
 package Parsers;
 
 import Domain.*;
+import Repository.BinaryParser;
+import Repository.CsvTokenizer;
 import Repository.EntityParser;
+import Repository.RecordReader;
+import Repository.RecordWriter;
 import java.time.LocalDateTime;
 
 /**
  * A parser for {@link Event} entities.
  */
-public class EventParser implements EntityParser<Event> {
+public class EventParser implements EntityParser<Event>, BinaryParser<Event> {
 
     @Override
     public String toCSV(Event event) {
@@ -16,19 +20,47 @@ public class EventParser implements EntityParser<Event> {
 
     @Override
     public Event parseFromCSV(String csv) {
-        String[] fields = csv.split(",");
-
-        int id = Integer.parseInt(fields[1]);
-        String name = fields[2];
-        String location = fields[3];
-        int capacity = Integer.parseInt(fields[4]);
-        EventType eventType = EventType.valueOf(fields[5].toUpperCase());
-        int currentSize = Integer.parseInt(fields[6]);
-        LocalDateTime startDate = LocalDateTime.parse(fields[7]);
-        LocalDateTime endDate = LocalDateTime.parse(fields[8]);
-        double price = Double.parseDouble(fields[9]);
+        CsvTokenizer fields = new CsvTokenizer(csv, ',');
+        fields.skip();
+
+        int id = fields.nextInt();
+        String name = fields.next();
+        String location = fields.next();
+        int capacity = fields.nextInt();
+        EventType eventType = fields.nextEnum(EventType.class);
+        int currentSize = fields.nextInt();
+        LocalDateTime startDate = fields.nextDateTime();
+        LocalDateTime endDate = fields.nextDateTime();
+        double price = fields.nextDouble();
 
         return new Event(id, name, location, capacity, eventType, currentSize, startDate, endDate, price);
     }
-}
 
+    @Override
+    public void write(RecordWriter out, Event event) {
+        out.writeInt(event.getId());
+        out.writeString(event.getName());
+        out.writeString(event.getLocation());
+        out.writeInt(event.getCapacity());
+        out.writeEnum(event.getEventType());
+        out.writeInt(event.getCurrentSize());
+        out.writeDateTime(event.getStartDate());
+        out.writeDateTime(event.getEndDate());
+        out.writeDouble(event.getPrice());
+    }
+
+    @Override
+    public Event read(RecordReader in) {
+        int id = in.readInt();
+        String name = in.readString();
+        String location = in.readString();
+        int capacity = in.readInt();
+        EventType eventType = in.readEnum(EventType.class);
+        int currentSize = in.readInt();
+        LocalDateTime startDate = in.readDateTime();
+        LocalDateTime endDate = in.readDateTime();
+        double price = in.readDouble();
+
+        return new Event(id, name, location, capacity, eventType, currentSize, startDate, endDate, price);
+    }
+}
@@ -1,12 +1,16 @@
 package Parsers;
 
 import Domain.*;
+import Repository.BinaryParser;
+import Repository.CsvTokenizer;
 import Repository.EntityParser;
+import Repository.RecordReader;
+import Repository.RecordWriter;
 
 /**
  * A parser for {@link FreeActivity} entities.
  */
-public class FreeActivityParser implements EntityParser<FreeActivity> {
+public class FreeActivityParser implements EntityParser<FreeActivity>, BinaryParser<FreeActivity> {
 
     @Override
     public String toCSV(FreeActivity activity) {
@@ -15,15 +19,35 @@ public class FreeActivityParser implements EntityParser<FreeActivity> {
 
     @Override
     public FreeActivity parseFromCSV(String csv) {
-        String[] fields = csv.split(",");
+        CsvTokenizer fields = new CsvTokenizer(csv, ',');
+        fields.skip();
 
-        int id = Integer.parseInt(fields[1]);
-        String name = fields[2];
-        String location = fields[3];
-        EventType eventType = EventType.valueOf(fields[4].toUpperCase());
-        String program = fields[5];
+        int id = fields.nextInt();
+        String name = fields.next();
+        String location = fields.next();
+        EventType eventType = fields.nextEnum(EventType.class);
+        String program = fields.next();
 
         return new FreeActivity(id, name, location, eventType, program);
     }
-}
 
+    @Override
+    public void write(RecordWriter out, FreeActivity activity) {
+        out.writeInt(activity.getId());
+        out.writeString(activity.getName());
+        out.writeString(activity.getLocation());
+        out.writeEnum(activity.getEventType());
+        out.writeString(activity.getProgram());
+    }
+
+    @Override
+    public FreeActivity read(RecordReader in) {
+        int id = in.readInt();
+        String name = in.readString();
+        String location = in.readString();
+        EventType eventType = in.readEnum(EventType.class);
+        String program = in.readString();
+
+        return new FreeActivity(id, name, location, eventType, program);
+    }
+}
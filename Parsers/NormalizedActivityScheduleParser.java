@@ -0,0 +1,57 @@
+package Parsers;
+
+import Domain.Activity;
+import Domain.ActivitySchedule;
+import Repository.CsvTokenizer;
+import Repository.CsvWriter;
+import Repository.EntityParser;
+import Repository.IRepository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * A parser for {@link ActivitySchedule} entities that stores the ID of the activity instead of embedding it.
+ * The activity is read from its repository when the schedule is parsed.
+ */
+public class NormalizedActivityScheduleParser implements EntityParser<ActivitySchedule> {
+
+    private final IRepository<Activity> activityRepo;
+
+    /**
+     * Constructs a {@link NormalizedActivityScheduleParser} with its dependencies.
+     *
+     * @param activityRepo the repository for {@link Activity} objects.
+     */
+    public NormalizedActivityScheduleParser(IRepository<Activity> activityRepo) {
+        this.activityRepo = activityRepo;
+    }
+
+    @Override
+    public String toCSV(ActivitySchedule schedule) {
+        return new CsvWriter(';')
+                .field(schedule.getId())
+                .field(schedule.getActivity().getId())
+                .field(schedule.getDate())
+                .field(schedule.getStartTime())
+                .field(schedule.getEndTime())
+                .field(schedule.getAvailableCapacity())
+                .toString();
+    }
+
+    @Override
+    public ActivitySchedule parseFromCSV(String csv) {
+        CsvTokenizer fields = new CsvTokenizer(csv, ';');
+        int id = fields.nextInt();
+        Activity activity = activityRepo.read(fields.nextInt());
+        LocalDate date = fields.nextDate();
+        LocalTime startTime = fields.nextTime();
+        LocalTime endTime = fields.nextTime();
+        int availableCapacity = fields.nextInt();
+
+        ActivitySchedule schedule = new ActivitySchedule(activity, date, startTime, endTime, availableCapacity);
+        schedule.setId(id);
+
+        return schedule;
+    }
+}
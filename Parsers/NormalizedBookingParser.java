@@ -0,0 +1,50 @@
+package Parsers;
+
+import Domain.ActivitySchedule;
+import Domain.Booking;
+import Repository.BatchLoader;
+import Repository.CsvTokenizer;
+import Repository.CsvWriter;
+import Repository.EntityParser;
+import Repository.IRepository;
+
+/**
+ * A parser for {@link Booking} entities that stores the ID of the schedule instead of embedding it.
+ * The schedule of a booking is loaded lazily, together with the schedules of the other bookings parsed by the same
+ * repository call.
+ */
+public class NormalizedBookingParser implements EntityParser<Booking> {
+
+    private final BatchLoader<ActivitySchedule> scheduleLoader;
+
+    /**
+     * Constructs a {@link NormalizedBookingParser} with its dependencies.
+     *
+     * @param activityScheduleRepo the repository for {@link ActivitySchedule} objects.
+     */
+    public NormalizedBookingParser(IRepository<ActivitySchedule> activityScheduleRepo) {
+        this.scheduleLoader = new BatchLoader<>(activityScheduleRepo);
+    }
+
+    @Override
+    public String toCSV(Booking booking) {
+        return new CsvWriter('|')
+                .field(booking.getId())
+                .field(booking.getScheduleId())
+                .field(booking.getCustomerName())
+                .field(booking.getNumberOfPeople())
+                .toString();
+    }
+
+    @Override
+    public Booking parseFromCSV(String csv) {
+        CsvTokenizer fields = new CsvTokenizer(csv, '|');
+
+        int id = fields.nextInt();
+        int scheduleId = fields.nextInt();
+        String customerName = fields.next();
+        int numberOfPeople = fields.nextInt();
+
+        return new Booking(id, scheduleLoader.reference(scheduleId), customerName, numberOfPeople);
+    }
+}
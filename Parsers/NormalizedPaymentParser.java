@@ -0,0 +1,54 @@
+package Parsers;
+
+import Domain.Payment;
+import Domain.User;
+import Repository.BatchLoader;
+import Repository.CsvTokenizer;
+import Repository.CsvWriter;
+import Repository.EntityParser;
+import Repository.IRepository;
+
+import java.time.LocalDateTime;
+
+/**
+ * A parser for {@link Payment} entities that stores the ID of the user instead of embedding it.
+ * The user of a payment is loaded lazily, together with the users of the other payments parsed by the same
+ * repository call.
+ */
+public class NormalizedPaymentParser implements EntityParser<Payment> {
+
+    private final BatchLoader<User> userLoader;
+
+    /**
+     * Constructs a {@link NormalizedPaymentParser} with its dependencies.
+     *
+     * @param userRepo the repository for {@link User} objects.
+     */
+    public NormalizedPaymentParser(IRepository<User> userRepo) {
+        this.userLoader = new BatchLoader<>(userRepo);
+    }
+
+    @Override
+    public String toCSV(Payment payment) {
+        return new CsvWriter(';')
+                .field(payment.getId())
+                .field(payment.getAmount())
+                .field(payment.getDate())
+                .field(payment.getUserId())
+                .field(payment.getPaymentMethod())
+                .toString();
+    }
+
+    @Override
+    public Payment parseFromCSV(String csv) {
+        CsvTokenizer fields = new CsvTokenizer(csv, ';');
+
+        int id = fields.nextInt();
+        double amount = fields.nextDouble();
+        LocalDateTime date = fields.nextDateTime();
+        int userId = fields.nextInt();
+        String paymentMethod = fields.next();
+
+        return new Payment(id, amount, date, userLoader.reference(userId), paymentMethod);
+    }
+}
@@ -0,0 +1,55 @@
+package Parsers;
+
+import Domain.ActivitySchedule;
+import Domain.Reservation;
+import Domain.User;
+import Repository.CsvTokenizer;
+import Repository.CsvWriter;
+import Repository.EntityParser;
+import Repository.IRepository;
+
+import java.time.LocalDateTime;
+
+/**
+ * A parser for {@link Reservation} entities that stores the IDs of the user and the schedule instead of embedding them.
+ * Both are read from their repositories when the reservation is parsed.
+ */
+public class NormalizedReservationParser implements EntityParser<Reservation> {
+
+    private final IRepository<User> userRepo;
+    private final IRepository<ActivitySchedule> activityScheduleRepo;
+
+    /**
+     * Constructs a {@link NormalizedReservationParser} with its dependencies.
+     *
+     * @param userRepo             the repository for {@link User} objects.
+     * @param activityScheduleRepo the repository for {@link ActivitySchedule} objects.
+     */
+    public NormalizedReservationParser(IRepository<User> userRepo, IRepository<ActivitySchedule> activityScheduleRepo) {
+        this.userRepo = userRepo;
+        this.activityScheduleRepo = activityScheduleRepo;
+    }
+
+    @Override
+    public String toCSV(Reservation reservation) {
+        return new CsvWriter('|')
+                .field(reservation.getId())
+                .field(reservation.getUser().getId())
+                .field(reservation.getActivitySchedule().getId())
+                .field(reservation.getNumberOfPeople())
+                .field(reservation.getReservationDate())
+                .toString();
+    }
+
+    @Override
+    public Reservation parseFromCSV(String csv) {
+        CsvTokenizer fields = new CsvTokenizer(csv, '|');
+
+        int id = fields.nextInt();
+        User user = userRepo.read(fields.nextInt());
+        ActivitySchedule activitySchedule = activityScheduleRepo.read(fields.nextInt());
+        int numberOfPeople = fields.nextInt();
+        LocalDateTime reservationDate = fields.nextDateTime();
+        return new Reservation(id, user, activitySchedule, numberOfPeople, reservationDate);
+    }
+}
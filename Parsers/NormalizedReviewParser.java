@@ -0,0 +1,69 @@
+package Parsers;
+
+import Domain.Activity;
+import Domain.Event;
+import Domain.FreeActivity;
+import Domain.Review;
+import Domain.ReviewableEntity;
+import Domain.User;
+import Repository.BatchLoader;
+import Repository.CsvTokenizer;
+import Repository.CsvWriter;
+import Repository.EntityParser;
+import Repository.IRepository;
+
+import java.time.LocalDateTime;
+
+/**
+ * A parser for {@link Review} entities that stores the IDs of the user and the reviewed entity instead of embedding them.
+ * The user of a review is loaded lazily, together with the users of the other reviews parsed by the same
+ * repository call; the reviewed entity is read from the repository for its type when the review is parsed.
+ */
+public class NormalizedReviewParser implements EntityParser<Review> {
+
+    private final BatchLoader<User> userLoader;
+    private final ReviewableEntityLoader entityLoader;
+
+    /**
+     * Constructs a {@link NormalizedReviewParser} with its dependencies.
+     *
+     * @param userRepo         the repository for {@link User} objects.
+     * @param activityRepo     the repository for {@link Activity} objects.
+     * @param eventRepo        the repository for {@link Event} objects.
+     * @param freeActivityRepo the repository for {@link FreeActivity} objects.
+     */
+    public NormalizedReviewParser(IRepository<User> userRepo,
+                                  IRepository<Activity> activityRepo,
+                                  IRepository<Event> eventRepo,
+                                  IRepository<FreeActivity> freeActivityRepo) {
+        this.userLoader = new BatchLoader<>(userRepo);
+        this.entityLoader = new ReviewableEntityLoader(activityRepo, eventRepo, freeActivityRepo);
+    }
+
+    @Override
+    public String toCSV(Review review) {
+        ReviewableEntity entity = review.getReviewableEntity();
+        return new CsvWriter(';')
+                .field(review.getId())
+                .field(review.getUserId())
+                .field(ReviewableEntityLoader.typeOf(entity))
+                .field(entity.getId())
+                .field(review.getComment())
+                .field(review.getReviewDate())
+                .toString();
+    }
+
+    @Override
+    public Review parseFromCSV(String csv) {
+        CsvTokenizer fields = new CsvTokenizer(csv, ';');
+
+        int id = fields.nextInt();
+        int userId = fields.nextInt();
+        String entityType = fields.next();
+        ReviewableEntity reviewableEntity = entityLoader.read(entityType, fields.nextInt());
+        String comment = fields.next();
+        LocalDateTime reviewDate = fields.nextDateTime();
+
+        return new Review(id, userLoader.reference(userId), reviewableEntity, comment, reviewDate);
+    }
+}
@@ -0,0 +1,66 @@
+package Parsers;
+
+import Domain.Activity;
+import Domain.Event;
+import Domain.FreeActivity;
+import Domain.ReviewableEntity;
+import Domain.Ticket;
+import Domain.User;
+import Repository.CsvTokenizer;
+import Repository.CsvWriter;
+import Repository.EntityParser;
+import Repository.IRepository;
+import Repository.LazyReference;
+
+/**
+ * A parser for {@link Ticket} entities that stores the IDs of the event and the owner instead of embedding them.
+ * The event of a ticket is loaded lazily from the repository matching its type, together with the events of
+ * the other tickets parsed by the same repository call; the owner is read from its repository when the ticket is
+ * parsed.
+ */
+public class NormalizedTicketParser implements EntityParser<Ticket> {
+
+    private final IRepository<User> userRepo;
+    private final ReviewableEntityLoader eventLoader;
+
+    /**
+     * Constructs a {@link NormalizedTicketParser} with its dependencies.
+     *
+     * @param userRepo         the repository for {@link User} objects.
+     * @param activityRepo     the repository for {@link Activity} objects.
+     * @param eventRepo        the repository for {@link Event} objects.
+     * @param freeActivityRepo the repository for {@link FreeActivity} objects.
+     */
+    public NormalizedTicketParser(IRepository<User> userRepo,
+                                  IRepository<Activity> activityRepo,
+                                  IRepository<Event> eventRepo,
+                                  IRepository<FreeActivity> freeActivityRepo) {
+        this.userRepo = userRepo;
+        this.eventLoader = new ReviewableEntityLoader(activityRepo, eventRepo, freeActivityRepo);
+    }
+
+    @Override
+    public String toCSV(Ticket ticket) {
+        return new CsvWriter(';')
+                .field(ticket.getId())
+                .field(ReviewableEntityLoader.typeOf(ticket.getEventType()))
+                .field(ticket.getEventId())
+                .field(ticket.getOwner().getId())
+                .field(ticket.getParticipantName())
+                .toString();
+    }
+
+    @Override
+    public Ticket parseFromCSV(String csv) {
+        CsvTokenizer fields = new CsvTokenizer(csv, ';');
+        int id = fields.nextInt();
+        String eventType = fields.next();
+        int eventId = fields.nextInt();
+        User owner = userRepo.read(fields.nextInt());
+        String participantName = fields.next();
+
+        LazyReference<? extends ReviewableEntity> event = eventLoader.reference(eventType, eventId);
+
+        return new Ticket(id, event, owner, participantName);
+    }
+}
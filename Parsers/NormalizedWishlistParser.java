@@ -0,0 +1,79 @@
+package Parsers;
+
+import Domain.Activity;
+import Domain.Event;
+import Domain.FreeActivity;
+import Domain.ReviewableEntity;
+import Domain.User;
+import Domain.Wishlist;
+import Repository.CsvTokenizer;
+import Repository.CsvWriter;
+import Repository.EntityParser;
+import Repository.IRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A parser for {@link Wishlist} entities that stores the IDs of the user and the items instead of embedding them.
+ * Each item is stored as its type name and ID, and the items are separated by {@code |}. The user and the items
+ * are read from their repositories when the wishlist is parsed.
+ */
+public class NormalizedWishlistParser implements EntityParser<Wishlist> {
+
+    private final IRepository<User> userRepo;
+    private final ReviewableEntityLoader itemLoader;
+
+    /**
+     * Constructs a {@link NormalizedWishlistParser} with its dependencies.
+     *
+     * @param userRepo         the repository for {@link User} objects.
+     * @param activityRepo     the repository for {@link Activity} objects.
+     * @param eventRepo        the repository for {@link Event} objects.
+     * @param freeActivityRepo the repository for {@link FreeActivity} objects.
+     */
+    public NormalizedWishlistParser(IRepository<User> userRepo,
+                                    IRepository<Activity> activityRepo,
+                                    IRepository<Event> eventRepo,
+                                    IRepository<FreeActivity> freeActivityRepo) {
+        this.userRepo = userRepo;
+        this.itemLoader = new ReviewableEntityLoader(activityRepo, eventRepo, freeActivityRepo);
+    }
+
+    @Override
+    public String toCSV(Wishlist wishlist) {
+        CsvWriter itemsCSV = new CsvWriter('|');
+        for (ReviewableEntity item : wishlist.getItems()) {
+            itemsCSV.field(new CsvWriter(',')
+                    .field(ReviewableEntityLoader.typeOf(item))
+                    .field(item.getId())
+                    .toString());
+        }
+
+        return new CsvWriter(';')
+                .field(wishlist.getId())
+                .field(wishlist.getUser().getId())
+                .field(itemsCSV.toString())
+                .toString();
+    }
+
+    @Override
+    public Wishlist parseFromCSV(String csv) {
+        CsvTokenizer fields = new CsvTokenizer(csv, ';');
+
+        int id = fields.nextInt();
+        User user = userRepo.read(fields.nextInt());
+
+        List<ReviewableEntity> items = new ArrayList<>();
+        String itemsCSV = fields.next();
+        if (!itemsCSV.isEmpty()) {
+            CsvTokenizer itemFields = new CsvTokenizer(itemsCSV, '|');
+            while (itemFields.hasNext()) {
+                CsvTokenizer item = new CsvTokenizer(itemFields.next(), ',');
+                items.add(itemLoader.read(item.next(), item.nextInt()));
+            }
+        }
+
+        return new Wishlist(id, user, items);
+    }
+}
@@ -2,14 +2,20 @@ package Parsers;
 
 import Domain.Payment;
 import Domain.User;
+import Repository.BinaryParser;
+import Repository.CsvTokenizer;
+import Repository.CsvWriter;
 import Repository.EntityParser;
+import Repository.RecordReader;
+import Repository.RecordWriter;
+import Repository.LazyReference;
 
 import java.time.LocalDateTime;
 
 /**
  * A parser for the {@link Payment} class, used for converting between {@code Payment} objects and their CSV representation.
  */
-public class PaymentParser implements EntityParser<Payment> {
+public class PaymentParser implements EntityParser<Payment>, BinaryParser<Payment> {
 
     private final UserParser userParser;
 
@@ -24,22 +30,51 @@ public class PaymentParser implements EntityParser<Payment> {
 
     @Override
     public String toCSV(Payment payment) {
-        return payment.getId() + ";" +
-                payment.getAmount() + ";" +
-                payment.getDate() + "," +
-                userParser.toCSV(payment.getUser()) + ";" +
-                payment.getPaymentMethod();
+        return new CsvWriter(';')
+                .field(payment.getId())
+                .field(payment.getAmount())
+                .field(payment.getDate())
+                .field(userParser.toCSV(payment.getUser()))
+                .field(payment.getPaymentMethod())
+                .toString();
     }
 
     @Override
     public Payment parseFromCSV(String csv) {
-        String[] fields = csv.split(";");
+        CsvTokenizer fields = new CsvTokenizer(csv, ';');
 
-        int id = Integer.parseInt(fields[0]);
-        double amount = Double.parseDouble(fields[1]);
-        LocalDateTime date = LocalDateTime.parse(fields[2]);
-        User user = userParser.parseFromCSV(fields[3]);
-        String paymentMethod = fields[4];
+        int id = fields.nextInt();
+        double amount = fields.nextDouble();
+        LocalDateTime date = fields.nextDateTime();
+        String userCSV = fields.next();
+        int userId = new CsvTokenizer(userCSV, ',').nextInt();
+        // The embedded user is only parsed if the payment's user is accessed.
+        LazyReference<User> user = LazyReference.lazy(userId, ignored -> userParser.parseFromCSV(userCSV));
+        String paymentMethod = fields.next();
+
+        return new Payment(id, amount, date, user, paymentMethod);
+    }
+
+    @Override
+    public void write(RecordWriter out, Payment payment) {
+        out.writeInt(payment.getId());
+        out.writeDouble(payment.getAmount());
+        out.writeDateTime(payment.getDate());
+        out.writeInt(payment.getUserId());
+        out.writeRecord(userParser, payment.getUser());
+        out.writeString(payment.getPaymentMethod());
+    }
+
+    @Override
+    public Payment read(RecordReader in) {
+        int id = in.readInt();
+        double amount = in.readDouble();
+        LocalDateTime date = in.readDateTime();
+        int userId = in.readInt();
+        RecordReader userRecord = in.nextRecord();
+        // The nested user record is only decoded if the payment's user is accessed.
+        LazyReference<User> user = LazyReference.lazy(userId, ignored -> userParser.read(userRecord));
+        String paymentMethod = in.readString();
 
         return new Payment(id, amount, date, user, paymentMethod);
     }
@@ -3,14 +3,19 @@ package Parsers;
 import Domain.ActivitySchedule;
 import Domain.Reservation;
 import Domain.User;
+import Repository.BinaryParser;
+import Repository.CsvTokenizer;
+import Repository.CsvWriter;
 import Repository.EntityParser;
+import Repository.RecordReader;
+import Repository.RecordWriter;
 
 import java.time.LocalDateTime;
 
 /**
  * A parser for the {@link Reservation} class, used for converting between {@code Reservation} objects and their CSV representation.
  */
-public class ReservationParser implements EntityParser<Reservation> {
+public class ReservationParser implements EntityParser<Reservation>, BinaryParser<Reservation> {
 
     private final UserParser userParser;
     private final ActivityScheduleParser activityScheduleParser;
@@ -28,22 +33,43 @@ public class ReservationParser implements EntityParser<Reservation> {
 
     @Override
     public String toCSV(Reservation reservation) {
-        return reservation.getId() + "|" +
-                userParser.toCSV(reservation.getUser()) + "|" +
-                activityScheduleParser.toCSV(reservation.getActivitySchedule()) + "|" +
-                reservation.getNumberOfPeople() + "|" +
-                reservation.getReservationDate();
+        return new CsvWriter('|')
+                .field(reservation.getId())
+                .field(userParser.toCSV(reservation.getUser()))
+                .field(activityScheduleParser.toCSV(reservation.getActivitySchedule()))
+                .field(reservation.getNumberOfPeople())
+                .field(reservation.getReservationDate())
+                .toString();
     }
 
     @Override
     public Reservation parseFromCSV(String csv) {
-        String[] fields = csv.split("\\|");
+        CsvTokenizer fields = new CsvTokenizer(csv, '|');
 
-        int id = Integer.parseInt(fields[0]);
-        User user = userParser.parseFromCSV(fields[1]);
-        ActivitySchedule activitySchedule = activityScheduleParser.parseFromCSV(fields[2]);
-        int numberOfPeople = Integer.parseInt(fields[3]);
-        LocalDateTime reservationDate = LocalDateTime.parse(fields[4]);
+        int id = fields.nextInt();
+        User user = userParser.parseFromCSV(fields.next());
+        ActivitySchedule activitySchedule = activityScheduleParser.parseFromCSV(fields.next());
+        int numberOfPeople = fields.nextInt();
+        LocalDateTime reservationDate = fields.nextDateTime();
+        return new Reservation(id, user, activitySchedule, numberOfPeople, reservationDate);
+    }
+
+    @Override
+    public void write(RecordWriter out, Reservation reservation) {
+        out.writeInt(reservation.getId());
+        out.writeRecord(userParser, reservation.getUser());
+        out.writeRecord(activityScheduleParser, reservation.getActivitySchedule());
+        out.writeInt(reservation.getNumberOfPeople());
+        out.writeDateTime(reservation.getReservationDate());
+    }
+
+    @Override
+    public Reservation read(RecordReader in) {
+        int id = in.readInt();
+        User user = in.readRecord(userParser);
+        ActivitySchedule activitySchedule = in.readRecord(activityScheduleParser);
+        int numberOfPeople = in.readInt();
+        LocalDateTime reservationDate = in.readDateTime();
         return new Reservation(id, user, activitySchedule, numberOfPeople, reservationDate);
     }
 }
@@ -2,61 +2,71 @@ package Parsers;
 import Domain.Review;
 import Domain.ReviewableEntity;
 import Domain.User;
+import Repository.BinaryParser;
+import Repository.CsvTokenizer;
+import Repository.CsvWriter;
 import Repository.EntityParser;
+import Repository.RecordReader;
+import Repository.RecordWriter;
+import Repository.LazyReference;
 
 import java.time.LocalDateTime;
 
 /**
  * A parser for the {@link Review} class, used for converting between {@code Review} objects and their CSV representation.
  */
-public class ReviewParser implements EntityParser<Review> {
+public class ReviewParser implements EntityParser<Review>, BinaryParser<Review> {
 
     private final UserParser userParser = new UserParser();
 
     @Override
     public String toCSV(Review review) {
-        return review.getId() + ";" +
-                userParser.toCSV(review.getUser()) + ";" +
-                review.getReviewableEntity().toCSV() + ";" +
-                review.getComment() + ";" +
-                review.getReviewDate();
+        return new CsvWriter(';')
+                .field(review.getId())
+                .field(userParser.toCSV(review.getUser()))
+                .field(review.getReviewableEntity().toCSV())
+                .field(review.getComment())
+                .field(review.getReviewDate())
+                .toString();
     }
 
     @Override
     public Review parseFromCSV(String csv) {
-        String[] fields = csv.split(";");
+        CsvTokenizer fields = new CsvTokenizer(csv, ';');
 
-        int id = Integer.parseInt(fields[0]);
-        User user = userParser.parseFromCSV(fields[1]);
-        ReviewableEntity reviewableEntity = parseReviewableEntityFromCSV(fields[2]);
-        String comment = fields[3];
-        LocalDateTime reviewDate = LocalDateTime.parse(fields[4]);
+        int id = fields.nextInt();
+        String userCSV = fields.next();
+        int userId = new CsvTokenizer(userCSV, ',').nextInt();
+        // The embedded user is only parsed if the review's user is accessed.
+        LazyReference<User> user = LazyReference.lazy(userId, ignored -> userParser.parseFromCSV(userCSV));
+        ReviewableEntity reviewableEntity = ReviewableEntities.parseFromCSV(fields.next());
+        String comment = fields.next();
+        LocalDateTime reviewDate = fields.nextDateTime();
 
         return new Review(id, user, reviewableEntity, comment, reviewDate);
     }
 
-    /**
-     * Parses a {@link ReviewableEntity} from a CSV string.
-     *
-     * @param csv the CSV string representing a reviewable entity.
-     * @return the parsed {@link ReviewableEntity}.
-     * @throws IllegalArgumentException if the entity type is unknown.
-     */
-    private ReviewableEntity parseReviewableEntityFromCSV(String csv) {
-        String[] parts = csv.split(",", 2);
-        String type = parts[0];
-        String entityData = parts[1];
-
-        switch (type) {
-            case "Activity":
-                return new ActivityParser().parseFromCSV(entityData);
-            case "Event":
-                return new EventParser().parseFromCSV(entityData);
-            case "FreeActivity":
-                return new FreeActivityParser().parseFromCSV(entityData);
-            default:
-                throw new IllegalArgumentException("Unknown ReviewableEntity type: " + type);
-        }
+    @Override
+    public void write(RecordWriter out, Review review) {
+        out.writeInt(review.getId());
+        out.writeInt(review.getUserId());
+        out.writeRecord(userParser, review.getUser());
+        ReviewableEntities.write(out, review.getReviewableEntity());
+        out.writeString(review.getComment());
+        out.writeDateTime(review.getReviewDate());
     }
-}
 
+    @Override
+    public Review read(RecordReader in) {
+        int id = in.readInt();
+        int userId = in.readInt();
+        RecordReader userRecord = in.nextRecord();
+        // The nested user record is only decoded if the review's user is accessed.
+        LazyReference<User> user = LazyReference.lazy(userId, ignored -> userParser.read(userRecord));
+        ReviewableEntity reviewableEntity = ReviewableEntities.read(in);
+        String comment = in.readString();
+        LocalDateTime reviewDate = in.readDateTime();
+
+        return new Review(id, user, reviewableEntity, comment, reviewDate);
+    }
+}
@@ -0,0 +1,98 @@
+package Parsers;
+
+import Domain.Activity;
+import Domain.Event;
+import Domain.FreeActivity;
+import Domain.ReviewableEntity;
+import Repository.CsvTokenizer;
+import Repository.RecordReader;
+import Repository.RecordWriter;
+
+/**
+ * Serialization of a {@link ReviewableEntity} whose concrete type is only known at runtime.
+ * In CSV, the type name is the first field of the entity's own line. In binary, the entity is written as the
+ * name of its type followed by a nested record in the format of that type's parser.
+ */
+final class ReviewableEntities {
+    private static final ActivityParser ACTIVITY_PARSER = new ActivityParser();
+    private static final EventParser EVENT_PARSER = new EventParser();
+    private static final FreeActivityParser FREE_ACTIVITY_PARSER = new FreeActivityParser();
+
+    private ReviewableEntities() {
+    }
+
+    /**
+     * Parses an entity from its CSV line, which starts with its type name.
+     *
+     * @param csv the CSV line of the entity.
+     * @return the entity.
+     * @throws IllegalArgumentException if the entity type is unknown.
+     */
+    static ReviewableEntity parseFromCSV(String csv) {
+        String type = new CsvTokenizer(csv, ',').next();
+        switch (type) {
+            case "Activity":
+                return ACTIVITY_PARSER.parseFromCSV(csv);
+            case "Event":
+                return EVENT_PARSER.parseFromCSV(csv);
+            case "FreeActivity":
+                return FREE_ACTIVITY_PARSER.parseFromCSV(csv);
+            default:
+                throw new IllegalArgumentException("Unknown ReviewableEntity type: " + type);
+        }
+    }
+
+    /**
+     * Writes the type name and the record of an entity.
+     *
+     * @param out    the writer.
+     * @param entity the entity.
+     * @throws IllegalArgumentException if the entity type is unknown.
+     */
+    static void write(RecordWriter out, ReviewableEntity entity) {
+        if (entity instanceof Activity) {
+            out.writeString("Activity");
+            out.writeRecord(ACTIVITY_PARSER, (Activity) entity);
+        } else if (entity instanceof Event) {
+            out.writeString("Event");
+            out.writeRecord(EVENT_PARSER, (Event) entity);
+        } else if (entity instanceof FreeActivity) {
+            out.writeString("FreeActivity");
+            out.writeRecord(FREE_ACTIVITY_PARSER, (FreeActivity) entity);
+        } else {
+            throw new IllegalArgumentException("Unknown ReviewableEntity type: " + entity.getClass().getSimpleName());
+        }
+    }
+
+    /**
+     * Reads an entity written by {@link #write(RecordWriter, ReviewableEntity)}.
+     *
+     * @param in the reader.
+     * @return the entity.
+     * @throws IllegalArgumentException if the entity type is unknown.
+     */
+    static ReviewableEntity read(RecordReader in) {
+        return read(in.readString(), in.nextRecord());
+    }
+
+    /**
+     * Decodes the record of an entity whose type name has already been read.
+     *
+     * @param type   the type name.
+     * @param record the nested record of the entity.
+     * @return the entity.
+     * @throws IllegalArgumentException if the entity type is unknown.
+     */
+    static ReviewableEntity read(String type, RecordReader record) {
+        switch (type) {
+            case "Activity":
+                return ACTIVITY_PARSER.read(record);
+            case "Event":
+                return EVENT_PARSER.read(record);
+            case "FreeActivity":
+                return FREE_ACTIVITY_PARSER.read(record);
+            default:
+                throw new IllegalArgumentException("Unknown ReviewableEntity type: " + type);
+        }
+    }
+}
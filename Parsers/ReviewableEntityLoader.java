@@ -0,0 +1,105 @@
+package Parsers;
+
+import Domain.Activity;
+import Domain.Event;
+import Domain.FreeActivity;
+import Domain.ReviewableEntity;
+import Repository.BatchLoader;
+import Repository.IRepository;
+import Repository.LazyReference;
+
+/**
+ * Resolves a {@link ReviewableEntity} stored as its type name and ID against the repository for its type.
+ */
+final class ReviewableEntityLoader {
+    private final IRepository<Activity> activityRepo;
+    private final IRepository<Event> eventRepo;
+    private final IRepository<FreeActivity> freeActivityRepo;
+    private final BatchLoader<Activity> activityLoader;
+    private final BatchLoader<Event> eventLoader;
+    private final BatchLoader<FreeActivity> freeActivityLoader;
+
+    ReviewableEntityLoader(IRepository<Activity> activityRepo,
+                           IRepository<Event> eventRepo,
+                           IRepository<FreeActivity> freeActivityRepo) {
+        this.activityRepo = activityRepo;
+        this.eventRepo = eventRepo;
+        this.freeActivityRepo = freeActivityRepo;
+        this.activityLoader = new BatchLoader<>(activityRepo, Activity.class);
+        this.eventLoader = new BatchLoader<>(eventRepo, Event.class);
+        this.freeActivityLoader = new BatchLoader<>(freeActivityRepo, FreeActivity.class);
+    }
+
+    /**
+     * Retrieves the type name under which an entity is stored.
+     *
+     * @param entity the entity.
+     * @return the type name.
+     * @throws IllegalArgumentException if the entity type is unknown.
+     */
+    static String typeOf(ReviewableEntity entity) {
+        return typeOf(entity.getClass());
+    }
+
+    /**
+     * Retrieves the type name under which entities of a class are stored.
+     *
+     * @param type the class of the entities.
+     * @return the type name.
+     * @throws IllegalArgumentException if the entity type is unknown.
+     */
+    static String typeOf(Class<? extends ReviewableEntity> type) {
+        if (Activity.class.isAssignableFrom(type)) {
+            return "Activity";
+        } else if (Event.class.isAssignableFrom(type)) {
+            return "Event";
+        } else if (FreeActivity.class.isAssignableFrom(type)) {
+            return "FreeActivity";
+        }
+        throw new IllegalArgumentException("Unknown ReviewableEntity type: " + type.getSimpleName());
+    }
+
+    /**
+     * Reads an entity from the repository for its type.
+     *
+     * @param type the type name.
+     * @param id   the ID of the entity.
+     * @return the entity.
+     * @throws IllegalArgumentException if the entity type is unknown.
+     */
+    ReviewableEntity read(String type, int id) {
+        switch (type) {
+            case "Activity":
+                return activityRepo.read(id);
+            case "Event":
+                return eventRepo.read(id);
+            case "FreeActivity":
+                return freeActivityRepo.read(id);
+            default:
+                throw new IllegalArgumentException("Unknown ReviewableEntity type: " + type);
+        }
+    }
+
+    /**
+     * Creates a lazy reference to an entity in the repository for its type, loaded together with the other
+     * references of the same type handed out by the same repository call. The type of the entity is known
+     * without loading it.
+     *
+     * @param type the type name.
+     * @param id   the ID of the entity.
+     * @return the reference.
+     * @throws IllegalArgumentException if the entity type is unknown.
+     */
+    LazyReference<? extends ReviewableEntity> reference(String type, int id) {
+        switch (type) {
+            case "Activity":
+                return activityLoader.reference(id);
+            case "Event":
+                return eventLoader.reference(id);
+            case "FreeActivity":
+                return freeActivityLoader.reference(id);
+            default:
+                throw new IllegalArgumentException("Unknown ReviewableEntity type: " + type);
+        }
+    }
+}
@@ -1,57 +1,74 @@
 package Parsers;
 
 import Domain.*;
+import Repository.BinaryParser;
+import Repository.CsvTokenizer;
+import Repository.CsvWriter;
 import Repository.EntityParser;
+import Repository.RecordReader;
+import Repository.RecordWriter;
+import Repository.LazyReference;
 
 /**
  * A parser for Ticket entities.
  */
-public class TicketParser implements EntityParser<Ticket> {
+public class TicketParser implements EntityParser<Ticket>, BinaryParser<Ticket> {
 
     private final UserParser userParser = new UserParser();
 
     @Override
     public String toCSV(Ticket ticket) {
-        return ticket.getId() + ";" +
-                ticket.getEvent().getClass().getSimpleName() + ";" +
-                ticket.getEvent().toCSV() + ";" +
-                userParser.toCSV(ticket.getOwner()) + ";" +
-                ticket.getParticipantName();
+        return new CsvWriter(';')
+                .field(ticket.getId())
+                .field(ticket.getEvent().getClass().getSimpleName())
+                .field(ticket.getEvent().toCSV())
+                .field(userParser.toCSV(ticket.getOwner()))
+                .field(ticket.getParticipantName())
+                .toString();
     }
 
     @Override
     public Ticket parseFromCSV(String csv) {
-        String[] fields = csv.split(";");
-        int id = Integer.parseInt(fields[0]);
-        String eventType = fields[1];
-        String eventCSV = fields[2];
-        String userCSV = fields[3];
-        String participantName = fields[4];
-
-        ReviewableEntity event = parseReviewableEntityFromCSV(eventType, eventCSV);
+        CsvTokenizer fields = new CsvTokenizer(csv, ';');
+        int id = fields.nextInt();
+        fields.skip();
+        String eventCSV = fields.next();
+        String userCSV = fields.next();
+        String participantName = fields.next();
+
+        // The embedded event is only parsed if the ticket's event is accessed.
+        CsvTokenizer eventFields = new CsvTokenizer(eventCSV, ',');
+        eventFields.skip();
+        int eventId = eventFields.nextInt();
+        LazyReference<ReviewableEntity> event =
+                LazyReference.lazy(eventId, ignored -> ReviewableEntities.parseFromCSV(eventCSV));
         User owner = userParser.parseFromCSV(userCSV);
 
         return new Ticket(id, event, owner, participantName);
     }
 
-    /**
-     * Parses a {@link ReviewableEntity} from its CSV representation.
-     *
-     * @param eventType the type of the entity (e.g., "Activity", "Event", "FreeActivity").
-     * @param csv       the CSV string representation of the entity.
-     * @return the parsed {@link ReviewableEntity}.
-     * @throws IllegalArgumentException if the entity type is unknown.
-     */
-    private ReviewableEntity parseReviewableEntityFromCSV(String eventType, String csv) {
-        switch (eventType) {
-            case "Activity":
-                return new ActivityParser().parseFromCSV(csv);
-            case "Event":
-                return new EventParser().parseFromCSV(csv);
-            case "FreeActivity":
-                return new FreeActivityParser().parseFromCSV(csv);
-            default:
-                throw new IllegalArgumentException("Unknown ReviewableEntity type: " + eventType);
-        }
+    @Override
+    public void write(RecordWriter out, Ticket ticket) {
+        out.writeInt(ticket.getId());
+        out.writeInt(ticket.getEventId());
+        ReviewableEntities.write(out, ticket.getEvent());
+        out.writeRecord(userParser, ticket.getOwner());
+        out.writeString(ticket.getParticipantName());
+    }
+
+    @Override
+    public Ticket read(RecordReader in) {
+        int id = in.readInt();
+        int eventId = in.readInt();
+        String eventType = in.readString();
+        RecordReader eventRecord = in.nextRecord();
+        User owner = in.readRecord(userParser);
+        String participantName = in.readString();
+
+        // The nested event record is only decoded if the ticket's event is accessed.
+        LazyReference<ReviewableEntity> event =
+                LazyReference.lazy(eventId, ignored -> ReviewableEntities.read(eventType, eventRecord));
+
+        return new Ticket(id, event, owner, participantName);
     }
 }
@@ -1,37 +1,66 @@
 package Parsers;
 
 import Domain.*;
+import Repository.BinaryParser;
+import Repository.CsvTokenizer;
+import Repository.CsvWriter;
 import Repository.EntityParser;
+import Repository.RecordReader;
+import Repository.RecordWriter;
 
 
 /**
  * A parser for {@link User} entities to enable CSV serialization and deserialization.
  */
-public class UserParser implements EntityParser<User> {
+public class UserParser implements EntityParser<User>, BinaryParser<User> {
 
     @Override
     public String toCSV(User user) {
-        return user.getId() + "," +
-                user.getUsername() + "," +
-                user.getPassword() + "," +
-                user.getRole() + "," +
-                user.getBalance();
+        return new CsvWriter(',')
+                .field(user.getId())
+                .field(user.getUsername())
+                .field(user.getPassword())
+                .field(user.getRole())
+                .field(user.getBalance())
+                .toString();
     }
 
     @Override
     public User parseFromCSV(String csv) {
-        String[] fields = csv.split(",");
+        CsvTokenizer fields = new CsvTokenizer(csv, ',');
 
-        int id = Integer.parseInt(fields[0]);
-        String username = fields[1];
-        String password = fields[2];
-        Role role = Role.valueOf(fields[3].toUpperCase());
-        double balance = Double.parseDouble(fields[4]);
+        int id = fields.nextInt();
+        String username = fields.next();
+        String password = fields.next();
+        Role role = fields.nextEnum(Role.class);
+        double balance = fields.nextDouble();
 
         User user = new User(id, username, password, role);
         user.setBalance(balance);
 
         return user;
     }
-}
 
+    @Override
+    public void write(RecordWriter out, User user) {
+        out.writeInt(user.getId());
+        out.writeString(user.getUsername());
+        out.writeString(user.getPassword());
+        out.writeEnum(user.getRole());
+        out.writeDouble(user.getBalance());
+    }
+
+    @Override
+    public User read(RecordReader in) {
+        int id = in.readInt();
+        String username = in.readString();
+        String password = in.readString();
+        Role role = in.readEnum(Role.class);
+        double balance = in.readDouble();
+
+        User user = new User(id, username, password, role);
+        user.setBalance(balance);
+
+        return user;
+    }
+}
@@ -2,7 +2,12 @@ package Parsers;
 
 import Domain.*;
 import Parsers.UserParser;
+import Repository.BinaryParser;
+import Repository.CsvTokenizer;
+import Repository.CsvWriter;
 import Repository.EntityParser;
+import Repository.RecordReader;
+import Repository.RecordWriter;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -10,65 +15,67 @@ import java.util.List;
 /**
  * A parser for {@link Wishlist} entities to enable CSV serialization and deserialization.
  */
-public class WishlistParser implements EntityParser<Wishlist> {
+public class WishlistParser implements EntityParser<Wishlist>, BinaryParser<Wishlist> {
 
     private final UserParser userParser = new UserParser();
 
     @Override
     public String toCSV(Wishlist wishlist) {
-        StringBuilder itemsCSV = new StringBuilder();
+        CsvWriter itemsCSV = new CsvWriter('|');
 
         for (ReviewableEntity item : wishlist.getItems()) {
-            String type = item.getClass().getSimpleName();
-            itemsCSV.append(item.toCSV()).append("|");
+            itemsCSV.field(item.toCSV());
         }
 
-        if (!itemsCSV.isEmpty()) {
-            itemsCSV.deleteCharAt(itemsCSV.length() - 1);
-        }
-
-        return wishlist.getId() + ";" +
-                userParser.toCSV(wishlist.getUser()) + ";" +
-                itemsCSV;
+        return new CsvWriter(';')
+                .field(wishlist.getId())
+                .field(userParser.toCSV(wishlist.getUser()))
+                .field(itemsCSV.toString())
+                .toString();
     }
 
     @Override
     public Wishlist parseFromCSV(String csv) {
-        String[] parts = csv.split(";");
+        CsvTokenizer fields = new CsvTokenizer(csv, ';');
 
-        int id = Integer.parseInt(parts[0]);
-        User user = userParser.parseFromCSV(parts[1]);
+        int id = fields.nextInt();
+        User user = userParser.parseFromCSV(fields.next());
 
         List<ReviewableEntity> items = new ArrayList<>();
 
-
-        String[] entitiesCSV = parts[2].split("\\|");
-        for (String entityCSV : entitiesCSV) {
-            items.add(parseReviewableEntityFromCSV(entityCSV));
+        // A wishlist without items has an empty, or in older files a missing, items field.
+        String itemsCSV = fields.hasNext() ? fields.next() : "";
+        if (!itemsCSV.isEmpty()) {
+            CsvTokenizer entitiesCSV = new CsvTokenizer(itemsCSV, '|');
+            while (entitiesCSV.hasNext()) {
+                items.add(ReviewableEntities.parseFromCSV(entitiesCSV.next()));
+            }
         }
 
         return new Wishlist(id, user, items);
     }
 
-    /**
-     * Parses a {@link ReviewableEntity} from a CSV string.
-     *
-     * @param csv the CSV string representing a reviewable entity.
-     * @return the parsed {@link ReviewableEntity}.
-     * @throws IllegalArgumentException if the entity type is unknown.
-     */
-    private ReviewableEntity parseReviewableEntityFromCSV(String csv) {
-        String[] parts = csv.split(",");
-        String type = parts[0];
-        switch (type) {
-            case "Activity":
-                return new ActivityParser().parseFromCSV(csv);
-            case "Event":
-                return new EventParser().parseFromCSV(csv);
-            case "FreeActivity":
-                return new FreeActivityParser().parseFromCSV(csv);
-            default:
-                throw new IllegalArgumentException("Unknown ReviewableEntity type: " + type);
+    @Override
+    public void write(RecordWriter out, Wishlist wishlist) {
+        out.writeInt(wishlist.getId());
+        out.writeRecord(userParser, wishlist.getUser());
+        out.writeInt(wishlist.getItems().size());
+        for (ReviewableEntity item : wishlist.getItems()) {
+            ReviewableEntities.write(out, item);
+        }
+    }
+
+    @Override
+    public Wishlist read(RecordReader in) {
+        int id = in.readInt();
+        User user = in.readRecord(userParser);
+
+        int itemCount = in.readInt();
+        List<ReviewableEntity> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            items.add(ReviewableEntities.read(in));
         }
+
+        return new Wishlist(id, user, items);
     }
 }
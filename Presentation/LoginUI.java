@@ -16,6 +16,7 @@ public class LoginUI {
     private final AdminController adminController;
     private final UserController userController;
     private final RoleBasedMenuService menuService;
+    private final Runnable onExit;
     private final Scanner scanner;
 
     /**
@@ -26,9 +27,24 @@ public class LoginUI {
      * @param menuService     the service for role-based menu navigation
      */
     public LoginUI(AdminController adminController, UserController userController, RoleBasedMenuService menuService) {
+        this(adminController, userController, menuService, () -> {});
+    }
+
+    /**
+     * Constructs a new instance of `LoginUI` that runs a shutdown action when the user exits,
+     * such as writing out buffered changes.
+     *
+     * @param adminController the controller for admin-related operations
+     * @param userController  the controller for user-related operations
+     * @param menuService     the service for role-based menu navigation
+     * @param onExit          the action to run before the application exits
+     */
+    public LoginUI(AdminController adminController, UserController userController, RoleBasedMenuService menuService,
+                   Runnable onExit) {
         this.adminController = adminController;
         this.userController = userController;
         this.menuService = menuService;
+        this.onExit = onExit;
         this.scanner = new Scanner(System.in);
     }
 
@@ -49,6 +65,7 @@ public class LoginUI {
                 case "2" -> register();
                 case "3" -> {
                     System.out.println("Exiting application...");
+                    onExit.run();
                     return;
                 }
                 default -> System.out.println("Invalid choice. Please try again.");
@@ -10,12 +10,17 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
 /**
  * The `PresentationAdmin` class provides the user interface for admin users,
  * allowing them to manage activities, schedules, bookings, events, and other related entities.
  */
 public class PresentationAdmin {
+    private static final int PAGE_SIZE = 10;
+
     private final AdminController adminController;
     private User currentUser = null;
 
@@ -1248,17 +1253,14 @@ public class PresentationAdmin {
      * @param items the list of items in the wishlist
      */
     private void addEventsToWishlist(List<ReviewableEntity> items) {
-        List<Event> events = adminController.getAllEvents();
-        if (events.isEmpty()) {
+        if (!displayInPages("Available Events:",
+                afterId -> adminController.getEventsPage(afterId, PAGE_SIZE),
+                Event::getId,
+                event -> System.out.println("ID: " + event.getId() + " | Name: " + event.getName()))) {
             System.out.println("No events available.");
             return;
         }
 
-        System.out.println("Available Events:");
-        for (Event event : events) {
-            System.out.println("ID: " + event.getId() + " | Name: " + event.getName());
-        }
-
         System.out.print("Enter Event ID to add (or type 'done' to finish): ");
         String eventId;
         while (!(eventId = scanner.nextLine()).equalsIgnoreCase("done")) {
@@ -1280,17 +1282,14 @@ public class PresentationAdmin {
      * @param items the list of items in the wishlist
      */
     private void addActivitiesToWishlist(List<ReviewableEntity> items) {
-        List<Activity> activities = adminController.getAllActivities();
-        if (activities.isEmpty()) {
+        if (!displayInPages("Available Activities:",
+                afterId -> adminController.getActivitiesPage(afterId, PAGE_SIZE),
+                Activity::getId,
+                activity -> System.out.println("ID: " + activity.getId() + " | Name: " + activity.getName()))) {
             System.out.println("No activities available.");
             return;
         }
 
-        System.out.println("Available Activities:");
-        for (Activity activity : activities) {
-            System.out.println("ID: " + activity.getId() + " | Name: " + activity.getName());
-        }
-
         System.out.print("Enter Activity ID to add (or type 'done' to finish): ");
         String activityId;
         while (!(activityId = scanner.nextLine()).equalsIgnoreCase("done")) {
@@ -1486,6 +1485,41 @@ public class PresentationAdmin {
     }
 
 
+    /**
+     * Displays entities one page at a time, asking before loading each further page.
+     * Nothing is printed, not even the header, if there are no entities.
+     *
+     * @param header        the line printed above the first page
+     * @param loadPageAfter loads the page that follows the given ID, or the first page for null
+     * @param idOf          returns the ID of an entity, used as the key of the next page
+     * @param printer       prints one entity
+     * @return true if at least one entity was displayed
+     */
+    private <T> boolean displayInPages(String header, Function<Integer, List<T>> loadPageAfter,
+                                       ToIntFunction<T> idOf, Consumer<T> printer) {
+        List<T> page = loadPageAfter.apply(null);
+        if (page.isEmpty()) {
+            return false;
+        }
+
+        System.out.println(header);
+        while (true) {
+            page.forEach(printer);
+            if (page.size() < PAGE_SIZE) {
+                return true;
+            }
+            System.out.print("Press Enter to see more, or type 'q' to stop: ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("q")) {
+                return true;
+            }
+            page = loadPageAfter.apply(idOf.applyAsInt(page.get(page.size() - 1)));
+            if (page.isEmpty()) {
+                System.out.println("No more entries.");
+                return true;
+            }
+        }
+    }
+
     /**
      * Displays sorted events.
      *
@@ -11,12 +11,17 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
 
 /**
  * The PresentationUser class handles the user interface for standard users,
  * allowing them to interact with events, activities, reviews, and more.
  */
 public class PresentationUser {
+    private static final int PAGE_SIZE = 10;
+
     private final UserController userController;
     private User currentUser = null;
     private final Scanner scanner = new Scanner(System.in);
@@ -228,16 +233,50 @@ public class PresentationUser {
      * Views upcoming events and their available tickets.
      */
     private void viewUpcomingEvents() {
-        List<Event> events = userController.getUpcomingEvents();
-
-        if (events.isEmpty()) {
+        boolean found = displayInPages("Upcoming Events:",
+                afterId -> userController.getUpcomingEventsPage(afterId, PAGE_SIZE),
+                Event::getId,
+                event -> {
+                    int availableTickets = event.getCapacity() - event.getCurrentSize();
+                    System.out.println("Event: " + event.getName() + " | Date: " + event.getStartDate() + " | Available Tickets: " + availableTickets);
+                });
+
+        if (!found) {
             System.out.println("No upcoming events or activities available.");
-        } else {
-            System.out.println("Upcoming Events:");
+        }
+    }
+
+    /**
+     * Displays entities one page at a time, asking before loading each further page.
+     * Nothing is printed, not even the header, if there are no entities.
+     *
+     * @param header        the line printed above the first page
+     * @param loadPageAfter loads the page that follows the given ID, or the first page for null
+     * @param idOf          returns the ID of an entity, used as the key of the next page
+     * @param printer       prints one entity
+     * @return true if at least one entity was displayed
+     */
+    private <T> boolean displayInPages(String header, Function<Integer, List<T>> loadPageAfter,
+                                       ToIntFunction<T> idOf, Consumer<T> printer) {
+        List<T> page = loadPageAfter.apply(null);
+        if (page.isEmpty()) {
+            return false;
+        }
 
-            for (Event event : events) {
-                int availableTickets = event.getCapacity() - event.getCurrentSize();
-                System.out.println("Event: " + event.getName() + " | Date: " + event.getStartDate() + " | Available Tickets: " + availableTickets);
+        System.out.println(header);
+        while (true) {
+            page.forEach(printer);
+            if (page.size() < PAGE_SIZE) {
+                return true;
+            }
+            System.out.print("Press Enter to see more, or type 'q' to stop: ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("q")) {
+                return true;
+            }
+            page = loadPageAfter.apply(idOf.applyAsInt(page.get(page.size() - 1)));
+            if (page.isEmpty()) {
+                System.out.println("No more entries.");
+                return true;
             }
         }
     }
@@ -283,8 +322,12 @@ public class PresentationUser {
             Activity activity = null;
 
             if (choice == 1) {
-                System.out.println("Available events:");
-                System.out.println(userController.getAllEvents());
+                if (!displayInPages("Available events:",
+                        afterId -> userController.getEventsPage(afterId, PAGE_SIZE),
+                        Event::getId,
+                        System.out::println)) {
+                    System.out.println("No events available.");
+                }
                 System.out.print("Enter Event ID to book tickets: ");
                 String eventId = scanner.nextLine();
                 event = userController.getEventById(eventId);
@@ -294,8 +337,12 @@ public class PresentationUser {
                     return;
                 }
             } else if (choice == 2) {
-                System.out.println("Available activities:");
-                System.out.println(userController.getAllActivities());
+                if (!displayInPages("Available activities:",
+                        afterId -> userController.getActivitiesPage(afterId, PAGE_SIZE),
+                        Activity::getId,
+                        System.out::println)) {
+                    System.out.println("No activities available.");
+                }
                 System.out.print("Enter Activity ID to book tickets: ");
                 String activityId = scanner.nextLine();
                 activity = userController.getActivityById(activityId);
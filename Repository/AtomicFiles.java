@@ -0,0 +1,41 @@
+package Repository;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Replaces files so that a crash leaves either the old or the new content in place.
+ */
+final class AtomicFiles {
+
+    private AtomicFiles() {
+    }
+
+    /**
+     * Atomically renames a temporary file, already synced to disk, over a file, and then syncs the directory that
+     * holds them, so that the rename itself is durable too. On platforms that cannot open a directory, such as
+     * Windows, the directory is not synced.
+     *
+     * @param temp the temporary file, in the same directory as the file.
+     * @param path the file to replace, which may not exist yet.
+     * @throws IOException if the file cannot be replaced or the directory cannot be synced.
+     */
+    static void replace(Path temp, Path path) throws IOException {
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Path directory = path.toAbsolutePath().getParent();
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch (IOException e) {
+            // The platform cannot open a directory, so the rename is as durable as it makes it.
+            return;
+        }
+        try (channel) {
+            channel.force(true);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package Repository;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+import java.util.stream.Stream;
+
+/**
+ * An {@link IdGenerator} backed by an in-memory counter.
+ * The counter is seeded once, on first use, with the highest ID in the repository; after that, IDs are
+ * allocated by incrementing the counter. Suitable when this process is the only one adding entities.
+ */
+public class AtomicIdGenerator implements IdGenerator {
+    private final IntSupplier seed;
+    private final AtomicInteger lastId = new AtomicInteger();
+    private volatile boolean seeded;
+
+    /**
+     * Constructs an AtomicIdGenerator that continues after the highest ID in the repository.
+     *
+     * @param repository the repository storing the entities the IDs are for.
+     */
+    public AtomicIdGenerator(IRepository<? extends Identifiable> repository) {
+        this(() -> {
+            try (Stream<? extends Identifiable> entities = repository.streamAll()) {
+                return entities.mapToInt(Identifiable::getId).max().orElse(0);
+            }
+        });
+    }
+
+    /**
+     * Constructs an AtomicIdGenerator.
+     *
+     * @param seed supplies the highest ID already in use; called once, on first use.
+     */
+    public AtomicIdGenerator(IntSupplier seed) {
+        this.seed = seed;
+    }
+
+    @Override
+    public int nextId() {
+        ensureSeeded();
+        return lastId.incrementAndGet();
+    }
+
+    @Override
+    public void observe(int id) {
+        ensureSeeded();
+        lastId.accumulateAndGet(id, Math::max);
+    }
+
+    private void ensureSeeded() {
+        if (!seeded) {
+            synchronized (this) {
+                if (!seeded) {
+                    int highest = seed.getAsInt();
+                    lastId.accumulateAndGet(highest, Math::max);
+                    seeded = true;
+                }
+            }
+        }
+    }
+}
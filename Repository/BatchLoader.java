@@ -0,0 +1,139 @@
+package Repository;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Creates {@link LazyReference}s to the entities of one repository that are loaded together.
+ * References handed out one after another while a repository call parses its result, such as a list of entities
+ * or a file, join the same batch. The first reference of a batch to be accessed loads the whole batch with a
+ * single {@link IRepository#readMany(java.util.Collection)}, so walking the references of a list costs one
+ * round trip rather than one per entity, and a list whose references are never accessed costs none.
+ *
+ * Batches belong to the {@link Context} bound to the current thread by the repository call, so IDs from
+ * unrelated calls or threads never share a batch. A reference handed out with no context bound loads its
+ * entity on its own.
+ *
+ * @param <T> the type of the referenced entities.
+ */
+public final class BatchLoader<T extends Identifiable> {
+    private static final int MAX_BATCH_SIZE = 1000;
+    private static final ThreadLocal<Context> CURRENT = new ThreadLocal<>();
+
+    private final IRepository<T> repository;
+    private final Class<T> type;
+
+    /**
+     * Constructs a BatchLoader.
+     *
+     * @param repository the repository that stores the referenced entities.
+     */
+    public BatchLoader(IRepository<T> repository) {
+        this(repository, null);
+    }
+
+    /**
+     * Constructs a BatchLoader whose references know the class of their entity before it is loaded.
+     *
+     * @param repository the repository that stores the referenced entities.
+     * @param type       the class of the referenced entities.
+     */
+    public BatchLoader(IRepository<T> repository, Class<T> type) {
+        this.repository = repository;
+        this.type = type;
+    }
+
+    /**
+     * The extent of a context. Closing it restores the context that was bound before it.
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * The batches of one repository call or result set, one open batch per loader.
+     */
+    public static final class Context {
+        private final Map<BatchLoader<?>, BatchLoader<?>.Batch> batches = new HashMap<>();
+
+        /**
+         * Binds this context to the current thread until the returned scope is closed. This lets a result set
+         * that is read a little at a time, such as a stream, keep batching its references.
+         *
+         * @return the scope, which restores the previously bound context when closed.
+         */
+        public Scope bind() {
+            Context previous = CURRENT.get();
+            CURRENT.set(this);
+            return () -> {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            };
+        }
+    }
+
+    /**
+     * Starts the batches of one repository call on the current thread.
+     *
+     * @return the scope, to be closed when the call has parsed its result.
+     */
+    public static Scope open() {
+        return new Context().bind();
+    }
+
+    /**
+     * Creates a reference to the entity with the given ID, to be loaded with the current batch of the context
+     * bound to the current thread, or on its own if there is none.
+     *
+     * @param id the ID of the referenced entity.
+     * @return the reference.
+     */
+    public LazyReference<T> reference(int id) {
+        Context context = CURRENT.get();
+        if (context == null) {
+            return LazyReference.lazy(id, type, repository::read);
+        }
+        Batch batch = batchOf(context);
+        synchronized (batch) {
+            if (!batch.closed && batch.ids.size() < MAX_BATCH_SIZE) {
+                batch.ids.add(id);
+                return LazyReference.lazy(id, type, batch::load);
+            }
+        }
+        batch = new Batch();
+        batch.ids.add(id);
+        context.batches.put(this, batch);
+        return LazyReference.lazy(id, type, batch::load);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Batch batchOf(Context context) {
+        // A context only ever maps a loader to batches of that loader.
+        return (Batch) context.batches.computeIfAbsent(this, loader -> new Batch());
+    }
+
+    /**
+     * The IDs of references handed out together. A batch is closed to new IDs once it has been loaded.
+     */
+    private final class Batch {
+        private final Set<Integer> ids = new LinkedHashSet<>();
+        private boolean closed;
+        private Map<Integer, T> entities;
+
+        private synchronized T load(int id) {
+            if (entities == null) {
+                closed = true;
+                entities = repository.readMany(ids);
+            }
+            T entity = entities.get(id);
+            // Fall back to a single read, which reports a missing entity the way the repository does.
+            return entity != null ? entity : repository.read(id);
+        }
+    }
+}
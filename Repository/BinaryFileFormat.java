@@ -0,0 +1,85 @@
+package Repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * A header followed by one length-prefixed binary record per entity, in the format of a {@link BinaryParser}.
+ * The file is read with a single channel read into one buffer, from which the records are decoded without
+ * copying; it is written to a temporary file in large chunks, which is synced to disk and then atomically replaces
+ * the old file, after which the directory is synced too.
+ */
+class BinaryFileFormat<T> implements FileFormat<T> {
+    private static final byte[] MAGIC = "EVTB".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 1;
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    private final BinaryParser<T> parser;
+
+    BinaryFileFormat(BinaryParser<T> parser) {
+        this.parser = parser;
+    }
+
+    @Override
+    public void read(Path path, Consumer<? super T> sink) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Binary file too large: " + path);
+            }
+            buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // Keep reading until the whole file is in the buffer.
+            }
+            buffer.flip();
+        }
+        if (buffer.remaining() == 0) {
+            return;
+        }
+
+        byte[] magic = new byte[MAGIC.length];
+        if (buffer.remaining() < magic.length) {
+            throw new IOException("Not a binary entity file: " + path);
+        }
+        buffer.get(magic);
+        RecordReader in = new RecordReader(buffer);
+        if (!Arrays.equals(magic, MAGIC) || in.readInt() != VERSION) {
+            throw new IOException("Not a binary entity file: " + path);
+        }
+        try {
+            while (in.hasRemaining()) {
+                sink.accept(in.readRecord(parser));
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Corrupt binary entity file: " + path, e);
+        }
+    }
+
+    @Override
+    public void write(Path path, Collection<? extends T> entities) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            RecordWriter out = new RecordWriter();
+            out.writeBytes(MAGIC);
+            out.writeInt(VERSION);
+            for (T entity : entities) {
+                out.writeRecord(parser, entity);
+                if (out.size() >= CHUNK_SIZE) {
+                    out.drainTo(channel);
+                }
+            }
+            out.drainTo(channel);
+            channel.force(true);
+        }
+        AtomicFiles.replace(temp, path);
+    }
+}
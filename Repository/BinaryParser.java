@@ -0,0 +1,27 @@
+package Repository;
+
+/**
+ * An interface for encoding entities to and decoding them from a compact binary record.
+ * Unlike the CSV format of {@link EntityParser}, numbers are stored as varints or raw IEEE 754 doubles and
+ * timestamps as epoch offsets, so decoding a record involves no text parsing.
+ *
+ * @param <T> the type of the entity being encoded.
+ */
+public interface BinaryParser<T> {
+
+    /**
+     * Encodes an entity by appending its fields to a record.
+     *
+     * @param out    the record being written.
+     * @param entity the entity to encode.
+     */
+    void write(RecordWriter out, T entity);
+
+    /**
+     * Decodes an entity from its record, consuming exactly the fields {@link #write(RecordWriter, Object)} wrote.
+     *
+     * @param in the record being read.
+     * @return the decoded entity.
+     */
+    T read(RecordReader in);
+}
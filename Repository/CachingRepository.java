@@ -0,0 +1,482 @@
+package Repository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+import Exception.*;
+
+
+/**
+ * A read-through cache in front of another repository.
+ * {@link #read(int)} is answered from memory when possible and otherwise loaded from the wrapped repository;
+ * updates and deletes made through this repository invalidate the cached entity. Listing and query methods
+ * are always passed through, since they are already answered by the wrapped repository in one round trip.
+ *
+ * The number of cached entities is bounded and eviction follows the W-TinyLFU policy: new entities enter a
+ * small LRU window, and an entity leaving the window only replaces the least recently used entity of the main
+ * area if it has been requested more often, as estimated by a {@link FrequencySketch}. The main area is a
+ * segmented LRU, where entities that are read again move from a probation to a protected segment. This keeps
+ * the frequently read part of the catalog cached even when many other entities are read once.
+ *
+ * Entities may additionally expire a fixed time after they were loaded, to bound how stale the cache can be
+ * with respect to changes made outside this repository.
+ *
+ * @param <T> the type of entities managed by this repository.
+ */
+public class CachingRepository<T extends Identifiable> implements IRepository<T> {
+
+    private final IRepository<T> delegate;
+    private final int maximumSize;
+    private final long timeToLiveNanos;
+
+    private final Map<Integer, Node<T>> nodes = new HashMap<>();
+    private final Segment<T> window = new Segment<>();
+    private final Segment<T> probation = new Segment<>();
+    private final Segment<T> protectedSegment = new Segment<>();
+    private final int maxWindow;
+    private final int maxProtected;
+    private final FrequencySketch sketch;
+
+    private long invalidations;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long loads;
+    private long totalLoadNanos;
+
+    /**
+     * Constructs a cache whose entities do not expire.
+     *
+     * @param delegate    the repository that stores the entities.
+     * @param maximumSize the maximum number of cached entities.
+     */
+    public CachingRepository(IRepository<T> delegate, int maximumSize) {
+        this(delegate, maximumSize, 0);
+    }
+
+    /**
+     * Constructs a cache.
+     *
+     * @param delegate         the repository that stores the entities.
+     * @param maximumSize      the maximum number of cached entities.
+     * @param timeToLiveMillis how long an entity stays cached after it was loaded; {@code 0} disables expiry.
+     */
+    public CachingRepository(IRepository<T> delegate, int maximumSize, long timeToLiveMillis) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive.");
+        }
+        if (timeToLiveMillis < 0) {
+            throw new IllegalArgumentException("Time to live cannot be negative.");
+        }
+        this.delegate = delegate;
+        this.maximumSize = maximumSize;
+        this.timeToLiveNanos = timeToLiveMillis * 1_000_000;
+        this.maxWindow = Math.max(1, maximumSize / 100);
+        this.maxProtected = (int) ((maximumSize - maxWindow) * 0.8);
+        this.sketch = new FrequencySketch(maximumSize);
+    }
+
+    /**
+     * Adds a new entity to the wrapped repository. The entity is cached once it is read.
+     */
+    @Override
+    public void create(T entity) {
+        delegate.create(entity);
+    }
+
+    /**
+     * Retrieves an entity from the cache, loading it from the wrapped repository on a miss.
+     *
+     * @param id the unique identifier of the entity.
+     * @return the entity with the specified ID.
+     * @throws EntityNotFoundException if the entity with the specified ID is not found.
+     */
+    @Override
+    public T read(int id) {
+        long generation;
+        synchronized (this) {
+            sketch.increment(id);
+            Node<T> node = nodes.get(id);
+            if (node != null && isExpired(node)) {
+                unlink(node);
+                node = null;
+            }
+            if (node != null) {
+                hits++;
+                onHit(node);
+                return node.value;
+            }
+            misses++;
+            generation = invalidations;
+        }
+
+        long start = System.nanoTime();
+        T entity;
+        try {
+            entity = delegate.read(id);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            synchronized (this) {
+                loads++;
+                totalLoadNanos += elapsed;
+            }
+        }
+
+        synchronized (this) {
+            // Skip caching if the entity may have changed while it was being loaded.
+            if (generation == invalidations && !nodes.containsKey(id)) {
+                admit(new Node<>(id, entity, System.nanoTime()));
+            }
+        }
+        return entity;
+    }
+
+    /**
+     * Serves the cached entities from memory and loads all others from the wrapped repository in one call.
+     */
+    @Override
+    public Map<Integer, T> readMany(Collection<Integer> ids) {
+        Map<Integer, T> cached = new HashMap<>();
+        Set<Integer> missing = new LinkedHashSet<>();
+        long generation;
+        synchronized (this) {
+            for (int id : ids) {
+                if (cached.containsKey(id) || missing.contains(id)) {
+                    continue;
+                }
+                sketch.increment(id);
+                Node<T> node = nodes.get(id);
+                if (node != null && isExpired(node)) {
+                    unlink(node);
+                    node = null;
+                }
+                if (node != null) {
+                    hits++;
+                    onHit(node);
+                    cached.put(id, node.value);
+                } else {
+                    misses++;
+                    missing.add(id);
+                }
+            }
+            generation = invalidations;
+        }
+
+        if (!missing.isEmpty()) {
+            long start = System.nanoTime();
+            Map<Integer, T> loaded;
+            try {
+                loaded = delegate.readMany(missing);
+            } finally {
+                long elapsed = System.nanoTime() - start;
+                synchronized (this) {
+                    loads++;
+                    totalLoadNanos += elapsed;
+                }
+            }
+            synchronized (this) {
+                for (Map.Entry<Integer, T> entry : loaded.entrySet()) {
+                    if (generation == invalidations && !nodes.containsKey(entry.getKey())) {
+                        admit(new Node<>(entry.getKey(), entry.getValue(), System.nanoTime()));
+                    }
+                }
+            }
+            cached.putAll(loaded);
+        }
+
+        Map<Integer, T> found = new LinkedHashMap<>();
+        for (int id : ids) {
+            T entity = cached.get(id);
+            if (entity != null) {
+                found.put(id, entity);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Updates the entity in the wrapped repository and drops it from the cache.
+     */
+    @Override
+    public void update(T entity) {
+        try {
+            delegate.update(entity);
+        } finally {
+            invalidate(entity.getId());
+        }
+    }
+
+    /**
+     * Deletes the entity from the wrapped repository and drops it from the cache.
+     */
+    @Override
+    public void delete(int id) {
+        try {
+            delegate.delete(id);
+        } finally {
+            invalidate(id);
+        }
+    }
+
+    @Override
+    public List<T> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public Stream<T> streamAll() {
+        return delegate.streamAll();
+    }
+
+    @Override
+    public List<T> findPage(Integer afterKey, int limit, SortOrder order) {
+        return delegate.findPage(afterKey, limit, order);
+    }
+
+    @Override
+    public List<T> findWhere(Query<T> query) {
+        return delegate.findWhere(query);
+    }
+
+    @Override
+    public void createIndex(Field<T, ?> field, IndexType type) {
+        delegate.createIndex(field, type);
+    }
+
+    @Override
+    public void createUniqueIndex(Field<T, ?> field, IndexType type) {
+        delegate.createUniqueIndex(field, type);
+    }
+
+    @Override
+    public void createAll(Collection<? extends T> entities) {
+        delegate.createAll(entities);
+    }
+
+    @Override
+    public void updateAll(Collection<? extends T> entities) {
+        try {
+            delegate.updateAll(entities);
+        } finally {
+            synchronized (this) {
+                for (T entity : entities) {
+                    invalidate(entity.getId());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void deleteAll(Collection<Integer> ids) {
+        try {
+            delegate.deleteAll(ids);
+        } finally {
+            synchronized (this) {
+                for (int id : ids) {
+                    invalidate(id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drops an entity from the cache, so the next read loads it from the wrapped repository.
+     *
+     * @param id the unique identifier of the entity.
+     */
+    public synchronized void invalidate(int id) {
+        invalidations++;
+        Node<T> node = nodes.get(id);
+        if (node != null) {
+            unlink(node);
+        }
+    }
+
+    /**
+     * Drops all entities from the cache.
+     */
+    public synchronized void invalidateAll() {
+        invalidations++;
+        nodes.clear();
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+    }
+
+    /**
+     * Returns the number of cached entities.
+     */
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Returns the number of reads answered from the cache.
+     */
+    public synchronized long getHitCount() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of reads that had to load the entity from the wrapped repository.
+     */
+    public synchronized long getMissCount() {
+        return misses;
+    }
+
+    /**
+     * Returns the fraction of reads answered from the cache, or {@code 0} if nothing has been read yet.
+     */
+    public synchronized double getHitRatio() {
+        long requests = hits + misses;
+        return requests == 0 ? 0 : (double) hits / requests;
+    }
+
+    /**
+     * Returns the number of entities dropped to make room for others.
+     */
+    public synchronized long getEvictionCount() {
+        return evictions;
+    }
+
+    /**
+     * Returns the average time spent loading an entity from the wrapped repository, in nanoseconds.
+     */
+    public synchronized double getAverageLoadNanos() {
+        return loads == 0 ? 0 : (double) totalLoadNanos / loads;
+    }
+
+    /**
+     * Returns the total time spent loading entities from the wrapped repository, in nanoseconds.
+     */
+    public synchronized long getTotalLoadNanos() {
+        return totalLoadNanos;
+    }
+
+    private boolean isExpired(Node<T> node) {
+        return timeToLiveNanos > 0 && System.nanoTime() - node.loadedAt >= timeToLiveNanos;
+    }
+
+    private void onHit(Node<T> node) {
+        if (node.segment == protectedSegment) {
+            protectedSegment.moveToBack(node);
+        } else if (node.segment == window) {
+            window.moveToBack(node);
+        } else {
+            probation.remove(node);
+            protectedSegment.addLast(node);
+            if (protectedSegment.size > maxProtected) {
+                Node<T> demoted = protectedSegment.first();
+                protectedSegment.remove(demoted);
+                probation.addLast(demoted);
+            }
+        }
+    }
+
+    /**
+     * Places a newly loaded entity in the window. The entity pushed out of the window enters the main area
+     * if there is room, or if it is more popular than the main area's eviction victim.
+     */
+    private void admit(Node<T> node) {
+        nodes.put(node.id, node);
+        window.addLast(node);
+        if (window.size <= maxWindow) {
+            return;
+        }
+        Node<T> candidate = window.first();
+        window.remove(candidate);
+        if (nodes.size() <= maximumSize) {
+            probation.addLast(candidate);
+            return;
+        }
+        Node<T> victim = probation.size > 0 ? probation.first() : protectedSegment.first();
+        if (victim != null && sketch.frequency(candidate.id) > sketch.frequency(victim.id)) {
+            unlink(victim);
+            probation.addLast(candidate);
+        } else {
+            nodes.remove(candidate.id);
+        }
+        evictions++;
+    }
+
+    private void unlink(Node<T> node) {
+        node.segment.remove(node);
+        nodes.remove(node.id);
+    }
+
+    private static final class Node<T> {
+        private final int id;
+        private final T value;
+        private final long loadedAt;
+        private Segment<T> segment;
+        private Node<T> prev;
+        private Node<T> next;
+
+        private Node(int id, T value, long loadedAt) {
+            this.id = id;
+            this.value = value;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    /**
+     * A doubly-linked list of nodes in LRU order: the first node is the least recently used.
+     */
+    private static final class Segment<T> {
+        private Node<T> head;
+        private Node<T> tail;
+        private int size;
+
+        private Node<T> first() {
+            return head;
+        }
+
+        private void addLast(Node<T> node) {
+            node.segment = this;
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+            size++;
+        }
+
+        private void remove(Node<T> node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            node.segment = null;
+            size--;
+        }
+
+        private void moveToBack(Node<T> node) {
+            if (node != tail) {
+                remove(node);
+                addLast(node);
+            }
+        }
+
+        private void clear() {
+            head = null;
+            tail = null;
+            size = 0;
+        }
+    }
+}
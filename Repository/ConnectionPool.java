@@ -0,0 +1,585 @@
+package Repository;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+
+/**
+ * A bounded pool of JDBC connections, exposed as a {@link DataSource}.
+ * At most {@code maxSize} physical connections are open at any time; a caller that finds them all in use
+ * waits up to {@code maxWaitMillis} before failing. Connections are validated before being handed out again
+ * after sitting idle, closed once they have been idle longer than {@code idleTimeoutMillis}, and a connection
+ * held longer than {@code leakThresholdMillis} is logged as a warning together with the stack trace of the code
+ * that borrowed it.
+ *
+ * Borrowing is reentrant per thread: while a thread holds a connection, further calls to
+ * {@link #getConnection()} on that thread return the same physical connection. This lets a parser
+ * resolve references through other repositories while the outer result set is still open, without taking
+ * a second connection (and without deadlocking a small pool). A caller that keeps a transaction of its own open
+ * while the thread goes on using the pool, such as a cursor, borrows with {@link #getUnsharedConnection()}
+ * instead, so that the thread's other statements do not run inside that transaction.
+ *
+ * Closing a connection obtained from the pool returns it to the pool instead of closing it.
+ * Likewise, statements created with {@link Connection#prepareStatement(String)} are cached per physical
+ * connection and keyed by their SQL text; closing one only clears its parameters so the next caller preparing
+ * the same SQL on that connection reuses it without another parse round trip.
+ */
+public class ConnectionPool implements DataSource, AutoCloseable {
+    private static final long VALIDATION_IDLE_MILLIS = 1_000;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final long HOUSEKEEPING_PERIOD_MILLIS = 5_000;
+    private static final int STATEMENT_CACHE_SIZE = 64;
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
+    /**
+     * Opens new physical connections for the pool.
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    private final ConnectionFactory factory;
+    private final long maxWaitMillis;
+    private final long idleTimeoutMillis;
+    private final long leakThresholdMillis;
+
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Set<Lease> leases = ConcurrentHashMap.newKeySet();
+    private final ThreadLocal<Lease> currentLease = new ThreadLocal<>();
+    private final ScheduledExecutorService housekeeper;
+    private final LongAdder statementCacheHits = new LongAdder();
+    private final LongAdder statementCacheMisses = new LongAdder();
+    private volatile boolean closed;
+    private PrintWriter logWriter;
+
+    /**
+     * Constructs a pool with a 30 second maximum wait, a 10 minute idle timeout and a 60 second leak threshold.
+     *
+     * @param factory the factory that opens physical connections.
+     * @param maxSize the maximum number of open connections.
+     */
+    public ConnectionPool(ConnectionFactory factory, int maxSize) {
+        this(factory, maxSize, 30_000, 600_000, 60_000);
+    }
+
+    /**
+     * Constructs a pool.
+     *
+     * @param factory             the factory that opens physical connections.
+     * @param maxSize             the maximum number of open connections.
+     * @param maxWaitMillis       how long a caller waits for a free connection before failing.
+     * @param idleTimeoutMillis   how long a connection may stay unused in the pool before it is closed.
+     * @param leakThresholdMillis how long a connection may be held before it is reported as a possible leak;
+     *                            {@code 0} disables leak detection.
+     */
+    public ConnectionPool(ConnectionFactory factory, int maxSize, long maxWaitMillis,
+                          long idleTimeoutMillis, long leakThresholdMillis) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Pool size must be positive.");
+        }
+        this.factory = factory;
+        this.maxWaitMillis = maxWaitMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeper.scheduleWithFixedDelay(this::houseKeep,
+                HOUSEKEEPING_PERIOD_MILLIS, HOUSEKEEPING_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection from the pool. The caller must close it to return it.
+     *
+     * @return a pooled connection.
+     * @throws SQLException if the pool is closed, no connection became free in time, or a new one could not be opened.
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        Lease lease = currentLease.get();
+        if (lease != null) {
+            synchronized (lease) {
+                if (!lease.released) {
+                    lease.depth++;
+                    return handle(lease);
+                }
+            }
+        }
+        lease = new Lease(acquire());
+        lease.depth++;
+        currentLease.set(lease);
+        leases.add(lease);
+        return handle(lease);
+    }
+
+    /**
+     * Borrows a connection that is not shared with the current thread: it is not the connection the thread
+     * already holds, and later calls to {@link #getConnection()} on the thread do not return it. The caller must
+     * close it to return it.
+     *
+     * @return a pooled connection.
+     * @throws SQLException if the pool is closed, no connection became free in time, or a new one could not be opened.
+     */
+    public Connection getUnsharedConnection() throws SQLException {
+        Lease lease = new Lease(acquire());
+        lease.depth++;
+        leases.add(lease);
+        return handle(lease);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("The pool only hands out connections for its configured user.");
+    }
+
+    /**
+     * Returns the number of connections currently borrowed.
+     */
+    public int getActiveCount() {
+        return leases.size();
+    }
+
+    /**
+     * Returns the number of open connections waiting in the pool.
+     */
+    public int getIdleCount() {
+        synchronized (idle) {
+            return idle.size();
+        }
+    }
+
+    /**
+     * Returns how many times a prepared statement was served from a connection's statement cache.
+     */
+    public long getStatementCacheHits() {
+        return statementCacheHits.sum();
+    }
+
+    /**
+     * Returns how many times a prepared statement had to be created because it was not cached.
+     */
+    public long getStatementCacheMisses() {
+        return statementCacheMisses.sum();
+    }
+
+    /**
+     * Closes the idle connections and stops the housekeeping thread.
+     * Borrowed connections are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        List<PooledConnection> toClose;
+        synchronized (idle) {
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+        }
+        toClose.forEach(PooledConnection::closeQuietly);
+    }
+
+    private PooledConnection acquire() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed.");
+        }
+        try {
+            if (!permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLException("Timed out after " + maxWaitMillis + " ms waiting for a database connection.");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection.", e);
+        }
+
+        try {
+            PooledConnection pooled;
+            while ((pooled = pollIdle()) != null) {
+                if (isUsable(pooled)) {
+                    return pooled;
+                }
+                pooled.closeQuietly();
+            }
+            return new PooledConnection(factory.create());
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private PooledConnection pollIdle() {
+        synchronized (idle) {
+            return idle.pollFirst();
+        }
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        if (System.currentTimeMillis() - pooled.lastUsed < VALIDATION_IDLE_MILLIS) {
+            return true;
+        }
+        try {
+            return pooled.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Gives a borrow back, and the connection to the pool once its last borrow is given back. The connection may be
+     * closed on another thread than the one that borrowed it; the borrower's thread then finds its lease released
+     * on its next {@link #getConnection()} and borrows a new connection.
+     */
+    private void release(Lease lease) {
+        synchronized (lease) {
+            if (--lease.depth > 0) {
+                return;
+            }
+            lease.released = true;
+        }
+        if (currentLease.get() == lease) {
+            currentLease.remove();
+        }
+        leases.remove(lease);
+
+        PooledConnection pooled = lease.connection;
+        if (closed || pooled.broken || !reset(pooled)) {
+            pooled.closeQuietly();
+        } else {
+            pooled.lastUsed = System.currentTimeMillis();
+            synchronized (idle) {
+                idle.offerFirst(pooled);
+            }
+        }
+        permits.release();
+    }
+
+    /**
+     * Undoes any transaction left open by the borrower so the next one starts from a clean state.
+     */
+    private boolean reset(PooledConnection pooled) {
+        try {
+            if (pooled.physical.isClosed()) {
+                return false;
+            }
+            if (!pooled.physical.getAutoCommit()) {
+                pooled.physical.rollback();
+                pooled.physical.setAutoCommit(true);
+            }
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void houseKeep() {
+        long now = System.currentTimeMillis();
+
+        List<PooledConnection> expired = new ArrayList<>();
+        synchronized (idle) {
+            for (Iterator<PooledConnection> it = idle.iterator(); it.hasNext(); ) {
+                PooledConnection pooled = it.next();
+                if (now - pooled.lastUsed > idleTimeoutMillis) {
+                    it.remove();
+                    expired.add(pooled);
+                }
+            }
+        }
+        expired.forEach(PooledConnection::closeQuietly);
+
+        if (leakThresholdMillis > 0) {
+            for (Lease lease : leases) {
+                if (!lease.reported && now - lease.borrowedAt > leakThresholdMillis) {
+                    lease.reported = true;
+                    LOGGER.log(Level.WARNING, "Connection held for more than " + leakThresholdMillis
+                            + " ms by thread " + lease.owner + "; possible connection leak.", lease.borrowTrace);
+                }
+            }
+        }
+    }
+
+    private Connection handle(Lease lease) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new Handle(lease));
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return logWriter;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        this.logWriter = out;
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return 0;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <I> I unwrap(Class<I> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    /**
+     * A physical connection owned by the pool.
+     */
+    private static class PooledConnection {
+        private final Connection physical;
+        private volatile long lastUsed = System.currentTimeMillis();
+        private volatile boolean broken;
+
+        /**
+         * Statements prepared on this connection, least recently used first. Only the thread holding the
+         * connection touches the cache, so it needs no locking.
+         */
+        private final Map<String, CachedStatement> statements =
+                new LinkedHashMap<String, CachedStatement>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                        if (size() <= STATEMENT_CACHE_SIZE) {
+                            return false;
+                        }
+                        eldest.getValue().evict();
+                        return true;
+                    }
+                };
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        private void closeQuietly() {
+            try {
+                physical.close();
+            } catch (SQLException ignored) {
+                // The connection is being discarded anyway.
+            }
+        }
+    }
+
+    /**
+     * A prepared statement kept open in a connection's cache between uses.
+     */
+    private static class CachedStatement {
+        private final PreparedStatement physical;
+        private boolean inUse;
+        private boolean evicted;
+
+        private CachedStatement(PreparedStatement physical) {
+            this.physical = physical;
+        }
+
+        /**
+         * Makes the statement ready for its next user, or closes it if it was evicted while in use.
+         */
+        private void giveBack() throws SQLException {
+            inUse = false;
+            if (evicted) {
+                physical.close();
+            } else {
+                physical.clearParameters();
+                physical.clearBatch();
+            }
+        }
+
+        private void evict() {
+            evicted = true;
+            if (!inUse) {
+                try {
+                    physical.close();
+                } catch (SQLException ignored) {
+                    // The statement is being discarded anyway.
+                }
+            }
+        }
+    }
+
+    /**
+     * The statement handed to callers for a cached statement. Delegates to the cached statement, except that
+     * {@code close()} returns it to the cache.
+     */
+    private static class StatementHandle implements InvocationHandler {
+        private final CachedStatement statement;
+        private boolean closed;
+
+        private StatementHandle(CachedStatement statement) {
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        statement.giveBack();
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || statement.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Cached " + statement.physical;
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Statement has already been closed.");
+            }
+            try {
+                return method.invoke(statement.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Returns a cached statement for the SQL on this connection, preparing and caching it on first use.
+     * If the cached statement is already in use further up the call stack (a nested read of the same table),
+     * an uncached statement is prepared instead.
+     */
+    private PreparedStatement prepareCached(PooledConnection pooled, String sql) throws SQLException {
+        CachedStatement cached = pooled.statements.get(sql);
+        if (cached != null && cached.inUse) {
+            statementCacheMisses.increment();
+            return pooled.physical.prepareStatement(sql);
+        }
+        if (cached == null) {
+            statementCacheMisses.increment();
+            cached = new CachedStatement(pooled.physical.prepareStatement(sql));
+            pooled.statements.put(sql, cached);
+        } else {
+            statementCacheHits.increment();
+        }
+        cached.inUse = true;
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, new StatementHandle(cached));
+    }
+
+    /**
+     * A connection borrowed by one thread, possibly through several nested {@link #getConnection()} calls.
+     */
+    private class Lease {
+        private final PooledConnection connection;
+        private final long borrowedAt = System.currentTimeMillis();
+        private final String owner = Thread.currentThread().getName();
+        private final Throwable borrowTrace;
+        private int depth;
+        private boolean released;
+        private volatile boolean reported;
+
+        private Lease(PooledConnection connection) {
+            this.connection = connection;
+            this.borrowTrace = leakThresholdMillis > 0 ? new Throwable("Connection borrowed here") : null;
+        }
+    }
+
+    /**
+     * The connection handed to callers. Delegates to the physical connection, except that {@code close()}
+     * gives the connection back to the pool. Each borrow gets its own handle, so closing it twice has no effect.
+     */
+    private class Handle implements InvocationHandler {
+        private final Lease lease;
+        private boolean closed;
+
+        private Handle(Lease lease) {
+            this.lease = lease;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(lease);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || lease.connection.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled " + lease.connection.physical;
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Connection has already been returned to the pool.");
+            }
+            try {
+                if (method.getName().equals("prepareStatement") && args.length == 1) {
+                    return prepareCached(lease.connection, (String) args[0]);
+                }
+                return method.invoke(lease.connection.physical, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof SQLException && isConnectionFailure((SQLException) cause)) {
+                    lease.connection.broken = true;
+                }
+                throw cause;
+            }
+        }
+
+        /**
+         * SQL state class 08 means the connection itself failed, so it must not go back into the pool.
+         */
+        private boolean isConnectionFailure(SQLException e) {
+            return e.getSQLState() != null && e.getSQLState().startsWith("08");
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package Repository;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * One entity per line, in the CSV format of an {@link EntityParser}.
+ * The file is written to a temporary file, synced to disk, and then atomically renamed over the old one, so that
+ * a crash during the write leaves either the old or the new content, never a truncated file. The directory is
+ * synced after the rename, so the new content survives a crash once the write returns.
+ */
+class CsvFileFormat<T> implements FileFormat<T> {
+    private final EntityParser<T> parser;
+
+    CsvFileFormat(EntityParser<T> parser) {
+        this.parser = parser;
+    }
+
+    @Override
+    public void read(Path path, Consumer<? super T> sink) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                sink.accept(parser.parseFromCSV(line));
+            }
+        }
+    }
+
+    @Override
+    public void write(Path path, Collection<? extends T> entities) throws IOException {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+             BufferedWriter writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8))) {
+            for (T entity : entities) {
+                writer.write(parser.toCSV(entity));
+                writer.newLine();
+            }
+            writer.flush();
+            channel.force(true);
+        }
+        AtomicFiles.replace(temp, path);
+    }
+}
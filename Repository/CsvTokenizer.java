@@ -0,0 +1,310 @@
+package Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Reads the fields of one CSV line, in order, without splitting it up front.
+ * The tokenizer walks the line in place: numbers, dates and times are parsed straight from its characters,
+ * and only string fields are copied out. A field that contains the separator, a quote, a backslash or a line
+ * break is enclosed in double quotes, with inner quotes doubled and backslashes and line breaks escaped, as
+ * written by {@link CsvWriter}; any other field is taken as is, so lines written before quoting was introduced
+ * read the same as before. Inside a quoted field, a backslash that does not start one of the escapes
+ * {@code \\}, {@code \n} or {@code \r} is kept as is.
+ */
+public class CsvTokenizer {
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final int MAX_EXACT_DIGITS = 15;
+
+    private final CharSequence line;
+    private final char separator;
+    private int position;
+    private boolean exhausted;
+    private int fieldStart;
+    private int fieldEnd;
+    private boolean fieldQuoted;
+
+    /**
+     * Creates a tokenizer positioned before the first field of a line.
+     *
+     * @param line      the line, without its line break.
+     * @param separator the character between fields.
+     */
+    public CsvTokenizer(CharSequence line, char separator) {
+        this.line = line;
+        this.separator = separator;
+    }
+
+    /**
+     * Checks whether any fields are left; a line always has at least one, possibly empty, field.
+     */
+    public boolean hasNext() {
+        return !exhausted;
+    }
+
+    /**
+     * Skips over the next field.
+     */
+    public void skip() {
+        advance();
+    }
+
+    /**
+     * Reads the next field as a string, with its quoting removed.
+     */
+    public String next() {
+        advance();
+        return fieldQuoted ? unquote(fieldStart, fieldEnd) : line.subSequence(fieldStart, fieldEnd).toString();
+    }
+
+    /**
+     * Reads the next field as a decimal integer.
+     */
+    public int nextInt() {
+        advance();
+        if (fieldQuoted) {
+            return Integer.parseInt(unquote(fieldStart, fieldEnd));
+        }
+        return Integer.parseInt(line, fieldStart, fieldEnd, 10);
+    }
+
+    /**
+     * Reads the next field as a floating-point number.
+     */
+    public double nextDouble() {
+        advance();
+        if (fieldQuoted) {
+            return Double.parseDouble(unquote(fieldStart, fieldEnd));
+        }
+        return parseDouble(fieldStart, fieldEnd);
+    }
+
+    /**
+     * Reads the next field as the name of an enum constant, ignoring case.
+     */
+    public <E extends Enum<E>> E nextEnum(Class<E> type) {
+        String name = next();
+        for (E constant : type.getEnumConstants()) {
+            if (constant.name().equalsIgnoreCase(name)) {
+                return constant;
+            }
+        }
+        throw new IllegalArgumentException("No enum constant " + type.getSimpleName() + "." + name);
+    }
+
+    /**
+     * Reads the next field as an ISO-8601 date, such as {@code 2025-01-31}.
+     */
+    public LocalDate nextDate() {
+        advance();
+        if (!fieldQuoted && fieldEnd - fieldStart == 10) {
+            LocalDate date = parseDate(fieldStart);
+            if (date != null) {
+                return date;
+            }
+        }
+        return LocalDate.parse(fieldText());
+    }
+
+    /**
+     * Reads the next field as an ISO-8601 time, such as {@code 18:30} or {@code 18:30:15.5}.
+     */
+    public LocalTime nextTime() {
+        advance();
+        if (!fieldQuoted) {
+            LocalTime time = parseTime(fieldStart, fieldEnd);
+            if (time != null) {
+                return time;
+            }
+        }
+        return LocalTime.parse(fieldText());
+    }
+
+    /**
+     * Reads the next field as an ISO-8601 date and time, such as {@code 2025-01-31T18:30}.
+     */
+    public LocalDateTime nextDateTime() {
+        advance();
+        if (!fieldQuoted && fieldEnd - fieldStart > 11 && line.charAt(fieldStart + 10) == 'T') {
+            LocalDate date = parseDate(fieldStart);
+            LocalTime time = date == null ? null : parseTime(fieldStart + 11, fieldEnd);
+            if (time != null) {
+                return LocalDateTime.of(date, time);
+            }
+        }
+        return LocalDateTime.parse(fieldText());
+    }
+
+    private void advance() {
+        if (exhausted) {
+            throw new IllegalArgumentException("Invalid CSV format, missing fields.");
+        }
+        int length = line.length();
+        if (position < length && line.charAt(position) == '"') {
+            fieldQuoted = true;
+            fieldStart = position + 1;
+            int i = fieldStart;
+            while (true) {
+                if (i >= length) {
+                    throw new IllegalArgumentException("Invalid CSV format, unterminated quoted field.");
+                }
+                if (line.charAt(i) == '"') {
+                    if (i + 1 < length && line.charAt(i + 1) == '"') {
+                        i += 2;
+                        continue;
+                    }
+                    break;
+                }
+                i++;
+            }
+            fieldEnd = i;
+            position = i + 1;
+            if (position < length && line.charAt(position) != separator) {
+                throw new IllegalArgumentException("Invalid CSV format, text after a quoted field.");
+            }
+        } else {
+            fieldQuoted = false;
+            fieldStart = position;
+            int i = position;
+            while (i < length && line.charAt(i) != separator) {
+                i++;
+            }
+            fieldEnd = i;
+            position = i;
+        }
+
+        if (position >= length) {
+            exhausted = true;
+        } else {
+            position++;
+        }
+    }
+
+    private String fieldText() {
+        return fieldQuoted ? unquote(fieldStart, fieldEnd) : line.subSequence(fieldStart, fieldEnd).toString();
+    }
+
+    private String unquote(int start, int end) {
+        StringBuilder value = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = line.charAt(i);
+            if (c == '\\' && i + 1 < end) {
+                char escaped = line.charAt(i + 1);
+                if (escaped == 'n' || escaped == 'r' || escaped == '\\') {
+                    value.append(escaped == 'n' ? '\n' : escaped == 'r' ? '\r' : '\\');
+                    i++;
+                    continue;
+                }
+            }
+            value.append(c);
+            if (c == '"') {
+                i++;
+            }
+        }
+        return value.toString();
+    }
+
+    /**
+     * Parses a plain decimal such as {@code -12.5} exactly: with at most 15 significant digits, both the digits
+     * and the power of ten are exact doubles, so one division rounds correctly. Anything else, such as an
+     * exponent, falls back to {@link Double#parseDouble(String)}.
+     */
+    private double parseDouble(int start, int end) {
+        int i = start;
+        boolean negative = i < end && line.charAt(i) == '-';
+        if (negative) {
+            i++;
+        }
+        long digits = 0;
+        int digitCount = 0;
+        int fractionDigits = -1;
+        for (; i < end; i++) {
+            char c = line.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits = digits * 10 + (c - '0');
+                digitCount++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                digitCount = -1;
+                break;
+            }
+        }
+        if (digitCount <= 0 || digitCount > MAX_EXACT_DIGITS) {
+            return Double.parseDouble(line.subSequence(start, end).toString());
+        }
+        double value = fractionDigits > 0 ? digits / POWERS_OF_TEN[fractionDigits] : digits;
+        return negative ? -value : value;
+    }
+
+    /**
+     * Parses {@code yyyy-MM-dd} at the given index, or returns {@code null} if the characters do not have
+     * that shape, so that the caller can fall back to the full parser and its error message.
+     */
+    private LocalDate parseDate(int start) {
+        int year = digits(start, 4);
+        int month = digits(start + 5, 2);
+        int day = digits(start + 8, 2);
+        if (year < 0 || month < 0 || day < 0 || line.charAt(start + 4) != '-' || line.charAt(start + 7) != '-') {
+            return null;
+        }
+        return LocalDate.of(year, month, day);
+    }
+
+    /**
+     * Parses {@code HH:mm}, {@code HH:mm:ss} or {@code HH:mm:ss.fraction} between the given indexes, or returns
+     * {@code null} if the characters do not have that shape.
+     */
+    private LocalTime parseTime(int start, int end) {
+        int length = end - start;
+        if (length != 5 && length != 8 && length < 10) {
+            return null;
+        }
+        int hour = digits(start, 2);
+        int minute = digits(start + 3, 2);
+        if (hour < 0 || minute < 0 || line.charAt(start + 2) != ':') {
+            return null;
+        }
+        if (length == 5) {
+            return LocalTime.of(hour, minute);
+        }
+        int second = digits(start + 6, 2);
+        if (second < 0 || line.charAt(start + 5) != ':') {
+            return null;
+        }
+        if (length == 8) {
+            return LocalTime.of(hour, minute, second);
+        }
+        int fractionLength = length - 9;
+        if (fractionLength > 9 || line.charAt(start + 8) != '.') {
+            return null;
+        }
+        int fraction = digits(start + 9, fractionLength);
+        if (fraction < 0) {
+            return null;
+        }
+        for (int i = fractionLength; i < 9; i++) {
+            fraction *= 10;
+        }
+        return LocalTime.of(hour, minute, second, fraction);
+    }
+
+    private int digits(int start, int count) {
+        int value = 0;
+        for (int i = start; i < start + count; i++) {
+            char c = line.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,96 @@
+package Repository;
+
+/**
+ * Builds one CSV line, field by field, in the format read by {@link CsvTokenizer}.
+ * A field that contains the separator, a double quote, a backslash or a line break is enclosed in double quotes,
+ * with inner quotes doubled and backslashes and line breaks escaped as {@code \\}, {@code \n} and {@code \r},
+ * so that a line never contains a line break and files can be read line by line; every other field is written
+ * as is. A field may itself be a CSV line with a different separator, which is how nested entities are embedded.
+ */
+public class CsvWriter {
+    private final StringBuilder line = new StringBuilder(64);
+    private final char separator;
+    private boolean first = true;
+
+    /**
+     * Creates a writer for an empty line.
+     *
+     * @param separator the character between fields.
+     */
+    public CsvWriter(char separator) {
+        this.separator = separator;
+    }
+
+    /**
+     * Appends a string field, quoting it if needed; {@code null} is written as {@code "null"}, like concatenation.
+     */
+    public CsvWriter field(String value) {
+        startField();
+        String text = String.valueOf(value);
+        if (needsQuotes(text)) {
+            line.append('"');
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                switch (c) {
+                    case '"' -> line.append("\"\"");
+                    case '\\' -> line.append("\\\\");
+                    case '\n' -> line.append("\\n");
+                    case '\r' -> line.append("\\r");
+                    default -> line.append(c);
+                }
+            }
+            line.append('"');
+        } else {
+            line.append(text);
+        }
+        return this;
+    }
+
+    /**
+     * Appends an integer field.
+     */
+    public CsvWriter field(int value) {
+        startField();
+        line.append(value);
+        return this;
+    }
+
+    /**
+     * Appends a floating-point field.
+     */
+    public CsvWriter field(double value) {
+        startField();
+        line.append(value);
+        return this;
+    }
+
+    /**
+     * Appends a field holding the {@code toString()} of a value, such as an enum constant or a date.
+     */
+    public CsvWriter field(Object value) {
+        return field(String.valueOf(value));
+    }
+
+    @Override
+    public String toString() {
+        return line.toString();
+    }
+
+    private void startField() {
+        if (first) {
+            first = false;
+        } else {
+            line.append(separator);
+        }
+    }
+
+    private boolean needsQuotes(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == separator || c == '"' || c == '\\' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+}
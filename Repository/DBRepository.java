@@ -1,43 +1,94 @@
 package Repository;
 
+import javax.sql.DataSource;
 import java.sql.*;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import Exception.*;
 
 
 /**
  * A database-backed repository for managing entities that implement Identifiable and EntityParser.
+ * Every operation borrows a connection from the data source and returns it when done, so one repository
+ * can serve many threads when the data source is a {@link ConnectionPool}.
+ * The SQL for each operation is built once, when the repository is constructed, and always prepared through
+ * {@link Connection#prepareStatement(String)} so that a pooled connection can reuse the prepared statement.
+ * Operations that return several entities run as a unit of work with an {@link IdentityMap}, so an entity
+ * referenced by many of them is hydrated once and shared. Inside a {@link UnitOfWork}, its identity map is used
+ * instead, so every read during it returns one instance per entity, and written entities are registered in it.
+ * Each of these operations also has its own {@link BatchLoader} context, so the lazy references it parses are
+ * loaded in batches of their own.
  *
  * @param <T> the type of the entity managed by the repository.
  */
 public class DBRepository<T extends Identifiable> implements IRepository<T> {
+    private static final int BATCH_SIZE = 500;
+    private static final int FETCH_SIZE = 250;
+    private static final int READ_CHUNK_SIZE = 1000;
+
     private final String tableName;
     private final SQLParser<T> parser;
-    private final Connection connection;
+    private final DataSource dataSource;
+    private final String selectSource;
+    private final String insertSql;
+    private final String selectByIdSql;
+    private final String selectByIdsSql;
+    private final String updateSql;
+    private final String deleteSql;
+    private final String selectAllSql;
+    private final String firstPageAscSql;
+    private final String nextPageAscSql;
+    private final String firstPageDescSql;
+    private final String nextPageDescSql;
 
     /**
      * Constructs a new DBRepository.
      *
-     * @param connection the JDBC connection to the database.
+     * @param dataSource the source of JDBC connections to the database.
      * @param tableName  the name of the table storing entities.
      * @param parser     the parser to handle entity serialization and deserialization.
      */
-    public DBRepository(Connection connection, String tableName, SQLParser<T> parser) {
-        this.connection = connection;
+    public DBRepository(DataSource dataSource, String tableName, SQLParser<T> parser) {
+        this.dataSource = dataSource;
         this.tableName = tableName;
         this.parser = parser;
+        this.insertSql = String.format("INSERT INTO %s (%s) VALUES (%s)",
+                tableName,
+                parser.getColumns(),
+                parser.getPlaceholders());
+        this.selectSource = parser.getSelectSource(tableName);
+        this.selectByIdSql = String.format("SELECT * FROM %s WHERE id = ?", selectSource);
+        this.selectByIdsSql = String.format("SELECT * FROM %s WHERE id = ANY(?)", selectSource);
+        this.updateSql = String.format("UPDATE %s SET %s WHERE id = ?",
+                tableName,
+                parser.getUpdateColumns());
+        this.deleteSql = String.format("DELETE FROM %s WHERE id = ?", tableName);
+        this.selectAllSql = String.format("SELECT * FROM %s", selectSource);
+        this.firstPageAscSql = String.format("SELECT * FROM %s ORDER BY id ASC LIMIT ?", selectSource);
+        this.nextPageAscSql = String.format("SELECT * FROM %s WHERE id > ? ORDER BY id ASC LIMIT ?", selectSource);
+        this.firstPageDescSql = String.format("SELECT * FROM %s ORDER BY id DESC LIMIT ?", selectSource);
+        this.nextPageDescSql = String.format("SELECT * FROM %s WHERE id < ? ORDER BY id DESC LIMIT ?", selectSource);
     }
 
     @Override
     public void create(T entity) {
-        String sql = String.format("INSERT INTO %s (%s) VALUES (%s)",
-                tableName,
-                parser.getColumns(),
-                parser.getPlaceholders());
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(insertSql)) {
             parser.fillPreparedStatementForInsert(stmt, entity);
             stmt.executeUpdate();
+            IdentityMap.register(entity);
         } catch (SQLException e) {
             throw new DatabaseException("Failed to create entity: " + entity.getId(), e);
         }
@@ -45,12 +96,12 @@ public class DBRepository<T extends Identifiable> implements IRepository<T> {
 
     @Override
     public T read(int id) {
-        String sql = String.format("SELECT * FROM %s WHERE id = ?", tableName);
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(selectByIdSql)) {
             stmt.setInt(1, id);
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    return parser.parseFromResultSet(rs);
+                    return IdentityMap.share(parser.parseFromResultSet(rs));
                 } else {
                     throw new EntityNotFoundException("Entity with ID " + id + " not found.");
                 }
@@ -60,18 +111,56 @@ public class DBRepository<T extends Identifiable> implements IRepository<T> {
         }
     }
 
+    /**
+     * Reads the entities with one {@code WHERE id = ANY(?)} query per chunk of IDs. The IDs are bound as a
+     * single array parameter, so every chunk uses the same statement regardless of how many IDs it holds.
+     */
+    @Override
+    public Map<Integer, T> readMany(Collection<Integer> ids) {
+        List<Integer> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        Map<Integer, T> loaded = new HashMap<>();
+        IdentityMap.Scope scope = IdentityMap.open();
+        BatchLoader.Scope batches = BatchLoader.open();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(selectByIdsSql)) {
+            for (int start = 0; start < distinctIds.size(); start += READ_CHUNK_SIZE) {
+                List<Integer> chunk = distinctIds.subList(start, Math.min(start + READ_CHUNK_SIZE, distinctIds.size()));
+                stmt.setArray(1, connection.createArrayOf("integer", chunk.toArray()));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        T entity = IdentityMap.share(parser.parseFromResultSet(rs));
+                        loaded.put(entity.getId(), entity);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("Failed to read entities from " + tableName, e);
+        } finally {
+            batches.close();
+            scope.close();
+        }
+
+        Map<Integer, T> found = new LinkedHashMap<>();
+        for (int id : distinctIds) {
+            T entity = loaded.get(id);
+            if (entity != null) {
+                found.put(id, entity);
+            }
+        }
+        return found;
+    }
+
     @Override
     public void update(T entity) {
-        String sql = String.format("UPDATE %s SET %s WHERE id = ?",
-                tableName,
-                parser.getUpdateColumns());
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(updateSql)) {
             parser.fillPreparedStatementForUpdate(stmt, entity);
             stmt.setInt(parser.getUpdateParametersCount() + 1, entity.getId());
             int affectedRows = stmt.executeUpdate();
             if (affectedRows == 0) {
                 throw new EntityNotFoundException("Entity with ID " + entity.getId() + " not found.");
             }
+            IdentityMap.register(entity);
         } catch (SQLException e) {
             throw new DatabaseException("Failed to update entity: " + entity.getId(), e);
         }
@@ -79,8 +168,8 @@ public class DBRepository<T extends Identifiable> implements IRepository<T> {
 
     @Override
     public void delete(int id) {
-        String sql = String.format("DELETE FROM %s WHERE id = ?", tableName);
-        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(deleteSql)) {
             stmt.setInt(1, id);
             int affectedRows = stmt.executeUpdate();
             if (affectedRows == 0) {
@@ -94,15 +183,376 @@ public class DBRepository<T extends Identifiable> implements IRepository<T> {
     @Override
     public List<T> findAll() {
         List<T> entities = new ArrayList<>();
-        String sql = String.format("SELECT * FROM %s", tableName);
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+        IdentityMap.Scope scope = IdentityMap.open();
+        BatchLoader.Scope batches = BatchLoader.open();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(selectAllSql);
+             ResultSet rs = stmt.executeQuery()) {
             while (rs.next()) {
-                entities.add(parser.parseFromResultSet(rs));
+                entities.add(IdentityMap.share(parser.parseFromResultSet(rs)));
             }
         } catch (SQLException e) {
             throw new DatabaseException("Failed to find all entities", e);
+        } finally {
+            batches.close();
+            scope.close();
+        }
+        return entities;
+    }
+
+    /**
+     * Streams all rows through a server-side cursor that fetches {@value #FETCH_SIZE} rows at a time, so only
+     * one page of the table is in memory at once. The cursor needs a transaction, so outside of one it runs on a
+     * connection of its own, which stays out of auto-commit mode until the stream is closed or fully consumed;
+     * writes made on the same thread while the stream is open are committed on their own as usual. Inside a
+     * {@link JdbcTransaction}, the cursor runs in that transaction and sees its writes.
+     */
+    @Override
+    public Stream<T> streamAll() {
+        Cursor cursor = new Cursor();
+        return StreamSupport.stream(cursor, false).onClose(cursor::close);
+    }
+
+    /**
+     * Fetches the page with {@code WHERE id > ? ORDER BY id LIMIT ?} (or the descending equivalent),
+     * which the primary key index answers by seeking to the key instead of skipping earlier rows.
+     */
+    @Override
+    public List<T> findPage(Integer afterKey, int limit, SortOrder order) {
+        String sql = order == SortOrder.ASCENDING
+                ? (afterKey == null ? firstPageAscSql : nextPageAscSql)
+                : (afterKey == null ? firstPageDescSql : nextPageDescSql);
+        List<T> entities = new ArrayList<>();
+        IdentityMap.Scope scope = IdentityMap.open();
+        BatchLoader.Scope batches = BatchLoader.open();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(sql)) {
+            int index = 1;
+            if (afterKey != null) {
+                stmt.setInt(index++, afterKey);
+            }
+            stmt.setInt(index, limit);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    entities.add(IdentityMap.share(parser.parseFromResultSet(rs)));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("Failed to find a page of entities", e);
+        } finally {
+            batches.close();
+            scope.close();
         }
         return entities;
     }
+
+    /**
+     * Compiles the query into a parameterized {@code SELECT} so that the database does the filtering, ordering
+     * and limiting. Queries of the same shape produce the same SQL, so they share a cached prepared statement.
+     */
+    @Override
+    public List<T> findWhere(Query<T> query) {
+        List<T> entities = new ArrayList<>();
+        IdentityMap.Scope scope = IdentityMap.open();
+        BatchLoader.Scope batches = BatchLoader.open();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement stmt = connection.prepareStatement(query.toSql(selectSource))) {
+            query.bind(stmt);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    entities.add(IdentityMap.share(parser.parseFromResultSet(rs)));
+                }
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("Failed to query entities", e);
+        } finally {
+            batches.close();
+            scope.close();
+        }
+        return entities;
+    }
+
+    /**
+     * Creates a database index on the field's column, unless one of the same name exists. The database
+     * maintains it and uses it for the queries {@link #findWhere(Query)} compiles.
+     */
+    @Override
+    public void createIndex(Field<T, ?> field, IndexType type) {
+        executeDdl(indexDdl(field, type, false), "Failed to create index on " + field.getColumn());
+    }
+
+    /**
+     * Creates a unique database index on the field's column, unless one of the same name exists.
+     * Since the database only enforces uniqueness on B-tree indexes, a unique hash index is created as a B-tree.
+     */
+    @Override
+    public void createUniqueIndex(Field<T, ?> field, IndexType type) {
+        executeDdl(indexDdl(field, type, true), "Failed to create unique index on " + field.getColumn());
+    }
+
+    private String indexDdl(Field<T, ?> field, IndexType type, boolean unique) {
+        String column = field.getColumn();
+        String name = tableName + "_" + column.replaceAll("\\W+", "_").replaceAll("^_|_$", "") + "_idx";
+        String method = type == IndexType.HASH && !unique ? "hash" : "btree";
+        // A column may be named as it is, while an expression such as lower(username) has to be parenthesized.
+        String key = column.matches("\\w+") ? column : "(" + column + ")";
+        return String.format("CREATE %sINDEX IF NOT EXISTS %s ON %s USING %s (%s)",
+                unique ? "UNIQUE " : "", name, tableName, method, key);
+    }
+
+    private void executeDdl(String sql, String errorMessage) {
+        try (Connection connection = dataSource.getConnection();
+             Statement stmt = connection.createStatement()) {
+            stmt.execute(sql);
+        } catch (SQLException e) {
+            throw new DatabaseException(errorMessage, e);
+        }
+    }
+
+    /**
+     * Inserts all entities with JDBC batches inside one transaction.
+     */
+    @Override
+    public void createAll(Collection<? extends T> entities) {
+        executeBatch(insertSql, entities, parser::fillPreparedStatementForInsert, false,
+                "Failed to create entities");
+        entities.forEach(IdentityMap::register);
+    }
+
+    /**
+     * Updates all entities with JDBC batches inside one transaction.
+     *
+     * @throws EntityNotFoundException if any of the entities does not exist; none of them are updated.
+     */
+    @Override
+    public void updateAll(Collection<? extends T> entities) {
+        executeBatch(updateSql, entities, (stmt, entity) -> {
+            parser.fillPreparedStatementForUpdate(stmt, entity);
+            stmt.setInt(parser.getUpdateParametersCount() + 1, entity.getId());
+        }, true, "Failed to update entities");
+        entities.forEach(IdentityMap::register);
+    }
+
+    /**
+     * Deletes all entities with JDBC batches inside one transaction.
+     *
+     * @throws EntityNotFoundException if any of the entities does not exist; none of them are deleted.
+     */
+    @Override
+    public void deleteAll(Collection<Integer> ids) {
+        executeBatch(deleteSql, ids, (stmt, id) -> stmt.setInt(1, id), true,
+                "Failed to delete entities");
+    }
+
+    /**
+     * Binds the parameters of one batch entry.
+     */
+    @FunctionalInterface
+    private interface BatchBinder<E> {
+        void bind(PreparedStatement stmt, E item) throws SQLException;
+    }
+
+    /**
+     * Runs the statement once per item, sending the items in batches of {@value #BATCH_SIZE}.
+     * If the connection is in auto-commit mode the whole run is one transaction, committed at the end;
+     * otherwise the caller's transaction is joined and left for the caller to commit.
+     *
+     * @param requireRow whether every item must affect a row; if one does not, the run fails.
+     */
+    private <E> void executeBatch(String sql, Collection<E> items, BatchBinder<? super E> binder,
+                                  boolean requireRow, String failureMessage) {
+        if (items.isEmpty()) {
+            return;
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            boolean ownsTransaction = connection.getAutoCommit();
+            if (ownsTransaction) {
+                connection.setAutoCommit(false);
+            }
+            try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+                int pending = 0;
+                for (E item : items) {
+                    binder.bind(stmt, item);
+                    stmt.addBatch();
+                    if (++pending == BATCH_SIZE) {
+                        checkAffectedRows(stmt.executeBatch(), requireRow);
+                        pending = 0;
+                    }
+                }
+                if (pending > 0) {
+                    checkAffectedRows(stmt.executeBatch(), requireRow);
+                }
+                if (ownsTransaction) {
+                    connection.commit();
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (ownsTransaction) {
+                    connection.rollback();
+                }
+                throw e;
+            } finally {
+                if (ownsTransaction) {
+                    connection.setAutoCommit(true);
+                }
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException(failureMessage + " in " + tableName, e);
+        }
+    }
+
+    private void checkAffectedRows(int[] affectedRows, boolean requireRow) {
+        if (!requireRow) {
+            return;
+        }
+        for (int rows : affectedRows) {
+            if (rows == 0) {
+                throw new EntityNotFoundException("One or more entities in the batch were not found in " + tableName + ".");
+            }
+        }
+    }
+
+    /**
+     * The open result set behind {@link #streamAll()}, together with the connection and statement it needs.
+     * Everything is released when the stream is closed or when the last row has been read.
+     * All rows are parsed within one {@link IdentityMap}, that of the unit of work the stream was opened in, if any,
+     * so entities they reference are shared across the stream, and within one {@link BatchLoader} context.
+     * Rows are parsed {@value #FETCH_SIZE} at a time, one fetched page, before any of them is handed out, so the
+     * references of a page join one batch, and accessing them costs one round trip per page rather than one per row.
+     */
+    private class Cursor extends Spliterators.AbstractSpliterator<T> {
+        private final Connection connection;
+        private final boolean ownsTransaction;
+        private final IdentityMap identityMap = IdentityMap.forCurrentUnitOfWork();
+        private final BatchLoader.Context batchContext = new BatchLoader.Context();
+        private final Deque<T> page = new ArrayDeque<>(FETCH_SIZE);
+        private PreparedStatement stmt;
+        private ResultSet rs;
+        private boolean closed;
+
+        private Cursor() {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            try {
+                connection = borrowConnection();
+            } catch (SQLException e) {
+                throw new DatabaseException("Failed to stream entities from " + tableName, e);
+            }
+            boolean autoCommit = false;
+            try {
+                autoCommit = connection.getAutoCommit();
+                if (autoCommit) {
+                    connection.setAutoCommit(false);
+                }
+            } catch (SQLException e) {
+                close(autoCommit);
+                throw new DatabaseException("Failed to stream entities from " + tableName, e);
+            }
+            ownsTransaction = autoCommit;
+            try {
+                stmt = connection.prepareStatement(selectAllSql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                stmt.setFetchSize(FETCH_SIZE);
+                rs = stmt.executeQuery();
+            } catch (SQLException e) {
+                close();
+                throw new DatabaseException("Failed to stream entities from " + tableName, e);
+            }
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            if (page.isEmpty() && !closed) {
+                readPage();
+            }
+            T entity = page.poll();
+            if (entity == null) {
+                return false;
+            }
+            action.accept(entity);
+            return true;
+        }
+
+        /**
+         * Parses the next page of rows, and releases everything once the last row has been read.
+         */
+        private void readPage() {
+            IdentityMap.Scope scope = identityMap.bind();
+            BatchLoader.Scope batches = batchContext.bind();
+            try {
+                while (page.size() < FETCH_SIZE) {
+                    if (!rs.next()) {
+                        close();
+                        return;
+                    }
+                    page.add(IdentityMap.share(parser.parseFromResultSet(rs)));
+                }
+            } catch (SQLException e) {
+                page.clear();
+                close();
+                throw new DatabaseException("Failed to stream entities from " + tableName, e);
+            } finally {
+                batches.close();
+                scope.close();
+            }
+        }
+
+        /**
+         * Borrows the connection of the thread's transaction, if one is open, or else a connection that the
+         * thread's other statements do not share, so that they do not run inside the cursor's transaction.
+         */
+        private Connection borrowConnection() throws SQLException {
+            if (!dataSource.isWrapperFor(ConnectionPool.class)) {
+                return dataSource.getConnection();
+            }
+            Connection shared = dataSource.getConnection();
+            try {
+                if (!shared.getAutoCommit()) {
+                    return shared;
+                }
+            } catch (SQLException | RuntimeException e) {
+                shared.close();
+                throw e;
+            }
+            shared.close();
+            return dataSource.unwrap(ConnectionPool.class).getUnsharedConnection();
+        }
+
+        private void close() {
+            close(ownsTransaction);
+        }
+
+        private void close(boolean endTransaction) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                try {
+                    // Closes the cursor before its transaction ends.
+                    closeResults();
+                    if (endTransaction) {
+                        try {
+                            connection.commit();
+                        } finally {
+                            connection.setAutoCommit(true);
+                        }
+                    }
+                } finally {
+                    connection.close();
+                }
+            } catch (SQLException e) {
+                throw new DatabaseException("Failed to close stream over " + tableName, e);
+            }
+        }
+
+        private void closeResults() throws SQLException {
+            try {
+                if (rs != null) {
+                    rs.close();
+                }
+            } finally {
+                if (stmt != null) {
+                    stmt.close();
+                }
+            }
+        }
+    }
 }
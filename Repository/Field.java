@@ -0,0 +1,99 @@
+package Repository;
+
+import java.util.function.Function;
+
+/**
+ * A queryable property of an entity: the name of the column that stores it and a function that reads it
+ * from an entity. The database backend filters and orders on the column, while the other backends apply
+ * the function to their entities, so a single {@link Query} works against every repository.
+ *
+ * @param <T> the type of the entity.
+ * @param <V> the type of the property's value.
+ */
+public final class Field<T, V extends Comparable<? super V>> {
+    private final String column;
+    private final Function<? super T, ? extends V> extractor;
+
+    /**
+     * Constructs a new Field.
+     *
+     * @param column    the name of the column that stores the property.
+     * @param extractor the function that reads the property from an entity.
+     */
+    public Field(String column, Function<? super T, ? extends V> extractor) {
+        this.column = column;
+        this.extractor = extractor;
+    }
+
+    /**
+     * Returns the field for the entity's ID, stored in the {@code id} column.
+     * Conditions on this field let the backends look entities up by ID instead of scanning.
+     *
+     * @param <T> the type of the entity.
+     * @return the ID field.
+     */
+    public static <T extends Identifiable> Field<T, Integer> id() {
+        return new Field<>("id", Identifiable::getId);
+    }
+
+    /**
+     * Retrieves the name of the column that stores the property.
+     *
+     * @return the column name.
+     */
+    public String getColumn() {
+        return column;
+    }
+
+    /**
+     * Reads the property from an entity.
+     *
+     * @param entity the entity.
+     * @return the value of the property.
+     */
+    public V valueOf(T entity) {
+        return extractor.apply(entity);
+    }
+
+    /**
+     * Creates a condition that the property equals the value.
+     */
+    public Query.Condition<T> eq(V value) {
+        return new Query.Condition<>(this, Query.Operator.EQ, value, null);
+    }
+
+    /**
+     * Creates a condition that the property is less than the value.
+     */
+    public Query.Condition<T> lt(V value) {
+        return new Query.Condition<>(this, Query.Operator.LT, value, null);
+    }
+
+    /**
+     * Creates a condition that the property is less than or equal to the value.
+     */
+    public Query.Condition<T> le(V value) {
+        return new Query.Condition<>(this, Query.Operator.LE, value, null);
+    }
+
+    /**
+     * Creates a condition that the property is greater than the value.
+     */
+    public Query.Condition<T> gt(V value) {
+        return new Query.Condition<>(this, Query.Operator.GT, value, null);
+    }
+
+    /**
+     * Creates a condition that the property is greater than or equal to the value.
+     */
+    public Query.Condition<T> ge(V value) {
+        return new Query.Condition<>(this, Query.Operator.GE, value, null);
+    }
+
+    /**
+     * Creates a condition that the property lies between the two values, both inclusive.
+     */
+    public Query.Condition<T> between(V low, V high) {
+        return new Query.Condition<>(this, Query.Operator.BETWEEN, low, high);
+    }
+}
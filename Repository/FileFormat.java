@@ -0,0 +1,32 @@
+package Repository;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+/**
+ * The layout of the entities in the file of a {@link FileRepository}.
+ *
+ * @param <T> the type of the stored entities.
+ */
+interface FileFormat<T> {
+
+    /**
+     * Reads every entity in the file, in file order.
+     *
+     * @param path the file, which exists.
+     * @param sink receives each entity.
+     * @throws IOException if the file cannot be read.
+     */
+    void read(Path path, Consumer<? super T> sink) throws IOException;
+
+    /**
+     * Replaces the content of the file with the entities.
+     *
+     * @param path     the file, which may not exist yet.
+     * @param entities the entities, in the order to write them.
+     * @throws IOException if the file cannot be written.
+     */
+    void write(Path path, Collection<? extends T> entities) throws IOException;
+}
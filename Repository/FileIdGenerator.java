@@ -0,0 +1,117 @@
+package Repository;
+
+import Exception.FileRepositoryException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+/**
+ * An {@link IdGenerator} that persists a high-water mark in a file.
+ * IDs are reserved in blocks: before the first ID of a block is handed out, the end of the block is written to
+ * the file, so after a restart allocation resumes past every ID handed out before, without reading the entities.
+ * The new mark is synced to disk before it atomically replaces the old one, so no ID is handed out under a mark
+ * that a crash could lose.
+ * A crash loses at most the unused rest of one block. If the file does not exist yet, allocation starts after
+ * the highest ID in the repository.
+ */
+public class FileIdGenerator implements IdGenerator {
+    private static final int DEFAULT_BLOCK_SIZE = 100;
+
+    private final Path path;
+    private final IRepository<? extends Identifiable> repository;
+    private final int blockSize;
+
+    private boolean loaded;
+    private int lastId;
+    private int highWaterMark;
+
+    /**
+     * Constructs a FileIdGenerator.
+     *
+     * @param filePath   the path of the file storing the high-water mark.
+     * @param repository the repository storing the entities the IDs are for.
+     */
+    public FileIdGenerator(String filePath, IRepository<? extends Identifiable> repository) {
+        this(filePath, repository, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Constructs a FileIdGenerator.
+     *
+     * @param filePath   the path of the file storing the high-water mark.
+     * @param repository the repository storing the entities the IDs are for.
+     * @param blockSize  the number of IDs reserved per write of the file.
+     */
+    public FileIdGenerator(String filePath, IRepository<? extends Identifiable> repository, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        this.path = Paths.get(filePath);
+        this.repository = repository;
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public synchronized int nextId() {
+        load();
+        if (lastId == highWaterMark) {
+            reserve(lastId + blockSize);
+        }
+        return ++lastId;
+    }
+
+    @Override
+    public synchronized void observe(int id) {
+        load();
+        if (id > lastId) {
+            lastId = id;
+            if (lastId > highWaterMark) {
+                reserve(lastId);
+            }
+        }
+    }
+
+    private void load() {
+        if (loaded) {
+            return;
+        }
+        try {
+            if (Files.exists(path)) {
+                lastId = Integer.parseInt(new String(Files.readAllBytes(path), StandardCharsets.UTF_8).trim());
+            } else {
+                try (Stream<? extends Identifiable> entities = repository.streamAll()) {
+                    lastId = entities.mapToInt(Identifiable::getId).max().orElse(0);
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            throw new FileRepositoryException("Failed to read file: " + path, e);
+        }
+        highWaterMark = lastId;
+        loaded = true;
+    }
+
+    private void reserve(int mark) {
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.wrap(Integer.toString(mark).getBytes(StandardCharsets.UTF_8));
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            AtomicFiles.replace(temp, path);
+        } catch (IOException e) {
+            throw new FileRepositoryException("Failed to write to file: " + path, e);
+        }
+        highWaterMark = mark;
+    }
+}
@@ -1,19 +1,64 @@
 package Repository;
 
-import java.io.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
 import Exception.*;
 
 
 /**
  * A file-based repository for managing entities that implement Identifiable and EntityParser.
+ * The file is parsed once into an in-memory index sorted by ID, which serves all reads; the file remains
+ * the durable copy and is rewritten, in ID order, on every mutation. If the file's modification time or size changes
+ * behind the repository's back, the index is reloaded on the next access. Secondary indexes are kept alongside
+ * it and rebuilt whenever it is reloaded.
+ *
+ * The file holds one CSV line per entity, or, for a repository created with {@link #binary(String, BinaryParser)},
+ * one compact binary record per entity, which is smaller and much cheaper to decode. Every rewrite goes to a
+ * temporary file that is synced and then renamed over the file, so a crash never leaves a half-written file.
+ *
+ * A repository created with {@link #withWriteAheadLog(String, EntityParser, long)} does not rewrite the file on
+ * every mutation. It appends the mutation to a {@link WriteAheadLog} next to the file instead and returns once
+ * the log is synced to disk, sharing each {@code fsync} with the writers that commit at the same time. Once the
+ * log holds enough records, the file is rewritten as a checkpoint and the log is emptied; on load, the log is
+ * replayed on top of the file.
+ *
+ * As a {@link Transactional}, the repository stops rewriting the file while a transaction is open and rewrites it
+ * once on commit; a rollback discards the changes by reloading the file. As a {@link Journaled} store, it journals
+ * the entities written or deleted during the transaction as put and tombstone records, which a repository of
+ * binary records cannot do. Only the thread that began the
+ * transaction uses the repository while it is open; other threads wait until it ends, so transactions on the
+ * repository run one at a time and never pick up another thread's writes.
  *
  * @param <T> the type of the entity managed by the repository.
  */
-public class FileRepository<T extends Identifiable> implements IRepository<T> {
+public class FileRepository<T extends Identifiable> implements IRepository<T>, Journaled, AutoCloseable {
+    private static final char PUT = '+';
+    private static final char TOMBSTONE = '-';
+    private static final int CHECKPOINT_RECORDS = 1000;
+
     private final String filePath;
-    private final EntityParser<T> parser;
+    private final FileFormat<T> format;
+    private final EntityParser<T> recordParser;
+    private final WriteAheadLog log;
+    private final NavigableMap<Integer, T> entities = new TreeMap<>();
+    private final Indexes<T> indexes = new Indexes<>();
+    private final TransactionOwner transaction;
+    private final Set<Integer> changed = new HashSet<>();
+    private boolean loaded;
+    private boolean dirty;
+    private long loadedModifiedTime;
+    private long loadedSize;
 
     /**
      * Constructs a new FileRepository.
@@ -22,88 +67,487 @@ public class FileRepository<T extends Identifiable> implements IRepository<T> {
      * @param parser   the parser to handle entity serialization and deserialization.
      */
     public FileRepository(String filePath, EntityParser<T> parser) {
+        this(filePath, new CsvFileFormat<>(parser), parser, null);
+    }
+
+    /**
+     * @param recordParser the parser of the records of the write-ahead log and the journal, or {@code null} for a
+     *                     repository of binary records, which has neither.
+     */
+    private FileRepository(String filePath, FileFormat<T> format, EntityParser<T> recordParser, WriteAheadLog log) {
         this.filePath = filePath;
-        this.parser = parser;
+        this.format = format;
+        this.recordParser = recordParser;
+        this.log = log;
+        this.transaction = new TransactionOwner(this, filePath);
+    }
+
+    /**
+     * Creates a FileRepository that logs every mutation to a write-ahead log at {@code filePath + ".wal"}
+     * and rewrites the file only at checkpoints, every 1000 logged mutations.
+     *
+     * @param filePath             the path to the file where entities are stored.
+     * @param parser               the parser to handle entity serialization and deserialization.
+     * @param commitIntervalMillis how long a group commit waits for more writers before it syncs the log,
+     *                             in milliseconds; 0 syncs as soon as the previous sync is done.
+     * @param <T>                  the type of the entity managed by the repository.
+     * @return the repository.
+     */
+    public static <T extends Identifiable> FileRepository<T> withWriteAheadLog(String filePath, EntityParser<T> parser,
+                                                                               long commitIntervalMillis) {
+        WriteAheadLog log = new WriteAheadLog(Path.of(filePath + ".wal"), commitIntervalMillis);
+        return new FileRepository<>(filePath, new CsvFileFormat<>(parser), parser, log);
+    }
+
+    /**
+     * Creates a FileRepository that stores its entities as binary records.
+     *
+     * @param filePath the path to the file where entities are stored.
+     * @param parser   the parser to handle binary serialization and deserialization.
+     * @param <T>      the type of the entity managed by the repository.
+     * @return the repository.
+     */
+    public static <T extends Identifiable> FileRepository<T> binary(String filePath, BinaryParser<T> parser) {
+        return new FileRepository<>(filePath, new BinaryFileFormat<>(parser), null, null);
+    }
+
+    /**
+     * Converts a file of CSV lines into a file of binary records that {@link #binary(String, BinaryParser)}
+     * can read. The entities keep their order; the CSV file is left untouched.
+     *
+     * @param csvPath      the path to the CSV file.
+     * @param binaryPath   the path to the binary file, which is replaced if it exists.
+     * @param csvParser    the parser of the CSV lines.
+     * @param binaryParser the parser that writes the binary records.
+     * @param <T>          the type of the entities in the file.
+     * @return the number of converted entities.
+     */
+    public static <T> int convertCsvToBinary(String csvPath, String binaryPath,
+                                             EntityParser<T> csvParser, BinaryParser<T> binaryParser) {
+        List<T> entities = new ArrayList<>();
+        try {
+            new CsvFileFormat<>(csvParser).read(Path.of(csvPath), entities::add);
+        } catch (IOException e) {
+            throw new FileRepositoryException("Failed to read file: " + csvPath, e);
+        }
+        try {
+            new BinaryFileFormat<>(binaryParser).write(Path.of(binaryPath), entities);
+        } catch (IOException e) {
+            throw new FileRepositoryException("Failed to write to file: " + binaryPath, e);
+        }
+        return entities.size();
     }
 
     @Override
     public void create(T entity) {
-        List<T> entities = findAll();
+        long sequence;
+        synchronized (this) {
+            ensureLoaded();
 
-        if (entities.stream().anyMatch(e -> e.getId() == entity.getId())) {
-            throw new IllegalArgumentException("Entity with ID " + entity.getId() + " already exists.");
-        }
+            if (entities.containsKey(entity.getId())) {
+                throw new IllegalArgumentException("Entity with ID " + entity.getId() + " already exists.");
+            }
 
-        entities.add(entity);
-        saveToFile(entities);
+            indexes.insert(entity);
+            entities.put(entity.getId(), entity);
+            sequence = save(List.of(entity), List.of());
+        }
+        awaitDurable(sequence);
     }
 
     @Override
-    public T read(int id) {
-        return findAll().stream()
-                .filter(entity -> entity.getId() == id)
-                .findFirst()
-                .orElseThrow(() -> new EntityNotFoundException("Entity with ID " + id + " not found."));
+    public synchronized T read(int id) {
+        ensureLoaded();
+
+        T entity = entities.get(id);
+        if (entity == null) {
+            throw new EntityNotFoundException("Entity with ID " + id + " not found.");
+        }
+        return entity;
     }
 
     @Override
     public void update(T entity) {
-        List<T> entities = findAll();
-        boolean updated = false;
-
-        for (int i = 0; i < entities.size(); i++) {
-            if (entities.get(i).getId() == entity.getId()) {
-                entities.set(i, entity);
-                updated = true;
-                break;
+        long sequence;
+        synchronized (this) {
+            ensureLoaded();
+
+            if (!entities.containsKey(entity.getId())) {
+                throw new EntityNotFoundException("Entity with ID " + entity.getId() + " not found.");
             }
+
+            indexes.insert(entity);
+            entities.put(entity.getId(), entity);
+            sequence = save(List.of(entity), List.of());
         }
+        awaitDurable(sequence);
+    }
 
-        if (!updated) {
-            throw new EntityNotFoundException("Entity with ID " + entity.getId() + " not found.");
+    @Override
+    public void delete(int id) {
+        long sequence;
+        synchronized (this) {
+            ensureLoaded();
+
+            if (entities.remove(id) == null) {
+                throw new EntityNotFoundException("Entity with ID " + id + " not found.");
+            }
+            indexes.remove(id);
+            sequence = save(List.of(), List.of(id));
         }
+        awaitDurable(sequence);
+    }
 
-        saveToFile(entities);
+    @Override
+    public synchronized List<T> findPage(Integer afterKey, int limit, SortOrder order) {
+        ensureLoaded();
+        return Pages.of(entities, afterKey, limit, order);
     }
 
+    /**
+     * Looks all IDs up in the loaded entities in a single pass.
+     */
     @Override
-    public void delete(int id) {
-        List<T> entities = findAll();
-        if (!entities.removeIf(entity -> entity.getId() == id)) {
-            throw new EntityNotFoundException("Entity with ID " + id + " not found.");
+    public synchronized Map<Integer, T> readMany(Collection<Integer> ids) {
+        ensureLoaded();
+        Map<Integer, T> found = new LinkedHashMap<>();
+        for (int id : ids) {
+            T entity = entities.get(id);
+            if (entity != null) {
+                found.put(id, entity);
+            }
         }
-        saveToFile(entities);
+        return found;
     }
 
     @Override
-    public List<T> findAll() {
-        List<T> entities = new ArrayList<>();
+    public synchronized void createIndex(Field<T, ?> field, IndexType type) {
+        ensureLoaded();
+        indexes.add(new SecondaryIndex<>(field, type, false), entities.values());
+    }
+
+    /**
+     * @throws EntityAlreadyExistsException if two stored entities already share a value of the field.
+     */
+    @Override
+    public synchronized void createUniqueIndex(Field<T, ?> field, IndexType type) {
+        ensureLoaded();
+        indexes.add(new SecondaryIndex<>(field, type, true), entities.values());
+    }
+
+    /**
+     * Evaluates the query over the entities a secondary index yields for it, or else over the entities in
+     * the ID range it allows.
+     */
+    @Override
+    public synchronized List<T> findWhere(Query<T> query) {
+        ensureLoaded();
+        NavigableSet<Integer> ids = indexes.lookup(query);
+        if (ids == null) {
+            return query.apply(query.narrow(entities).values().stream());
+        }
+        List<T> candidates = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            candidates.add(entities.get(id));
+        }
+        return query.apply(candidates.stream());
+    }
+
+    @Override
+    public synchronized List<T> findAll() {
+        ensureLoaded();
+        return new ArrayList<>(entities.values());
+    }
+
+    /**
+     * Adds all entities and rewrites the file, or syncs the log, once.
+     *
+     * @throws IllegalArgumentException if any of the IDs already exists or appears twice; nothing is added.
+     */
+    @Override
+    public void createAll(Collection<? extends T> batch) {
+        long sequence;
+        synchronized (this) {
+            ensureLoaded();
+
+            Set<Integer> ids = new HashSet<>();
+            for (T entity : batch) {
+                if (entities.containsKey(entity.getId()) || !ids.add(entity.getId())) {
+                    throw new IllegalArgumentException("Entity with ID " + entity.getId() + " already exists.");
+                }
+            }
+
+            indexes.insertAll(batch);
+            for (T entity : batch) {
+                entities.put(entity.getId(), entity);
+            }
+            sequence = save(batch, List.of());
+        }
+        awaitDurable(sequence);
+    }
+
+    /**
+     * Updates all entities and rewrites the file, or syncs the log, once.
+     *
+     * @throws EntityNotFoundException if any of the entities does not exist; nothing is updated.
+     */
+    @Override
+    public void updateAll(Collection<? extends T> batch) {
+        long sequence;
+        synchronized (this) {
+            ensureLoaded();
+
+            for (T entity : batch) {
+                if (!entities.containsKey(entity.getId())) {
+                    throw new EntityNotFoundException("Entity with ID " + entity.getId() + " not found.");
+                }
+            }
+
+            indexes.insertAll(batch);
+            for (T entity : batch) {
+                entities.put(entity.getId(), entity);
+            }
+            sequence = save(batch, List.of());
+        }
+        awaitDurable(sequence);
+    }
+
+    /**
+     * Deletes all entities and rewrites the file, or syncs the log, once.
+     *
+     * @throws EntityNotFoundException if any of the entities does not exist; nothing is deleted.
+     */
+    @Override
+    public void deleteAll(Collection<Integer> ids) {
+        long sequence;
+        synchronized (this) {
+            ensureLoaded();
+
+            for (int id : ids) {
+                if (!entities.containsKey(id)) {
+                    throw new EntityNotFoundException("Entity with ID " + id + " not found.");
+                }
+            }
+
+            for (int id : ids) {
+                entities.remove(id);
+                indexes.remove(id);
+            }
+            sequence = save(List.of(), ids);
+        }
+        awaitDurable(sequence);
+    }
+
+    @Override
+    public synchronized void begin() {
+        transaction.begin();
+        try {
+            ensureLoaded();
+        } catch (RuntimeException e) {
+            transaction.end();
+            throw e;
+        }
+    }
+
+    /**
+     * Rewrites the file once if anything was written during the transaction, which also checkpoints the
+     * write-ahead log, if any.
+     */
+    @Override
+    public synchronized void commit() {
+        if (!transaction.end()) {
+            return;
+        }
+        changed.clear();
+        if (dirty) {
+            dirty = false;
+            saveToFile();
+        }
+    }
+
+    /**
+     * Discards the writes made during the transaction by reloading the file on the next access.
+     */
+    @Override
+    public synchronized void rollback() {
+        if (!transaction.end()) {
+            return;
+        }
+        changed.clear();
+        if (dirty) {
+            dirty = false;
+            loaded = false;
+        }
+    }
+
+    /**
+     * Retrieves the path of the file.
+     */
+    @Override
+    public String journalName() {
+        return filePath;
+    }
+
+    /**
+     * @throws IllegalStateException if the repository stores binary records.
+     */
+    @Override
+    public synchronized List<String> prepare() {
+        transaction.awaitOthers();
+        if (recordParser == null) {
+            throw new IllegalStateException("A repository of binary records cannot be journaled: " + filePath);
+        }
+        List<String> records = new ArrayList<>(changed.size());
+        for (int id : changed) {
+            T entity = entities.get(id);
+            records.add(entity != null ? PUT + recordParser.toCSV(entity) : TOMBSTONE + String.valueOf(id));
+        }
+        return records;
+    }
+
+    /**
+     * Applies the records to the loaded entities and rewrites the file once.
+     *
+     * @throws IllegalStateException if the repository stores binary records.
+     */
+    @Override
+    public synchronized void redo(List<String> records) {
+        ensureLoaded();
+        if (recordParser == null) {
+            throw new IllegalStateException("A repository of binary records cannot be journaled: " + filePath);
+        }
+        BatchLoader.Scope batches = BatchLoader.open();
+        try {
+            for (String record : records) {
+                replay(record);
+            }
+        } finally {
+            batches.close();
+        }
+        saveToFile();
+    }
+
+    /**
+     * Closes the write-ahead log, if the repository has one, once every logged mutation is on disk.
+     */
+    @Override
+    public synchronized void close() {
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    /**
+     * Waits for a transaction another thread has open, then loads the file into the index on first use, and
+     * reloads it whenever the file was modified externally.
+     * The write-ahead log, if any, is replayed on top of the file. The whole load is one {@link BatchLoader}
+     * context, so the lazy references of the loaded entities are loaded in batches.
+     */
+    private void ensureLoaded() {
+        transaction.awaitOthers();
         File file = new File(filePath);
+        if (loaded && file.lastModified() == loadedModifiedTime && file.length() == loadedSize) {
+            return;
+        }
 
-        if (!file.exists()) {
-            return entities;
+        entities.clear();
+        indexes.clear();
+        BatchLoader.Scope batches = BatchLoader.open();
+        try {
+            load(file);
+        } finally {
+            batches.close();
         }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                entities.add(parser.parseFromCSV(line));
+        loaded = true;
+        loadedModifiedTime = file.lastModified();
+        loadedSize = file.length();
+    }
+
+    private void load(File file) {
+        if (file.exists()) {
+            try {
+                format.read(file.toPath(), entity -> {
+                    indexes.insert(entity);
+                    entities.put(entity.getId(), entity);
+                });
+            } catch (IOException e) {
+                throw new FileRepositoryException("Failed to read file: " + filePath, e);
             }
-        } catch (IOException e) {
-            throw new FileRepositoryException("Failed to read file: " + filePath, e);
         }
+        if (log != null) {
+            for (String record : log.replay()) {
+                replay(record);
+            }
+        }
+    }
 
-        return entities;
+    private void replay(String record) {
+        if (record.charAt(0) == TOMBSTONE) {
+            int id = Integer.parseInt(record.substring(1));
+            if (entities.remove(id) != null) {
+                indexes.remove(id);
+            }
+        } else {
+            T entity = recordParser.parseFromCSV(record.substring(1));
+            indexes.insert(entity);
+            entities.put(entity.getId(), entity);
+        }
     }
 
-    private void saveToFile(List<T> entities) {
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(filePath))) {
-            for (T entity : entities) {
-                writer.write(parser.toCSV(entity));
-                writer.newLine();
+    /**
+     * Persists a mutation that has been applied in memory: rewrites the file, or appends it to the write-ahead
+     * log, or, inside a transaction, only marks the repository as dirty.
+     *
+     * @return the log sequence number to wait for outside the lock, or 0 if there is nothing to wait for.
+     */
+    private long save(Collection<? extends T> written, Collection<Integer> deleted) {
+        if (transaction.isOpen()) {
+            dirty = true;
+            for (T entity : written) {
+                changed.add(entity.getId());
             }
+            changed.addAll(deleted);
+            return 0;
+        }
+        if (log == null) {
+            saveToFile();
+            return 0;
+        }
+
+        List<String> records = new ArrayList<>(written.size() + deleted.size());
+        for (T entity : written) {
+            records.add(PUT + recordParser.toCSV(entity));
+        }
+        for (int id : deleted) {
+            records.add(TOMBSTONE + String.valueOf(id));
+        }
+        long sequence = log.append(records);
+        if (log.size() >= CHECKPOINT_RECORDS) {
+            saveToFile();
+        }
+        return sequence;
+    }
+
+    private void awaitDurable(long sequence) {
+        if (sequence > 0) {
+            log.sync(sequence);
+        }
+    }
+
+    private void saveToFile() {
+        try {
+            format.write(Path.of(filePath), entities.values());
         } catch (IOException e) {
+            loaded = false;
             throw new FileRepositoryException("Failed to write to file: " + filePath, e);
         }
+
+        File file = new File(filePath);
+        loadedModifiedTime = file.lastModified();
+        loadedSize = file.length();
+        if (log != null) {
+            log.reset();
+        }
     }
 }
@@ -0,0 +1,80 @@
+package Repository;
+
+/**
+ * A count-min sketch that estimates how often each ID has been accessed recently, using four 4-bit counters
+ * per ID packed into a {@code long[]}. Once the number of recorded accesses reaches ten times the table
+ * capacity, all counters are halved, so old popularity fades and the estimates follow the current workload.
+ *
+ * Not thread-safe; callers must synchronize.
+ */
+final class FrequencySketch {
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int MAX_COUNT = 15;
+
+    private final long[] table;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * @param capacity the number of entries whose frequencies should be told apart reliably.
+     */
+    FrequencySketch(int capacity) {
+        int length = Integer.highestOneBit(Math.max(16, Math.min(capacity, 1 << 26)) - 1) << 1;
+        this.table = new long[length];
+        this.sampleSize = 10 * length;
+    }
+
+    /**
+     * Returns the estimated number of recent accesses of the ID, at most 15.
+     */
+    int frequency(int id) {
+        int start = (spread(id) & 3) << 2;
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < 4; row++) {
+            int offset = (start + row) << 2;
+            int count = (int) ((table[indexOf(id, row)] >>> offset) & MAX_COUNT);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Records an access of the ID.
+     */
+    void increment(int id) {
+        int start = (spread(id) & 3) << 2;
+        boolean added = false;
+        for (int row = 0; row < 4; row++) {
+            int index = indexOf(id, row);
+            int offset = (start + row) << 2;
+            long mask = (long) MAX_COUNT << offset;
+            if ((table[index] & mask) != mask) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions >>>= 1;
+    }
+
+    private int indexOf(int id, int row) {
+        long hash = (id + SEEDS[row]) * SEEDS[row];
+        hash += hash >>> 32;
+        return (int) hash & (table.length - 1);
+    }
+
+    private static int spread(int id) {
+        int hash = id * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
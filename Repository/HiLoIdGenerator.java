@@ -0,0 +1,90 @@
+package Repository;
+
+import Exception.DatabaseException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * An {@link IdGenerator} that allocates IDs in blocks from a database sequence (the hi/lo algorithm).
+ * Each value {@code hi} drawn from the sequence reserves the block of IDs
+ * {@code hi * blockSize} to {@code hi * blockSize + blockSize - 1}, which are then handed out from memory.
+ * Only one round trip is made per block, and since the sequence never returns a value twice, several processes
+ * sharing the database never allocate the same ID.
+ *
+ * The sequence is named after the table and created on first use, starting after the block holding the
+ * highest ID already in the table. If the first block is drawn inside a caller's transaction, the sequence is
+ * created in that transaction and would be dropped again if it rolled back, so creating it is repeated for every
+ * block until it has been done on a connection in auto-commit mode. A sequence created again starts after the
+ * blocks already handed out.
+ */
+public class HiLoIdGenerator implements IdGenerator {
+    private final DataSource dataSource;
+    private final String tableName;
+    private final String sequenceName;
+    private final int blockSize;
+
+    private boolean sequenceCreated;
+    private int next;
+    private int blockEnd;
+
+    /**
+     * Constructs a HiLoIdGenerator.
+     *
+     * @param dataSource the source of connections to the database.
+     * @param tableName  the name of the table storing the entities the IDs are for.
+     * @param blockSize  the number of IDs reserved per round trip.
+     */
+    public HiLoIdGenerator(DataSource dataSource, String tableName, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        this.dataSource = dataSource;
+        this.tableName = tableName;
+        this.sequenceName = tableName + "_hilo_seq";
+        this.blockSize = blockSize;
+    }
+
+    @Override
+    public synchronized int nextId() {
+        if (next == blockEnd) {
+            int hi = nextHi();
+            next = hi * blockSize;
+            blockEnd = next + blockSize;
+        }
+        return next++;
+    }
+
+    private int nextHi() {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!sequenceCreated) {
+                createSequence(connection);
+                // Only a statement run in auto-commit mode is known to be committed.
+                sequenceCreated = connection.getAutoCommit();
+            }
+            try (PreparedStatement stmt = connection.prepareStatement("SELECT nextval('" + sequenceName + "')");
+                 ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return Math.toIntExact(rs.getLong(1));
+            }
+        } catch (SQLException e) {
+            throw new DatabaseException("Failed to allocate IDs for table: " + tableName, e);
+        }
+    }
+
+    private void createSequence(Connection connection) throws SQLException {
+        int highest;
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT COALESCE(MAX(id), 0) FROM " + tableName);
+             ResultSet rs = stmt.executeQuery()) {
+            rs.next();
+            highest = Math.max(rs.getInt(1), blockEnd - 1);
+        }
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("CREATE SEQUENCE IF NOT EXISTS " + sequenceName + " START WITH " + (highest / blockSize + 1));
+        }
+    }
+}
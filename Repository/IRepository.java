@@ -1,13 +1,21 @@
 package Repository;
 
+import Exception.EntityNotFoundException;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Generic interface for a repository that manages CRUD operations for a specific type of entity.
  *
  * @param <T> the type of the entity managed by the repository.
  */
-public interface IRepository<T> {
+public interface IRepository<T extends Identifiable> {
 
     /**
      * Adds a new entity to the repository.
@@ -44,4 +52,151 @@ public interface IRepository<T> {
      * @return a list of all entities.
      */
     List<T> findAll();
+
+    /**
+     * Streams all entities in the repository.
+     * Backends that hold resources while the stream is open (such as a database cursor) produce entities
+     * lazily, so a large repository can be scanned without holding all of it in memory. The stream must be
+     * closed, preferably with try-with-resources, unless it is consumed to the end.
+     * The default implementation streams the result of {@link #findAll()}.
+     *
+     * @return a stream of all entities.
+     */
+    default Stream<T> streamAll() {
+        return findAll().stream();
+    }
+
+    /**
+     * Retrieves one page of entities ordered by ID, using the last ID of the previous page as the key
+     * (keyset pagination). Unlike an offset, the key lets every backend seek straight to the start of the page,
+     * so fetching a page costs the same no matter how far into the repository it is.
+     * The default implementation scans all entities; the built-in backends seek an ordered index instead.
+     *
+     * @param afterKey the last ID of the previous page, or {@code null} for the first page.
+     * @param limit    the maximum number of entities to return.
+     * @param order    whether IDs ascend or descend; the page holds IDs after {@code afterKey} in this order.
+     * @return the entities of the page, in order; an empty list when there are no more entities.
+     */
+    default List<T> findPage(Integer afterKey, int limit, SortOrder order) {
+        Comparator<T> byId = Comparator.comparingInt(Identifiable::getId);
+        boolean ascending = order == SortOrder.ASCENDING;
+        try (Stream<T> entities = streamAll()) {
+            return entities
+                    .filter(entity -> afterKey == null
+                            || (ascending ? entity.getId() > afterKey : entity.getId() < afterKey))
+                    .sorted(ascending ? byId : byId.reversed())
+                    .limit(limit)
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Retrieves the entities that match a query.
+     * The default implementation reads the entity directly when the query pins down a single ID and
+     * otherwise evaluates the query over {@link #streamAll()}.
+     *
+     * @param query the conditions, ordering and limit.
+     * @return the matching entities.
+     */
+    default List<T> findWhere(Query<T> query) {
+        Integer id = query.singleId();
+        if (id != null) {
+            T entity;
+            try {
+                entity = read(id);
+            } catch (EntityNotFoundException e) {
+                return List.of();
+            }
+            return entity == null ? List.of() : query.apply(Stream.of(entity));
+        }
+        try (Stream<T> entities = streamAll()) {
+            return query.apply(entities);
+        }
+    }
+
+    /**
+     * Registers a secondary index on a field, so that {@link #findWhere(Query)} can look up the entities
+     * matching a condition on that field instead of scanning. The index is filled with the stored entities
+     * and maintained on every create, update and delete from then on.
+     * The default implementation keeps no index; queries keep working by scanning.
+     *
+     * @param field the indexed field.
+     * @param type  the data structure behind the index; only a sorted index serves range conditions.
+     */
+    default void createIndex(Field<T, ?> field, IndexType type) {
+    }
+
+    /**
+     * Registers a secondary index on a field, like {@link #createIndex(Field, IndexType)}, that additionally
+     * rejects a create or update that would give a second entity the same value of the field.
+     * The default implementation keeps no index and enforces nothing.
+     *
+     * @param field the indexed field.
+     * @param type  the data structure behind the index; only a sorted index serves range conditions.
+     * @throws Exception.EntityAlreadyExistsException if two stored entities already share a value of the field.
+     */
+    default void createUniqueIndex(Field<T, ?> field, IndexType type) {
+    }
+
+    /**
+     * Retrieves several entities by their unique identifiers.
+     * Implementations look the IDs up in as few I/O operations as their storage allows.
+     * The default implementation reads them one at a time.
+     *
+     * @param ids the unique identifiers of the entities.
+     * @return the entities found, keyed by ID; IDs without an entity are left out.
+     */
+    default Map<Integer, T> readMany(Collection<Integer> ids) {
+        Map<Integer, T> found = new LinkedHashMap<>();
+        for (int id : ids) {
+            if (found.containsKey(id)) {
+                continue;
+            }
+            try {
+                found.put(id, read(id));
+            } catch (EntityNotFoundException e) {
+                // Missing IDs are left out of the result.
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Adds several new entities to the repository.
+     * Implementations write the whole batch in as few I/O operations as their storage allows, and either
+     * add all of the entities or none of them. The default implementation creates them one at a time.
+     *
+     * @param entities the entities to be created.
+     */
+    default void createAll(Collection<? extends T> entities) {
+        for (T entity : entities) {
+            create(entity);
+        }
+    }
+
+    /**
+     * Updates several existing entities in the repository.
+     * Implementations write the whole batch in as few I/O operations as their storage allows, and either
+     * update all of the entities or none of them. The default implementation updates them one at a time.
+     *
+     * @param entities the entities with updated values.
+     */
+    default void updateAll(Collection<? extends T> entities) {
+        for (T entity : entities) {
+            update(entity);
+        }
+    }
+
+    /**
+     * Deletes several entities from the repository by their unique identifiers.
+     * Implementations write the whole batch in as few I/O operations as their storage allows, and either
+     * delete all of the entities or none of them. The default implementation deletes them one at a time.
+     *
+     * @param ids the unique identifiers of the entities to be deleted.
+     */
+    default void deleteAll(Collection<Integer> ids) {
+        for (int id : ids) {
+            delete(id);
+        }
+    }
 }
@@ -0,0 +1,25 @@
+package Repository;
+
+/**
+ * Allocates IDs for new entities.
+ * Implementations hand out IDs without scanning the stored entities, so allocating an ID costs the same
+ * however many entities exist, and two concurrent callers never receive the same ID.
+ */
+public interface IdGenerator {
+
+    /**
+     * Allocates a new ID that has not been handed out before.
+     *
+     * @return the new ID.
+     */
+    int nextId();
+
+    /**
+     * Records that an ID was assigned by other means, such as an ID entered by the user, so that it is never
+     * handed out by this generator. Generators that cannot take such IDs into account ignore them.
+     *
+     * @param id the ID in use.
+     */
+    default void observe(int id) {
+    }
+}
@@ -0,0 +1,137 @@
+package Repository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Ensures that, within one unit of work, each entity is instantiated at most once.
+ * While an identity map is bound to the current thread, parsers that hydrate a referenced entity first look
+ * it up by type and ID, and register the instance they create. When a list of tickets or reviews is read,
+ * every row that refers to the same user or event then shares one object, instead of each row building
+ * its own copy.
+ *
+ * A unit of work is delimited by {@link #open()}; scopes nest, and the map is discarded when the outermost
+ * scope closes. A {@link UnitOfWork} opens a scope around its work, so every read it makes, such as the reads of
+ * one checkout, returns one instance per entity; a repository call made outside a unit of work opens a scope of
+ * its own, so the entities it returns share their references. Entities written in a unit of work are registered
+ * too, so later reads in it return the written instance. Not thread-safe; a map is only ever bound to one thread
+ * at a time.
+ */
+public final class IdentityMap {
+    private static final ThreadLocal<IdentityMap> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, Map<Integer, Object>> entities = new HashMap<>();
+
+    /**
+     * The extent of a unit of work. Closing it unbinds the identity map it bound, if any.
+     */
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Starts a unit of work on the current thread. If one is already in progress, the returned scope joins it.
+     *
+     * @return the scope, to be closed when the unit of work ends.
+     */
+    public static Scope open() {
+        if (CURRENT.get() != null) {
+            return () -> {
+            };
+        }
+        return new IdentityMap().bind();
+    }
+
+    /**
+     * Returns the identity map of the unit of work in progress on the current thread, or a new one if there is
+     * none, to be bound whenever a unit of work that spans several calls resumes.
+     *
+     * @return the identity map.
+     */
+    public static IdentityMap forCurrentUnitOfWork() {
+        IdentityMap current = CURRENT.get();
+        return current != null ? current : new IdentityMap();
+    }
+
+    /**
+     * Binds this identity map to the current thread until the returned scope is closed. This lets a unit of
+     * work that is resumed several times, such as a stream over a result set, keep one identity map.
+     *
+     * @return the scope, which restores the previously bound identity map when closed.
+     */
+    public Scope bind() {
+        IdentityMap previous = CURRENT.get();
+        CURRENT.set(this);
+        return () -> {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    /**
+     * Looks up an entity in the identity map bound to the current thread.
+     *
+     * @param type the name of the entity type.
+     * @param id   the unique identifier of the entity.
+     * @param <T>  the type of the entity.
+     * @return the registered instance, or {@code null} if there is none or no unit of work is in progress.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T get(String type, int id) {
+        IdentityMap current = CURRENT.get();
+        if (current == null) {
+            return null;
+        }
+        Map<Integer, Object> byId = current.entities.get(type);
+        return byId == null ? null : (T) byId.get(id);
+    }
+
+    /**
+     * Registers an entity in the identity map bound to the current thread. Does nothing if no unit of work
+     * is in progress.
+     *
+     * @param type   the name of the entity type.
+     * @param id     the unique identifier of the entity.
+     * @param entity the instance to share for this type and ID.
+     */
+    public static void put(String type, int id, Object entity) {
+        IdentityMap current = CURRENT.get();
+        if (current != null) {
+            current.entities.computeIfAbsent(type, key -> new HashMap<>()).put(id, entity);
+        }
+    }
+
+    /**
+     * Returns the instance registered for an entity's type and ID in the identity map bound to the current thread,
+     * or registers the given instance if there is none. Entities are registered under the simple name of their
+     * class, which is also the type name that parsers use for joined references. Returns the given instance if no
+     * unit of work is in progress.
+     *
+     * @param entity a freshly hydrated entity.
+     * @param <T>    the type of the entity.
+     * @return the instance to hand out.
+     */
+    public static <T extends Identifiable> T share(T entity) {
+        String type = entity.getClass().getSimpleName();
+        T shared = get(type, entity.getId());
+        if (shared != null) {
+            return shared;
+        }
+        put(type, entity.getId(), entity);
+        return entity;
+    }
+
+    /**
+     * Registers an entity that has just been written, replacing any instance registered for its type and ID, so
+     * that later reads in the unit of work return it. Does nothing if no unit of work is in progress.
+     *
+     * @param entity the written entity.
+     */
+    public static void register(Identifiable entity) {
+        put(entity.getClass().getSimpleName(), entity.getId(), entity);
+    }
+}
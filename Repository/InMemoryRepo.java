@@ -1,21 +1,84 @@
 package Repository;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.StampedLock;
 import Exception.*;
 
 
 /**
  * In-memory implementation of the IRepository interface.
- * This repository stores entities in a map for efficient access by ID
- * and provides basic CRUD operations.
+ * This repository stores entities in a concurrent map for efficient access by ID
+ * and provides basic CRUD operations. Each operation is a single atomic map operation,
+ * so the repository can be shared by many threads without a global lock.
+ * The IDs are additionally kept in sorted order, which serves {@link #findPage(Integer, int, SortOrder)}.
+ * Secondary indexes are updated inside the same atomic section as the entity they index.
  *
  * @param <T> the type of entities managed by this repository.
  */
 public class InMemoryRepo<T extends Identifiable> implements IRepository<T> {
-    private final Map<Integer, T> entities = new HashMap<>();
+
+    /**
+     * The data structure backing the repository.
+     */
+    public enum Storage {
+        /**
+         * A {@link ConcurrentHashMap}; reads and writes from many threads proceed in parallel.
+         */
+        CONCURRENT,
+        /**
+         * A primitive {@code int}-keyed open-addressing table, which avoids boxing IDs and allocating a node
+         * per entity. Reads proceed in parallel, but writes are serialized by a single lock. The sorted IDs are
+         * kept in a primitive array as well; creating an ID below the largest one, or deleting any ID, shifts the
+         * larger IDs in that array, so this storage suits IDs that are generated in increasing order.
+         */
+        PRIMITIVE
+    }
+
+    private final ConcurrentMap<Integer, T> entities;
+    private final IntObjectHashMap<T> table;
+    private final StampedLock tableLock;
+    private final NavigableSet<Integer> sortedIds;
+    private final SortedIntArray tableIds;
+    private final Indexes<T> indexes = new Indexes<>();
+
+    /**
+     * Constructs an empty repository backed by a {@link ConcurrentHashMap}.
+     */
+    public InMemoryRepo() {
+        this(Storage.CONCURRENT);
+    }
+
+    /**
+     * Constructs an empty repository backed by the given kind of storage.
+     *
+     * @param storage the data structure in which entities are kept.
+     */
+    public InMemoryRepo(Storage storage) {
+        if (storage == Storage.PRIMITIVE) {
+            this.entities = null;
+            this.sortedIds = null;
+            this.table = new IntObjectHashMap<>();
+            this.tableIds = new SortedIntArray();
+            this.tableLock = new StampedLock();
+        } else {
+            this.entities = new ConcurrentHashMap<>();
+            this.sortedIds = new ConcurrentSkipListSet<>();
+            this.table = null;
+            this.tableIds = null;
+            this.tableLock = null;
+        }
+    }
 
     /**
      * Adds a new entity to the repository.
@@ -25,10 +88,9 @@ public class InMemoryRepo<T extends Identifiable> implements IRepository<T> {
      */
     @Override
     public void create(T entity) {
-        if (entities.containsKey(entity.getId())) {
+        if (putIfAbsent(entity) != null) {
             throw new EntityAlreadyExistsException("Entity with ID " + entity.getId() + " already exists.");
         }
-        entities.put(entity.getId(), entity);
     }
 
     /**
@@ -40,7 +102,7 @@ public class InMemoryRepo<T extends Identifiable> implements IRepository<T> {
      */
     @Override
     public T read(int id) {
-        T entity = entities.get(id);
+        T entity = get(id);
         if (entity == null) {
             throw new EntityNotFoundException("Entity with ID " + id + " not found.");
         }
@@ -55,9 +117,7 @@ public class InMemoryRepo<T extends Identifiable> implements IRepository<T> {
      */
     @Override
     public void update(T entity) {
-        if (entities.containsKey(entity.getId())) {
-            entities.put(entity.getId(), entity);
-        } else {
+        if (replace(entity) == null) {
             throw new EntityNotFoundException("Entity with ID " + entity.getId() + " not found.");
         }
     }
@@ -70,20 +130,386 @@ public class InMemoryRepo<T extends Identifiable> implements IRepository<T> {
      */
     @Override
     public void delete(int id) {
-        if (entities.containsKey(id)) {
-            entities.remove(id);
-        } else {
+        if (remove(id) == null) {
             throw new EntityNotFoundException("Entity with ID " + id + " not found.");
         }
     }
 
     /**
      * Retrieves all entities in the repository.
+     * The snapshot is weakly consistent: it never fails because of concurrent modifications,
+     * but may or may not reflect changes made while it is being taken.
      *
      * @return a list of all entities.
      */
     @Override
     public List<T> findAll() {
-        return new ArrayList<>(entities.values());
+        if (table == null) {
+            return new ArrayList<>(entities.values());
+        }
+        long stamp = tableLock.readLock();
+        try {
+            return table.values();
+        } finally {
+            tableLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Adds all entities in a single pass.
+     *
+     * @throws EntityAlreadyExistsException if any of the IDs already exists or appears twice; nothing is added.
+     */
+    @Override
+    public void createAll(Collection<? extends T> batch) {
+        if (table == null) {
+            List<T> inserted = new ArrayList<>(batch.size());
+            for (T entity : batch) {
+                T existing;
+                try {
+                    existing = putIfAbsent(entity);
+                } catch (RuntimeException e) {
+                    inserted.forEach(this::removeIfSame);
+                    throw e;
+                }
+                if (existing != null) {
+                    inserted.forEach(this::removeIfSame);
+                    throw new EntityAlreadyExistsException("Entity with ID " + entity.getId() + " already exists.");
+                }
+                inserted.add(entity);
+            }
+            return;
+        }
+        long stamp = tableLock.writeLock();
+        try {
+            Set<Integer> batchIds = new HashSet<>();
+            for (T entity : batch) {
+                if (table.get(entity.getId()) != null || !batchIds.add(entity.getId())) {
+                    throw new EntityAlreadyExistsException("Entity with ID " + entity.getId() + " already exists.");
+                }
+            }
+            indexes.insertAll(batch);
+            for (T entity : batch) {
+                table.putIfAbsent(entity.getId(), entity);
+                tableIds.add(entity.getId());
+            }
+        } finally {
+            tableLock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Updates all entities in a single pass.
+     *
+     * @throws EntityNotFoundException if any of the entities does not exist; nothing is updated.
+     */
+    @Override
+    public void updateAll(Collection<? extends T> batch) {
+        if (table == null) {
+            List<T> previous = new ArrayList<>(batch.size());
+            List<T> replaced = new ArrayList<>(batch.size());
+            for (T entity : batch) {
+                T old;
+                try {
+                    old = replace(entity);
+                } catch (RuntimeException e) {
+                    rollBack(replaced, previous);
+                    throw e;
+                }
+                if (old == null) {
+                    rollBack(replaced, previous);
+                    throw new EntityNotFoundException("Entity with ID " + entity.getId() + " not found.");
+                }
+                previous.add(old);
+                replaced.add(entity);
+            }
+            return;
+        }
+        long stamp = tableLock.writeLock();
+        try {
+            for (T entity : batch) {
+                if (table.get(entity.getId()) == null) {
+                    throw new EntityNotFoundException("Entity with ID " + entity.getId() + " not found.");
+                }
+            }
+            indexes.insertAll(batch);
+            for (T entity : batch) {
+                table.replace(entity.getId(), entity);
+            }
+        } finally {
+            tableLock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Deletes all entities in a single pass.
+     *
+     * @throws EntityNotFoundException if any of the entities does not exist; nothing is deleted.
+     */
+    @Override
+    public void deleteAll(Collection<Integer> ids) {
+        if (table == null) {
+            List<T> removed = new ArrayList<>(ids.size());
+            for (int id : ids) {
+                T old = remove(id);
+                if (old == null) {
+                    removed.forEach(this::putIfAbsent);
+                    throw new EntityNotFoundException("Entity with ID " + id + " not found.");
+                }
+                removed.add(old);
+            }
+            return;
+        }
+        long stamp = tableLock.writeLock();
+        try {
+            for (int id : ids) {
+                if (table.get(id) == null) {
+                    throw new EntityNotFoundException("Entity with ID " + id + " not found.");
+                }
+            }
+            for (int id : ids) {
+                table.remove(id);
+                tableIds.remove(id);
+                indexes.remove(id);
+            }
+        } finally {
+            tableLock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Looks each ID up directly. With primitive storage, all lookups share a single read lock.
+     */
+    @Override
+    public Map<Integer, T> readMany(Collection<Integer> ids) {
+        Map<Integer, T> found = new LinkedHashMap<>();
+        if (table == null) {
+            for (int id : ids) {
+                T entity = entities.get(id);
+                if (entity != null) {
+                    found.put(id, entity);
+                }
+            }
+            return found;
+        }
+        long stamp = tableLock.readLock();
+        try {
+            for (int id : ids) {
+                T entity = table.get(id);
+                if (entity != null) {
+                    found.put(id, entity);
+                }
+            }
+            return found;
+        } finally {
+            tableLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Walks the sorted IDs from the key and looks up each entity.
+     */
+    @Override
+    public List<T> findPage(Integer afterKey, int limit, SortOrder order) {
+        if (table == null) {
+            return Pages.of(sortedIds, entities::get, afterKey, limit, order);
+        }
+        long stamp = tableLock.readLock();
+        try {
+            return Pages.of(tableIds, table::get, afterKey, limit, order);
+        } finally {
+            tableLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Builds the index from the stored entities. With concurrent storage, entities written while the index
+     * is being built may be missed; register indexes before the repository is shared.
+     */
+    @Override
+    public void createIndex(Field<T, ?> field, IndexType type) {
+        indexes.add(new SecondaryIndex<>(field, type, false), findAll());
+    }
+
+    /**
+     * Builds the index from the stored entities. With concurrent storage, entities written while the index
+     * is being built may be missed; register indexes before the repository is shared.
+     *
+     * @throws EntityAlreadyExistsException if two stored entities already share a value of the field.
+     */
+    @Override
+    public void createUniqueIndex(Field<T, ?> field, IndexType type) {
+        indexes.add(new SecondaryIndex<>(field, type, true), findAll());
+    }
+
+    /**
+     * Evaluates the query over the stored entities. If a secondary index serves one of the conditions, only
+     * the IDs it yields are looked up; otherwise, if the query restricts the ID, only the IDs in the allowed
+     * range are looked up.
+     */
+    @Override
+    public List<T> findWhere(Query<T> query) {
+        NavigableSet<Integer> ids = indexes.lookup(query);
+        if (ids == null && table != null) {
+            return query.apply(tableCandidates(query).stream());
+        }
+        if (ids == null) {
+            ids = query.narrow(sortedIds);
+        }
+        if (ids == sortedIds) {
+            return query.apply(entities.values().stream());
+        }
+        List<T> candidates = new ArrayList<>();
+        for (int id : ids) {
+            T entity = get(id);
+            if (entity != null) {
+                candidates.add(entity);
+            }
+        }
+        return query.apply(candidates.stream());
+    }
+
+    /**
+     * Collects the entities of the primitive table in the ID range the query allows.
+     */
+    private List<T> tableCandidates(Query<T> query) {
+        long[] range = query.idRange();
+        long stamp = tableLock.readLock();
+        try {
+            if (range == null) {
+                return table.values();
+            }
+            List<T> candidates = new ArrayList<>();
+            if (range[0] <= range[1]) {
+                for (int i = tableIds.indexAtLeast((int) range[0]); i < tableIds.size() && tableIds.get(i) <= range[1]; i++) {
+                    candidates.add(table.get(tableIds.get(i)));
+                }
+            }
+            return candidates;
+        } finally {
+            tableLock.unlockRead(stamp);
+        }
+    }
+
+    private T get(int id) {
+        if (table == null) {
+            return entities.get(id);
+        }
+        long stamp = tableLock.readLock();
+        try {
+            return table.get(id);
+        } finally {
+            tableLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * The sorted ID set is updated inside the map's per-key atomic section, so a concurrent create and delete
+     * of the same ID cannot leave the set out of step with the map.
+     */
+    private T putIfAbsent(T entity) {
+        if (table == null) {
+            AtomicReference<T> existing = new AtomicReference<>();
+            entities.compute(entity.getId(), (id, current) -> {
+                if (current != null) {
+                    existing.set(current);
+                    return current;
+                }
+                indexes.insert(entity);
+                sortedIds.add(id);
+                return entity;
+            });
+            return existing.get();
+        }
+        long stamp = tableLock.writeLock();
+        try {
+            T existing = table.get(entity.getId());
+            if (existing == null) {
+                indexes.insert(entity);
+                table.putIfAbsent(entity.getId(), entity);
+                tableIds.add(entity.getId());
+            }
+            return existing;
+        } finally {
+            tableLock.unlockWrite(stamp);
+        }
+    }
+
+    private T replace(T entity) {
+        if (table == null) {
+            AtomicReference<T> replaced = new AtomicReference<>();
+            entities.computeIfPresent(entity.getId(), (id, current) -> {
+                indexes.insert(entity);
+                replaced.set(current);
+                return entity;
+            });
+            return replaced.get();
+        }
+        long stamp = tableLock.writeLock();
+        try {
+            if (table.get(entity.getId()) == null) {
+                return null;
+            }
+            indexes.insert(entity);
+            return table.replace(entity.getId(), entity);
+        } finally {
+            tableLock.unlockWrite(stamp);
+        }
+    }
+
+    private T remove(int id) {
+        if (table == null) {
+            AtomicReference<T> removed = new AtomicReference<>();
+            entities.computeIfPresent(id, (key, current) -> {
+                removed.set(current);
+                sortedIds.remove(key);
+                indexes.remove(key);
+                return null;
+            });
+            return removed.get();
+        }
+        long stamp = tableLock.writeLock();
+        try {
+            T removed = table.remove(id);
+            if (removed != null) {
+                tableIds.remove(id);
+                indexes.remove(id);
+            }
+            return removed;
+        } finally {
+            tableLock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Removes the entity only if it is still the one stored under its ID. Only used with concurrent storage.
+     */
+    private void removeIfSame(T entity) {
+        entities.computeIfPresent(entity.getId(), (id, current) -> {
+            if (current != entity) {
+                return current;
+            }
+            sortedIds.remove(id);
+            indexes.remove(id);
+            return null;
+        });
+    }
+
+    /**
+     * Restores the entities replaced so far by a failed batch update, in reverse order, unless they were
+     * replaced again in the meantime. Only used with concurrent storage.
+     */
+    private void rollBack(List<T> replaced, List<T> previous) {
+        for (int i = replaced.size() - 1; i >= 0; i--) {
+            T entity = replaced.get(i);
+            T old = previous.get(i);
+            entities.computeIfPresent(entity.getId(), (id, current) -> {
+                if (current != entity) {
+                    return current;
+                }
+                indexes.insert(old);
+                return old;
+            });
+        }
     }
 }
@@ -0,0 +1,15 @@
+package Repository;
+
+/**
+ * The data structure behind a secondary index.
+ */
+public enum IndexType {
+    /**
+     * A hash table; serves equality conditions in constant time.
+     */
+    HASH,
+    /**
+     * A sorted tree; serves equality and range conditions in logarithmic time.
+     */
+    SORTED
+}
@@ -0,0 +1,136 @@
+package Repository;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The secondary indexes of one repository, keyed by the column of their {@link Field}.
+ * All indexes are updated under one lock, so a write either reaches every index or, if it would violate a
+ * unique index, none of them. Writes to a repository without indexes skip the lock entirely.
+ *
+ * @param <T> the type of the indexed entities.
+ */
+final class Indexes<T extends Identifiable> {
+    private final Map<String, SecondaryIndex<T>> byColumn = new ConcurrentHashMap<>();
+    private volatile boolean empty = true;
+
+    /**
+     * Registers an index and fills it with the entities already stored. An index on a column that already
+     * has one replaces it.
+     *
+     * @throws Exception.EntityAlreadyExistsException if the index is unique and two of the entities share a key;
+     *                                                the index is not registered.
+     */
+    synchronized void add(SecondaryIndex<T> index, Collection<? extends T> existing) {
+        for (T entity : existing) {
+            index.checkUnique(entity, List.of());
+            index.insert(entity);
+        }
+        byColumn.put(index.getField().getColumn(), index);
+        empty = false;
+    }
+
+    /**
+     * Indexes an entity that is being created or replaced.
+     *
+     * @throws Exception.EntityAlreadyExistsException if a unique index already maps the entity's key to
+     *                                                another entity; no index is changed.
+     */
+    void insert(T entity) {
+        if (empty) {
+            return;
+        }
+        synchronized (this) {
+            for (SecondaryIndex<T> index : byColumn.values()) {
+                index.checkUnique(entity, List.of());
+            }
+            for (SecondaryIndex<T> index : byColumn.values()) {
+                index.insert(entity);
+            }
+        }
+    }
+
+    /**
+     * Indexes a batch of entities that are being created or replaced together.
+     *
+     * @throws Exception.EntityAlreadyExistsException if a unique index maps the key of one of the entities to an
+     *                                                entity outside the batch, or two entities of the batch share
+     *                                                a key; no index is changed.
+     */
+    void insertAll(Collection<? extends T> entities) {
+        if (empty) {
+            return;
+        }
+        synchronized (this) {
+            Set<Integer> batchIds = new HashSet<>();
+            for (T entity : entities) {
+                batchIds.add(entity.getId());
+            }
+            for (SecondaryIndex<T> index : byColumn.values()) {
+                SecondaryIndex<T> batchIndex = new SecondaryIndex<>(index.getField(), IndexType.HASH, true);
+                for (T entity : entities) {
+                    index.checkUnique(entity, batchIds);
+                    if (index.isUnique()) {
+                        batchIndex.checkUnique(entity, List.of());
+                        batchIndex.insert(entity);
+                    }
+                }
+            }
+            for (T entity : entities) {
+                for (SecondaryIndex<T> index : byColumn.values()) {
+                    index.insert(entity);
+                }
+            }
+        }
+    }
+
+    void remove(int id) {
+        if (empty) {
+            return;
+        }
+        synchronized (this) {
+            for (SecondaryIndex<T> index : byColumn.values()) {
+                index.remove(id);
+            }
+        }
+    }
+
+    void clear() {
+        if (empty) {
+            return;
+        }
+        synchronized (this) {
+            for (SecondaryIndex<T> index : byColumn.values()) {
+                index.clear();
+            }
+        }
+    }
+
+    /**
+     * Finds the IDs of the entities that may match a query, using the index that narrows it down the most.
+     * The entities still have to be checked against the query.
+     *
+     * @return the candidate IDs in ascending order, or {@code null} if no index can serve the query.
+     */
+    NavigableSet<Integer> lookup(Query<T> query) {
+        if (empty) {
+            return null;
+        }
+        synchronized (this) {
+            NavigableSet<Integer> best = null;
+            for (Query.Condition<T> condition : query.getConditions()) {
+                SecondaryIndex<T> index = byColumn.get(condition.getField().getColumn());
+                NavigableSet<Integer> ids = index == null ? null : index.lookup(condition);
+                if (ids != null && (best == null || ids.size() < best.size())) {
+                    best = ids;
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package Repository;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash map from primitive {@code int} keys to non-negative {@code long} values.
+ * Uses linear probing with backward-shift deletion, so it needs no tombstones and never boxes keys or values.
+ * Not thread-safe; callers must synchronize access.
+ */
+class IntLongHashMap {
+    private static final long EMPTY = -1L;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private int[] keys;
+    private long[] values;
+    private int size;
+
+    /**
+     * Constructs an empty map with room for a small number of entries.
+     */
+    IntLongHashMap() {
+        this(16);
+    }
+
+    /**
+     * Constructs an empty map sized to hold the given number of entries without resizing.
+     *
+     * @param expectedSize the number of entries the map is expected to hold.
+     */
+    IntLongHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(2, (int) (expectedSize / LOAD_FACTOR)) * 2 - 1);
+        keys = new int[capacity];
+        values = new long[capacity];
+        Arrays.fill(values, EMPTY);
+    }
+
+    /**
+     * Returns the value mapped to the key, or {@code -1} if there is none.
+     */
+    long get(int key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; values[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+        }
+        return EMPTY;
+    }
+
+    /**
+     * Maps the key to the value, replacing any previous mapping.
+     *
+     * @param value a non-negative value.
+     */
+    void put(int key, long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Value must be non-negative: " + value);
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (values[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > keys.length * LOAD_FACTOR) {
+            resize(keys.length * 2);
+        }
+    }
+
+    /**
+     * Removes the mapping for the key and returns its value, or {@code -1} if there was none.
+     */
+    long remove(int key) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (values[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                long removed = values[slot];
+                shiftBack(slot);
+                size--;
+                return removed;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return EMPTY;
+    }
+
+    /**
+     * Adds {@code delta} to every value greater than {@code threshold}.
+     */
+    void shiftValuesAbove(long threshold, long delta) {
+        for (int slot = 0; slot < values.length; slot++) {
+            if (values[slot] != EMPTY && values[slot] > threshold) {
+                values[slot] += delta;
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(values, EMPTY);
+        size = 0;
+    }
+
+    private void shiftBack(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (values[next] != EMPTY) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[hole] = EMPTY;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        long[] oldValues = values;
+        keys = new int[capacity];
+        values = new long[capacity];
+        Arrays.fill(values, EMPTY);
+        size = 0;
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldValues[slot] != EMPTY) {
+                put(oldKeys[slot], oldValues[slot]);
+            }
+        }
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,155 @@
+package Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An open-addressing hash map from primitive {@code int} keys to non-null object values.
+ * Keys are stored in an {@code int[]} next to a parallel value array, so lookups never box the key
+ * and no node object is allocated per entry. Uses linear probing with backward-shift deletion.
+ * Not thread-safe; callers must synchronize access.
+ *
+ * @param <V> the type of the values.
+ */
+class IntObjectHashMap<V> {
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private int[] keys;
+    private Object[] values;
+    private int size;
+
+    /**
+     * Constructs an empty map with room for a small number of entries.
+     */
+    IntObjectHashMap() {
+        keys = new int[16];
+        values = new Object[16];
+    }
+
+    /**
+     * Returns the value mapped to the key, or {@code null} if there is none.
+     */
+    @SuppressWarnings("unchecked")
+    V get(int key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return (V) values[slot];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Maps the key to the value only if the key is not mapped yet.
+     *
+     * @return the existing value, or {@code null} if the value was inserted.
+     */
+    @SuppressWarnings("unchecked")
+    V putIfAbsent(int key, V value) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                return (V) values[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > keys.length * LOAD_FACTOR) {
+            resize(keys.length * 2);
+        }
+        return null;
+    }
+
+    /**
+     * Replaces the value of the key only if the key is already mapped.
+     *
+     * @return the previous value, or {@code null} if the key was not mapped.
+     */
+    @SuppressWarnings("unchecked")
+    V replace(int key, V value) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Removes the mapping for the key.
+     *
+     * @return the removed value, or {@code null} if the key was not mapped.
+     */
+    @SuppressWarnings("unchecked")
+    V remove(int key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                V removed = (V) values[slot];
+                shiftBack(slot);
+                size--;
+                return removed;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns a new list containing all values, in slot order.
+     */
+    @SuppressWarnings("unchecked")
+    List<V> values() {
+        List<V> result = new ArrayList<>(size);
+        for (Object value : values) {
+            if (value != null) {
+                result.add((V) value);
+            }
+        }
+        return result;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void shiftBack(int slot) {
+        int mask = keys.length - 1;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        while (values[next] != null) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[hole] = null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        size = 0;
+        for (int slot = 0; slot < oldKeys.length; slot++) {
+            if (oldValues[slot] != null) {
+                putIfAbsent(oldKeys[slot], (V) oldValues[slot]);
+            }
+        }
+    }
+
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
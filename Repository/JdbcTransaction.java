@@ -0,0 +1,95 @@
+package Repository;
+
+import Exception.DatabaseException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * A database transaction as a {@link Transactional}.
+ * Beginning it borrows a connection and turns off auto-commit until the transaction ends. Since a
+ * {@link ConnectionPool} hands a thread the connection it already holds, every {@link DBRepository} on the
+ * pool then runs its statements on that connection, inside this transaction, and all of their writes are
+ * committed with one round trip. The data source must therefore be a {@link ConnectionPool}; with another
+ * data source, the repositories would not see the transaction.
+ */
+public class JdbcTransaction implements Transactional {
+    private final DataSource dataSource;
+    private final ThreadLocal<Connection> connection = new ThreadLocal<>();
+
+    /**
+     * Constructs a JdbcTransaction.
+     *
+     * @param dataSource the pool shared by the repositories taking part in the transaction.
+     */
+    public JdbcTransaction(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public void begin() {
+        if (connection.get() != null) {
+            throw new IllegalStateException("A transaction is already in progress on this thread.");
+        }
+        Connection borrowed = null;
+        try {
+            borrowed = dataSource.getConnection();
+            borrowed.setAutoCommit(false);
+            connection.set(borrowed);
+        } catch (SQLException e) {
+            closeQuietly(borrowed);
+            throw new DatabaseException("Failed to begin transaction", e);
+        }
+    }
+
+    @Override
+    public void commit() {
+        Connection current = end();
+        try {
+            current.commit();
+            current.setAutoCommit(true);
+        } catch (SQLException e) {
+            throw new DatabaseException("Failed to commit transaction", e);
+        } finally {
+            closeQuietly(current);
+        }
+    }
+
+    /**
+     * Rolls the transaction back. Closing the connection would also roll it back, since the pool resets every
+     * connection it takes back, but doing it here reports a failure.
+     */
+    @Override
+    public void rollback() {
+        Connection current = end();
+        try {
+            current.rollback();
+            current.setAutoCommit(true);
+        } catch (SQLException e) {
+            throw new DatabaseException("Failed to roll back transaction", e);
+        } finally {
+            closeQuietly(current);
+        }
+    }
+
+    private Connection end() {
+        Connection current = connection.get();
+        if (current == null) {
+            throw new IllegalStateException("No transaction is in progress on this thread.");
+        }
+        connection.remove();
+        return current;
+    }
+
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            // The connection is returned to the pool regardless.
+        }
+    }
+}
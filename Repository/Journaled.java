@@ -0,0 +1,37 @@
+package Repository;
+
+import java.util.List;
+
+/**
+ * A {@link Transactional} store whose held-back writes can be recorded in a journal before they are committed, and
+ * redone from it. A {@link UnitOfWork} with a journal uses this to commit several stores as one: it journals the
+ * writes of all of them, then commits each, and redoes the writes of a store whose commit did not complete.
+ * The writes are recorded as the store's own records, a put record ({@code +<csv>}) for each entity written and a
+ * tombstone record ({@code -<id>}) for each entity deleted, so a record never contains a line break.
+ */
+public interface Journaled extends Transactional {
+
+    /**
+     * Retrieves the name under which the writes of the store are journaled, which must stay the same from one run
+     * of the application to the next and differ from that of every other store of the unit of work.
+     *
+     * @return the name.
+     */
+    String journalName();
+
+    /**
+     * Retrieves the records of the writes the current thread has held back since {@link #begin()}, as
+     * {@link #commit()} will write them.
+     *
+     * @return the records, in the order in which they must be applied.
+     */
+    List<String> prepare();
+
+    /**
+     * Applies records taken from a journal, outside of a transaction, and makes them durable. Records that are
+     * already applied are applied again, which leaves the entities as they are.
+     *
+     * @param records the records, in the order returned by {@link #prepare()}.
+     */
+    void redo(List<String> records);
+}
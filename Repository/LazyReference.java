@@ -0,0 +1,114 @@
+package Repository;
+
+import java.util.function.IntFunction;
+
+/**
+ * A reference from one entity to another that is only loaded when it is first accessed.
+ * The ID of the referenced entity is known up front, so it can be read, compared and written back to storage
+ * without loading the entity; so is its class, if the reference was created with it. Once loaded, the entity is kept and returned by every later {@link #get()}.
+ *
+ * @param <T> the type of the referenced entity.
+ */
+public final class LazyReference<T extends Identifiable> {
+    private final int id;
+    private final Class<? extends T> type;
+    private IntFunction<? extends T> loader;
+    private volatile T entity;
+
+    private LazyReference(int id, Class<? extends T> type, T entity, IntFunction<? extends T> loader) {
+        this.id = id;
+        this.type = type;
+        this.entity = entity;
+        this.loader = loader;
+    }
+
+    /**
+     * Creates a reference to an entity that is already loaded.
+     *
+     * @param entity the referenced entity.
+     * @param <T>    the type of the referenced entity.
+     * @return the reference, or {@code null} if the entity is {@code null}.
+     */
+    public static <T extends Identifiable> LazyReference<T> of(T entity) {
+        return entity == null ? null : new LazyReference<>(entity.getId(), classOf(entity), entity, null);
+    }
+
+    /**
+     * Creates a reference that loads the entity with the given ID on first access.
+     *
+     * @param id     the ID of the referenced entity.
+     * @param loader the function that loads the entity by ID.
+     * @param <T>    the type of the referenced entity.
+     * @return the reference.
+     */
+    public static <T extends Identifiable> LazyReference<T> lazy(int id, IntFunction<? extends T> loader) {
+        return new LazyReference<>(id, null, null, loader);
+    }
+
+    /**
+     * Creates a reference that loads the entity with the given ID on first access, and whose class is known
+     * before that.
+     *
+     * @param id     the ID of the referenced entity.
+     * @param type   the class of the referenced entity.
+     * @param loader the function that loads the entity by ID.
+     * @param <T>    the type of the referenced entity.
+     * @return the reference.
+     */
+    public static <T extends Identifiable> LazyReference<T> lazy(int id, Class<? extends T> type,
+                                                                 IntFunction<? extends T> loader) {
+        return new LazyReference<>(id, type, null, loader);
+    }
+
+    /**
+     * Retrieves the ID of the referenced entity without loading it.
+     *
+     * @return the ID of the referenced entity.
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Retrieves the class of the referenced entity, without loading it if the reference was created with it.
+     *
+     * @return the class of the referenced entity.
+     */
+    public Class<? extends T> getType() {
+        return type != null ? type : classOf(get());
+    }
+
+    /**
+     * Retrieves the referenced entity, loading it if this is the first access.
+     *
+     * @return the referenced entity.
+     */
+    public T get() {
+        T loaded = entity;
+        if (loaded != null) {
+            return loaded;
+        }
+        synchronized (this) {
+            if (entity == null) {
+                entity = loader.apply(id);
+                loader = null;
+            }
+            return entity;
+        }
+    }
+
+    /**
+     * Checks whether the referenced entity has been loaded.
+     *
+     * @return {@code true} if {@link #get()} would not need to load the entity.
+     */
+    public boolean isLoaded() {
+        return entity != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> Class<? extends T> classOf(T entity) {
+        // The class of an object of type T is a subclass of T.
+        return (Class<? extends T>) entity.getClass();
+    }
+}
@@ -0,0 +1,481 @@
+package Repository;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import Exception.*;
+
+
+/**
+ * A file-based repository that stores entities in an append-only log.
+ * Every mutation appends a single record to the end of the file instead of rewriting it:
+ * a put record ({@code +<csv>}) for creates and updates and a tombstone record ({@code -<id>}) for deletes.
+ * The live entities are kept in memory, sorted by ID, and a background compactor rewrites the file with only the
+ * live records once enough superseded records have accumulated.
+ * Lines without a record marker are read as put records, so a CSV file written by {@link FileRepository}
+ * can be opened directly.
+ *
+ * As a {@link Transactional}, the repository holds records back while a transaction is open and appends them
+ * with a single write on commit, which is synced to disk; a rollback drops them and reloads the live entities
+ * from the log. As a {@link Journaled} store, the held-back records are what it journals and redoes. Only the
+ * thread that began the transaction uses the repository while it is open; other threads wait until it ends, so
+ * the held-back records are always that thread's own. Compaction is skipped while a transaction is open, so that
+ * uncommitted entities are never written to the log.
+ *
+ * @param <T> the type of the entity managed by the repository.
+ */
+public class LogStructuredFileRepository<T extends Identifiable> implements IRepository<T>, Journaled, AutoCloseable {
+    private static final char PUT = '+';
+    private static final char TOMBSTONE = '-';
+    private static final long DEFAULT_COMPACTION_INTERVAL_MILLIS = 30_000;
+    private static final double DEFAULT_GARBAGE_RATIO = 0.5;
+    private static final int MIN_RECORDS_FOR_COMPACTION = 100;
+    private static final Logger LOGGER = Logger.getLogger(LogStructuredFileRepository.class.getName());
+
+    private final Path path;
+    private final EntityParser<T> parser;
+    private final double garbageRatio;
+    private final NavigableMap<Integer, T> entities = new TreeMap<>();
+    private final ScheduledExecutorService compactor;
+    private BufferedWriter writer;
+    private int recordCount;
+    private List<String> compactionTail;
+    private final TransactionOwner transaction;
+    private List<String> pending;
+
+    /**
+     * Constructs a new LogStructuredFileRepository that checks every 30 seconds whether
+     * at least half of the records in the log are superseded and compacts it if so.
+     *
+     * @param filePath the path to the log file where entities are stored.
+     * @param parser   the parser to handle entity serialization and deserialization.
+     */
+    public LogStructuredFileRepository(String filePath, EntityParser<T> parser) {
+        this(filePath, parser, DEFAULT_COMPACTION_INTERVAL_MILLIS, DEFAULT_GARBAGE_RATIO);
+    }
+
+    /**
+     * Constructs a new LogStructuredFileRepository.
+     *
+     * @param filePath                 the path to the log file where entities are stored.
+     * @param parser                   the parser to handle entity serialization and deserialization.
+     * @param compactionIntervalMillis how often the background compactor checks the log, in milliseconds.
+     * @param garbageRatio             the fraction of superseded records (0 to 1) that triggers a compaction.
+     */
+    public LogStructuredFileRepository(String filePath, EntityParser<T> parser, long compactionIntervalMillis, double garbageRatio) {
+        this.path = Paths.get(filePath);
+        this.parser = parser;
+        this.garbageRatio = garbageRatio;
+        this.transaction = new TransactionOwner(this, filePath);
+        load();
+        this.writer = openWriter();
+        this.compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "log-compactor-" + path.getFileName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        compactor.scheduleWithFixedDelay(this::compactIfNeeded,
+                compactionIntervalMillis, compactionIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void create(T entity) {
+        transaction.awaitOthers();
+        if (entities.containsKey(entity.getId())) {
+            throw new EntityAlreadyExistsException("Entity with ID " + entity.getId() + " already exists.");
+        }
+        append(PUT + parser.toCSV(entity));
+        entities.put(entity.getId(), entity);
+    }
+
+    @Override
+    public synchronized T read(int id) {
+        transaction.awaitOthers();
+        T entity = entities.get(id);
+        if (entity == null) {
+            throw new EntityNotFoundException("Entity with ID " + id + " not found.");
+        }
+        return entity;
+    }
+
+    @Override
+    public synchronized void update(T entity) {
+        transaction.awaitOthers();
+        if (!entities.containsKey(entity.getId())) {
+            throw new EntityNotFoundException("Entity with ID " + entity.getId() + " not found.");
+        }
+        append(PUT + parser.toCSV(entity));
+        entities.put(entity.getId(), entity);
+    }
+
+    @Override
+    public synchronized void delete(int id) {
+        transaction.awaitOthers();
+        if (!entities.containsKey(id)) {
+            throw new EntityNotFoundException("Entity with ID " + id + " not found.");
+        }
+        append(TOMBSTONE + String.valueOf(id));
+        entities.remove(id);
+    }
+
+    @Override
+    public synchronized List<T> findPage(Integer afterKey, int limit, SortOrder order) {
+        transaction.awaitOthers();
+        return Pages.of(entities, afterKey, limit, order);
+    }
+
+    /**
+     * Looks all IDs up in the loaded entities in a single pass.
+     */
+    @Override
+    public synchronized Map<Integer, T> readMany(Collection<Integer> ids) {
+        transaction.awaitOthers();
+        Map<Integer, T> found = new LinkedHashMap<>();
+        for (int id : ids) {
+            T entity = entities.get(id);
+            if (entity != null) {
+                found.put(id, entity);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Evaluates the query over the entities in the ID range it allows.
+     */
+    @Override
+    public synchronized List<T> findWhere(Query<T> query) {
+        transaction.awaitOthers();
+        return query.apply(query.narrow(entities).values().stream());
+    }
+
+    @Override
+    public synchronized List<T> findAll() {
+        transaction.awaitOthers();
+        return new ArrayList<>(entities.values());
+    }
+
+    /**
+     * Appends a put record for every entity in a single write.
+     *
+     * @throws EntityAlreadyExistsException if any of the IDs already exists or appears twice; nothing is added.
+     */
+    @Override
+    public synchronized void createAll(Collection<? extends T> batch) {
+        transaction.awaitOthers();
+        Set<Integer> ids = new HashSet<>();
+        List<String> records = new ArrayList<>(batch.size());
+        for (T entity : batch) {
+            if (entities.containsKey(entity.getId()) || !ids.add(entity.getId())) {
+                throw new EntityAlreadyExistsException("Entity with ID " + entity.getId() + " already exists.");
+            }
+            records.add(PUT + parser.toCSV(entity));
+        }
+        appendAll(records);
+        for (T entity : batch) {
+            entities.put(entity.getId(), entity);
+        }
+    }
+
+    /**
+     * Appends a put record for every entity in a single write.
+     *
+     * @throws EntityNotFoundException if any of the entities does not exist; nothing is updated.
+     */
+    @Override
+    public synchronized void updateAll(Collection<? extends T> batch) {
+        transaction.awaitOthers();
+        List<String> records = new ArrayList<>(batch.size());
+        for (T entity : batch) {
+            if (!entities.containsKey(entity.getId())) {
+                throw new EntityNotFoundException("Entity with ID " + entity.getId() + " not found.");
+            }
+            records.add(PUT + parser.toCSV(entity));
+        }
+        appendAll(records);
+        for (T entity : batch) {
+            entities.put(entity.getId(), entity);
+        }
+    }
+
+    /**
+     * Appends a tombstone record for every ID in a single write.
+     *
+     * @throws EntityNotFoundException if any of the entities does not exist; nothing is deleted.
+     */
+    @Override
+    public synchronized void deleteAll(Collection<Integer> ids) {
+        transaction.awaitOthers();
+        List<String> records = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            if (!entities.containsKey(id)) {
+                throw new EntityNotFoundException("Entity with ID " + id + " not found.");
+            }
+            records.add(TOMBSTONE + String.valueOf(id));
+        }
+        appendAll(records);
+        for (int id : ids) {
+            entities.remove(id);
+        }
+    }
+
+    /**
+     * Rewrites the log so that it contains exactly one put record per live entity.
+     * Mutations made while the new file is being written are carried over before it replaces the old one.
+     * If the new file cannot replace the old one, the old log stays in use and keeps accepting records.
+     *
+     * @throws FileRepositoryException if the new file cannot be written or moved into place.
+     */
+    public void compact() {
+        List<T> snapshot;
+        synchronized (this) {
+            if (compactionTail != null || pending != null) {
+                return;
+            }
+            snapshot = new ArrayList<>(entities.values());
+            compactionTail = new ArrayList<>();
+        }
+
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        try {
+            try (BufferedWriter out = Files.newBufferedWriter(compacted, StandardCharsets.UTF_8)) {
+                for (T entity : snapshot) {
+                    out.write(PUT + parser.toCSV(entity));
+                    out.newLine();
+                }
+            }
+
+            synchronized (this) {
+                try (BufferedWriter out = Files.newBufferedWriter(compacted, StandardCharsets.UTF_8, StandardOpenOption.APPEND)) {
+                    for (String record : compactionTail) {
+                        out.write(record);
+                        out.newLine();
+                    }
+                }
+                writer.close();
+                try {
+                    Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    recordCount = snapshot.size() + compactionTail.size();
+                } finally {
+                    writer = openWriter();
+                }
+            }
+        } catch (IOException e) {
+            throw new FileRepositoryException("Failed to compact file: " + path, e);
+        } finally {
+            synchronized (this) {
+                compactionTail = null;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void begin() {
+        transaction.begin();
+        pending = new ArrayList<>();
+    }
+
+    /**
+     * Appends the records held back during the transaction with a single write and syncs the log.
+     * If the write fails, the live entities are reloaded from the log.
+     */
+    @Override
+    public synchronized void commit() {
+        if (!transaction.end()) {
+            return;
+        }
+        List<String> records = pending;
+        pending = null;
+        if (records.isEmpty()) {
+            return;
+        }
+        try {
+            appendAll(records);
+            sync();
+        } catch (FileRepositoryException e) {
+            reload();
+            throw e;
+        }
+    }
+
+    /**
+     * Drops the records held back during the transaction and reloads the live entities from the log.
+     */
+    @Override
+    public synchronized void rollback() {
+        if (!transaction.end()) {
+            return;
+        }
+        List<String> records = pending;
+        pending = null;
+        if (!records.isEmpty()) {
+            reload();
+        }
+    }
+
+    /**
+     * Retrieves the path of the log file.
+     */
+    @Override
+    public String journalName() {
+        return path.toString();
+    }
+
+    @Override
+    public synchronized List<String> prepare() {
+        transaction.awaitOthers();
+        return pending == null ? List.of() : new ArrayList<>(pending);
+    }
+
+    /**
+     * Appends the records with a single write, syncs the log and applies them to the live entities.
+     */
+    @Override
+    public synchronized void redo(List<String> records) {
+        transaction.awaitOthers();
+        appendAll(records);
+        sync();
+        BatchLoader.Scope batches = BatchLoader.open();
+        try {
+            for (String record : records) {
+                apply(record);
+            }
+        } finally {
+            batches.close();
+        }
+    }
+
+    /**
+     * Stops the background compactor and closes the log file.
+     */
+    @Override
+    public void close() {
+        compactor.shutdownNow();
+        synchronized (this) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                throw new FileRepositoryException("Failed to close file: " + path, e);
+            }
+        }
+    }
+
+    private void compactIfNeeded() {
+        synchronized (this) {
+            int garbage = recordCount - entities.size();
+            if (recordCount < MIN_RECORDS_FOR_COMPACTION || garbage < recordCount * garbageRatio) {
+                return;
+            }
+        }
+        try {
+            compact();
+        } catch (FileRepositoryException e) {
+            LOGGER.log(Level.WARNING, "Compaction failed, the log is kept as is: " + path, e);
+        }
+    }
+
+    private void append(String record) {
+        appendAll(List.of(record));
+    }
+
+    private void appendAll(List<String> records) {
+        if (pending != null) {
+            pending.addAll(records);
+            return;
+        }
+        try {
+            for (String record : records) {
+                writer.write(record);
+                writer.newLine();
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new FileRepositoryException("Failed to append to file: " + path, e);
+        }
+        recordCount += records.size();
+        if (compactionTail != null) {
+            compactionTail.addAll(records);
+        }
+    }
+
+    /**
+     * Writes the appended records through to the disk.
+     */
+    private void sync() {
+        try {
+            writer.flush();
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new FileRepositoryException("Failed to sync file: " + path, e);
+        }
+    }
+
+    private void reload() {
+        entities.clear();
+        recordCount = 0;
+        load();
+    }
+
+    private void load() {
+        if (!Files.exists(path)) {
+            return;
+        }
+
+        BatchLoader.Scope batches = BatchLoader.open();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                recordCount++;
+                apply(line);
+            }
+        } catch (IOException e) {
+            throw new FileRepositoryException("Failed to read file: " + path, e);
+        } finally {
+            batches.close();
+        }
+    }
+
+    private void apply(String record) {
+        if (record.charAt(0) == TOMBSTONE) {
+            entities.remove(Integer.parseInt(record.substring(1)));
+        } else {
+            T entity = parser.parseFromCSV(record.charAt(0) == PUT ? record.substring(1) : record);
+            entities.put(entity.getId(), entity);
+        }
+    }
+
+    private BufferedWriter openWriter() {
+        try {
+            return Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new FileRepositoryException("Failed to open file: " + path, e);
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package Repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import Exception.*;
+
+
+/**
+ * A file-based repository that memory-maps its CSV file instead of keeping the entities on the heap.
+ * On open the file is scanned once to build a compact index from entity ID to the byte offset of its line;
+ * {@link #read(int)} then decodes only the requested line. Creates append to the file, while updates and
+ * deletes splice the file at the affected line without re-parsing the other records.
+ * A sorted array of the IDs serves {@link #findPage(Integer, int, SortOrder)}.
+ * The file format is the same line-per-entity CSV used by {@link FileRepository}.
+ * Each call that decodes several lines does so in a {@link BatchLoader} context of its own.
+ *
+ * @param <T> the type of the entity managed by the repository.
+ */
+public class MappedFileRepository<T extends Identifiable> implements IRepository<T> {
+    private static final byte NEWLINE = '\n';
+    private static final byte CARRIAGE_RETURN = '\r';
+
+    private final Path path;
+    private final EntityParser<T> parser;
+    private final IntLongHashMap offsets = new IntLongHashMap();
+    private int[] sortedIds = new int[16];
+    private int idCount;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private MappedByteBuffer buffer;
+
+    /**
+     * Constructs a new MappedFileRepository and indexes the file.
+     *
+     * @param filePath the path to the file where entities are stored.
+     * @param parser   the parser to handle entity serialization and deserialization.
+     */
+    public MappedFileRepository(String filePath, EntityParser<T> parser) {
+        this.path = Paths.get(filePath);
+        this.parser = parser;
+        remap();
+        buildIndex();
+    }
+
+    @Override
+    public void create(T entity) {
+        lock.writeLock().lock();
+        try {
+            if (offsets.get(entity.getId()) >= 0) {
+                throw new EntityAlreadyExistsException("Entity with ID " + entity.getId() + " already exists.");
+            }
+            long offset = fileSize();
+            byte[] line = encode(entity);
+            if (offset > 0 && buffer.get((int) offset - 1) != NEWLINE) {
+                line = ("\n" + parser.toCSV(entity) + "\n").getBytes(StandardCharsets.UTF_8);
+                offset++;
+            }
+            try {
+                Files.write(path, line, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                throw new FileRepositoryException("Failed to append to file: " + path, e);
+            }
+            offsets.put(entity.getId(), offset);
+            insertSortedId(entity.getId());
+            remap();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public T read(int id) {
+        lock.readLock().lock();
+        try {
+            long offset = offsets.get(id);
+            if (offset < 0) {
+                throw new EntityNotFoundException("Entity with ID " + id + " not found.");
+            }
+            return parser.parseFromCSV(decodeLine((int) offset));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void update(T entity) {
+        lock.writeLock().lock();
+        try {
+            long offset = offsets.get(entity.getId());
+            if (offset < 0) {
+                throw new EntityNotFoundException("Entity with ID " + entity.getId() + " not found.");
+            }
+            byte[] replacement = encode(entity);
+            long delta = replacement.length - lineLength((int) offset);
+            splice((int) offset, replacement);
+            offsets.shiftValuesAbove(offset, delta);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void delete(int id) {
+        lock.writeLock().lock();
+        try {
+            long offset = offsets.get(id);
+            if (offset < 0) {
+                throw new EntityNotFoundException("Entity with ID " + id + " not found.");
+            }
+            long delta = -lineLength((int) offset);
+            splice((int) offset, new byte[0]);
+            offsets.remove(id);
+            removeSortedId(id);
+            offsets.shiftValuesAbove(offset, delta);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<T> findAll() {
+        BatchLoader.Scope batches = BatchLoader.open();
+        lock.readLock().lock();
+        try {
+            List<T> entities = new ArrayList<>(offsets.size());
+            int size = buffer == null ? 0 : buffer.limit();
+            for (int position = 0; position < size; position += lineLength(position)) {
+                String line = decodeLine(position);
+                if (!line.isEmpty()) {
+                    entities.add(parser.parseFromCSV(line));
+                }
+            }
+            return entities;
+        } finally {
+            lock.readLock().unlock();
+            batches.close();
+        }
+    }
+
+    /**
+     * Looks all IDs up in the offset index under a single read lock and decodes only the lines found.
+     */
+    @Override
+    public Map<Integer, T> readMany(Collection<Integer> ids) {
+        BatchLoader.Scope batches = BatchLoader.open();
+        lock.readLock().lock();
+        try {
+            Map<Integer, T> found = new LinkedHashMap<>();
+            for (int id : ids) {
+                long offset = offsets.get(id);
+                if (offset >= 0 && !found.containsKey(id)) {
+                    found.put(id, parser.parseFromCSV(decodeLine((int) offset)));
+                }
+            }
+            return found;
+        } finally {
+            lock.readLock().unlock();
+            batches.close();
+        }
+    }
+
+    /**
+     * Decodes only the lines of the requested page, found by binary search in the sorted IDs.
+     */
+    @Override
+    public List<T> findPage(Integer afterKey, int limit, SortOrder order) {
+        BatchLoader.Scope batches = BatchLoader.open();
+        lock.readLock().lock();
+        try {
+            List<T> page = new ArrayList<>(Math.min(limit, idCount));
+            if (order == SortOrder.ASCENDING) {
+                int index = afterKey == null ? 0 : firstIndexAbove(afterKey);
+                for (; index < idCount && page.size() < limit; index++) {
+                    page.add(parser.parseFromCSV(decodeLine((int) offsets.get(sortedIds[index]))));
+                }
+            } else {
+                int index = afterKey == null ? idCount - 1 : firstIndexAtLeast(afterKey) - 1;
+                for (; index >= 0 && page.size() < limit; index--) {
+                    page.add(parser.parseFromCSV(decodeLine((int) offsets.get(sortedIds[index]))));
+                }
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+            batches.close();
+        }
+    }
+
+    private void buildIndex() {
+        int size = buffer == null ? 0 : buffer.limit();
+        for (int position = 0; position < size; position += lineLength(position)) {
+            String line = decodeLine(position);
+            if (!line.isEmpty()) {
+                int id = parser.parseFromCSV(line).getId();
+                offsets.put(id, position);
+                if (idCount == sortedIds.length) {
+                    sortedIds = Arrays.copyOf(sortedIds, idCount * 2);
+                }
+                sortedIds[idCount++] = id;
+            }
+        }
+        Arrays.sort(sortedIds, 0, idCount);
+    }
+
+    /**
+     * Returns the index of the first sorted ID greater than {@code key}.
+     */
+    private int firstIndexAbove(int key) {
+        int index = Arrays.binarySearch(sortedIds, 0, idCount, key);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    /**
+     * Returns the index of the first sorted ID greater than or equal to {@code key}.
+     */
+    private int firstIndexAtLeast(int key) {
+        int index = Arrays.binarySearch(sortedIds, 0, idCount, key);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private void insertSortedId(int id) {
+        int index = firstIndexAbove(id);
+        if (idCount == sortedIds.length) {
+            sortedIds = Arrays.copyOf(sortedIds, idCount * 2);
+        }
+        System.arraycopy(sortedIds, index, sortedIds, index + 1, idCount - index);
+        sortedIds[index] = id;
+        idCount++;
+    }
+
+    private void removeSortedId(int id) {
+        int index = Arrays.binarySearch(sortedIds, 0, idCount, id);
+        System.arraycopy(sortedIds, index + 1, sortedIds, index, idCount - index - 1);
+        idCount--;
+    }
+
+    /**
+     * Replaces the line starting at {@code offset} with {@code replacement} by copying the bytes before and
+     * after it into a new file, which then atomically replaces the old one.
+     */
+    private void splice(int offset, byte[] replacement) {
+        int end = offset + lineLength(offset);
+        Path spliced = path.resolveSibling(path.getFileName() + ".splice");
+        try (FileChannel source = FileChannel.open(path, StandardOpenOption.READ);
+             FileChannel target = FileChannel.open(spliced, StandardOpenOption.CREATE,
+                     StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            transferFully(source, 0, offset, target);
+            target.write(ByteBuffer.wrap(replacement));
+            transferFully(source, end, source.size() - end, target);
+        } catch (IOException e) {
+            throw new FileRepositoryException("Failed to write to file: " + path, e);
+        }
+
+        try {
+            Files.move(spliced, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new FileRepositoryException("Failed to replace file: " + path, e);
+        }
+        remap();
+    }
+
+    private void remap() {
+        if (!Files.exists(path)) {
+            buffer = null;
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new FileRepositoryException("File is too large to map: " + path);
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        } catch (IOException e) {
+            throw new FileRepositoryException("Failed to map file: " + path, e);
+        }
+    }
+
+    private long fileSize() {
+        return buffer == null ? 0 : buffer.limit();
+    }
+
+    /**
+     * Returns the length of the line starting at {@code position}, including its line terminator.
+     */
+    private int lineLength(int position) {
+        int size = buffer.limit();
+        int end = position;
+        while (end < size && buffer.get(end) != NEWLINE) {
+            end++;
+        }
+        return Math.min(end + 1, size) - position;
+    }
+
+    private String decodeLine(int position) {
+        int length = lineLength(position);
+        while (length > 0 && (buffer.get(position + length - 1) == NEWLINE
+                || buffer.get(position + length - 1) == CARRIAGE_RETURN)) {
+            length--;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(position, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private byte[] encode(T entity) {
+        return (parser.toCSV(entity) + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void transferFully(FileChannel source, long position, long count, FileChannel target) throws IOException {
+        while (count > 0) {
+            long transferred = source.transferTo(position, count, target);
+            position += transferred;
+            count -= transferred;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.function.IntFunction;
+
+/**
+ * Keyset pagination over the ordered indexes kept by the repositories.
+ * Each page seeks to the key in logarithmic time and then walks at most {@code limit} entries.
+ */
+final class Pages {
+
+    private Pages() {
+    }
+
+    /**
+     * Returns a page of the values of a map ordered by ID.
+     */
+    static <T> List<T> of(NavigableMap<Integer, T> entities, Integer afterKey, int limit, SortOrder order) {
+        NavigableMap<Integer, T> rest;
+        if (order == SortOrder.ASCENDING) {
+            rest = afterKey == null ? entities : entities.tailMap(afterKey, false);
+        } else {
+            rest = (afterKey == null ? entities : entities.headMap(afterKey, false)).descendingMap();
+        }
+
+        // Not presized from rest.size(), which walks the whole range of a sub-map view.
+        List<T> page = new ArrayList<>();
+        for (T entity : rest.values()) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(entity);
+        }
+        return page;
+    }
+
+    /**
+     * Returns a page of entities from a set of IDs, looking each one up. IDs whose entity has disappeared
+     * in the meantime are skipped.
+     */
+    static <T> List<T> of(NavigableSet<Integer> ids, IntFunction<T> lookup, Integer afterKey, int limit, SortOrder order) {
+        NavigableSet<Integer> rest;
+        if (order == SortOrder.ASCENDING) {
+            rest = afterKey == null ? ids : ids.tailSet(afterKey, false);
+        } else {
+            rest = (afterKey == null ? ids : ids.headSet(afterKey, false)).descendingSet();
+        }
+
+        List<T> page = new ArrayList<>();
+        for (int id : rest) {
+            if (page.size() == limit) {
+                break;
+            }
+            T entity = lookup.apply(id);
+            if (entity != null) {
+                page.add(entity);
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Returns a page of entities from a sorted array of IDs, looking each one up.
+     */
+    static <T> List<T> of(SortedIntArray ids, IntFunction<T> lookup, Integer afterKey, int limit, SortOrder order) {
+        List<T> page = new ArrayList<>();
+        if (order == SortOrder.ASCENDING) {
+            for (int i = afterKey == null ? 0 : ids.indexAbove(afterKey); i < ids.size() && page.size() < limit; i++) {
+                page.add(lookup.apply(ids.get(i)));
+            }
+        } else {
+            for (int i = (afterKey == null ? ids.size() : ids.indexAtLeast(afterKey)) - 1; i >= 0 && page.size() < limit; i--) {
+                page.add(lookup.apply(ids.get(i)));
+            }
+        }
+        return page;
+    }
+}
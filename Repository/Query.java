@@ -0,0 +1,342 @@
+package Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A criteria query over a repository: conditions on {@link Field}s that must all hold, an optional ordering and
+ * an optional limit. Queries are immutable; every method that refines a query returns a new one.
+ *
+ * {@link DBRepository} compiles a query into a parameterized {@code WHERE ... ORDER BY ... LIMIT} statement.
+ * The other backends evaluate it against their entities, looking entities up by ID when the query restricts
+ * the {@link Field#id() ID field}, and through a secondary index when the query restricts an indexed field.
+ *
+ * @param <T> the type of the entity.
+ */
+public final class Query<T> {
+    private static final int NO_LIMIT = -1;
+
+    /**
+     * The comparison a condition performs.
+     */
+    enum Operator {
+        EQ("="), LT("<"), LE("<="), GT(">"), GE(">="), BETWEEN("BETWEEN");
+
+        private final String sql;
+
+        Operator(String sql) {
+            this.sql = sql;
+        }
+    }
+
+    /**
+     * A single comparison of a field with one value, or with two for {@code BETWEEN}.
+     * Created through the comparison methods of {@link Field}.
+     *
+     * @param <T> the type of the entity.
+     */
+    public static final class Condition<T> {
+        private final Field<T, ?> field;
+        private final Operator operator;
+        private final Object value;
+        private final Object high;
+
+        Condition(Field<T, ?> field, Operator operator, Object value, Object high) {
+            if (value == null || (operator == Operator.BETWEEN && high == null)) {
+                throw new IllegalArgumentException("Query values cannot be null.");
+            }
+            this.field = field;
+            this.operator = operator;
+            this.value = value;
+            this.high = high;
+        }
+
+        Field<T, ?> getField() {
+            return field;
+        }
+
+        Operator getOperator() {
+            return operator;
+        }
+
+        Object getValue() {
+            return value;
+        }
+
+        Object getHigh() {
+            return high;
+        }
+
+        /**
+         * Evaluates the condition against an entity.
+         */
+        @SuppressWarnings("unchecked")
+        boolean test(T entity) {
+            Object actual = field.valueOf(entity);
+            if (actual == null) {
+                return false;
+            }
+            int comparison = ((Comparable<Object>) value).compareTo(actual);
+            switch (operator) {
+                case EQ:
+                    return comparison == 0;
+                case LT:
+                    return comparison > 0;
+                case LE:
+                    return comparison >= 0;
+                case GT:
+                    return comparison < 0;
+                case GE:
+                    return comparison <= 0;
+                default:
+                    return comparison <= 0 && ((Comparable<Object>) high).compareTo(actual) >= 0;
+            }
+        }
+
+        String toSql() {
+            if (operator == Operator.BETWEEN) {
+                return field.getColumn() + " BETWEEN ? AND ?";
+            }
+            return field.getColumn() + " " + operator.sql + " ?";
+        }
+
+        /**
+         * Binds the condition's values starting at the given parameter index.
+         *
+         * @return the next free parameter index.
+         */
+        int bind(PreparedStatement stmt, int index) throws SQLException {
+            stmt.setObject(index++, toSqlValue(value));
+            if (operator == Operator.BETWEEN) {
+                stmt.setObject(index++, toSqlValue(high));
+            }
+            return index;
+        }
+
+        private static Object toSqlValue(Object value) {
+            return value instanceof Enum ? ((Enum<?>) value).name() : value;
+        }
+    }
+
+    private final List<Condition<T>> conditions;
+    private final Field<T, ?> orderBy;
+    private final SortOrder order;
+    private final int limit;
+
+    private Query(List<Condition<T>> conditions, Field<T, ?> orderBy, SortOrder order, int limit) {
+        this.conditions = conditions;
+        this.orderBy = orderBy;
+        this.order = order;
+        this.limit = limit;
+    }
+
+    List<Condition<T>> getConditions() {
+        return conditions;
+    }
+
+    /**
+     * Creates a query that matches every entity.
+     *
+     * @param <T> the type of the entity.
+     * @return the query.
+     */
+    public static <T> Query<T> all() {
+        return new Query<>(Collections.emptyList(), null, SortOrder.ASCENDING, NO_LIMIT);
+    }
+
+    /**
+     * Creates a query that matches the entities for which all of the conditions hold.
+     *
+     * @param conditions the conditions.
+     * @param <T>        the type of the entity.
+     * @return the query.
+     */
+    @SafeVarargs
+    public static <T> Query<T> where(Condition<T>... conditions) {
+        List<Condition<T>> all = new ArrayList<>(conditions.length);
+        for (Condition<T> condition : conditions) {
+            all.add(Objects.requireNonNull(condition));
+        }
+        return new Query<>(Collections.unmodifiableList(all), null, SortOrder.ASCENDING, NO_LIMIT);
+    }
+
+    /**
+     * Returns a query that additionally requires the condition to hold.
+     */
+    public Query<T> and(Condition<T> condition) {
+        List<Condition<T>> combined = new ArrayList<>(conditions);
+        combined.add(condition);
+        return new Query<>(Collections.unmodifiableList(combined), orderBy, order, limit);
+    }
+
+    /**
+     * Returns a query whose results are ordered by the field. Entities whose field is null sort as larger than
+     * any value, as they do in the database: last in ascending order and first in descending order.
+     */
+    public Query<T> orderBy(Field<T, ?> field, SortOrder order) {
+        return new Query<>(conditions, field, order, limit);
+    }
+
+    /**
+     * Returns a query that returns at most {@code limit} entities.
+     */
+    public Query<T> limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative.");
+        }
+        return new Query<>(conditions, orderBy, order, limit);
+    }
+
+    /**
+     * Evaluates the query against a stream of candidate entities.
+     *
+     * @param entities the candidates.
+     * @return the matching entities, ordered and limited as the query specifies.
+     */
+    public List<T> apply(Stream<T> entities) {
+        Stream<T> matching = entities.filter(this::matches);
+        if (orderBy != null) {
+            matching = matching.sorted(comparator());
+        }
+        if (limit != NO_LIMIT) {
+            matching = matching.limit(limit);
+        }
+        return matching.collect(Collectors.toList());
+    }
+
+    /**
+     * Checks whether all conditions of the query hold for an entity.
+     */
+    public boolean matches(T entity) {
+        for (Condition<T> condition : conditions) {
+            if (!condition.test(entity)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Restricts the entities of a map keyed by ID to the ID range the query allows.
+     */
+    <V> NavigableMap<Integer, V> narrow(NavigableMap<Integer, V> byId) {
+        long[] range = idRange();
+        if (range == null) {
+            return byId;
+        }
+        if (range[0] > range[1]) {
+            return Collections.emptyNavigableMap();
+        }
+        return byId.subMap((int) range[0], true, (int) range[1], true);
+    }
+
+    /**
+     * Restricts a sorted set of IDs to the ID range the query allows.
+     */
+    NavigableSet<Integer> narrow(NavigableSet<Integer> ids) {
+        long[] range = idRange();
+        if (range == null) {
+            return ids;
+        }
+        if (range[0] > range[1]) {
+            return Collections.emptyNavigableSet();
+        }
+        return ids.subSet((int) range[0], true, (int) range[1], true);
+    }
+
+    /**
+     * Returns the single ID the query allows, or {@code null} if it allows none or several.
+     */
+    Integer singleId() {
+        long[] range = idRange();
+        return range != null && range[0] == range[1] ? (int) range[0] : null;
+    }
+
+    /**
+     * Compiles the query into SQL selecting from {@code source}. The statement's parameters are bound by
+     * {@link #bind(PreparedStatement)}.
+     */
+    String toSql(String source) {
+        StringBuilder sql = new StringBuilder("SELECT * FROM ").append(source);
+        for (int i = 0; i < conditions.size(); i++) {
+            sql.append(i == 0 ? " WHERE " : " AND ").append(conditions.get(i).toSql());
+        }
+        if (orderBy != null) {
+            sql.append(" ORDER BY ").append(orderBy.getColumn())
+                    .append(order == SortOrder.ASCENDING ? " ASC" : " DESC");
+        }
+        if (limit != NO_LIMIT) {
+            sql.append(" LIMIT ?");
+        }
+        return sql.toString();
+    }
+
+    void bind(PreparedStatement stmt) throws SQLException {
+        int index = 1;
+        for (Condition<T> condition : conditions) {
+            index = condition.bind(stmt, index);
+        }
+        if (limit != NO_LIMIT) {
+            stmt.setInt(index, limit);
+        }
+    }
+
+    /**
+     * Computes the inclusive range of IDs allowed by the conditions on the {@code id} column,
+     * or returns {@code null} if there are no such conditions. The range is empty if its low end is above its high end.
+     */
+    long[] idRange() {
+        long low = Long.MIN_VALUE;
+        long high = Long.MAX_VALUE;
+        boolean restricted = false;
+        for (Condition<T> condition : conditions) {
+            if (!condition.field.getColumn().equals("id") || !(condition.value instanceof Integer)) {
+                continue;
+            }
+            restricted = true;
+            long value = (Integer) condition.value;
+            switch (condition.operator) {
+                case EQ:
+                    low = Math.max(low, value);
+                    high = Math.min(high, value);
+                    break;
+                case LT:
+                    high = Math.min(high, value - 1);
+                    break;
+                case LE:
+                    high = Math.min(high, value);
+                    break;
+                case GT:
+                    low = Math.max(low, value + 1);
+                    break;
+                case GE:
+                    low = Math.max(low, value);
+                    break;
+                default:
+                    low = Math.max(low, value);
+                    high = Math.min(high, (Integer) condition.high);
+                    break;
+            }
+        }
+        if (!restricted) {
+            return null;
+        }
+        return new long[]{Math.max(low, Integer.MIN_VALUE), Math.min(high, Integer.MAX_VALUE)};
+    }
+
+    @SuppressWarnings("unchecked")
+    private Comparator<T> comparator() {
+        Field<T, Comparable<Object>> field = (Field<T, Comparable<Object>>) orderBy;
+        Comparator<T> comparator = Comparator.comparing(field::valueOf, Comparator.nullsLast(Comparator.naturalOrder()));
+        return order == SortOrder.ASCENDING ? comparator : comparator.reversed();
+    }
+}
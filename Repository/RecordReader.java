@@ -0,0 +1,169 @@
+package Repository;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+
+/**
+ * Reads the fields of binary records written by a {@link RecordWriter} from a {@link ByteBuffer}.
+ * The fields must be read in the order they were written. Reading past the end of the record fails with an
+ * {@link IllegalArgumentException}.
+ */
+public class RecordReader {
+    private final ByteBuffer buffer;
+
+    /**
+     * Constructs a RecordReader over the remaining bytes of a buffer.
+     *
+     * @param buffer the buffer holding the records; its position advances as fields are read.
+     */
+    public RecordReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Reads a field written by {@link RecordWriter#writeInt(int)}.
+     */
+    public int readInt() {
+        long zigzag = readUnsignedVarLong();
+        return (int) (zigzag >>> 1) ^ -(int) (zigzag & 1);
+    }
+
+    /**
+     * Reads a field written by {@link RecordWriter#writeLong(long)}.
+     */
+    public long readLong() {
+        long zigzag = readUnsignedVarLong();
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    /**
+     * Reads a field written by {@link RecordWriter#writeDouble(double)}.
+     */
+    public double readDouble() {
+        try {
+            return buffer.getDouble();
+        } catch (BufferUnderflowException e) {
+            throw truncated(e);
+        }
+    }
+
+    /**
+     * Reads a field written by {@link RecordWriter#writeBoolean(boolean)}.
+     */
+    public boolean readBoolean() {
+        try {
+            return buffer.get() != 0;
+        } catch (BufferUnderflowException e) {
+            throw truncated(e);
+        }
+    }
+
+    /**
+     * Reads a field written by {@link RecordWriter#writeString(String)}.
+     */
+    public String readString() {
+        long lengthPlusOne = readUnsignedVarLong();
+        if (lengthPlusOne == 0) {
+            return null;
+        }
+        int length = Math.toIntExact(lengthPlusOne - 1);
+        if (length > buffer.remaining()) {
+            throw truncated(null);
+        }
+        String value;
+        if (buffer.hasArray()) {
+            value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length, StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buffer.get(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return value;
+    }
+
+    /**
+     * Reads a field written by {@link RecordWriter#writeEnum(Enum)}.
+     */
+    public <E extends Enum<E>> E readEnum(Class<E> type) {
+        String name = readString();
+        return name == null ? null : Enum.valueOf(type, name);
+    }
+
+    /**
+     * Reads a field written by {@link RecordWriter#writeDate(LocalDate)}.
+     */
+    public LocalDate readDate() {
+        return LocalDate.ofEpochDay(readLong());
+    }
+
+    /**
+     * Reads a field written by {@link RecordWriter#writeTime(LocalTime)}.
+     */
+    public LocalTime readTime() {
+        return LocalTime.ofNanoOfDay(readLong());
+    }
+
+    /**
+     * Reads a field written by {@link RecordWriter#writeDateTime(LocalDateTime)}.
+     */
+    public LocalDateTime readDateTime() {
+        long epochSecond = readLong();
+        int nano = readInt();
+        return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+    }
+
+    /**
+     * Reads a nested record written by {@link RecordWriter#writeRecord(BinaryParser, Object)}.
+     */
+    public <E> E readRecord(BinaryParser<E> parser) {
+        return parser.read(nextRecord());
+    }
+
+    /**
+     * Skips over a nested record and returns a reader over just its bytes, so that it can be decoded later,
+     * or not at all.
+     */
+    public RecordReader nextRecord() {
+        int length = Math.toIntExact(readUnsignedVarLong());
+        if (length > buffer.remaining()) {
+            throw truncated(null);
+        }
+        ByteBuffer record = buffer.slice();
+        record.limit(length);
+        buffer.position(buffer.position() + length);
+        return new RecordReader(record);
+    }
+
+    /**
+     * Checks whether any bytes are left to read.
+     */
+    public boolean hasRemaining() {
+        return buffer.hasRemaining();
+    }
+
+    private long readUnsignedVarLong() {
+        long value = 0;
+        try {
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buffer.get();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+        } catch (BufferUnderflowException e) {
+            throw truncated(e);
+        }
+        throw new IllegalArgumentException("Malformed varint in binary record.");
+    }
+
+    private static IllegalArgumentException truncated(Throwable cause) {
+        return new IllegalArgumentException("Binary record ends before all of its fields were read.", cause);
+    }
+}
@@ -0,0 +1,165 @@
+package Repository;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+
+/**
+ * Writes the fields of binary records into a growable {@link ByteBuffer}.
+ * Integers are written as zigzag varints, so small IDs and counts take one or two bytes; strings are written as
+ * their UTF-8 bytes prefixed with their length; timestamps are written as offsets from the epoch, in UTC.
+ * Nested records, such as an entity embedded in another, are prefixed with their length so that a reader can
+ * skip them without decoding them. Every field has a matching method in {@link RecordReader}.
+ */
+public class RecordWriter {
+    private static final int INITIAL_CAPACITY = 256;
+
+    private ByteBuffer buffer = ByteBuffer.allocate(INITIAL_CAPACITY);
+
+    /**
+     * Writes an int as a zigzag varint.
+     */
+    public void writeInt(int value) {
+        writeUnsignedVarLong(Integer.toUnsignedLong((value << 1) ^ (value >> 31)));
+    }
+
+    /**
+     * Writes a long as a zigzag varint.
+     */
+    public void writeLong(long value) {
+        writeUnsignedVarLong((value << 1) ^ (value >> 63));
+    }
+
+    /**
+     * Writes a double as its eight IEEE 754 bytes.
+     */
+    public void writeDouble(double value) {
+        ensureRemaining(Double.BYTES);
+        buffer.putDouble(value);
+    }
+
+    /**
+     * Writes a boolean as a single byte.
+     */
+    public void writeBoolean(boolean value) {
+        ensureRemaining(1);
+        buffer.put((byte) (value ? 1 : 0));
+    }
+
+    /**
+     * Writes a string, which may be {@code null}, as its length plus one followed by its UTF-8 bytes.
+     */
+    public void writeString(String value) {
+        if (value == null) {
+            writeUnsignedVarLong(0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeUnsignedVarLong(bytes.length + 1L);
+        writeBytes(bytes);
+    }
+
+    /**
+     * Writes an enum constant by name, so that reordering the constants does not change its meaning.
+     */
+    public void writeEnum(Enum<?> value) {
+        writeString(value == null ? null : value.name());
+    }
+
+    /**
+     * Writes a date as its day count from the epoch.
+     */
+    public void writeDate(LocalDate value) {
+        writeLong(value.toEpochDay());
+    }
+
+    /**
+     * Writes a time of day as its nanosecond of the day.
+     */
+    public void writeTime(LocalTime value) {
+        writeLong(value.toNanoOfDay());
+    }
+
+    /**
+     * Writes a date-time as its second from the epoch, in UTC, followed by its nanosecond.
+     */
+    public void writeDateTime(LocalDateTime value) {
+        writeLong(value.toEpochSecond(ZoneOffset.UTC));
+        writeInt(value.getNano());
+    }
+
+    /**
+     * Writes an entity as a nested record, prefixed with its length.
+     */
+    public <E> void writeRecord(BinaryParser<? super E> parser, E entity) {
+        // The length is not known up front, so room for the longest varint is reserved and the record is
+        // moved back over the unused part once it has been written.
+        ensureRemaining(5);
+        int lengthPosition = buffer.position();
+        buffer.position(lengthPosition + 5);
+        parser.write(this, entity);
+        int end = buffer.position();
+        int length = end - lengthPosition - 5;
+
+        buffer.position(lengthPosition);
+        writeUnsignedVarLong(length);
+        int start = buffer.position();
+        byte[] array = buffer.array();
+        System.arraycopy(array, lengthPosition + 5, array, start, length);
+        buffer.position(start + length);
+    }
+
+    /**
+     * Returns the number of bytes written since the writer was created or last drained.
+     */
+    public int size() {
+        return buffer.position();
+    }
+
+    /**
+     * Writes everything written so far to a channel and empties the writer.
+     *
+     * @param channel the channel to write to.
+     * @throws IOException if the channel cannot be written.
+     */
+    public void drainTo(WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    void writeBytes(byte[] bytes) {
+        ensureRemaining(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private void writeUnsignedVarLong(long value) {
+        ensureRemaining(10);
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private void ensureRemaining(int bytes) {
+        if (buffer.remaining() >= bytes) {
+            return;
+        }
+        int capacity = buffer.capacity();
+        while (capacity - buffer.position() < bytes) {
+            capacity *= 2;
+        }
+        ByteBuffer grown = ByteBuffer.allocate(capacity);
+        buffer.flip();
+        grown.put(buffer);
+        buffer = grown;
+    }
+}
@@ -59,6 +59,46 @@ public interface SQLParser<T> {
      */
     T parseFromResultSet(ResultSet rs) throws SQLException;
 
+    /**
+     * Parses an entity whose columns appear in the ResultSet under prefixed names (e.g. {@code s_id}),
+     * as they do when the entity is joined into the result of another entity's query.
+     * The default implementation only supports the empty prefix.
+     *
+     * @param rs     the ResultSet containing the entity's data.
+     * @param prefix the prefix of the entity's column names.
+     * @return the parsed entity.
+     * @throws SQLException if the operation fails.
+     */
+    default T parseFromResultSet(ResultSet rs, String prefix) throws SQLException {
+        if (!prefix.isEmpty()) {
+            throw new SQLException(getClass().getSimpleName() + " does not support prefixed columns.");
+        }
+        return parseFromResultSet(rs);
+    }
+
+    /**
+     * Provides the relation that entities are selected from. The default implementation selects from the
+     * table itself; parsers of entities that reference other entities return a derived table that joins the
+     * referenced tables, so an entity and everything it references are read in a single query.
+     * The relation is named after the table and exposes the table's own columns unchanged.
+     *
+     * @param tableName the name of the table storing entities.
+     * @return the relation to use in the FROM clause.
+     */
+    default String getSelectSource(String tableName) {
+        return tableName;
+    }
+
+    /**
+     * Retrieves the names of all columns of the relation returned by {@link #getSelectSource(String)},
+     * including the prefixed columns of joined entities.
+     *
+     * @return a comma-separated list of column names.
+     */
+    default String getSelectColumns() {
+        return getColumns();
+    }
+
     int getUpdateParametersCount();
 }
 
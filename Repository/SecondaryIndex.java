@@ -0,0 +1,141 @@
+package Repository;
+
+import Exception.EntityAlreadyExistsException;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * An index from the values of one {@link Field} to the IDs of the entities that have them.
+ * The index remembers the key under which it stored each ID, so an entity that was modified in place before
+ * being passed to {@link #insert(Identifiable)} is still moved out of its old key. Not thread-safe; the
+ * repository owning the index serializes access through {@link Indexes}.
+ *
+ * @param <T> the type of the indexed entities.
+ */
+final class SecondaryIndex<T extends Identifiable> {
+    private final Field<T, ?> field;
+    private final IndexType type;
+    private final boolean unique;
+    private final Map<Object, NavigableSet<Integer>> idsByKey;
+    private final Map<Integer, Object> keyById = new HashMap<>();
+
+    SecondaryIndex(Field<T, ?> field, IndexType type, boolean unique) {
+        this.field = field;
+        this.type = type;
+        this.unique = unique;
+        this.idsByKey = type == IndexType.SORTED ? new TreeMap<>() : new HashMap<>();
+    }
+
+    Field<T, ?> getField() {
+        return field;
+    }
+
+    boolean isUnique() {
+        return unique;
+    }
+
+    /**
+     * Checks that storing the entity would not give its key to a second entity, when the index is unique.
+     *
+     * @param entity  the entity about to be stored.
+     * @param exclude the IDs whose entities are being replaced together with this one, and so may give up
+     *                their key; the entity's own ID is always excluded.
+     * @throws EntityAlreadyExistsException if another entity already has the entity's key.
+     */
+    void checkUnique(T entity, Collection<Integer> exclude) {
+        if (!unique) {
+            return;
+        }
+        Object key = field.valueOf(entity);
+        Set<Integer> ids = key == null ? null : idsByKey.get(key);
+        if (ids == null) {
+            return;
+        }
+        for (int id : ids) {
+            if (id != entity.getId() && !exclude.contains(id)) {
+                throw new EntityAlreadyExistsException(
+                        "An entity with " + field.getColumn() + " " + key + " already exists.");
+            }
+        }
+    }
+
+    /**
+     * Stores the entity under its current key, moving it out of the key it was stored under before.
+     */
+    void insert(T entity) {
+        remove(entity.getId());
+        Object key = field.valueOf(entity);
+        if (key != null) {
+            idsByKey.computeIfAbsent(key, k -> new TreeSet<>()).add(entity.getId());
+            keyById.put(entity.getId(), key);
+        }
+    }
+
+    void remove(int id) {
+        Object key = keyById.remove(id);
+        if (key == null) {
+            return;
+        }
+        Set<Integer> ids = idsByKey.get(key);
+        ids.remove(id);
+        if (ids.isEmpty()) {
+            idsByKey.remove(key);
+        }
+    }
+
+    void clear() {
+        idsByKey.clear();
+        keyById.clear();
+    }
+
+    /**
+     * Looks up the IDs of the entities that may satisfy a condition on the indexed field.
+     *
+     * @return the IDs in ascending order, or {@code null} if the index cannot serve the condition.
+     */
+    @SuppressWarnings("unchecked")
+    NavigableSet<Integer> lookup(Query.Condition<T> condition) {
+        Object value = condition.getValue();
+        if (condition.getOperator() == Query.Operator.EQ) {
+            NavigableSet<Integer> ids = idsByKey.get(value);
+            return ids == null ? new TreeSet<>() : new TreeSet<>(ids);
+        }
+        if (type != IndexType.SORTED) {
+            return null;
+        }
+        NavigableMap<Object, NavigableSet<Integer>> sorted = (NavigableMap<Object, NavigableSet<Integer>>) idsByKey;
+        NavigableMap<Object, NavigableSet<Integer>> range;
+        switch (condition.getOperator()) {
+            case LT:
+                range = sorted.headMap(value, false);
+                break;
+            case LE:
+                range = sorted.headMap(value, true);
+                break;
+            case GT:
+                range = sorted.tailMap(value, false);
+                break;
+            case GE:
+                range = sorted.tailMap(value, true);
+                break;
+            default:
+                if (((Comparable<Object>) value).compareTo(condition.getHigh()) > 0) {
+                    return new TreeSet<>();
+                }
+                range = sorted.subMap(value, true, condition.getHigh(), true);
+                break;
+        }
+        NavigableSet<Integer> ids = new TreeSet<>();
+        for (Set<Integer> idsForKey : range.values()) {
+            ids.addAll(idsForKey);
+        }
+        return ids;
+    }
+}
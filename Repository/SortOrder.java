@@ -0,0 +1,16 @@
+package Repository;
+
+/**
+ * Enum representing the direction in which a page of entities is ordered by ID.
+ */
+public enum SortOrder {
+    /**
+     * Lowest ID first; the next page continues with IDs greater than the last one seen.
+     */
+    ASCENDING,
+
+    /**
+     * Highest ID first; the next page continues with IDs less than the last one seen.
+     */
+    DESCENDING
+}
@@ -0,0 +1,79 @@
+package Repository;
+
+import java.util.Arrays;
+
+/**
+ * A sorted set of primitive {@code int}s kept in a single array, so that keyset pages over primitive keys can be
+ * found by binary search without boxing the keys or allocating a node per key.
+ * Adding a key larger than all others, as with generated IDs, appends it; adding or removing any other key
+ * shifts the keys after it, which costs time proportional to their number.
+ * Not thread-safe; callers must synchronize access.
+ */
+class SortedIntArray {
+    private int[] keys = new int[16];
+    private int size;
+
+    /**
+     * Returns the number of keys.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the key at the given position in ascending order.
+     */
+    int get(int index) {
+        return keys[index];
+    }
+
+    /**
+     * Adds the key if it is not present yet.
+     */
+    void add(int key) {
+        if (size > 0 && keys[size - 1] < key) {
+            insertAt(size, key);
+            return;
+        }
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index < 0) {
+            insertAt(-index - 1, key);
+        }
+    }
+
+    /**
+     * Removes the key if it is present.
+     */
+    void remove(int key) {
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        if (index >= 0) {
+            System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+            size--;
+        }
+    }
+
+    /**
+     * Returns the position of the first key greater than {@code key}, or {@link #size()} if there is none.
+     */
+    int indexAbove(int key) {
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    /**
+     * Returns the position of the first key greater than or equal to {@code key}, or {@link #size()} if there is none.
+     */
+    int indexAtLeast(int key) {
+        int index = Arrays.binarySearch(keys, 0, size, key);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private void insertAt(int index, int key) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        keys[index] = key;
+        size++;
+    }
+}
@@ -0,0 +1,79 @@
+package Repository;
+
+import Exception.FileRepositoryException;
+
+/**
+ * The thread that has a transaction open on a {@link Transactional} store. While a transaction is open, the
+ * other threads wait before they touch the store, so the transaction only ever holds back the writes of the
+ * thread that began it, and no other thread sees them before they are committed.
+ * Every method must be called holding the monitor of the store, on which the waiting threads wait.
+ */
+final class TransactionOwner {
+    private final Object store;
+    private final String description;
+    private Thread owner;
+
+    /**
+     * Constructs a TransactionOwner.
+     *
+     * @param store       the store, whose monitor guards the transaction.
+     * @param description what the store is, for error messages.
+     */
+    TransactionOwner(Object store, String description) {
+        this.store = store;
+        this.description = description;
+    }
+
+    /**
+     * Waits until no other thread has a transaction open on the store.
+     *
+     * @throws FileRepositoryException if the thread is interrupted while waiting.
+     */
+    void awaitOthers() {
+        Thread current = Thread.currentThread();
+        while (owner != null && owner != current) {
+            try {
+                store.wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new FileRepositoryException("Interrupted while waiting for a transaction on " + description, e);
+            }
+        }
+    }
+
+    /**
+     * Opens a transaction for the current thread, once no other thread has one open.
+     *
+     * @throws IllegalStateException if the current thread already has a transaction open on the store.
+     */
+    void begin() {
+        awaitOthers();
+        if (owner != null) {
+            throw new IllegalStateException("A transaction is already in progress on " + description);
+        }
+        owner = Thread.currentThread();
+    }
+
+    /**
+     * Checks whether a transaction is open. After {@link #awaitOthers()}, it can only be the current thread's.
+     *
+     * @return {@code true} if a transaction is open.
+     */
+    boolean isOpen() {
+        return owner != null;
+    }
+
+    /**
+     * Ends the current thread's transaction and wakes the threads waiting for it.
+     *
+     * @return {@code true} if the current thread had a transaction open; otherwise nothing is ended.
+     */
+    boolean end() {
+        if (owner != Thread.currentThread()) {
+            return false;
+        }
+        owner = null;
+        store.notifyAll();
+        return true;
+    }
+}
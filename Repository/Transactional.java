@@ -0,0 +1,29 @@
+package Repository;
+
+/**
+ * A store whose writes can be grouped into a transaction by a {@link UnitOfWork}.
+ * Between {@link #begin()} and {@link #commit()} or {@link #rollback()}, the writes of the thread that began the
+ * transaction are held back, and they become durable together when the transaction commits. A transaction
+ * belongs to that thread: a store that keeps its state in memory lets no other thread use it while the
+ * transaction is open, so other threads, including one that begins a transaction of its own, wait until it ends.
+ * Units of work that share such stores should therefore list them in the same order.
+ */
+public interface Transactional {
+
+    /**
+     * Starts holding back the writes of the current thread.
+     *
+     * @throws IllegalStateException if the current thread already has a transaction open on the store.
+     */
+    void begin();
+
+    /**
+     * Makes the writes held back since {@link #begin()} durable, in as few I/O operations as the store allows.
+     */
+    void commit();
+
+    /**
+     * Discards the writes held back since {@link #begin()}.
+     */
+    void rollback();
+}
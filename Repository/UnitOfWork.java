@@ -0,0 +1,219 @@
+package Repository;
+
+import Exception.FileRepositoryException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Runs a piece of work that writes to several repositories as one transaction over their stores.
+ * Every participant is begun before the work runs; if the work completes, the participants are committed in
+ * order, and if it throws, or a commit fails, the participants not yet committed are rolled back.
+ * With a single participant, such as a {@link JdbcTransaction} shared by all database repositories, the work
+ * is atomic. With several, each participant commits atomically, but a failure while committing one cannot
+ * undo the participants committed before it, unless the unit of work has a journal.
+ *
+ * A unit of work with a journal, over {@link Journaled} stores, commits them as one. Before committing any of
+ * them, it writes the records of all of their writes to the journal as one entry, and syncs it; the work is
+ * committed once the entry is on disk. If a participant's commit then fails, its records are redone from the
+ * entry, and the journal is only emptied once every participant has its records. Constructing
+ * the unit of work redoes an entry left in the journal by a run that failed or died while committing, so the
+ * stores are never left with only part of the work.
+ *
+ * A unit of work started while another one is running on the same thread joins the outer one, so a service
+ * method that uses a unit of work can be called from within another.
+ *
+ * The work runs with an {@link IdentityMap}, so that reading the same entity twice during it, through any
+ * repository that hydrates entities, returns the same instance.
+ */
+public final class UnitOfWork {
+    private static final ThreadLocal<UnitOfWork> CURRENT = new ThreadLocal<>();
+    /**
+     * Starts the records of one store in a journal entry; records start with {@code +} or {@code -}.
+     */
+    private static final String STORE = "=";
+
+    private final List<Transactional> participants;
+    private final WriteAheadLog journal;
+
+    /**
+     * Constructs a UnitOfWork.
+     *
+     * @param participants the stores written by the work; none if the repositories are not transactional,
+     *                     in which case the work simply runs.
+     */
+    public UnitOfWork(Transactional... participants) {
+        this.participants = List.of(participants);
+        this.journal = null;
+    }
+
+    /**
+     * Constructs a UnitOfWork that commits its stores as one through a journal, and redoes the entry a previous
+     * run left in the journal, if any.
+     *
+     * @param journal      the journal, which only this unit of work may use.
+     * @param participants the stores written by the work, with distinct {@link Journaled#journalName()}s.
+     * @throws FileRepositoryException if the journal names a store that is not a participant.
+     */
+    public UnitOfWork(WriteAheadLog journal, Journaled... participants) {
+        this.participants = List.of(participants);
+        this.journal = journal;
+        recover();
+    }
+
+    /**
+     * Runs the work as one transaction.
+     *
+     * @param work the work.
+     */
+    public void run(Runnable work) {
+        execute(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the work as one transaction and returns its result.
+     *
+     * @param work the work.
+     * @param <R>  the type of the result.
+     * @return the result of the work.
+     */
+    public <R> R execute(Supplier<R> work) {
+        if (CURRENT.get() != null) {
+            return work.get();
+        }
+        List<Transactional> begun = new ArrayList<>(participants.size());
+        CURRENT.set(this);
+        IdentityMap.Scope identities = IdentityMap.open();
+        try {
+            for (Transactional participant : participants) {
+                participant.begin();
+                begun.add(participant);
+            }
+            R result = work.get();
+            if (journal != null) {
+                commitJournaled(begun);
+            }
+            while (!begun.isEmpty()) {
+                // A participant whose commit fails ends its own transaction, so it is not rolled back here.
+                begun.remove(0).commit();
+            }
+            return result;
+        } catch (RuntimeException | Error e) {
+            for (Transactional participant : begun) {
+                try {
+                    participant.rollback();
+                } catch (RuntimeException rollbackFailure) {
+                    e.addSuppressed(rollbackFailure);
+                }
+            }
+            throw e;
+        } finally {
+            identities.close();
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Journals the writes of the participants and commits them. Until the entry is on disk, a failure leaves
+     * the participants to be rolled back; from then on, the work is committed, and a participant whose commit
+     * fails has its records redone. Units of work on several threads commit one at a time, so that emptying the
+     * journal never drops another one's entry.
+     *
+     * @param begun the participants, which are all committed on return.
+     * @throws FileRepositoryException if the records of a participant could not be redone either; the entry is
+     *                                 kept, to be redone when the unit of work is next constructed.
+     */
+    private void commitJournaled(List<Transactional> begun) {
+        synchronized (journal) {
+            Map<Journaled, List<String>> prepared = new LinkedHashMap<>();
+            for (Transactional participant : begun) {
+                Journaled store = (Journaled) participant;
+                List<String> records = store.prepare();
+                if (!records.isEmpty()) {
+                    prepared.put(store, records);
+                }
+            }
+            if (prepared.isEmpty()) {
+                return;
+            }
+            StringBuilder entry = new StringBuilder();
+            for (Map.Entry<Journaled, List<String>> records : prepared.entrySet()) {
+                entry.append(STORE).append(records.getKey().journalName()).append('\n');
+                for (String record : records.getValue()) {
+                    entry.append(record).append('\n');
+                }
+            }
+            try {
+                journal.sync(journal.append(List.of(entry.toString())));
+            } catch (RuntimeException e) {
+                // The entry stays buffered in the journal, and must not be written with a later one.
+                try {
+                    journal.reset();
+                } catch (RuntimeException resetFailure) {
+                    e.addSuppressed(resetFailure);
+                }
+                throw e;
+            }
+
+            RuntimeException failure = null;
+            while (!begun.isEmpty()) {
+                Journaled store = (Journaled) begun.remove(0);
+                try {
+                    store.commit();
+                } catch (RuntimeException e) {
+                    try {
+                        store.redo(prepared.getOrDefault(store, List.of()));
+                    } catch (RuntimeException redoFailure) {
+                        redoFailure.addSuppressed(e);
+                        failure = failure == null ? redoFailure : failure;
+                    }
+                }
+            }
+            if (failure != null) {
+                throw new FileRepositoryException("The work is committed, but not every store could be written;"
+                        + " it is redone from the journal when the stores are next opened.", failure);
+            }
+            journal.reset();
+        }
+    }
+
+    /**
+     * Redoes the entries left in the journal, in order, and empties it.
+     */
+    private void recover() {
+        Map<String, Journaled> stores = new LinkedHashMap<>();
+        for (Transactional participant : participants) {
+            Journaled store = (Journaled) participant;
+            stores.put(store.journalName(), store);
+        }
+        Map<Journaled, List<String>> records = new LinkedHashMap<>();
+        for (String entry : journal.replay()) {
+            List<String> current = null;
+            for (String line : entry.split("\n")) {
+                if (line.startsWith(STORE)) {
+                    Journaled store = stores.get(line.substring(STORE.length()));
+                    if (store == null) {
+                        throw new FileRepositoryException("The journal names a store that is not part of the unit of"
+                                + " work: " + line.substring(STORE.length()));
+                    }
+                    current = records.computeIfAbsent(store, key -> new ArrayList<>());
+                } else if (!line.isEmpty() && current != null) {
+                    current.add(line);
+                }
+            }
+        }
+        if (records.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<Journaled, List<String>> redo : records.entrySet()) {
+            redo.getKey().redo(redo.getValue());
+        }
+        journal.reset();
+    }
+}
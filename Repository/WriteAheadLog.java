@@ -0,0 +1,271 @@
+package Repository;
+
+import Exception.FileRepositoryException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log of text records that are made durable with {@code fsync} before a writer continues.
+ * Each record is framed by its length and a CRC-32 of its bytes, so that a record torn by a crash is detected
+ * and cut off when the log is replayed.
+ *
+ * Appending only buffers a record in memory and hands out its sequence number; {@link #sync(long)} then waits
+ * until the record is on disk. Writers that sync at the same time share one write and one {@code fsync}
+ * (group commit): the first becomes the leader and writes everything buffered so far, while the others wait
+ * for it, and records appended during that {@code fsync} go out together in the next one. A commit interval
+ * makes the leader wait before writing, so that more writers join each group at the cost of latency.
+ */
+public class WriteAheadLog implements AutoCloseable {
+    private static final int HEADER_SIZE = 8;
+
+    private final Path path;
+    private final long commitIntervalNanos;
+    private final FileChannel channel;
+    private List<byte[]> buffer = new ArrayList<>();
+    private long appendedSequence;
+    private long durableSequence;
+    private boolean flushing;
+    private int recordCount;
+
+    /**
+     * Opens the log, creating the file if it does not exist.
+     *
+     * @param path                 the log file.
+     * @param commitIntervalMillis how long a group commit waits for more records before it writes, in
+     *                             milliseconds; 0 writes as soon as the previous {@code fsync} is done.
+     */
+    public WriteAheadLog(Path path, long commitIntervalMillis) {
+        this.path = path;
+        this.commitIntervalNanos = TimeUnit.MILLISECONDS.toNanos(commitIntervalMillis);
+        try {
+            this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new FileRepositoryException("Failed to open write-ahead log: " + path, e);
+        }
+    }
+
+    /**
+     * Buffers records to be written in order with the next group commit.
+     *
+     * @param records the records.
+     * @return the sequence number of the last record, to pass to {@link #sync(long)}.
+     */
+    public synchronized long append(List<String> records) {
+        for (String record : records) {
+            buffer.add(record.getBytes(StandardCharsets.UTF_8));
+        }
+        appendedSequence += records.size();
+        recordCount += records.size();
+        return appendedSequence;
+    }
+
+    /**
+     * Waits until the record with the given sequence number, and every record before it, is on disk.
+     *
+     * @param sequence the sequence number returned by {@link #append(List)}.
+     * @throws FileRepositoryException if the records cannot be written; they stay buffered for the next attempt.
+     */
+    public void sync(long sequence) {
+        synchronized (this) {
+            while (durableSequence < sequence && flushing) {
+                awaitFlush();
+            }
+            if (durableSequence >= sequence) {
+                return;
+            }
+            flushing = true;
+        }
+
+        if (commitIntervalNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(commitIntervalNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        List<byte[]> batch;
+        long batchSequence;
+        synchronized (this) {
+            batch = buffer;
+            batchSequence = appendedSequence;
+            buffer = new ArrayList<>();
+        }
+
+        boolean written = false;
+        try {
+            write(batch);
+            written = true;
+        } finally {
+            synchronized (this) {
+                if (written) {
+                    durableSequence = Math.max(durableSequence, batchSequence);
+                } else {
+                    buffer.addAll(0, batch);
+                }
+                flushing = false;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Makes every buffered record durable, then reads all intact records in the log, in order.
+     * A torn or corrupt record, as left by a crash during a write, ends the log: it and anything after it are
+     * truncated.
+     *
+     * @return the records.
+     */
+    public List<String> replay() {
+        sync(currentSequence());
+        synchronized (this) {
+            while (flushing) {
+                awaitFlush();
+            }
+            try {
+                List<String> records = new ArrayList<>();
+                long size = channel.size();
+                long position = 0;
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                CRC32 crc = new CRC32();
+                while (position + HEADER_SIZE <= size) {
+                    header.clear();
+                    readFully(header, position);
+                    header.flip();
+                    int length = header.getInt();
+                    int checksum = header.getInt();
+                    if (length < 0 || position + HEADER_SIZE + length > size) {
+                        break;
+                    }
+                    ByteBuffer payload = ByteBuffer.allocate(length);
+                    readFully(payload, position + HEADER_SIZE);
+                    crc.reset();
+                    crc.update(payload.array());
+                    if ((int) crc.getValue() != checksum) {
+                        break;
+                    }
+                    records.add(new String(payload.array(), StandardCharsets.UTF_8));
+                    position += HEADER_SIZE + length;
+                }
+                if (position < size) {
+                    channel.truncate(position);
+                    channel.force(true);
+                }
+                recordCount = records.size();
+                return records;
+            } catch (IOException e) {
+                throw new FileRepositoryException("Failed to read write-ahead log: " + path, e);
+            }
+        }
+    }
+
+    /**
+     * Empties the log once its records have been checkpointed into a durable copy of the data. Buffered
+     * records are dropped and every appended record counts as durable from now on.
+     */
+    public synchronized void reset() {
+        while (flushing) {
+            awaitFlush();
+        }
+        try {
+            channel.truncate(0);
+            channel.force(true);
+        } catch (IOException e) {
+            throw new FileRepositoryException("Failed to truncate write-ahead log: " + path, e);
+        }
+        buffer.clear();
+        durableSequence = appendedSequence;
+        recordCount = 0;
+        notifyAll();
+    }
+
+    /**
+     * Retrieves the number of records in the log, buffered or on disk, since it was last replayed or reset.
+     */
+    public synchronized int size() {
+        return recordCount;
+    }
+
+    /**
+     * Makes every buffered record durable and closes the log file.
+     */
+    @Override
+    public void close() {
+        sync(currentSequence());
+        synchronized (this) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                throw new FileRepositoryException("Failed to close write-ahead log: " + path, e);
+            }
+        }
+    }
+
+    private synchronized long currentSequence() {
+        return appendedSequence;
+    }
+
+    private void write(List<byte[]> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        int size = 0;
+        for (byte[] record : batch) {
+            size += HEADER_SIZE + record.length;
+        }
+        ByteBuffer frames = ByteBuffer.allocate(size);
+        CRC32 crc = new CRC32();
+        for (byte[] record : batch) {
+            crc.reset();
+            crc.update(record);
+            frames.putInt(record.length).putInt((int) crc.getValue()).put(record);
+        }
+        frames.flip();
+
+        long start = -1;
+        try {
+            start = channel.size();
+            long position = start;
+            while (frames.hasRemaining()) {
+                position += channel.write(frames, position);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            try {
+                if (start >= 0) {
+                    channel.truncate(start);
+                }
+            } catch (IOException ignored) {
+                // Replay cuts off a partially written record anyway.
+            }
+            throw new FileRepositoryException("Failed to sync write-ahead log: " + path, e);
+        }
+    }
+
+    private void readFully(ByteBuffer target, long position) throws IOException {
+        while (target.hasRemaining()) {
+            if (channel.read(target, position + target.position()) < 0) {
+                throw new IOException("Unexpected end of write-ahead log: " + path);
+            }
+        }
+    }
+
+    private void awaitFlush() {
+        try {
+            wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FileRepositoryException("Interrupted while waiting for write-ahead log: " + path, e);
+        }
+    }
+}
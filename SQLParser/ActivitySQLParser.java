@@ -51,13 +51,18 @@ public class ActivitySQLParser implements SQLParser<Activity> {
 
     @Override
     public Activity parseFromResultSet(ResultSet rs) throws SQLException {
-        int id = rs.getInt("id");
-        String name = rs.getString("name");
-        int capacity = rs.getInt("capacity");
-        String location = rs.getString("location");
-        EventType category = EventType.valueOf(rs.getString("category"));
-        String description = rs.getString("description");
-        double price = rs.getDouble("price");
+        return parseFromResultSet(rs, "");
+    }
+
+    @Override
+    public Activity parseFromResultSet(ResultSet rs, String prefix) throws SQLException {
+        int id = rs.getInt(prefix + "id");
+        String name = rs.getString(prefix + "name");
+        int capacity = rs.getInt(prefix + "capacity");
+        String location = rs.getString(prefix + "location");
+        EventType category = EventType.valueOf(rs.getString(prefix + "category"));
+        String description = rs.getString(prefix + "description");
+        double price = rs.getDouble(prefix + "price");
 
         return new Activity(id, name, capacity, location, category, description, price);
     }
@@ -1,6 +1,5 @@
 package SQLParser;
 
-import Repository.DBRepository;
 import Repository.SQLParser;
 import Domain.*;
 
@@ -12,18 +11,21 @@ import java.time.LocalTime;
 
 /**
  * SQLParser implementation for {@link ActivitySchedule} entities.
+ * Schedules are selected together with their activity, which is joined in as {@code a}.
  */
 public class ActivityScheduleSQLParser implements SQLParser<ActivitySchedule> {
 
-    private final DBRepository repository;
+    private static final String ACTIVITY = "a";
+
+    private final ActivitySQLParser activitySQLParser;
 
     /**
      * Constructs a new {@code ActivityScheduleSQLParser} with a dependency on {@code ActivitySQLParser}.
      *
      * @param activitySQLParser the parser for {@link Activity} entities.
      */
-    public ActivityScheduleSQLParser(ActivitySQLParser activitySQLParser, DBRepository repository) {
-        this.repository = repository;
+    public ActivityScheduleSQLParser(ActivitySQLParser activitySQLParser) {
+        this.activitySQLParser = activitySQLParser;
     }
 
     @Override
@@ -31,6 +33,18 @@ public class ActivityScheduleSQLParser implements SQLParser<ActivitySchedule> {
         return "id, activity_id, date, start_time, end_time, available_capacity";
     }
 
+    @Override
+    public String getSelectSource(String tableName) {
+        return SQLJoins.source(tableName,
+                SQLJoins.columns(activitySQLParser, ACTIVITY),
+                SQLJoins.leftJoin(activitySQLParser, "activities", ACTIVITY, ACTIVITY + ".id = " + tableName + ".activity_id"));
+    }
+
+    @Override
+    public String getSelectColumns() {
+        return getColumns() + ", " + SQLJoins.prefixedNames(activitySQLParser, ACTIVITY);
+    }
+
     @Override
     public String getPlaceholders() {
         return "?, ?, ?, ?, ?, ?";
@@ -63,19 +77,20 @@ public class ActivityScheduleSQLParser implements SQLParser<ActivitySchedule> {
 
     @Override
     public ActivitySchedule parseFromResultSet(ResultSet rs) throws SQLException {
-        int id = rs.getInt("id");
+        return parseFromResultSet(rs, "");
+    }
 
-        int activityId = rs.getInt("activity_id");
+    @Override
+    public ActivitySchedule parseFromResultSet(ResultSet rs, String prefix) throws SQLException {
+        int id = rs.getInt(prefix + "id");
 
-        Activity activity = (Activity) repository.read(activityId);
-        if (activity == null) {
-            throw new SQLException("Activity with ID " + activityId + " not found in the database.");
-        }
+        int activityId = rs.getInt(prefix + "activity_id");
+        Activity activity = SQLJoins.parseJoined(rs, activitySQLParser, prefix + ACTIVITY + "_", "Activity", activityId);
 
-        LocalDate date = rs.getDate("date").toLocalDate();
-        LocalTime startTime = rs.getTime("start_time").toLocalTime();
-        LocalTime endTime = rs.getTime("end_time").toLocalTime();
-        int availableCapacity = rs.getInt("available_capacity");
+        LocalDate date = rs.getDate(prefix + "date").toLocalDate();
+        LocalTime startTime = rs.getTime(prefix + "start_time").toLocalTime();
+        LocalTime endTime = rs.getTime(prefix + "end_time").toLocalTime();
+        int availableCapacity = rs.getInt(prefix + "available_capacity");
 
         ActivitySchedule schedule = new ActivitySchedule(activity, date, startTime, endTime, availableCapacity);
         schedule.setId(id);
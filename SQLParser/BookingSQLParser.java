@@ -1,7 +1,8 @@
 package SQLParser;
 
 import Domain.*;
-import Repository.DBRepository;
+import Repository.BatchLoader;
+import Repository.IRepository;
 import Repository.SQLParser;
 
 import java.sql.PreparedStatement;
@@ -10,18 +11,20 @@ import java.sql.SQLException;
 
 /**
  * SQLParser implementation for the {@link Booking} class.
+ * The schedule of a booking is loaded lazily, together with the schedules of the other bookings read by the same
+ * repository call.
  */
 public class BookingSQLParser implements SQLParser<Booking> {
 
-    private final DBRepository<ActivitySchedule> activityScheduleRepo;
+    private final BatchLoader<ActivitySchedule> scheduleLoader;
 
     /**
      * Constructs a {@link BookingSQLParser} with its dependencies.
      *
      * @param activityScheduleRepo the repository for {@link ActivitySchedule} objects.
      */
-    public BookingSQLParser(DBRepository<ActivitySchedule> activityScheduleRepo) {
-        this.activityScheduleRepo = activityScheduleRepo;
+    public BookingSQLParser(IRepository<ActivitySchedule> activityScheduleRepo) {
+        this.scheduleLoader = new BatchLoader<>(activityScheduleRepo);
     }
 
     @Override
@@ -42,14 +45,14 @@ public class BookingSQLParser implements SQLParser<Booking> {
     @Override
     public void fillPreparedStatementForInsert(PreparedStatement stmt, Booking booking) throws SQLException {
         stmt.setInt(1, booking.getId());
-        stmt.setInt(2, booking.getSchedule().getId());
+        stmt.setInt(2, booking.getScheduleId());
         stmt.setString(3, booking.getCustomerName());
         stmt.setInt(4, booking.getNumberOfPeople());
     }
 
     @Override
     public void fillPreparedStatementForUpdate(PreparedStatement stmt, Booking booking) throws SQLException {
-        stmt.setInt(1, booking.getSchedule().getId());
+        stmt.setInt(1, booking.getScheduleId());
         stmt.setString(2, booking.getCustomerName());
         stmt.setInt(3, booking.getNumberOfPeople());
         stmt.setInt(4, booking.getId());
@@ -62,14 +65,7 @@ public class BookingSQLParser implements SQLParser<Booking> {
         String customerName = rs.getString("customer_name");
         int numberOfPeople = rs.getInt("number_of_people");
 
-        ActivitySchedule schedule = activityScheduleRepo.read(scheduleId);
-        if (schedule == null) {
-            throw new SQLException("ActivitySchedule with ID " + scheduleId + " not found in the database.");
-        }
-
-        Booking booking = new Booking(schedule, customerName, numberOfPeople);
-        booking.setId(id);
-        return booking;
+        return new Booking(id, scheduleLoader.reference(scheduleId), customerName, numberOfPeople);
     }
 
     @Override
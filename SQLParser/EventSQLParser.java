@@ -56,15 +56,20 @@ public class EventSQLParser implements SQLParser<Event> {
 
     @Override
     public Event parseFromResultSet(ResultSet rs) throws SQLException {
-        int id = rs.getInt("id");
-        String name = rs.getString("name");
-        String location = rs.getString("location");
-        int capacity = rs.getInt("capacity");
-        EventType eventType = EventType.valueOf(rs.getString("event_type").toUpperCase());
-        int currentSize = rs.getInt("current_size");
-        LocalDateTime startDate = rs.getObject("start_date", LocalDateTime.class);
-        LocalDateTime endDate = rs.getObject("end_date", LocalDateTime.class);
-        double price = rs.getDouble("price");
+        return parseFromResultSet(rs, "");
+    }
+
+    @Override
+    public Event parseFromResultSet(ResultSet rs, String prefix) throws SQLException {
+        int id = rs.getInt(prefix + "id");
+        String name = rs.getString(prefix + "name");
+        String location = rs.getString(prefix + "location");
+        int capacity = rs.getInt(prefix + "capacity");
+        EventType eventType = EventType.valueOf(rs.getString(prefix + "event_type").toUpperCase());
+        int currentSize = rs.getInt(prefix + "current_size");
+        LocalDateTime startDate = rs.getObject(prefix + "start_date", LocalDateTime.class);
+        LocalDateTime endDate = rs.getObject(prefix + "end_date", LocalDateTime.class);
+        double price = rs.getDouble(prefix + "price");
 
         return new Event(id, name, location, capacity, eventType, currentSize, startDate, endDate, price);
     }
@@ -47,11 +47,16 @@ public class FreeActivitySQLParser implements SQLParser<FreeActivity> {
 
     @Override
     public FreeActivity parseFromResultSet(ResultSet rs) throws SQLException {
-        int id = rs.getInt("id");
-        String name = rs.getString("name");
-        String location = rs.getString("location");
-        EventType eventType = EventType.valueOf(rs.getString("event_type").toUpperCase());
-        String program = rs.getString("program");
+        return parseFromResultSet(rs, "");
+    }
+
+    @Override
+    public FreeActivity parseFromResultSet(ResultSet rs, String prefix) throws SQLException {
+        int id = rs.getInt(prefix + "id");
+        String name = rs.getString(prefix + "name");
+        String location = rs.getString(prefix + "location");
+        EventType eventType = EventType.valueOf(rs.getString(prefix + "event_type").toUpperCase());
+        String program = rs.getString(prefix + "program");
 
         return new FreeActivity(id, name, location, eventType, program);
     }
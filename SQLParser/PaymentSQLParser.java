@@ -1,7 +1,8 @@
 package SQLParser;
 
 import Domain.*;
-import Repository.DBRepository;
+import Repository.BatchLoader;
+import Repository.IRepository;
 import Repository.SQLParser;
 
 import java.sql.PreparedStatement;
@@ -11,18 +12,20 @@ import java.time.LocalDateTime;
 
 /**
  * SQLParser implementation for {@link Payment} entities.
+ * The user of a payment is loaded lazily, together with the users of the other payments read by the same
+ * repository call.
  */
 public class PaymentSQLParser implements SQLParser<Payment> {
 
-    private final DBRepository<User> userRepo;
+    private final BatchLoader<User> userLoader;
 
     /**
      * Constructs a {@link PaymentSQLParser} with its dependencies.
      *
      * @param userRepo the repository for {@link User} objects.
      */
-    public PaymentSQLParser(DBRepository<User> userRepo) {
-        this.userRepo = userRepo;
+    public PaymentSQLParser(IRepository<User> userRepo) {
+        this.userLoader = new BatchLoader<>(userRepo);
     }
 
     @Override
@@ -45,7 +48,7 @@ public class PaymentSQLParser implements SQLParser<Payment> {
         stmt.setInt(1, payment.getId());
         stmt.setDouble(2, payment.getAmount());
         stmt.setObject(3, payment.getDate());
-        stmt.setInt(4, payment.getUser().getId());
+        stmt.setInt(4, payment.getUserId());
         stmt.setString(5, payment.getPaymentMethod());
     }
 
@@ -53,7 +56,7 @@ public class PaymentSQLParser implements SQLParser<Payment> {
     public void fillPreparedStatementForUpdate(PreparedStatement stmt, Payment payment) throws SQLException {
         stmt.setDouble(1, payment.getAmount());
         stmt.setObject(2, payment.getDate());
-        stmt.setInt(3, payment.getUser().getId());
+        stmt.setInt(3, payment.getUserId());
         stmt.setString(4, payment.getPaymentMethod());
         stmt.setInt(5, payment.getId());
     }
@@ -66,13 +69,7 @@ public class PaymentSQLParser implements SQLParser<Payment> {
         String paymentMethod = rs.getString("payment_method");
 
         int userId = rs.getInt("user_id");
-        User user = userRepo.read(userId);
-
-        if (user == null) {
-            throw new SQLException("User with ID " + userId + " not found in the database.");
-        }
-
-        return new Payment(id, amount, date, user, paymentMethod);
+        return new Payment(id, amount, date, userLoader.reference(userId), paymentMethod);
     }
 
     @Override
@@ -1,7 +1,6 @@
 package SQLParser;
 
 import Domain.*;
-import Repository.DBRepository;
 import Repository.SQLParser;
 
 import java.sql.PreparedStatement;
@@ -11,21 +10,25 @@ import java.time.LocalDateTime;
 
 /**
  * SQLParser implementation for {@link Reservation} entities.
+ * Reservations are selected together with their user and schedule, joined in as {@code u} and {@code s}.
  */
 public class ReservationSQLParser implements SQLParser<Reservation> {
 
-    private final DBRepository<User> userRepo;
-    private final DBRepository<ActivitySchedule> activityScheduleRepo;
+    private static final String USER = "u";
+    private static final String SCHEDULE = "s";
+
+    private final UserSQLParser userParser;
+    private final ActivityScheduleSQLParser activityScheduleParser;
 
     /**
      * Constructs a {@link ReservationSQLParser} with its dependencies.
      *
-     * @param userRepo             the repository for {@link User} objects.
-     * @param activityScheduleRepo the repository for {@link ActivitySchedule} objects.
+     * @param userParser             the parser for {@link User} objects.
+     * @param activityScheduleParser the parser for {@link ActivitySchedule} objects.
      */
-    public ReservationSQLParser(DBRepository<User> userRepo, DBRepository<ActivitySchedule> activityScheduleRepo) {
-        this.userRepo = userRepo;
-        this.activityScheduleRepo = activityScheduleRepo;
+    public ReservationSQLParser(UserSQLParser userParser, ActivityScheduleSQLParser activityScheduleParser) {
+        this.userParser = userParser;
+        this.activityScheduleParser = activityScheduleParser;
     }
 
     @Override
@@ -33,6 +36,15 @@ public class ReservationSQLParser implements SQLParser<Reservation> {
         return "id, user_id, activity_schedule_id, number_of_people, reservation_date";
     }
 
+    @Override
+    public String getSelectSource(String tableName) {
+        return SQLJoins.source(tableName,
+                SQLJoins.columns(userParser, USER) + ", " + SQLJoins.columns(activityScheduleParser, SCHEDULE),
+                SQLJoins.leftJoin(userParser, "users", USER, USER + ".id = " + tableName + ".user_id")
+                        + SQLJoins.leftJoin(activityScheduleParser, "activity_schedules", SCHEDULE,
+                        SCHEDULE + ".id = " + tableName + ".activity_schedule_id"));
+    }
+
     @Override
     public String getPlaceholders() {
         return "?, ?, ?, ?, ?";
@@ -69,15 +81,9 @@ public class ReservationSQLParser implements SQLParser<Reservation> {
         int numberOfPeople = rs.getInt("number_of_people");
         LocalDateTime reservationDate = rs.getObject("reservation_date", LocalDateTime.class);
 
-        User user = userRepo.read(userId);
-        if (user == null) {
-            throw new SQLException("User with ID " + userId + " not found in the database.");
-        }
-
-        ActivitySchedule activitySchedule = activityScheduleRepo.read(activityScheduleId);
-        if (activitySchedule == null) {
-            throw new SQLException("ActivitySchedule with ID " + activityScheduleId + " not found in the database.");
-        }
+        User user = SQLJoins.parseJoined(rs, userParser, USER + "_", "User", userId);
+        ActivitySchedule activitySchedule = SQLJoins.parseJoined(rs, activityScheduleParser, SCHEDULE + "_",
+                "ActivitySchedule", activityScheduleId);
 
         return new Reservation(id, user, activitySchedule, numberOfPeople, reservationDate);
     }
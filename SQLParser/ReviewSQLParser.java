@@ -1,7 +1,9 @@
 package SQLParser;
 
 import Domain.*;
-import Repository.DBRepository;
+import Repository.BatchLoader;
+import Repository.IRepository;
+import Repository.LazyReference;
 import Repository.SQLParser;
 
 import java.sql.PreparedStatement;
@@ -11,30 +13,38 @@ import java.time.LocalDateTime;
 
 /**
  * SQLParser implementation for {@link Review} entities.
+ * Reviews are selected together with their reviewed entity. Since it may be an activity, an event or a free
+ * activity, each of those tables is left-joined on the type column ({@code ea}, {@code ee} and {@code ef}),
+ * and only the join matching the type yields a row. The user of a review is loaded lazily, together with the
+ * users of the other reviews read by the same repository call.
  */
 public class ReviewSQLParser implements SQLParser<Review> {
 
-    private final DBRepository<User> userRepo;
-    private final DBRepository<Activity> activityRepo;
-    private final DBRepository<Event> eventRepo;
-    private final DBRepository<FreeActivity> freeActivityRepo;
+    private static final String ACTIVITY = "ea";
+    private static final String EVENT = "ee";
+    private static final String FREE_ACTIVITY = "ef";
+
+    private final BatchLoader<User> userLoader;
+    private final ActivitySQLParser activityParser;
+    private final EventSQLParser eventParser;
+    private final FreeActivitySQLParser freeActivityParser;
 
     /**
      * Constructs a {@link ReviewSQLParser} with its dependencies.
      *
-     * @param userRepo            the repository for {@link User} objects.
-     * @param activityRepo        the repository for {@link Activity} objects.
-     * @param eventRepo           the repository for {@link Event} objects.
-     * @param freeActivityRepo    the repository for {@link FreeActivity} objects.
+     * @param userRepo           the repository for {@link User} objects.
+     * @param activityParser     the parser for {@link Activity} objects.
+     * @param eventParser        the parser for {@link Event} objects.
+     * @param freeActivityParser the parser for {@link FreeActivity} objects.
      */
-    public ReviewSQLParser(DBRepository<User> userRepo,
-                           DBRepository<Activity> activityRepo,
-                           DBRepository<Event> eventRepo,
-                           DBRepository<FreeActivity> freeActivityRepo) {
-        this.userRepo = userRepo;
-        this.activityRepo = activityRepo;
-        this.eventRepo = eventRepo;
-        this.freeActivityRepo = freeActivityRepo;
+    public ReviewSQLParser(IRepository<User> userRepo,
+                           ActivitySQLParser activityParser,
+                           EventSQLParser eventParser,
+                           FreeActivitySQLParser freeActivityParser) {
+        this.userLoader = new BatchLoader<>(userRepo);
+        this.activityParser = activityParser;
+        this.eventParser = eventParser;
+        this.freeActivityParser = freeActivityParser;
     }
 
     @Override
@@ -42,6 +52,22 @@ public class ReviewSQLParser implements SQLParser<Review> {
         return "id, user_id, reviewable_entity_type, reviewable_entity_id, comment, review_date";
     }
 
+    @Override
+    public String getSelectSource(String tableName) {
+        String type = tableName + ".reviewable_entity_type";
+        String id = tableName + ".reviewable_entity_id";
+        return SQLJoins.source(tableName,
+                SQLJoins.columns(activityParser, ACTIVITY) + ", "
+                        + SQLJoins.columns(eventParser, EVENT) + ", "
+                        + SQLJoins.columns(freeActivityParser, FREE_ACTIVITY),
+                SQLJoins.leftJoin(activityParser, "activities", ACTIVITY,
+                        type + " = 'Activity' AND " + ACTIVITY + ".id = " + id)
+                        + SQLJoins.leftJoin(eventParser, "events", EVENT,
+                        type + " = 'Event' AND " + EVENT + ".id = " + id)
+                        + SQLJoins.leftJoin(freeActivityParser, "free_activities", FREE_ACTIVITY,
+                        type + " = 'FreeActivity' AND " + FREE_ACTIVITY + ".id = " + id));
+    }
+
     @Override
     public String getPlaceholders() {
         return "?, ?, ?, ?, ?, ?";
@@ -55,7 +81,7 @@ public class ReviewSQLParser implements SQLParser<Review> {
     @Override
     public void fillPreparedStatementForInsert(PreparedStatement stmt, Review review) throws SQLException {
         stmt.setInt(1, review.getId());
-        stmt.setInt(2, review.getUser().getId());
+        stmt.setInt(2, review.getUserId());
 
         setReviewableEntityParameters(stmt, 3, review);
 
@@ -65,7 +91,7 @@ public class ReviewSQLParser implements SQLParser<Review> {
 
     @Override
     public void fillPreparedStatementForUpdate(PreparedStatement stmt, Review review) throws SQLException {
-        stmt.setInt(1, review.getUser().getId());
+        stmt.setInt(1, review.getUserId());
 
         setReviewableEntityParameters(stmt, 2, review);
 
@@ -79,15 +105,12 @@ public class ReviewSQLParser implements SQLParser<Review> {
         int id = rs.getInt("id");
         int userId = rs.getInt("user_id");
 
-        User user = userRepo.read(userId);
-        if (user == null) {
-            throw new SQLException("User with ID " + userId + " not found.");
-        }
+        LazyReference<User> user = userLoader.reference(userId);
 
         String reviewableEntityType = rs.getString("reviewable_entity_type");
         int reviewableEntityId = rs.getInt("reviewable_entity_id");
 
-        ReviewableEntity reviewableEntity = fetchReviewableEntityFromRepository(reviewableEntityType, reviewableEntityId);
+        ReviewableEntity reviewableEntity = parseReviewableEntity(rs, reviewableEntityType, reviewableEntityId);
 
         String comment = rs.getString("comment");
         LocalDateTime reviewDate = rs.getObject("review_date", LocalDateTime.class);
@@ -114,33 +137,22 @@ public class ReviewSQLParser implements SQLParser<Review> {
     }
 
     /**
-     * Fetches a {@link ReviewableEntity} from the corresponding repository.
+     * Parses the joined {@link ReviewableEntity} of the given type.
      *
+     * @param rs   the ResultSet positioned on the current row.
      * @param type the type of the reviewable entity (Activity, Event, or FreeActivity).
      * @param id   the ID of the reviewable entity.
-     * @return the fetched {@link ReviewableEntity}.
+     * @return the parsed {@link ReviewableEntity}.
      * @throws SQLException if the entity type is unknown or not found.
      */
-    private ReviewableEntity fetchReviewableEntityFromRepository(String type, int id) throws SQLException {
+    private ReviewableEntity parseReviewableEntity(ResultSet rs, String type, int id) throws SQLException {
         switch (type) {
             case "Activity":
-                Activity activity = activityRepo.read(id);
-                if (activity == null) {
-                    throw new SQLException("Activity with ID " + id + " not found.");
-                }
-                return activity;
+                return SQLJoins.parseJoined(rs, activityParser, ACTIVITY + "_", type, id);
             case "Event":
-                Event event = eventRepo.read(id);
-                if (event == null) {
-                    throw new SQLException("Event with ID " + id + " not found.");
-                }
-                return event;
+                return SQLJoins.parseJoined(rs, eventParser, EVENT + "_", type, id);
             case "FreeActivity":
-                FreeActivity freeActivity = freeActivityRepo.read(id);
-                if (freeActivity == null) {
-                    throw new SQLException("FreeActivity with ID " + id + " not found.");
-                }
-                return freeActivity;
+                return SQLJoins.parseJoined(rs, freeActivityParser, FREE_ACTIVITY + "_", type, id);
             default:
                 throw new SQLException("Unknown ReviewableEntity type: " + type);
         }
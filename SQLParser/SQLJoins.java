@@ -0,0 +1,112 @@
+package SQLParser;
+
+import Repository.IdentityMap;
+import Repository.SQLParser;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Helpers for parsers that read referenced entities through joins instead of one query per reference.
+ *
+ * A joined entity is given an alias, and its columns appear in the result under that alias as a prefix,
+ * e.g. the {@code id} of a schedule joined as {@code s} is read from {@code s_id}. Since every joined relation
+ * is itself the select source of the referenced entity's parser, references nest: the activity of that
+ * schedule is read from {@code s_a_id}.
+ */
+public final class SQLJoins {
+
+    private SQLJoins() {
+    }
+
+    /**
+     * Builds a derived table named after the table, exposing all of the table's columns together with the
+     * prefixed columns of the joined entities.
+     *
+     * @param tableName the name of the table storing the entities.
+     * @param columns   the prefixed columns of the joined entities, see {@link #columns(SQLParser, String)}.
+     * @param joins     the join clauses, see {@link #leftJoin(SQLParser, String, String, String)}.
+     * @return the relation to select from.
+     */
+    public static String source(String tableName, String columns, String joins) {
+        return "(SELECT " + tableName + ".*, " + columns + " FROM " + tableName + joins + ") AS " + tableName;
+    }
+
+    /**
+     * Builds a LEFT JOIN of the relation an entity's parser selects from. A left join keeps rows whose
+     * reference is dangling, so the parser can report the missing entity instead of silently dropping the row.
+     *
+     * @param parser    the parser of the joined entity.
+     * @param tableName the name of the table storing the joined entities.
+     * @param alias     the alias of the joined relation.
+     * @param condition the join condition.
+     * @return the join clause.
+     */
+    public static String leftJoin(SQLParser<?> parser, String tableName, String alias, String condition) {
+        return " LEFT JOIN (SELECT * FROM " + parser.getSelectSource(tableName) + ") " + alias + " ON " + condition;
+    }
+
+    /**
+     * Lists the columns of a joined entity under their prefixed names, e.g. {@code s.id AS s_id}.
+     *
+     * @param parser the parser of the joined entity.
+     * @param alias  the alias of the joined relation.
+     * @return a comma-separated select list.
+     */
+    public static String columns(SQLParser<?> parser, String alias) {
+        StringBuilder columns = new StringBuilder();
+        for (String column : parser.getSelectColumns().split(",")) {
+            if (columns.length() > 0) {
+                columns.append(", ");
+            }
+            column = column.trim();
+            columns.append(alias).append('.').append(column).append(" AS ").append(alias).append('_').append(column);
+        }
+        return columns.toString();
+    }
+
+    /**
+     * Lists the prefixed names of a joined entity's columns, e.g. {@code s_id}.
+     *
+     * @param parser the parser of the joined entity.
+     * @param alias  the alias of the joined relation.
+     * @return a comma-separated list of column names.
+     */
+    public static String prefixedNames(SQLParser<?> parser, String alias) {
+        StringBuilder names = new StringBuilder();
+        for (String column : parser.getSelectColumns().split(",")) {
+            if (names.length() > 0) {
+                names.append(", ");
+            }
+            names.append(alias).append('_').append(column.trim());
+        }
+        return names.toString();
+    }
+
+    /**
+     * Parses a joined entity, failing if the reference did not match any row.
+     * If an {@link IdentityMap} is bound, an entity already hydrated in the current unit of work is reused
+     * instead of being parsed again.
+     *
+     * @param rs     the ResultSet positioned on the current row.
+     * @param parser the parser of the joined entity.
+     * @param prefix the prefix of the joined entity's columns, including the trailing underscore.
+     * @param type   the name of the entity type.
+     * @param id     the referenced ID.
+     * @return the joined entity.
+     * @throws SQLException if the referenced entity does not exist.
+     */
+    public static <T> T parseJoined(ResultSet rs, SQLParser<T> parser, String prefix, String type, int id)
+            throws SQLException {
+        T entity = IdentityMap.get(type, id);
+        if (entity != null) {
+            return entity;
+        }
+        if (rs.getObject(prefix + "id") == null) {
+            throw new SQLException(type + " with ID " + id + " not found in the database.");
+        }
+        entity = parser.parseFromResultSet(rs, prefix);
+        IdentityMap.put(type, id, entity);
+        return entity;
+    }
+}
@@ -1,7 +1,9 @@
 package SQLParser;
 
 import Domain.*;
-import Repository.DBRepository;
+import Repository.BatchLoader;
+import Repository.IRepository;
+import Repository.LazyReference;
 import Repository.SQLParser;
 
 import java.sql.PreparedStatement;
@@ -10,30 +12,35 @@ import java.sql.SQLException;
 
 /**
  * SQLParser implementation for {@link Ticket} entities.
+ * Tickets are selected together with their owner, who is joined in as {@code u}. The event of a ticket is
+ * loaded lazily from the repository matching its type, together with the events of the other tickets read
+ * by the same repository call.
  */
 public class TicketSQLParser implements SQLParser<Ticket> {
 
-    private final DBRepository<User> userRepo;
-    private final DBRepository<Activity> activityRepo;
-    private final DBRepository<Event> eventRepo;
-    private final DBRepository<FreeActivity> freeActivityRepo;
+    private static final String USER = "u";
+
+    private final UserSQLParser userParser;
+    private final BatchLoader<Activity> activityLoader;
+    private final BatchLoader<Event> eventLoader;
+    private final BatchLoader<FreeActivity> freeActivityLoader;
 
     /**
      * Constructs a {@link TicketSQLParser} with its dependencies.
      *
-     * @param userRepo            the repository for {@link User} objects.
-     * @param activityRepo        the repository for {@link Activity} objects.
-     * @param eventRepo           the repository for {@link Event} objects.
-     * @param freeActivityRepo    the repository for {@link FreeActivity} objects.
+     * @param userParser       the parser for {@link User} objects.
+     * @param activityRepo     the repository for {@link Activity} objects.
+     * @param eventRepo        the repository for {@link Event} objects.
+     * @param freeActivityRepo the repository for {@link FreeActivity} objects.
      */
-    public TicketSQLParser(DBRepository<User> userRepo,
-                           DBRepository<Activity> activityRepo,
-                           DBRepository<Event> eventRepo,
-                           DBRepository<FreeActivity> freeActivityRepo) {
-        this.userRepo = userRepo;
-        this.activityRepo = activityRepo;
-        this.eventRepo = eventRepo;
-        this.freeActivityRepo = freeActivityRepo;
+    public TicketSQLParser(UserSQLParser userParser,
+                           IRepository<Activity> activityRepo,
+                           IRepository<Event> eventRepo,
+                           IRepository<FreeActivity> freeActivityRepo) {
+        this.userParser = userParser;
+        this.activityLoader = new BatchLoader<>(activityRepo, Activity.class);
+        this.eventLoader = new BatchLoader<>(eventRepo, Event.class);
+        this.freeActivityLoader = new BatchLoader<>(freeActivityRepo, FreeActivity.class);
     }
 
     @Override
@@ -41,6 +48,13 @@ public class TicketSQLParser implements SQLParser<Ticket> {
         return "id, event_type, event_id, owner_id, participant_name";
     }
 
+    @Override
+    public String getSelectSource(String tableName) {
+        return SQLJoins.source(tableName,
+                SQLJoins.columns(userParser, USER),
+                SQLJoins.leftJoin(userParser, "users", USER, USER + ".id = " + tableName + ".owner_id"));
+    }
+
     @Override
     public String getPlaceholders() {
         return "?, ?, ?, ?, ?";
@@ -77,13 +91,10 @@ public class TicketSQLParser implements SQLParser<Ticket> {
         String eventType = rs.getString("event_type");
         int eventId = rs.getInt("event_id");
 
-        ReviewableEntity event = fetchReviewableEntityFromRepository(eventType, eventId);
+        LazyReference<? extends ReviewableEntity> event = referenceEvent(eventType, eventId);
 
         int ownerId = rs.getInt("owner_id");
-        User owner = userRepo.read(ownerId);
-        if (owner == null) {
-            throw new SQLException("User with ID " + ownerId + " not found.");
-        }
+        User owner = SQLJoins.parseJoined(rs, userParser, USER + "_", "User", ownerId);
 
         String participantName = rs.getString("participant_name");
 
@@ -94,48 +105,35 @@ public class TicketSQLParser implements SQLParser<Ticket> {
      * Helper method to set event type and ID in PreparedStatement for insert/update.
      */
     private void setEventParameters(PreparedStatement stmt, int startIndex, Ticket ticket) throws SQLException {
-        if (ticket.getEvent() instanceof Activity) {
+        Class<? extends ReviewableEntity> eventType = ticket.getEventType();
+        if (Activity.class.isAssignableFrom(eventType)) {
             stmt.setString(startIndex, "Activity");
-            stmt.setInt(startIndex + 1, ((Activity) ticket.getEvent()).getId());
-        } else if (ticket.getEvent() instanceof Event) {
+        } else if (Event.class.isAssignableFrom(eventType)) {
             stmt.setString(startIndex, "Event");
-            stmt.setInt(startIndex + 1, ((Event) ticket.getEvent()).getId());
-        } else if (ticket.getEvent() instanceof FreeActivity) {
+        } else if (FreeActivity.class.isAssignableFrom(eventType)) {
             stmt.setString(startIndex, "FreeActivity");
-            stmt.setInt(startIndex + 1, ((FreeActivity) ticket.getEvent()).getId());
         } else {
             throw new SQLException("Unknown ReviewableEntity type.");
         }
+        stmt.setInt(startIndex + 1, ticket.getEventId());
     }
 
     /**
-     * Fetches a {@link ReviewableEntity} from the corresponding repository.
+     * Creates a lazy reference to a {@link ReviewableEntity} in the repository for its type.
      *
      * @param type the type of the reviewable entity (Activity, Event, or FreeActivity).
      * @param id   the ID of the reviewable entity.
-     * @return the fetched {@link ReviewableEntity}.
-     * @throws SQLException if the entity type is unknown or not found.
+     * @return the reference.
+     * @throws SQLException if the entity type is unknown.
      */
-    private ReviewableEntity fetchReviewableEntityFromRepository(String type, int id) throws SQLException {
+    private LazyReference<? extends ReviewableEntity> referenceEvent(String type, int id) throws SQLException {
         switch (type) {
             case "Activity":
-                Activity activity = activityRepo.read(id);
-                if (activity == null) {
-                    throw new SQLException("Activity with ID " + id + " not found.");
-                }
-                return activity;
+                return activityLoader.reference(id);
             case "Event":
-                Event event = eventRepo.read(id);
-                if (event == null) {
-                    throw new SQLException("Event with ID " + id + " not found.");
-                }
-                return event;
+                return eventLoader.reference(id);
             case "FreeActivity":
-                FreeActivity freeActivity = freeActivityRepo.read(id);
-                if (freeActivity == null) {
-                    throw new SQLException("FreeActivity with ID " + id + " not found.");
-                }
-                return freeActivity;
+                return freeActivityLoader.reference(id);
             default:
                 throw new SQLException("Unknown ReviewableEntity type: " + type);
         }
@@ -47,11 +47,16 @@ public class UserSQLParser implements SQLParser<User> {
 
     @Override
     public User parseFromResultSet(ResultSet rs) throws SQLException {
-        int id = rs.getInt("id");
-        String username = rs.getString("username");
-        String password = rs.getString("password");
-        Role role = Role.valueOf(rs.getString("role").toUpperCase());
-        double balance = rs.getDouble("balance");
+        return parseFromResultSet(rs, "");
+    }
+
+    @Override
+    public User parseFromResultSet(ResultSet rs, String prefix) throws SQLException {
+        int id = rs.getInt(prefix + "id");
+        String username = rs.getString(prefix + "username");
+        String password = rs.getString(prefix + "password");
+        Role role = Role.valueOf(rs.getString(prefix + "role").toUpperCase());
+        double balance = rs.getDouble(prefix + "balance");
 
         User user = new User(id, username, password, role);
         user.setBalance(balance);
@@ -1,7 +1,8 @@
 package SQLParser;
 
 import Domain.*;
-import Repository.DBRepository;
+import Repository.IRepository;
+import Repository.IdGenerator;
 import Repository.SQLParser;
 
 import java.sql.Connection;
@@ -9,23 +10,29 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class WishlistSQLParser implements SQLParser<Wishlist> {
 
-    private final DBRepository<User> userRepo;
-    private final DBRepository<Activity> activityRepo;
-    private final DBRepository<Event> eventRepo;
-    private final DBRepository<FreeActivity> freeActivityRepo;
-
-    public WishlistSQLParser(DBRepository<User> userRepo,
-                             DBRepository<Activity> activityRepo,
-                             DBRepository<Event> eventRepo,
-                             DBRepository<FreeActivity> freeActivityRepo) {
+    private final IRepository<User> userRepo;
+    private final IRepository<Activity> activityRepo;
+    private final IRepository<Event> eventRepo;
+    private final IRepository<FreeActivity> freeActivityRepo;
+    private final IdGenerator itemIdGenerator;
+
+    public WishlistSQLParser(IRepository<User> userRepo,
+                             IRepository<Activity> activityRepo,
+                             IRepository<Event> eventRepo,
+                             IRepository<FreeActivity> freeActivityRepo,
+                             IdGenerator itemIdGenerator) {
         this.userRepo = userRepo;
         this.activityRepo = activityRepo;
         this.eventRepo = eventRepo;
         this.freeActivityRepo = freeActivityRepo;
+        this.itemIdGenerator = itemIdGenerator;
     }
 
     @Override
@@ -100,8 +107,7 @@ public class WishlistSQLParser implements SQLParser<Wishlist> {
         String insertSQL = "INSERT INTO wishlist_items (id, wishlist_id, entity_type, entity_id) VALUES (?, ?, ?, ?)";
         try (PreparedStatement stmt = connection.prepareStatement(insertSQL)) {
             for (ReviewableEntity item : wishlist.getItems()) {
-                int newId = generateNewId("wishlist_items", connection);
-                stmt.setInt(1, newId);
+                stmt.setInt(1, itemIdGenerator.nextId());
                 stmt.setInt(2, wishlist.getId());
                 stmt.setString(3, item.getClass().getSimpleName());
                 stmt.setInt(4, getEntityId(item));
@@ -122,8 +128,14 @@ public class WishlistSQLParser implements SQLParser<Wishlist> {
         insertWishlistItems(wishlist, connection);
     }
 
+    /**
+     * Reads the items of a wishlist. The referenced entities are fetched with one
+     * {@link IRepository#readMany(java.util.Collection)} call per entity type rather than one read per item.
+     */
     private List<ReviewableEntity> getWishlistItems(int wishlistId, Connection connection) throws SQLException {
-        List<ReviewableEntity> items = new ArrayList<>();
+        List<String> types = new ArrayList<>();
+        List<Integer> ids = new ArrayList<>();
+        Map<String, List<Integer>> idsByType = new HashMap<>();
         String selectSQL = "SELECT entity_type, entity_id FROM wishlist_items WHERE wishlist_id = ?";
         try (PreparedStatement stmt = connection.prepareStatement(selectSQL)) {
             stmt.setInt(1, wishlistId);
@@ -131,21 +143,38 @@ public class WishlistSQLParser implements SQLParser<Wishlist> {
                 while (rs.next()) {
                     String entityType = rs.getString("entity_type");
                     int entityId = rs.getInt("entity_id");
-                    items.add(fetchEntityFromRepository(entityType, entityId));
+                    types.add(entityType);
+                    ids.add(entityId);
+                    idsByType.computeIfAbsent(entityType, type -> new ArrayList<>()).add(entityId);
                 }
             }
         }
+
+        Map<String, Map<Integer, ? extends ReviewableEntity>> entitiesByType = new HashMap<>();
+        for (Map.Entry<String, List<Integer>> entry : idsByType.entrySet()) {
+            entitiesByType.put(entry.getKey(), fetchEntitiesFromRepository(entry.getKey(), entry.getValue()));
+        }
+
+        List<ReviewableEntity> items = new ArrayList<>(types.size());
+        for (int i = 0; i < types.size(); i++) {
+            ReviewableEntity item = entitiesByType.getOrDefault(types.get(i), Collections.emptyMap()).get(ids.get(i));
+            if (item == null) {
+                throw new SQLException(types.get(i) + " with ID " + ids.get(i) + " not found.");
+            }
+            items.add(item);
+        }
         return items;
     }
 
-    private ReviewableEntity fetchEntityFromRepository(String entityType, int entityId) throws SQLException {
+    private Map<Integer, ? extends ReviewableEntity> fetchEntitiesFromRepository(String entityType, List<Integer> entityIds)
+            throws SQLException {
         switch (entityType) {
             case "Activity":
-                return activityRepo.read(entityId);
+                return activityRepo.readMany(entityIds);
             case "Event":
-                return eventRepo.read(entityId);
+                return eventRepo.readMany(entityIds);
             case "FreeActivity":
-                return freeActivityRepo.read(entityId);
+                return freeActivityRepo.readMany(entityIds);
             default:
                 throw new SQLException("Unknown entity type: " + entityType);
         }
@@ -167,15 +196,4 @@ public class WishlistSQLParser implements SQLParser<Wishlist> {
     public int getUpdateParametersCount() {
         return 2;
     }
-
-    private int generateNewId(String tableName, Connection connection) throws SQLException {
-        String sql = "SELECT COALESCE(MAX(id), 0) + 1 AS new_id FROM " + tableName;
-        try (PreparedStatement stmt = connection.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-            if (rs.next()) {
-                return rs.getInt("new_id");
-            }
-            throw new SQLException("Failed to generate new ID for table: " + tableName);
-        }
-    }
 }
@@ -2,23 +2,29 @@ package Service;
 
 import Domain.Activity;
 import Domain.ActivitySchedule;
+import Repository.Field;
 import Repository.IRepository;
+import Repository.IndexType;
+import Repository.Query;
 import Exception.*;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Service class for managing activity schedules.
  */
 public class ActivityScheduleService {
 
+    private static final Field<ActivitySchedule, Integer> ACTIVITY_ID =
+            new Field<>("activity_id", schedule -> schedule.getActivity().getId());
+
     private final IRepository<ActivitySchedule> activityScheduleRepo;
 
     /**
      * Constructs a new {@code ActivityScheduleService}.
+     * The repository is used as it is; {@link #migrate(IRepository)} prepares it once at startup.
      *
      * @param activityScheduleRepo the repository for storing and retrieving activity schedules.
      */
@@ -26,6 +32,17 @@ public class ActivityScheduleService {
         this.activityScheduleRepo = activityScheduleRepo;
     }
 
+    /**
+     * Prepares the schedule store for the service, once at startup: registers an index on the activity of each
+     * schedule, which serves {@link #getSchedulesForActivity(Activity)}. In a database, that is where the index
+     * is created.
+     *
+     * @param activityScheduleRepo the repository for storing and retrieving activity schedules.
+     */
+    public static void migrate(IRepository<ActivitySchedule> activityScheduleRepo) {
+        activityScheduleRepo.createIndex(ACTIVITY_ID, IndexType.HASH);
+    }
+
     /**
      * Adds a new activity schedule.
      *
@@ -140,10 +157,7 @@ public class ActivityScheduleService {
             throw new ValidationException("Activity cannot be null.");
         }
 
-        return activityScheduleRepo.findAll()
-                .stream()
-                .filter(schedule -> schedule.getActivity().getId() == activity.getId())
-                .collect(Collectors.toList());
+        return activityScheduleRepo.findWhere(Query.where(ACTIVITY_ID.eq(activity.getId())));
     }
 
     private void validateActivityScheduleInputs(Activity activity, LocalDate date, LocalTime startTime, LocalTime endTime, int capacity) {
@@ -2,19 +2,25 @@ package Service;
 
 import Domain.Activity;
 import Domain.EventType;
+import Repository.Field;
 import Repository.IRepository;
+import Repository.Query;
+import Repository.SortOrder;
 import Exception.*;
 
 
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Service class for managing activities.
  */
 public class ActivityService {
 
+    private static final Field<Activity, Integer> CAPACITY = new Field<>("capacity", Activity::getCapacity);
+    private static final Field<Activity, EventType> CATEGORY = new Field<>("category", Activity::getCategory);
+
     private final IRepository<Activity> activityRepo;
 
     /**
@@ -137,6 +143,17 @@ public class ActivityService {
         return activityRepo.findAll();
     }
 
+    /**
+     * Retrieves one page of activities, ordered by ID.
+     *
+     * @param afterId the ID of the last activity on the previous page, or {@code null} for the first page.
+     * @param limit   the maximum number of activities on the page.
+     * @return the activities on the page; an empty list when there are no more.
+     */
+    public List<Activity> getActivitiesPage(Integer afterId, int limit) {
+        return activityRepo.findPage(afterId, limit, SortOrder.ASCENDING);
+    }
+
     /**
      * Filters activities based on their minimum capacity.
      *
@@ -144,9 +161,7 @@ public class ActivityService {
      * @return a list of {@code Activity} objects that match the criteria.
      */
     public List<Activity> filterActivitiesByCapacity(int minCapacity) {
-        return activityRepo.findAll().stream()
-                .filter(activity -> activity.getCapacity() >= minCapacity)
-                .collect(Collectors.toList());
+        return activityRepo.findWhere(Query.where(CAPACITY.ge(minCapacity)));
     }
 
     /**
@@ -156,9 +171,13 @@ public class ActivityService {
      * @return a list of {@code Activity} objects that match the category.
      */
     public List<Activity> filterActivitiesByCategory(String category) {
-        return activityRepo.findAll().stream()
-                .filter(activity -> activity.getCategory().name().equalsIgnoreCase(category))
-                .collect(Collectors.toList());
+        EventType eventType;
+        try {
+            eventType = EventType.valueOf(category.trim().toUpperCase());
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return new ArrayList<>();
+        }
+        return activityRepo.findWhere(Query.where(CATEGORY.eq(eventType)));
     }
 
     /**
@@ -9,6 +9,7 @@ import Exception.*;
 
 
 import java.util.*;
+import java.util.stream.Stream;
 
 /**
  * Service class for managing bookings in the system.
@@ -137,13 +138,13 @@ public class BookingService {
      * @return a map where the keys are {@code ReviewableEntity} objects, and the values are the total number of participants.
      */
     public Map<ReviewableEntity, Integer> getMostPopularEntities() {
-        List<Booking> bookings = bookingRepo.findAll();
-
         Map<ReviewableEntity, Integer> participationCount = new HashMap<>();
 
-        for (Booking booking : bookings) {
-            ReviewableEntity entity = booking.getSchedule().getActivity();
-            participationCount.put(entity, participationCount.getOrDefault(entity, 0) + booking.getNumberOfPeople());
+        try (Stream<Booking> bookings = bookingRepo.streamAll()) {
+            bookings.forEach(booking -> {
+                ReviewableEntity entity = booking.getSchedule().getActivity();
+                participationCount.merge(entity, booking.getNumberOfPeople(), Integer::sum);
+            });
         }
 
         List<Map.Entry<ReviewableEntity, Integer>> sortedEntries = new ArrayList<>(participationCount.entrySet());
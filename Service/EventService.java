@@ -2,19 +2,24 @@ package Service;
 
 import Domain.Event;
 import Domain.EventType;
+import Repository.Field;
 import Repository.IRepository;
+import Repository.Query;
+import Repository.SortOrder;
 import Exception.*;
 
 import java.time.LocalDateTime;
 import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Service class for managing events in the system.
  */
 public class EventService {
 
+    private static final Field<Event, Integer> ID = Field.id();
+    private static final Field<Event, LocalDateTime> START_DATE = new Field<>("start_date", Event::getStartDate);
+
     private final IRepository<Event> eventRepo;
 
     /**
@@ -146,9 +151,33 @@ public class EventService {
      */
     public List<Event> getUpcomingEvents() {
         LocalDateTime now = LocalDateTime.now();
-        return eventRepo.findAll().stream()
-                .filter(event -> event.getStartDate().isAfter(now))
-                .collect(Collectors.toList());
+        return eventRepo.findWhere(Query.where(START_DATE.gt(now)));
+    }
+
+    /**
+     * Retrieves one page of upcoming events, ordered by ID.
+     *
+     * @param afterId the ID of the last event on the previous page, or {@code null} for the first page.
+     * @param limit   the maximum number of events on the page.
+     * @return the upcoming events on the page; an empty list when there are no more.
+     */
+    public List<Event> getUpcomingEventsPage(Integer afterId, int limit) {
+        Query<Event> query = Query.where(START_DATE.gt(LocalDateTime.now()));
+        if (afterId != null) {
+            query = query.and(ID.gt(afterId));
+        }
+        return eventRepo.findWhere(query.orderBy(ID, SortOrder.ASCENDING).limit(limit));
+    }
+
+    /**
+     * Retrieves one page of events, ordered by ID.
+     *
+     * @param afterId the ID of the last event on the previous page, or {@code null} for the first page.
+     * @param limit   the maximum number of events on the page.
+     * @return the events on the page; an empty list when there are no more.
+     */
+    public List<Event> getEventsPage(Integer afterId, int limit) {
+        return eventRepo.findPage(afterId, limit, SortOrder.ASCENDING);
     }
 
     /**
@@ -2,7 +2,9 @@ package Service;
 
 import Domain.Payment;
 import Domain.User;
+import Repository.AtomicIdGenerator;
 import Repository.IRepository;
+import Repository.IdGenerator;
 import Exception.*;
 
 import java.time.LocalDateTime;
@@ -13,14 +15,27 @@ import java.time.LocalDateTime;
 public class PaymentService {
 
     private final IRepository<Payment> paymentRepo;
+    private final IdGenerator idGenerator;
 
     /**
      * Constructs a new {@code PaymentService}.
+     * IDs for new payments are allocated from an in-memory counter.
      *
      * @param paymentRepo the repository for storing and managing payments.
      */
     public PaymentService(IRepository<Payment> paymentRepo) {
+        this(paymentRepo, new AtomicIdGenerator(paymentRepo));
+    }
+
+    /**
+     * Constructs a new {@code PaymentService} with the specified ID generator.
+     *
+     * @param paymentRepo the repository for storing and managing payments.
+     * @param idGenerator the generator allocating IDs for new payments.
+     */
+    public PaymentService(IRepository<Payment> paymentRepo, IdGenerator idGenerator) {
         this.paymentRepo = paymentRepo;
+        this.idGenerator = idGenerator;
     }
 
     /**
@@ -43,11 +58,21 @@ public class PaymentService {
 
             Payment payment = new Payment(id, amount, date, user, paymentMethod);
             paymentRepo.create(payment);
+            idGenerator.observe(id);
         } catch (NumberFormatException e) {
             throw new ValidationException("Invalid number format for ID or amount.", e);
         }
     }
 
+    /**
+     * Generates a unique ID for a new payment.
+     *
+     * @return a unique ID for the payment.
+     */
+    public int generateUniqueId() {
+        return idGenerator.nextId();
+    }
+
     /**
      * Retrieves a payment by its ID.
      *
@@ -3,22 +3,30 @@ package Service;
 import Domain.Review;
 import Domain.User;
 import Domain.ReviewableEntity;
+import Repository.Field;
 import Repository.IRepository;
+import Repository.IndexType;
+import Repository.Query;
 import Exception.*;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Service class for managing reviews of reviewable entities within the system.
  */
 public class ReviewService {
 
+    private static final Field<Review, String> ENTITY_TYPE =
+            new Field<>("reviewable_entity_type", review -> review.getReviewableEntity().getClass().getSimpleName());
+    private static final Field<Review, Integer> ENTITY_ID =
+            new Field<>("reviewable_entity_id", review -> review.getReviewableEntity().getId());
+
     private final IRepository<Review> reviewRepo;
 
     /**
      * Constructs a new {@code ReviewService}.
+     * The repository is used as it is; {@link #migrate(IRepository)} prepares it once at startup.
      *
      * @param reviewRepo the repository for managing {@link Review} objects.
      */
@@ -26,6 +34,17 @@ public class ReviewService {
         this.reviewRepo = reviewRepo;
     }
 
+    /**
+     * Prepares the review store for the service, once at startup: registers an index on the ID of the reviewed
+     * entity, which serves {@link #getReviewsByEvent(ReviewableEntity)}. In a database, that is where the index is
+     * created.
+     *
+     * @param reviewRepo the repository for managing {@link Review} objects.
+     */
+    public static void migrate(IRepository<Review> reviewRepo) {
+        reviewRepo.createIndex(ENTITY_ID, IndexType.HASH);
+    }
+
     /**
      * Adds a new review to the repository.
      *
@@ -119,9 +138,9 @@ public class ReviewService {
      * @return a list of reviews associated with the given entity.
      */
     public List<Review> getReviewsByEvent(ReviewableEntity entity) {
-        return reviewRepo.findAll().stream()
-                .filter(review -> review.getReviewableEntity().equals(entity))
-                .collect(Collectors.toList());
+        return reviewRepo.findWhere(Query.where(
+                ENTITY_TYPE.eq(entity.getClass().getSimpleName()),
+                ENTITY_ID.eq(entity.getId())));
     }
 
     private void validateReviewInputs(User user, ReviewableEntity reviewableEntity, String comment, LocalDateTime reviewDate) {
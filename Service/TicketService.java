@@ -5,23 +5,41 @@ import Domain.Activity;
 import Domain.ReviewableEntity;
 import Domain.Ticket;
 import Domain.User;
+import Repository.AtomicIdGenerator;
 import Repository.IRepository;
+import Repository.IdGenerator;
 import Exception.*;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Service class for managing tickets in the system.
  */
 public class TicketService {
 
     private final IRepository<Ticket> ticketRepo;
+    private final IdGenerator idGenerator;
 
     /**
      * Constructs a TicketService with the specified ticket repository.
+     * IDs for new tickets are allocated from an in-memory counter.
      *
      * @param ticketRepo the repository used to store tickets.
      */
     public TicketService(IRepository<Ticket> ticketRepo) {
+        this(ticketRepo, new AtomicIdGenerator(ticketRepo));
+    }
+
+    /**
+     * Constructs a TicketService with the specified ticket repository and ID generator.
+     *
+     * @param ticketRepo  the repository used to store tickets.
+     * @param idGenerator the generator allocating IDs for new tickets.
+     */
+    public TicketService(IRepository<Ticket> ticketRepo, IdGenerator idGenerator) {
         this.ticketRepo = ticketRepo;
+        this.idGenerator = idGenerator;
     }
 
     /**
@@ -50,6 +68,7 @@ public class TicketService {
 
                 Ticket ticket = new Ticket(ticketId, entity, owner, participantName);
                 ticketRepo.create(ticket);
+                idGenerator.observe(ticketId);
 
                 adjustEntityCapacity(entity, 1);
             }
@@ -58,6 +77,37 @@ public class TicketService {
         }
     }
 
+    /**
+     * Issues one ticket per participant for the same event or activity, storing them with a single batch write.
+     * The tickets get new IDs from the ID generator.
+     *
+     * @param entity           the reviewable entity (event or activity) the tickets are for.
+     * @param owner            the user who owns the tickets.
+     * @param participantNames the names of the participants, one per ticket.
+     * @return the issued tickets.
+     * @throws ValidationException if the owner is null, a participant name is empty,
+     *                             or the entity does not have enough capacity left for all tickets.
+     */
+    public List<Ticket> issueTickets(ReviewableEntity entity, User owner, List<String> participantNames) {
+        for (String participantName : participantNames) {
+            validateTicketInputs(entity, owner, participantName);
+        }
+
+        List<Ticket> tickets = new ArrayList<>(participantNames.size());
+        for (String participantName : participantNames) {
+            tickets.add(new Ticket(generateUniqueId(), entity, owner, participantName));
+        }
+
+        adjustEntityCapacity(entity, tickets.size());
+        try {
+            ticketRepo.createAll(tickets);
+        } catch (RuntimeException e) {
+            adjustEntityCapacity(entity, -tickets.size());
+            throw e;
+        }
+        return tickets;
+    }
+
     /**
      * Retrieves a ticket by its unique ID.
      *
@@ -137,10 +187,7 @@ public class TicketService {
      * @return a unique ID for the ticket.
      */
     public int generateUniqueId() {
-        return ticketRepo.findAll().stream()
-                .mapToInt(Ticket::getId)
-                .max()
-                .orElse(0) + 1;
+        return idGenerator.nextId();
     }
 
     private void adjustEntityCapacity(ReviewableEntity entity, int adjustment) {
@@ -2,23 +2,98 @@ package Service;
 
 import Domain.User;
 import Domain.Role;
+import Repository.AtomicIdGenerator;
+import Repository.Field;
 import Repository.IRepository;
+import Repository.IdGenerator;
+import Repository.IndexType;
+import Repository.Query;
 import Exception.*;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
 /**
  * Service class for managing users in the system.
  */
 public class UserService {
 
+    /**
+     * The case-folded username, which is what makes two usernames the same.
+     */
+    private static final Field<User, String> USERNAME =
+            new Field<>("lower(username)", user -> user.getUsername().toLowerCase(Locale.ROOT));
+    private static final Logger LOGGER = Logger.getLogger(UserService.class.getName());
+
     private final IRepository<User> userRepo;
+    private final IdGenerator idGenerator;
 
     /**
      * Constructs a UserService with the specified user repository.
+     * IDs for new users are allocated from an in-memory counter.
      *
      * @param userRepo the repository used to store users.
      */
     public UserService(IRepository<User> userRepo) {
+        this(userRepo, new AtomicIdGenerator(userRepo));
+    }
+
+    /**
+     * Constructs a UserService with the specified user repository and ID generator.
+     * The repository is used as it is; {@link #migrate(IRepository)} prepares it once at startup.
+     *
+     * @param userRepo    the repository used to store users.
+     * @param idGenerator the generator allocating IDs for new users.
+     */
+    public UserService(IRepository<User> userRepo, IdGenerator idGenerator) {
         this.userRepo = userRepo;
+        this.idGenerator = idGenerator;
+    }
+
+    /**
+     * Prepares the user store for the service, once at startup, before any service uses it.
+     * Users whose username differs only in case from that of a user with a lower ID, as stored before usernames
+     * were compared ignoring case, are renamed to their username followed by their ID, and the renames are
+     * logged. Then a unique index on the case-folded username is registered, which serves
+     * {@link #getUserByUsername(String)} and keeps two users from sharing a username; in a database, that is
+     * where the index is created.
+     *
+     * @param userRepo the repository used to store users.
+     */
+    public static void migrate(IRepository<User> userRepo) {
+        Map<String, List<User>> usersByName = new HashMap<>();
+        try (Stream<User> users = userRepo.streamAll()) {
+            users.forEach(user -> usersByName.computeIfAbsent(USERNAME.valueOf(user), name -> new ArrayList<>()).add(user));
+        }
+
+        Set<String> taken = new HashSet<>(usersByName.keySet());
+        List<User> renamed = new ArrayList<>();
+        for (List<User> users : usersByName.values()) {
+            users.sort(Comparator.comparingInt(User::getId));
+            for (User user : users.subList(1, users.size())) {
+                String username = user.getUsername();
+                do {
+                    username = username + "-" + user.getId();
+                } while (!taken.add(username.toLowerCase(Locale.ROOT)));
+                LOGGER.log(Level.WARNING, "Renamed user " + user.getId() + " from " + user.getUsername() + " to "
+                        + username + ", since user " + users.get(0).getId() + " has the same username ignoring case.");
+                user.setUsername(username);
+                renamed.add(user);
+            }
+        }
+        if (!renamed.isEmpty()) {
+            userRepo.updateAll(renamed);
+        }
+        userRepo.createUniqueIndex(USERNAME, IndexType.HASH);
     }
 
     /**
@@ -29,6 +104,7 @@ public class UserService {
      * @param password the password of the user.
      * @param role     the role of the user (e.g., USER or ADMIN).
      * @throws ValidationException          if username or password is empty, or the role is null.
+     * @throws EntityAlreadyExistsException if the username is already taken, ignoring case.
      */
     public void addUser(String id, String username, String password, Role role) {
         try {
@@ -36,9 +112,13 @@ public class UserService {
 
 
             validateUserInputs(username, password, role);
+            if (getUserByUsername(username) != null) {
+                throw new EntityAlreadyExistsException("Username " + username + " is already taken.");
+            }
 
             User user = new User(userId, username, password, role);
             userRepo.create(user);
+            idGenerator.observe(userId);
         } catch (NumberFormatException e) {
             throw new ValidationException("Invalid ID format. ID must be a number: " + id, e);
         }
@@ -116,14 +196,40 @@ public class UserService {
     /**
      * Retrieves a user by their username.
      *
-     * @param username the username of the user.
+     * @param username the username of the user, in any case.
      * @return the user with the specified username, or null if no such user exists.
      */
     public User getUserByUsername(String username) {
-        return userRepo.findAll().stream()
-                .filter(user -> user.getUsername().equalsIgnoreCase(username))
-                .findFirst()
-                .orElse(null);
+        if (username == null) {
+            return null;
+        }
+        List<User> users = userRepo.findWhere(Query.where(USERNAME.eq(username.toLowerCase(Locale.ROOT))));
+        return users.isEmpty() ? null : users.get(0);
+    }
+
+    /**
+     * Takes an amount from a user's balance and stores the new balance.
+     *
+     * @param user   the user paying.
+     * @param amount the amount to take.
+     * @throws ValidationException if the amount is negative or exceeds the user's balance.
+     */
+    public void withdraw(User user, double amount) {
+        if (amount < 0) {
+            throw new ValidationException("Amount to withdraw must be non-negative.");
+        }
+        double previousBalance = user.getBalance();
+        if (previousBalance < amount) {
+            throw new ValidationException("Insufficient balance. You need " + amount + " euros, but have only "
+                    + previousBalance + " euros.");
+        }
+        user.setBalance(previousBalance - amount);
+        try {
+            userRepo.update(user);
+        } catch (RuntimeException e) {
+            user.setBalance(previousBalance);
+            throw e;
+        }
     }
 
     /**
@@ -132,10 +238,7 @@ public class UserService {
      * @return a new unique ID.
      */
     public int generateNewUntakenId() {
-        return userRepo.findAll().stream()
-                .mapToInt(User::getId)
-                .max()
-                .orElse(0) + 1;
+        return idGenerator.nextId();
     }
 
     /**